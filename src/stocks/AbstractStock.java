@@ -0,0 +1,319 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * An abstract AbstractStock which implements the parts of Stock that are about the shares held,
+ * so that the implementations of Stock only differ in how they store and look up prices. The
+ * lookups by date and the copies of a range of trading days are built on the lookups by trading
+ * day index, for the implementations that have no faster way to do them.
+ */
+public abstract class AbstractStock implements Stock {
+
+  protected final String ticker;  // stock symbol
+  protected final double numShares;  // number of shares of that stock
+  protected final Map<LocalDate, Double> shareDates; // Key: date, Value number of shares
+  // purchased at that date
+
+  /**
+   * The constructor for AbstractStock.
+   *
+   * @param ticker     the stock symbol
+   * @param numShares  number of shares of that stock
+   * @param shareDates Key: date, Value: number of shares purchased at that date
+   */
+  protected AbstractStock(String ticker, double numShares, Map<LocalDate, Double> shareDates) {
+    this.ticker = ticker;
+    this.numShares = numShares;
+    this.shareDates = shareDates;
+  }
+
+  /**
+   * Returns a copy of this stock with the same prices but the given shares.
+   *
+   * @param numShares  number of shares of the copy.
+   * @param shareDates Key: date, Value: number of shares purchased at that date.
+   * @return a new stock with the same prices and the given shares.
+   */
+  protected abstract Stock withShares(double numShares, Map<LocalDate, Double> shareDates);
+
+  /**
+   * Finds the trading day index of a date.
+   *
+   * @param date the date to find.
+   * @return the index of the date, or -1 if there is no price data for it.
+   */
+  protected int indexOf(LocalDate date) {
+    if (date == null) {
+      return -1;
+    }
+    return indexOf((int) date.toEpochDay());
+  }
+
+  @Override
+  public Long getVolume(LocalDate date) {
+    int index = indexOf(date);
+    return index < 0 ? null : getVolumeAt(index);
+  }
+
+  @Override
+  public Double getOpeningPrice(LocalDate date) {
+    int index = indexOf(date);
+    return index < 0 ? null : getOpenAt(index);
+  }
+
+  @Override
+  public Double getClosingPrice(LocalDate date) {
+    int index = indexOf(date);
+    return index < 0 ? null : getCloseAt(index);
+  }
+
+  @Override
+  public Double getHighPrice(LocalDate date) {
+    int index = indexOf(date);
+    return index < 0 ? null : getHighAt(index);
+  }
+
+  @Override
+  public Double getLowPrice(LocalDate date) {
+    int index = indexOf(date);
+    return index < 0 ? null : getLowAt(index);
+  }
+
+  @Override
+  public long getVolume(int epochDay) {
+    int index = indexOf(epochDay);
+    return index < 0 ? -1 : getVolumeAt(index);
+  }
+
+  @Override
+  public double getOpeningPrice(int epochDay) {
+    int index = indexOf(epochDay);
+    return index < 0 ? Double.NaN : getOpenAt(index);
+  }
+
+  @Override
+  public double getClosingPrice(int epochDay) {
+    int index = indexOf(epochDay);
+    return index < 0 ? Double.NaN : getCloseAt(index);
+  }
+
+  @Override
+  public double getHighPrice(int epochDay) {
+    int index = indexOf(epochDay);
+    return index < 0 ? Double.NaN : getHighAt(index);
+  }
+
+  @Override
+  public double getLowPrice(int epochDay) {
+    int index = indexOf(epochDay);
+    return index < 0 ? Double.NaN : getLowAt(index);
+  }
+
+  @Override
+  public long getClosingPriceTicks(int epochDay) {
+    int index = indexOf(epochDay);
+    return index < 0 ? FixedPoint.MISSING : getCloseTicksAt(index);
+  }
+
+  @Override
+  public long getCloseTicksAt(int index) {
+    return FixedPoint.fromDouble(getCloseAt(index));
+  }
+
+  @Override
+  public void copyEpochDays(int from, int to, int[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    for (int i = from; i < to; i++) {
+      dest[destPos + i - from] = getEpochDayAt(i);
+    }
+  }
+
+  @Override
+  public void copyOpens(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    for (int i = from; i < to; i++) {
+      dest[destPos + i - from] = getOpenAt(i);
+    }
+  }
+
+  @Override
+  public void copyHighs(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    for (int i = from; i < to; i++) {
+      dest[destPos + i - from] = getHighAt(i);
+    }
+  }
+
+  @Override
+  public void copyLows(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    for (int i = from; i < to; i++) {
+      dest[destPos + i - from] = getLowAt(i);
+    }
+  }
+
+  @Override
+  public void copyCloses(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    for (int i = from; i < to; i++) {
+      dest[destPos + i - from] = getCloseAt(i);
+    }
+  }
+
+  @Override
+  public void copyCloseTicks(int from, int to, long[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    for (int i = from; i < to; i++) {
+      dest[destPos + i - from] = getCloseTicksAt(i);
+    }
+  }
+
+  @Override
+  public void copyVolumes(int from, int to, long[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    for (int i = from; i < to; i++) {
+      dest[destPos + i - from] = getVolumeAt(i);
+    }
+  }
+
+  /**
+   * Checks that a range of trading days to copy fits in the trading days of the stock and in the
+   * array being copied into.
+   *
+   * @param from     the index of the first trading day to copy.
+   * @param to       the index after the last trading day to copy.
+   * @param destPos  the position in the array to start copying to.
+   * @param destSize the length of the array.
+   * @throws IndexOutOfBoundsException if the range does not fit.
+   */
+  protected void checkRange(int from, int to, int destPos, int destSize)
+          throws IndexOutOfBoundsException {
+    if (from < 0 || to > getTradingDayCount() || from > to || destPos < 0
+            || destPos > destSize - (to - from)) {
+      throw new IndexOutOfBoundsException("Cannot copy trading days " + from + " to " + to
+              + " into position " + destPos + " of an array of " + destSize + ".");
+    }
+  }
+
+  @Override
+  public Double getNumShares() {
+    return this.numShares;
+  }
+
+  @Override
+  public Stock increaseShares(LocalDate date, double num) {
+    Map<LocalDate, Double> temp = this.shareDates;
+    if (this.shareDates.get(date) != null) {
+      double newShares = this.shareDates.get(date) + num;
+      temp.replace(date, newShares);
+    } else {
+      temp.put(date, num);
+    }
+
+    return withShares(this.numShares + num, temp);
+  }
+
+  @Override
+  public Stock decreaseShares(LocalDate date, double num) throws IllegalArgumentException {
+
+    Map<LocalDate, Double> temp = this.shareDates;
+    if (this.shareDates.get(date) != null) {
+      double newShares = this.shareDates.get(date) - num;
+      temp.replace(date, newShares);
+    } else {
+      temp.put(date, -1 * num);
+    }
+
+    return withShares(this.numShares - num, temp);
+  }
+
+
+  @Override
+  public Stock addShareDates(Map<LocalDate, Double> shareDates) {
+    return withShares(this.numShares, shareDates);
+  }
+
+  @Override
+  public Stock setNumShares(Double shares) {
+    return withShares(shares, this.shareDates);
+  }
+
+
+  @Override
+  public Double getSharesAtDate(LocalDate date) {
+    Double count = 0.0;
+    for (Map.Entry<LocalDate, Double> entry : shareDates.entrySet()) {
+      if (date.isAfter(entry.getKey()) || date.equals(entry.getKey())) {
+        count += entry.getValue();
+      }
+    }
+    return count;
+  }
+
+
+  @Override
+  public LocalDate lastDate() {
+    LocalDate last = LocalDate.MIN;
+    for (Map.Entry<LocalDate, Double> entry : shareDates.entrySet()) {
+      if (last.isBefore(entry.getKey())) {
+        last = entry.getKey();
+      }
+    }
+    return last;
+  }
+
+  @Override
+  public String getTicker() {
+    return this.ticker;
+  }
+
+  @Override
+  public Map<LocalDate, Double> getShareDates() {
+    return this.shareDates;
+  }
+
+  /**
+   * Gets every date the stock has price data for, as a view over getEpochDayAt, so no dates
+   * are kept on the heap.
+   *
+   * @return an unmodifiable list of the dates with price data, oldest first.
+   */
+  @Override
+  public List<LocalDate> getDates() {
+    return new DateList(this);
+  }
+
+  /**
+   * A read only list of the dates of a stock, which creates each LocalDate when it is read.
+   */
+  private static class DateList extends AbstractList<LocalDate> implements RandomAccess {
+    private final Stock stock; // the stock to read the dates from
+
+    /**
+     * Constructs a DateList over the given stock.
+     *
+     * @param stock the stock to read the dates from.
+     */
+    DateList(Stock stock) {
+      this.stock = stock;
+    }
+
+    @Override
+    public LocalDate get(int index) {
+      if (index < 0 || index >= size()) {
+        throw new IndexOutOfBoundsException("Index: " + index);
+      }
+      return LocalDate.ofEpochDay(stock.getEpochDayAt(index));
+    }
+
+    @Override
+    public int size() {
+      return stock.getTradingDayCount();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package stocks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * AllocationTracker for the stock program, used to measure how many bytes of heap memory the
+ * current thread allocates while running an operation such as a command. It reads the per
+ * thread allocation counter of the JVM, so it does not slow down the measured operation.
+ * Tests can use it to check that hot paths stay within an allocation budget.
+ */
+public class AllocationTracker {
+  private static final com.sun.management.ThreadMXBean threads = findThreadBean();
+
+  private final long threadId; // id of the thread being measured
+  private final long startBytes; // bytes the thread had allocated when tracking started
+
+  /**
+   * Constructs an AllocationTracker for the current thread, starting from the bytes it has
+   * allocated so far.
+   */
+  private AllocationTracker() {
+    this.threadId = Thread.currentThread().getId();
+    this.startBytes = threadAllocatedBytes(this.threadId);
+  }
+
+  /**
+   * Starts tracking the allocations of the current thread.
+   *
+   * @return a new AllocationTracker for the current thread.
+   */
+  public static AllocationTracker start() {
+    return new AllocationTracker();
+  }
+
+  /**
+   * Determines if the JVM is able to measure allocations per thread.
+   *
+   * @return true if allocations can be measured, false if not.
+   */
+  public static boolean isSupported() {
+    return threads != null;
+  }
+
+  /**
+   * Gets the number of bytes the thread has allocated since tracking started. Must be called
+   * from the same thread that started the tracker.
+   *
+   * @return the number of bytes allocated, or -1 if allocations cannot be measured.
+   * @throws IllegalStateException if called from a different thread.
+   */
+  public long allocatedBytes() throws IllegalStateException {
+    if (Thread.currentThread().getId() != this.threadId) {
+      throw new IllegalStateException("Allocations must be read on the tracked thread.");
+    }
+    if (this.startBytes < 0) {
+      return -1;
+    }
+    long now = threadAllocatedBytes(this.threadId);
+    if (now < 0) {
+      return -1;
+    }
+    return now - this.startBytes;
+  }
+
+  /**
+   * Reads the total bytes the given thread has allocated.
+   *
+   * @param threadId the id of the thread.
+   * @return the bytes allocated by that thread, or -1 if not supported.
+   */
+  private static long threadAllocatedBytes(long threadId) {
+    if (threads == null) {
+      return -1;
+    }
+    return threads.getThreadAllocatedBytes(threadId);
+  }
+
+  /**
+   * Finds the thread bean of the JVM and turns on allocation measuring if it is able to.
+   *
+   * @return the thread bean, or null if it cannot measure allocations.
+   */
+  private static com.sun.management.ThreadMXBean findThreadBean() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+      return null;
+    }
+    com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+    try {
+      if (!threadBean.isThreadAllocatedMemorySupported()) {
+        return null;
+      }
+      if (!threadBean.isThreadAllocatedMemoryEnabled()) {
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+      }
+    } catch (UnsupportedOperationException | SecurityException e) {
+      return null;
+    }
+    return threadBean;
+  }
+}
@@ -0,0 +1,719 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Backtest replays a Strategy day by day over the price history of a set of stocks, starting
+ * from an amount of cash and optionally the positions of a portfolio, and reports the value of
+ * the simulated account on every trading day together with every trade it made. The prices are
+ * copied once into primitive columns aligned to a single calendar, the union of the trading days
+ * of the stocks, and a stock keeps its last closing price on days it does not trade. Running a
+ * strategy then walks the calendar with one reused Session, so a run over decades of prices
+ * allocates nothing per day apart from growing its trade log. A Backtest is immutable, so any
+ * number of strategies can be run over it, one after another or at the same time. Trades are
+ * made at the closing price of the day, in fractional shares, and only on days the stock trades.
+ */
+public final class Backtest {
+  private static final double REBALANCE_TOLERANCE = 1e-12; // smallest fraction of the account
+  // a rebalance trades, so rounding errors do not show up as trades of a sliver of a share
+  private final String[] tickers; // Key: stock, Value: its ticker
+  private final int[] epochDays; // Key: day, Value: epoch day of the trading day
+  private final int[][] rows; // Key: stock then day, Value: index of the day in the stock's own
+  // prices, or of its last trading day before it, or -1 before its first trading day
+  private final boolean[][] trading; // Key: stock then day, Value: if the stock trades that day
+  private final double[][] closes; // Key: stock then day, Value: last closing price, or NaN
+  private final MovingAverageCrosses[] averages; // Key: stock, Value: its moving averages
+  private final double[] initialShares; // Key: stock, Value: shares held at the start
+  private final double initialCash; // cash held at the start
+  private final Map<PriceRollup.Resolution, boolean[]> periodStarts; // Key: resolution, Value:
+  // if each day is the first trading day of its period
+
+  /**
+   * Constructs a Backtest from its builder.
+   *
+   * @param stocks        the stocks, by ticker.
+   * @param initialShares the shares of each stock held at the start, by ticker.
+   * @param initialCash   the cash held at the start.
+   * @param from          the first date, inclusive.
+   * @param to            the last date, inclusive.
+   */
+  private Backtest(Map<String, Stock> stocks, Map<String, Double> initialShares,
+                   double initialCash, LocalDate from, LocalDate to) {
+    int count = stocks.size();
+    this.tickers = stocks.keySet().toArray(new String[0]);
+    this.initialCash = initialCash;
+    this.initialShares = new double[count];
+    this.averages = new MovingAverageCrosses[count];
+    int start = (int) from.toEpochDay();
+    int end = (int) to.toEpochDay() + 1;
+
+    // the calendar is every day that at least one of the stocks traded on
+    int[][] days = new int[count][];
+    int total = 0;
+    for (int s = 0; s < count; s++) {
+      Stock stock = stocks.get(this.tickers[s]);
+      this.initialShares[s] = initialShares.getOrDefault(this.tickers[s], 0.0);
+      this.averages[s] = new MovingAverageCrosses(stock);
+      int first = stock.ceilingIndex(start);
+      int last = stock.ceilingIndex(end);
+      days[s] = new int[last - first];
+      stock.copyEpochDays(first, last, days[s], 0);
+      total += days[s].length;
+    }
+    int[] calendar = new int[total];
+    int size = 0;
+    for (int[] stockDays : days) {
+      System.arraycopy(stockDays, 0, calendar, size, stockDays.length);
+      size += stockDays.length;
+    }
+    Arrays.sort(calendar);
+    size = 0;
+    for (int i = 0; i < calendar.length; i++) {
+      if (size == 0 || calendar[size - 1] != calendar[i]) {
+        calendar[size++] = calendar[i];
+      }
+    }
+    this.epochDays = Arrays.copyOf(calendar, size);
+
+    this.rows = new int[count][size];
+    this.trading = new boolean[count][size];
+    this.closes = new double[count][size];
+    for (int s = 0; s < count; s++) {
+      Stock stock = stocks.get(this.tickers[s]);
+      int row = stock.ceilingIndex(start) - 1;
+      for (int d = 0; d < size; d++) {
+        int next = row + 1;
+        if (next < stock.getTradingDayCount() && stock.getEpochDayAt(next) == this.epochDays[d]) {
+          row = next;
+          this.trading[s][d] = true;
+        }
+        this.rows[s][d] = row;
+        this.closes[s][d] = row < 0 ? Double.NaN : stock.getCloseAt(row);
+      }
+    }
+
+    this.periodStarts = new LinkedHashMap<>();
+    for (PriceRollup.Resolution resolution : PriceRollup.Resolution.values()) {
+      boolean[] starts = new boolean[size];
+      for (int d = 0; d < size; d++) {
+        starts[d] = d == 0 || resolution.periodStart(this.epochDays[d])
+                != resolution.periodStart(this.epochDays[d - 1]);
+      }
+      this.periodStarts.put(resolution, starts);
+    }
+  }
+
+  /**
+   * Gets the tickers of the stocks of the backtest.
+   *
+   * @return the ticker of each stock, in the order of their indexes in a Session.
+   */
+  public List<String> getTickers() {
+    return Arrays.asList(this.tickers.clone());
+  }
+
+  /**
+   * Gets the number of trading days of the backtest.
+   *
+   * @return the number of days a strategy is called on.
+   */
+  public int getTradingDayCount() {
+    return this.epochDays.length;
+  }
+
+  /**
+   * Replays a strategy over every trading day of the backtest.
+   *
+   * @param strategy the strategy to replay.
+   * @return the value of the account on each day and the trades the strategy made.
+   */
+  public Result run(Strategy strategy) {
+    long start = System.nanoTime();
+    Session session = new Session();
+    double[] values = new double[this.epochDays.length];
+    for (int d = 0; d < this.epochDays.length; d++) {
+      session.day = d;
+      strategy.onDay(session);
+      values[d] = session.getValue();
+    }
+    MetricsRegistry.counter("backtest.days").add(this.epochDays.length);
+    MetricsRegistry.recordSince("backtest", start);
+    return new Result(this.tickers, this.epochDays, values, this.initialCash + session.deposits,
+            session.tradeCount, Arrays.copyOf(session.tradeDays, session.tradeCount),
+            Arrays.copyOf(session.tradeStocks, session.tradeCount),
+            Arrays.copyOf(session.tradeShares, session.tradeCount),
+            Arrays.copyOf(session.tradePrices, session.tradeCount));
+  }
+
+  /**
+   * The state of a backtest on one day, through which a Strategy reads prices and trades. The
+   * stocks are numbered by their index in getTickers().
+   */
+  public final class Session {
+    private int day; // the current day
+    private double cash; // cash held
+    private final double[] shares; // Key: stock, Value: shares held
+    private double deposits; // total cash deposited after the start
+    private int tradeCount; // number of trades made
+    private int[] tradeDays = new int[16]; // Key: trade, Value: day of the trade
+    private int[] tradeStocks = new int[16]; // Key: trade, Value: stock traded
+    private double[] tradeShares = new double[16]; // Key: trade, Value: shares bought, negative
+    // if sold
+    private double[] tradePrices = new double[16]; // Key: trade, Value: price per share
+
+    /**
+     * Constructs a Session with the starting cash and positions of the backtest.
+     */
+    private Session() {
+      this.cash = Backtest.this.initialCash;
+      this.shares = Backtest.this.initialShares.clone();
+    }
+
+    /**
+     * Gets the current day.
+     *
+     * @return the current trading day.
+     */
+    public LocalDate getDate() {
+      return LocalDate.ofEpochDay(Backtest.this.epochDays[this.day]);
+    }
+
+    /**
+     * Gets the number of trading days before the current one.
+     *
+     * @return the index of the current day.
+     */
+    public int getDayIndex() {
+      return this.day;
+    }
+
+    /**
+     * Determines if the current day is the first trading day of a week, month or year of the
+     * backtest.
+     *
+     * @param resolution the length of the periods.
+     * @return true if the current day starts a new period, or is the first day of the backtest.
+     */
+    public boolean isPeriodStart(PriceRollup.Resolution resolution) {
+      return Backtest.this.periodStarts.get(resolution)[this.day];
+    }
+
+    /**
+     * Gets the number of stocks.
+     *
+     * @return the number of stocks of the backtest.
+     */
+    public int getStockCount() {
+      return Backtest.this.tickers.length;
+    }
+
+    /**
+     * Gets the ticker of a stock.
+     *
+     * @param stock the index of the stock.
+     * @return its ticker.
+     */
+    public String getTicker(int stock) {
+      return Backtest.this.tickers[stock];
+    }
+
+    /**
+     * Determines if a stock trades on the current day, so it can be bought or sold.
+     *
+     * @param stock the index of the stock.
+     * @return true if the stock has a price on the current day.
+     */
+    public boolean isTrading(int stock) {
+      return Backtest.this.trading[stock][this.day];
+    }
+
+    /**
+     * Gets the closing price of a stock on the current day, or on its last trading day before
+     * it.
+     *
+     * @param stock the index of the stock.
+     * @return the closing price, or NaN if the stock has not traded yet.
+     */
+    public double getClose(int stock) {
+      return Backtest.this.closes[stock][this.day];
+    }
+
+    /**
+     * Gets the simple moving average of the closing prices of a stock over the trading days
+     * ending on the current day, or on its last trading day before it. The window may reach
+     * back before the start of the backtest.
+     *
+     * @param stock  the index of the stock.
+     * @param window the number of trading days.
+     * @return the average, or NaN if the stock has fewer trading days than the window.
+     */
+    public double getAverage(int stock, int window) {
+      int row = Backtest.this.rows[stock][this.day];
+      return row < 0 ? Double.NaN : Backtest.this.averages[stock].getAverageAt(window, row);
+    }
+
+    /**
+     * Determines if a fast moving average of a stock crossed a slow one on the current day,
+     * comparing it with the trading day before. Averages are as in MovingAverageCrosses.
+     *
+     * @param stock the index of the stock.
+     * @param fast  the number of trading days of the fast average.
+     * @param slow  the number of trading days of the slow average.
+     * @return 1 for a golden cross, -1 for a death cross, or 0 if the averages did not cross or
+     *     the stock does not trade on the current day.
+     */
+    public int getCross(int stock, int fast, int slow) {
+      int row = Backtest.this.rows[stock][this.day];
+      if (!isTrading(stock) || row < Math.max(fast, slow)) {
+        return 0;
+      }
+      MovingAverageCrosses stockAverages = Backtest.this.averages[stock];
+      boolean before = stockAverages.isFastAboveAt(fast, slow, row - 1);
+      boolean now = stockAverages.isFastAboveAt(fast, slow, row);
+      return before == now ? 0 : now ? 1 : -1;
+    }
+
+    /**
+     * Gets the shares of a stock held.
+     *
+     * @param stock the index of the stock.
+     * @return the number of shares.
+     */
+    public double getShares(int stock) {
+      return this.shares[stock];
+    }
+
+    /**
+     * Gets the cash held.
+     *
+     * @return the cash.
+     */
+    public double getCash() {
+      return this.cash;
+    }
+
+    /**
+     * Gets the value of the account, its cash and its shares at their last closing prices.
+     *
+     * @return the value on the current day.
+     */
+    public double getValue() {
+      double value = this.cash;
+      for (int s = 0; s < this.shares.length; s++) {
+        // shares held from the start have no price until the stock first trades
+        if (this.shares[s] != 0 && !Double.isNaN(getClose(s))) {
+          value += this.shares[s] * getClose(s);
+        }
+      }
+      return value;
+    }
+
+    /**
+     * Adds cash to the account, such as a regular contribution.
+     *
+     * @param amount the amount of cash.
+     * @throws IllegalArgumentException if the amount is negative.
+     */
+    public void deposit(double amount) throws IllegalArgumentException {
+      if (amount < 0) {
+        throw new IllegalArgumentException("Cannot deposit a negative amount.");
+      }
+      this.cash += amount;
+      this.deposits += amount;
+    }
+
+    /**
+     * Buys shares of a stock for an amount of cash, or for all the cash held if that is less.
+     *
+     * @param stock  the index of the stock.
+     * @param amount the amount of cash to spend.
+     * @return the number of shares bought, 0 if the stock does not trade on the current day.
+     */
+    public double buy(int stock, double amount) {
+      double spend = Math.min(amount, this.cash);
+      if (!isTrading(stock) || !(spend > 0)) {
+        return 0;
+      }
+      double price = getClose(stock);
+      double bought = spend / price;
+      this.cash -= spend;
+      this.shares[stock] += bought;
+      record(stock, bought, price);
+      return bought;
+    }
+
+    /**
+     * Sells shares of a stock, or all the shares held if that is fewer.
+     *
+     * @param stock     the index of the stock.
+     * @param numShares the number of shares to sell.
+     * @return the number of shares sold, 0 if the stock does not trade on the current day.
+     */
+    public double sell(int stock, double numShares) {
+      double sold = Math.min(numShares, this.shares[stock]);
+      if (!isTrading(stock) || !(sold > 0)) {
+        return 0;
+      }
+      double price = getClose(stock);
+      this.cash += sold * price;
+      this.shares[stock] -= sold;
+      record(stock, -sold, price);
+      return sold;
+    }
+
+    /**
+     * Buys and sells the stocks that trade on the current day so that each is worth its weight
+     * of the value of the account. Stocks are sold before any are bought, so the sales pay for
+     * the purchases. A stock that does not trade on the current day keeps its shares, and one
+     * that is off its weight only by rounding is not traded.
+     *
+     * @param weights the weight of each stock, which need not add up to 1. What is left of 1
+     *                is kept as cash.
+     * @throws IllegalArgumentException if there is not one weight per stock, or one is negative.
+     */
+    public void rebalance(double[] weights) throws IllegalArgumentException {
+      if (weights.length != this.shares.length) {
+        throw new IllegalArgumentException("There must be a weight for each stock.");
+      }
+      double value = getValue();
+      for (int s = 0; s < weights.length; s++) {
+        if (weights[s] < 0) {
+          throw new IllegalArgumentException("Weights cannot be negative.");
+        }
+        double excess = this.shares[s] * getClose(s) - weights[s] * value;
+        if (isTrading(s) && excess > value * REBALANCE_TOLERANCE) {
+          sell(s, excess / getClose(s));
+        }
+      }
+      for (int s = 0; s < weights.length; s++) {
+        double shortfall = weights[s] * value - this.shares[s] * getClose(s);
+        if (isTrading(s) && shortfall > value * REBALANCE_TOLERANCE) {
+          buy(s, shortfall);
+        }
+      }
+    }
+
+    /**
+     * Adds a trade to the trade log, growing it if it is full.
+     *
+     * @param stock     the index of the stock.
+     * @param numShares the shares bought, negative if sold.
+     * @param price     the price per share.
+     */
+    private void record(int stock, double numShares, double price) {
+      if (this.tradeCount == this.tradeDays.length) {
+        int capacity = this.tradeCount * 2;
+        this.tradeDays = Arrays.copyOf(this.tradeDays, capacity);
+        this.tradeStocks = Arrays.copyOf(this.tradeStocks, capacity);
+        this.tradeShares = Arrays.copyOf(this.tradeShares, capacity);
+        this.tradePrices = Arrays.copyOf(this.tradePrices, capacity);
+      }
+      this.tradeDays[this.tradeCount] = Backtest.this.epochDays[this.day];
+      this.tradeStocks[this.tradeCount] = stock;
+      this.tradeShares[this.tradeCount] = numShares;
+      this.tradePrices[this.tradeCount] = price;
+      this.tradeCount++;
+    }
+  }
+
+  /**
+   * A Builder which sets the stocks, dates and starting account of a Backtest.
+   */
+  public static class Builder {
+    private final Map<String, Stock> stocks = new LinkedHashMap<>();
+    private final Map<String, Portfolio> portfolios = new LinkedHashMap<>();
+    private double cash;
+    private LocalDate from = LocalDate.MIN;
+    private LocalDate to = LocalDate.MAX;
+
+    /**
+     * Adds a stock to trade. The stock is read once, when the backtest is built.
+     *
+     * @param stock the stock.
+     * @return this builder.
+     */
+    public Builder stock(Stock stock) {
+      this.stocks.put(stock.getTicker(), stock);
+      return this;
+    }
+
+    /**
+     * Adds the stocks of a portfolio, starting with the shares of each it held on the first
+     * date of the backtest.
+     *
+     * @param portfolio the portfolio.
+     * @return this builder.
+     */
+    public Builder portfolio(Portfolio portfolio) {
+      for (Stock stock : portfolio.getListOfStocks().values()) {
+        stock(stock);
+        this.portfolios.put(stock.getTicker(), portfolio);
+      }
+      return this;
+    }
+
+    /**
+     * Sets the cash held at the start. Defaults to 0.
+     *
+     * @param amount the cash.
+     * @return this builder.
+     * @throws IllegalArgumentException if the amount is negative.
+     */
+    public Builder cash(double amount) throws IllegalArgumentException {
+      if (amount < 0) {
+        throw new IllegalArgumentException("Cash cannot be negative.");
+      }
+      this.cash = amount;
+      return this;
+    }
+
+    /**
+     * Sets the dates of the backtest. Defaults to every trading day of the stocks.
+     *
+     * @param from the first date, inclusive.
+     * @param to   the last date, inclusive.
+     * @return this builder.
+     * @throws IllegalArgumentException if the last date is before the first.
+     */
+    public Builder dates(LocalDate from, LocalDate to) throws IllegalArgumentException {
+      if (to.isBefore(from)) {
+        throw new IllegalArgumentException("End date cannot be before the start date.");
+      }
+      this.from = from;
+      this.to = to;
+      return this;
+    }
+
+    /**
+     * Builds the Backtest, copying the prices of its stocks between its dates.
+     *
+     * @return the backtest.
+     * @throws IllegalStateException if no stock has been added.
+     */
+    public Backtest build() throws IllegalStateException {
+      if (this.stocks.isEmpty()) {
+        throw new IllegalStateException("No stocks have been added.");
+      }
+      LocalDate first = this.from.isBefore(LocalDate.of(0, 1, 1))
+              ? LocalDate.of(0, 1, 1) : this.from;
+      LocalDate last = this.to.isAfter(LocalDate.of(9999, 12, 31))
+              ? LocalDate.of(9999, 12, 31) : this.to;
+      Map<String, Double> shares = new LinkedHashMap<>();
+      for (Map.Entry<String, Portfolio> entry : this.portfolios.entrySet()) {
+        Stock held = entry.getValue().getListOfStocks().get(entry.getKey());
+        shares.put(entry.getKey(), held.getSharesAtDate(first));
+      }
+      return new Backtest(this.stocks, shares, this.cash, first, last);
+    }
+  }
+
+  /**
+   * A trade made by a strategy.
+   */
+  public static final class Trade {
+    private final LocalDate date; // the day of the trade
+    private final String ticker; // the stock traded
+    private final double shares; // the shares bought, negative if sold
+    private final double price; // the price per share
+
+    /**
+     * Constructs a Trade.
+     *
+     * @param date   the day of the trade.
+     * @param ticker the stock traded.
+     * @param shares the shares bought, negative if sold.
+     * @param price  the price per share.
+     */
+    Trade(LocalDate date, String ticker, double shares, double price) {
+      this.date = date;
+      this.ticker = ticker;
+      this.shares = shares;
+      this.price = price;
+    }
+
+    /**
+     * Gets the day of the trade.
+     *
+     * @return the date.
+     */
+    public LocalDate getDate() {
+      return this.date;
+    }
+
+    /**
+     * Gets the stock traded.
+     *
+     * @return the ticker.
+     */
+    public String getTicker() {
+      return this.ticker;
+    }
+
+    /**
+     * Gets the shares traded.
+     *
+     * @return the shares bought, negative if sold.
+     */
+    public double getShares() {
+      return this.shares;
+    }
+
+    /**
+     * Gets the price of the trade.
+     *
+     * @return the closing price per share on the day of the trade.
+     */
+    public double getPrice() {
+      return this.price;
+    }
+  }
+
+  /**
+   * The value of the account of a backtest on each of its trading days and the trades made.
+   */
+  public static final class Result {
+    private final String[] tickers; // Key: stock, Value: its ticker
+    private final int[] epochDays; // Key: day, Value: epoch day of the trading day
+    private final double[] values; // Key: day, Value: value of the account at its close
+    private final double invested; // starting cash plus every deposit
+    private final int tradeCount; // number of trades
+    private final int[] tradeDays; // Key: trade, Value: epoch day of the trade
+    private final int[] tradeStocks; // Key: trade, Value: stock traded
+    private final double[] tradeShares; // Key: trade, Value: shares bought, negative if sold
+    private final double[] tradePrices; // Key: trade, Value: price per share
+
+    /**
+     * Constructs a Result.
+     *
+     * @param tickers     the tickers of the stocks.
+     * @param epochDays   the trading days.
+     * @param values      the value of the account on each day.
+     * @param invested    the starting cash plus every deposit.
+     * @param tradeCount  the number of trades.
+     * @param tradeDays   the epoch day of each trade.
+     * @param tradeStocks the stock of each trade.
+     * @param tradeShares the shares of each trade, negative if sold.
+     * @param tradePrices the price of each trade.
+     */
+    private Result(String[] tickers, int[] epochDays, double[] values, double invested,
+                   int tradeCount, int[] tradeDays, int[] tradeStocks, double[] tradeShares,
+                   double[] tradePrices) {
+      this.tickers = tickers;
+      this.epochDays = epochDays;
+      this.values = values;
+      this.invested = invested;
+      this.tradeCount = tradeCount;
+      this.tradeDays = tradeDays;
+      this.tradeStocks = tradeStocks;
+      this.tradeShares = tradeShares;
+      this.tradePrices = tradePrices;
+    }
+
+    /**
+     * Gets the number of trading days.
+     *
+     * @return the length of the valuation series.
+     */
+    public int size() {
+      return this.values.length;
+    }
+
+    /**
+     * Gets a trading day.
+     *
+     * @param day the index of the day.
+     * @return its date.
+     */
+    public LocalDate getDateAt(int day) {
+      return LocalDate.ofEpochDay(this.epochDays[day]);
+    }
+
+    /**
+     * Gets the value of the account at the close of a trading day.
+     *
+     * @param day the index of the day.
+     * @return the value of its cash and shares.
+     */
+    public double getValueAt(int day) {
+      return this.values[day];
+    }
+
+    /**
+     * Gets the value of the account at the close of the last trading day.
+     *
+     * @return the final value, or the starting cash if there were no trading days.
+     */
+    public double getFinalValue() {
+      return this.values.length == 0 ? this.invested : this.values[this.values.length - 1];
+    }
+
+    /**
+     * Gets the cash put into the account, the starting cash plus every deposit.
+     *
+     * @return the amount invested.
+     */
+    public double getInvested() {
+      return this.invested;
+    }
+
+    /**
+     * Gets the largest fall of the value of the account from a previous high, as a fraction of
+     * that high.
+     *
+     * @return the maximum drawdown, between 0 and 1.
+     */
+    public double getMaxDrawdown() {
+      double high = 0;
+      double drawdown = 0;
+      for (double value : this.values) {
+        high = Math.max(high, value);
+        if (high > 0) {
+          drawdown = Math.max(drawdown, (high - value) / high);
+        }
+      }
+      return drawdown;
+    }
+
+    /**
+     * Gets the number of trades made.
+     *
+     * @return the length of the trade log.
+     */
+    public int getTradeCount() {
+      return this.tradeCount;
+    }
+
+    /**
+     * Gets a trade from the trade log.
+     *
+     * @param index the index of the trade, in the order they were made.
+     * @return the trade.
+     */
+    public Trade getTrade(int index) {
+      if (index < 0 || index >= this.tradeCount) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.tradeCount);
+      }
+      return new Trade(LocalDate.ofEpochDay(this.tradeDays[index]),
+              this.tickers[this.tradeStocks[index]], this.tradeShares[index],
+              this.tradePrices[index]);
+    }
+
+    /**
+     * Gets every trade made.
+     *
+     * @return the trade log, in the order the trades were made.
+     */
+    public List<Trade> getTrades() {
+      List<Trade> trades = new ArrayList<>(this.tradeCount);
+      for (int i = 0; i < this.tradeCount; i++) {
+        trades.add(getTrade(i));
+      }
+      return trades;
+    }
+  }
+}
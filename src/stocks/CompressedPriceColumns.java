@@ -0,0 +1,328 @@
+package stocks;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * CompressedPriceColumns holds the price history of one stock in a compact binary encoding,
+ * used for the .stk files of the binary store and to keep deep histories in memory. The rows,
+ * sorted by date, are split into blocks of BLOCK_SIZE rows, and each block stores its six
+ * columns one after the other so a single column can be decoded without the others:
+ * <ul>
+ *   <li>dates as epoch days, the first as is, the second as the gap from the first, and the
+ *   rest as the change in the gap (delta-of-delta), which is 0 for most trading days.</li>
+ *   <li>opening, high, low and closing prices in fixed-point ten-thousandths, and the volume,
+ *   each as the change from the row before.</li>
+ * </ul>
+ * Every number is zigzag encoded, so small negative changes stay small, and written as a varint
+ * of 7 bits per byte. The first date of each block is kept in an index, so seeking to a date is
+ * a binary search over the blocks followed by decoding one block. It is immutable once built.
+ */
+public final class CompressedPriceColumns {
+  public static final int BLOCK_SIZE = 128; // rows per block
+  public static final int DAYS = 0; // column of the dates
+  public static final int OPENS = 1; // column of the opening prices
+  public static final int HIGHS = 2; // column of the high prices
+  public static final int LOWS = 3; // column of the low prices
+  public static final int CLOSES = 4; // column of the closing prices
+  public static final int VOLUMES = 5; // column of the volumes
+  private static final int COLUMNS = 6; // number of columns in each block
+  private static final int MAGIC = 0x53544b31; // "STK1", start of a .stk file
+
+  private final int rows; // number of dates in the columns
+  private final int[] blockDays; // Key: block, Value: epoch day of the first row of the block
+  private final int[] offsets; // Key: block * COLUMNS + column, Value: where that column
+  // starts in data, followed by one last offset for the end of the data
+  private final byte[] data; // every encoded block, one after the other
+
+  /**
+   * Constructs CompressedPriceColumns over already encoded blocks.
+   *
+   * @param rows      the number of dates in the columns.
+   * @param blockDays the epoch day of the first row of each block.
+   * @param offsets   where each column of each block starts in data, then the end of data.
+   * @param data      the encoded blocks.
+   */
+  private CompressedPriceColumns(int rows, int[] blockDays, int[] offsets, byte[] data) {
+    this.rows = rows;
+    this.blockDays = blockDays;
+    this.offsets = offsets;
+    this.data = data;
+  }
+
+  /**
+   * Encodes sorted columns of fixed-point price data.
+   *
+   * @param rows      the number of rows to encode.
+   * @param epochDays the dates as epoch days, sorted with no repeats.
+   * @param opens     the opening prices in ten-thousandths.
+   * @param highs     the high prices in ten-thousandths.
+   * @param lows      the low prices in ten-thousandths.
+   * @param closes    the closing prices in ten-thousandths.
+   * @param volumes   the volumes.
+   * @return the encoded columns.
+   */
+  public static CompressedPriceColumns encode(int rows, int[] epochDays, long[] opens,
+                                              long[] highs, long[] lows, long[] closes,
+                                              long[] volumes) {
+    int blocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    int[] blockDays = new int[blocks];
+    int[] offsets = new int[blocks * COLUMNS + 1];
+    Writer out = new Writer(rows * 8 + 16);
+    long[][] prices = {opens, highs, lows, closes, volumes};
+    for (int block = 0; block < blocks; block++) {
+      int from = block * BLOCK_SIZE;
+      int to = Math.min(rows, from + BLOCK_SIZE);
+      blockDays[block] = epochDays[from];
+
+      offsets[block * COLUMNS + DAYS] = out.size;
+      long previous = 0;
+      long gap = 0;
+      for (int i = from; i < to; i++) {
+        long newGap = epochDays[i] - previous;
+        out.writeSigned(i == from ? epochDays[i] : newGap - gap);
+        gap = i == from ? 0 : newGap;
+        previous = epochDays[i];
+      }
+
+      for (int column = OPENS; column <= VOLUMES; column++) {
+        offsets[block * COLUMNS + column] = out.size;
+        long[] values = prices[column - OPENS];
+        previous = 0;
+        for (int i = from; i < to; i++) {
+          out.writeSigned(values[i] - previous);
+          previous = values[i];
+        }
+      }
+    }
+    offsets[blocks * COLUMNS] = out.size;
+    return new CompressedPriceColumns(rows, blockDays, offsets,
+            Arrays.copyOf(out.bytes, out.size));
+  }
+
+  /**
+   * Reads columns written by writeTo.
+   *
+   * @param in the stream to read from.
+   * @return the columns that were read.
+   * @throws IOException if the stream cannot be read or is not a .stk file.
+   */
+  public static CompressedPriceColumns readFrom(DataInputStream in) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a compressed price file.");
+    }
+    int rows = in.readInt();
+    if (in.readInt() != BLOCK_SIZE) {
+      throw new IOException("Unsupported block size.");
+    }
+    int blocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    int[] blockDays = new int[blocks];
+    for (int i = 0; i < blocks; i++) {
+      blockDays[i] = in.readInt();
+    }
+    int[] offsets = new int[blocks * COLUMNS + 1];
+    for (int i = 0; i < offsets.length; i++) {
+      offsets[i] = in.readInt();
+    }
+    byte[] data = new byte[offsets[offsets.length - 1]];
+    in.readFully(data);
+    return new CompressedPriceColumns(rows, blockDays, offsets, data);
+  }
+
+  /**
+   * Writes the columns, along with their block index, to a stream.
+   *
+   * @param out the stream to write to.
+   * @throws IOException if the stream cannot be written to.
+   */
+  public void writeTo(DataOutputStream out) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(this.rows);
+    out.writeInt(BLOCK_SIZE);
+    for (int day : this.blockDays) {
+      out.writeInt(day);
+    }
+    for (int offset : this.offsets) {
+      out.writeInt(offset);
+    }
+    out.write(this.data);
+  }
+
+  /**
+   * Gets the number of dates in the columns.
+   *
+   * @return the number of rows.
+   */
+  public int size() {
+    return this.rows;
+  }
+
+  /**
+   * Gets the number of blocks the rows are split into.
+   *
+   * @return the number of blocks.
+   */
+  public int getBlockCount() {
+    return this.blockDays.length;
+  }
+
+  /**
+   * Gets the number of bytes these columns take up, including the block index.
+   *
+   * @return the size of the encoded columns in bytes.
+   */
+  public long getSizeInBytes() {
+    return this.data.length + 4L * (this.blockDays.length + this.offsets.length);
+  }
+
+  /**
+   * Finds the block that the given date is in or would be in, using the block index.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the last block whose first date is on or before the date, or 0 if there is none.
+   */
+  public int findBlock(long epochDay) {
+    int low = 0;
+    int high = this.blockDays.length - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (this.blockDays[mid] <= epochDay) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Decodes the dates of one block.
+   *
+   * @param block the block to decode.
+   * @param dest  the array to decode into, at least BLOCK_SIZE long.
+   * @return the number of rows in the block.
+   */
+  public int decodeDays(int block, int[] dest) {
+    int count = rowsIn(block);
+    Reader in = new Reader(this.data, this.offsets[block * COLUMNS + DAYS]);
+    long day = 0;
+    long gap = 0;
+    for (int i = 0; i < count; i++) {
+      long value = in.readSigned();
+      if (i == 0) {
+        day = value;
+      } else {
+        gap += value;
+        day += gap;
+      }
+      dest[i] = (int) day;
+    }
+    return count;
+  }
+
+  /**
+   * Decodes one price or volume column of one block.
+   *
+   * @param block  the block to decode.
+   * @param column the column to decode, OPENS, HIGHS, LOWS, CLOSES or VOLUMES.
+   * @param dest   the array to decode into, at least BLOCK_SIZE long.
+   * @return the number of rows in the block.
+   * @throws IllegalArgumentException if the column is not a price or volume column.
+   */
+  public int decodeColumn(int block, int column, long[] dest) throws IllegalArgumentException {
+    if (column < OPENS || column > VOLUMES) {
+      throw new IllegalArgumentException("Not a price or volume column: " + column);
+    }
+    int count = rowsIn(block);
+    Reader in = new Reader(this.data, this.offsets[block * COLUMNS + column]);
+    long value = 0;
+    for (int i = 0; i < count; i++) {
+      value += in.readSigned();
+      dest[i] = value;
+    }
+    return count;
+  }
+
+  /**
+   * Gets the number of rows in a block, which is BLOCK_SIZE for every block but the last.
+   *
+   * @param block the block.
+   * @return the number of rows in the block.
+   */
+  private int rowsIn(int block) {
+    return Math.min(BLOCK_SIZE, this.rows - block * BLOCK_SIZE);
+  }
+
+  /**
+   * A growable byte buffer that writes zigzag varints.
+   */
+  private static class Writer {
+    private byte[] bytes;
+    private int size;
+
+    /**
+     * Constructs a Writer with room for the given number of bytes.
+     *
+     * @param capacity the starting capacity.
+     */
+    Writer(int capacity) {
+      this.bytes = new byte[capacity];
+    }
+
+    /**
+     * Writes a signed number as a zigzag varint, 7 bits per byte with the high bit set on
+     * every byte but the last.
+     *
+     * @param value the number to write.
+     */
+    void writeSigned(long value) {
+      long zigzag = (value << 1) ^ (value >> 63);
+      if (size + 10 > bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2 + 10);
+      }
+      while ((zigzag & ~0x7FL) != 0) {
+        bytes[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+        zigzag >>>= 7;
+      }
+      bytes[size++] = (byte) zigzag;
+    }
+  }
+
+  /**
+   * Reads zigzag varints from a byte array.
+   */
+  private static class Reader {
+    private final byte[] bytes;
+    private int position;
+
+    /**
+     * Constructs a Reader starting at the given position.
+     *
+     * @param bytes    the bytes to read.
+     * @param position where to start reading.
+     */
+    Reader(byte[] bytes, int position) {
+      this.bytes = bytes;
+      this.position = position;
+    }
+
+    /**
+     * Reads a signed number written by Writer.writeSigned.
+     *
+     * @return the number that was read.
+     */
+    long readSigned() {
+      long zigzag = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = bytes[position++];
+        zigzag |= (long) (b & 0x7F) << shift;
+        shift += 7;
+      } while (b < 0);
+      return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+  }
+}
@@ -0,0 +1,195 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A CompressedStockImpl class which extends AbstractStock. It represents a stock whose price
+ * history stays encoded in CompressedPriceColumns, so a deep history takes a few bytes per
+ * value instead of a boxed object per value. Prices are decoded one block and one column at a
+ * time when they are read, and the last few decoded blocks are kept so that reading the days of
+ * a block, or of a few blocks at once, only decodes each column of them once.
+ */
+public class CompressedStockImpl extends AbstractStock {
+  private static final int BLOCK_SIZE = CompressedPriceColumns.BLOCK_SIZE; // rows per block
+  private static final int CACHED_BLOCKS = 8; // decoded blocks kept, a power of two
+
+  protected final CompressedPriceColumns prices; // encoded price history, sorted by date
+  private final AtomicReferenceArray<Block> blocks; // Key: block modulo CACHED_BLOCKS,
+  // Value: the last block decoded into that slot, or null
+
+  /**
+   * The constructor for CompressedStockImpl.
+   *
+   * @param ticker     the stock symbol
+   * @param numShares  number of shares of that stock
+   * @param prices     the encoded price history of the stock
+   * @param shareDates Key: date, Value: number of shares purchased at that date
+   */
+  protected CompressedStockImpl(String ticker, double numShares, CompressedPriceColumns prices,
+                                Map<LocalDate, Double> shareDates) {
+    this(ticker, numShares, prices, new AtomicReferenceArray<>(CACHED_BLOCKS), shareDates);
+  }
+
+  /**
+   * The constructor for CompressedStockImpl that shares the decoded blocks of another instance
+   * of the same stock.
+   *
+   * @param ticker     the stock symbol
+   * @param numShares  number of shares of that stock
+   * @param prices     the encoded price history of the stock
+   * @param blocks     the decoded blocks of the price history
+   * @param shareDates Key: date, Value: number of shares purchased at that date
+   */
+  private CompressedStockImpl(String ticker, double numShares, CompressedPriceColumns prices,
+                              AtomicReferenceArray<Block> blocks,
+                              Map<LocalDate, Double> shareDates) {
+    super(ticker, numShares, shareDates);
+    this.prices = prices;
+    this.blocks = blocks;
+  }
+
+  @Override
+  protected Stock withShares(double numShares, Map<LocalDate, Double> shareDates) {
+    return new CompressedStockImpl(this.ticker, numShares, this.prices, this.blocks,
+            shareDates);
+  }
+
+  /**
+   * Gets a block, decoding its dates unless it is still in the cache. Each block has one slot
+   * in the cache, so reading a few neighbouring blocks in turn does not decode them again.
+   *
+   * @param block the block to get.
+   * @return the block.
+   */
+  private Block block(int block) {
+    int slot = block & (CACHED_BLOCKS - 1);
+    Block decoded = this.blocks.get(slot);
+    if (decoded == null || decoded.index != block) {
+      decoded = new Block(this.prices, block);
+      this.blocks.set(slot, decoded);
+    }
+    return decoded;
+  }
+
+  @Override
+  public int getTradingDayCount() {
+    return this.prices.size();
+  }
+
+  @Override
+  public int indexOf(int epochDay) {
+    int index = ceilingIndex(epochDay);
+    return index < getTradingDayCount() && getEpochDayAt(index) == epochDay ? index : -1;
+  }
+
+  @Override
+  public int ceilingIndex(int epochDay) {
+    if (this.prices.size() == 0) {
+      return 0;
+    }
+    int block = this.prices.findBlock(epochDay);
+    Block decoded = block(block);
+    int row = Arrays.binarySearch(decoded.days, 0, decoded.size, epochDay);
+    row = row < 0 ? -row - 1 : row;
+    return block * BLOCK_SIZE + row;
+  }
+
+  @Override
+  public int getEpochDayAt(int index) {
+    return block(blockOf(index)).days[index % BLOCK_SIZE];
+  }
+
+  @Override
+  public double getOpenAt(int index) {
+    return FixedPoint.toDouble(block(blockOf(index)).column(CompressedPriceColumns.OPENS)[
+            index % BLOCK_SIZE]);
+  }
+
+  @Override
+  public double getHighAt(int index) {
+    return FixedPoint.toDouble(block(blockOf(index)).column(CompressedPriceColumns.HIGHS)[
+            index % BLOCK_SIZE]);
+  }
+
+  @Override
+  public double getLowAt(int index) {
+    return FixedPoint.toDouble(block(blockOf(index)).column(CompressedPriceColumns.LOWS)[
+            index % BLOCK_SIZE]);
+  }
+
+  @Override
+  public double getCloseAt(int index) {
+    return FixedPoint.toDouble(getCloseTicksAt(index));
+  }
+
+  @Override
+  public long getCloseTicksAt(int index) {
+    return block(blockOf(index)).column(CompressedPriceColumns.CLOSES)[index % BLOCK_SIZE];
+  }
+
+  @Override
+  public long getVolumeAt(int index) {
+    return block(blockOf(index)).column(CompressedPriceColumns.VOLUMES)[index % BLOCK_SIZE];
+  }
+
+  /**
+   * Gets the block a trading day is in.
+   *
+   * @param index the index of the trading day.
+   * @return the block of the trading day.
+   * @throws IndexOutOfBoundsException if there is no trading day with that index.
+   */
+  private int blockOf(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.prices.size()) {
+      throw new IndexOutOfBoundsException("Index: " + index);
+    }
+    return index / BLOCK_SIZE;
+  }
+
+  /**
+   * One block of CompressedPriceColumns. Its dates are decoded when it is created, as every
+   * read needs them, and each other column is decoded the first time it is read. A decoded
+   * column is never changed, so a block can be shared between threads.
+   */
+  private static class Block {
+    private final CompressedPriceColumns prices; // the columns to decode from
+    private final int index; // which block this is
+    private final int size; // number of rows in the block
+    private final int[] days = new int[BLOCK_SIZE];
+    private final AtomicReferenceArray<long[]> columns; // Key: column, Value: the decoded
+    // column, or null until it is read
+
+    /**
+     * Decodes the dates of a block.
+     *
+     * @param prices the columns to decode from.
+     * @param index  the block to decode.
+     */
+    Block(CompressedPriceColumns prices, int index) {
+      this.prices = prices;
+      this.index = index;
+      this.size = prices.decodeDays(index, this.days);
+      this.columns = new AtomicReferenceArray<>(CompressedPriceColumns.VOLUMES + 1);
+    }
+
+    /**
+     * Gets a column of the block, decoding it the first time it is read. Two threads reading
+     * it at once may both decode it, which gives the same values.
+     *
+     * @param column the column to get.
+     * @return the decoded column.
+     */
+    long[] column(int column) {
+      long[] decoded = this.columns.get(column);
+      if (decoded == null) {
+        decoded = new long[BLOCK_SIZE];
+        this.prices.decodeColumn(this.index, column, decoded);
+        this.columns.set(column, decoded);
+      }
+      return decoded;
+    }
+  }
+}
@@ -0,0 +1,259 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A CrossoverScreener checks a moving average condition, such as a closing price crossing above
+ * its x-day moving average, for many stocks at once. The stocks are split between the threads
+ * of a fork-join pool, and for each stock only the trading days inside the window of the last
+ * two trading days on or before the screened date are read, with a MovingAverageState sliding
+ * over them, so screening a whole universe of stocks reads a few bars of each instead of its
+ * whole history. Crossovers are defined the same way as by the crossover command.
+ */
+public final class CrossoverScreener {
+  private static final int LEAF_SIZE = 4; // most stocks screened by one fork-join task
+
+  /**
+   * The condition a stock must meet on the screened date to be matched.
+   */
+  public enum Condition {
+    /**
+     * The closing price is above the moving average.
+     */
+    ABOVE,
+    /**
+     * The closing price is above the moving average, but was not on the trading day before.
+     */
+    CROSSED_ABOVE,
+    /**
+     * The closing price is not above the moving average, but was on the trading day before.
+     */
+    CROSSED_BELOW;
+
+    /**
+     * Determines if a stock meets this condition.
+     *
+     * @param before if the closing price was above the average on the trading day before.
+     * @param now    if the closing price is above the average on the screened day.
+     * @return true if the condition is met.
+     */
+    boolean test(boolean before, boolean now) {
+      switch (this) {
+        case ABOVE:
+          return now;
+        case CROSSED_ABOVE:
+          return now && !before;
+        default:
+          return before && !now;
+      }
+    }
+  }
+
+  /**
+   * A stock that met the condition of a screen.
+   */
+  public static final class Match {
+    private final String ticker; // the ticker of the stock
+    private final LocalDate date; // the trading day the condition was met on
+    private final double close; // the closing price on that day
+    private final double average; // the moving average on that day
+
+    /**
+     * Constructs a Match.
+     *
+     * @param ticker  the ticker of the stock.
+     * @param date    the trading day the condition was met on.
+     * @param close   the closing price on that day.
+     * @param average the moving average on that day.
+     */
+    Match(String ticker, LocalDate date, double close, double average) {
+      this.ticker = ticker;
+      this.date = date;
+      this.close = close;
+      this.average = average;
+    }
+
+    /**
+     * Gets the ticker of the stock.
+     *
+     * @return the ticker.
+     */
+    public String getTicker() {
+      return this.ticker;
+    }
+
+    /**
+     * Gets the trading day the condition was met on, the last trading day of the stock on or
+     * before the screened date.
+     *
+     * @return the date.
+     */
+    public LocalDate getDate() {
+      return this.date;
+    }
+
+    /**
+     * Gets the closing price on the matched day.
+     *
+     * @return the closing price.
+     */
+    public double getClose() {
+      return this.close;
+    }
+
+    /**
+     * Gets the moving average on the matched day.
+     *
+     * @return the moving average.
+     */
+    public double getAverage() {
+      return this.average;
+    }
+  }
+
+  /**
+   * Constructs nothing, as a CrossoverScreener only has static methods.
+   */
+  private CrossoverScreener() {
+  }
+
+  /**
+   * Screens stocks in parallel on the common fork-join pool.
+   *
+   * @param stocks    the stocks to screen, which must have their prices loaded.
+   * @param date      the date to screen on. Each stock is screened on its last trading day on
+   *                  or before it.
+   * @param days      the number of days of the moving average.
+   * @param condition the condition to match.
+   * @return the stocks that met the condition, sorted by ticker.
+   * @throws IllegalArgumentException if days is not positive.
+   */
+  public static List<Match> screen(Collection<? extends Stock> stocks, LocalDate date, int days,
+                                   Condition condition) throws IllegalArgumentException {
+    return screen(stocks, date, days, condition, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Screens stocks in parallel on the given fork-join pool.
+   *
+   * @param stocks    the stocks to screen, which must have their prices loaded.
+   * @param date      the date to screen on. Each stock is screened on its last trading day on
+   *                  or before it.
+   * @param days      the number of days of the moving average.
+   * @param condition the condition to match.
+   * @param pool      the pool to screen the stocks on.
+   * @return the stocks that met the condition, sorted by ticker.
+   * @throws IllegalArgumentException if days is not positive.
+   */
+  public static List<Match> screen(Collection<? extends Stock> stocks, LocalDate date, int days,
+                                   Condition condition, ForkJoinPool pool)
+          throws IllegalArgumentException {
+    if (days <= 0) {
+      throw new IllegalArgumentException("Days must be positive.");
+    }
+    long start = System.nanoTime();
+    Stock[] universe = stocks.toArray(new Stock[0]);
+    List<Match> matches = pool.invoke(new ScreenTask(universe, 0, universe.length,
+            (int) date.toEpochDay(), days, condition));
+    matches.sort(Comparator.comparing(Match::getTicker));
+    MetricsRegistry.counter("screen.stocks").add(universe.length);
+    MetricsRegistry.recordSince("screen", start);
+    return matches;
+  }
+
+  /**
+   * Screens a single stock.
+   *
+   * @param stock     the stock to screen.
+   * @param epochDay  the date to screen on as a number of days since 1970-01-01.
+   * @param days      the number of days of the moving average.
+   * @param condition the condition to match.
+   * @return the match, or null if the stock did not meet the condition or has no trading day
+   *     on or before the date. A stock cannot have crossed its average on its first trading day.
+   */
+  static Match screen(Stock stock, int epochDay, int days, Condition condition) {
+    int last = stock.ceilingIndex(epochDay + 1) - 1;
+    if (last < 0 || (last == 0 && condition != Condition.ABOVE)) {
+      return null;
+    }
+    int first = last;
+    if (last > 0) {
+      first = stock.ceilingIndex(stock.getEpochDayAt(last - 1) - days);
+    }
+    MovingAverageState state = new MovingAverageState(days);
+    boolean before = false;
+    for (int i = first; i <= last; i++) {
+      if (i == last) {
+        before = state.isCrossover();
+      }
+      state.append(stock.getEpochDayAt(i), stock.getHighAt(i), stock.getLowAt(i),
+              stock.getCloseAt(i));
+    }
+    if (!condition.test(before, state.isCrossover())) {
+      return null;
+    }
+    return new Match(stock.getTicker(), LocalDate.ofEpochDay(stock.getEpochDayAt(last)),
+            stock.getCloseAt(last), state.getValue());
+  }
+
+  /**
+   * A fork-join task which screens a range of stocks, splitting it in half until each half is
+   * small enough to screen directly.
+   */
+  private static final class ScreenTask extends RecursiveTask<List<Match>> {
+    private static final long serialVersionUID = 1L;
+    private final Stock[] stocks; // every stock being screened
+    private final int from; // first stock of this task, inclusive
+    private final int to; // last stock of this task, exclusive
+    private final int epochDay; // the date to screen on
+    private final int days; // the number of days of the moving average
+    private final Condition condition; // the condition to match
+
+    /**
+     * Constructs a ScreenTask.
+     *
+     * @param stocks    every stock being screened.
+     * @param from      the first stock of this task, inclusive.
+     * @param to        the last stock of this task, exclusive.
+     * @param epochDay  the date to screen on.
+     * @param days      the number of days of the moving average.
+     * @param condition the condition to match.
+     */
+    ScreenTask(Stock[] stocks, int from, int to, int epochDay, int days, Condition condition) {
+      this.stocks = stocks;
+      this.from = from;
+      this.to = to;
+      this.epochDay = epochDay;
+      this.days = days;
+      this.condition = condition;
+    }
+
+    @Override
+    protected List<Match> compute() {
+      if (this.to - this.from > LEAF_SIZE) {
+        int mid = (this.from + this.to) >>> 1;
+        ScreenTask left = new ScreenTask(this.stocks, this.from, mid, this.epochDay, this.days,
+                this.condition);
+        left.fork();
+        List<Match> matches = new ScreenTask(this.stocks, mid, this.to, this.epochDay,
+                this.days, this.condition).compute();
+        matches.addAll(left.join());
+        return matches;
+      }
+      List<Match> matches = new ArrayList<>();
+      for (int i = this.from; i < this.to; i++) {
+        Match match = screen(this.stocks[i], this.epochDay, this.days, this.condition);
+        if (match != null) {
+          matches.add(match);
+        }
+      }
+      return matches;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package stocks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CsvFiles for the stock program, used to open the csv files in StockData/ and PortfolioData/.
+ * Each file may be stored as plain text, name.csv, or gzip compressed, name.csv.gz, and is read
+ * the same way either way, streaming through the decompressor instead of unpacking it first.
+ * New files are written compressed if the "stocks.gzip" system property or setCompressOutput
+ * is turned on.
+ */
+public class CsvFiles {
+  private static final int BUFFER_SIZE = 64 * 1024; // bytes buffered around gzip streams
+  private static boolean compressOutput = Boolean.getBoolean("stocks.gzip"); // if new csv
+  // files are written gzip compressed
+
+  /**
+   * Sets whether new csv files are written gzip compressed, as name.csv.gz. Defaults to the
+   * value of the "stocks.gzip" system property.
+   *
+   * @param useGzip true to write compressed files, false to write plain text files.
+   */
+  public static void setCompressOutput(boolean useGzip) {
+    compressOutput = useGzip;
+  }
+
+  /**
+   * Finds the csv file with the given name, plain or compressed. If both exist, the plain
+   * file is used.
+   *
+   * @param directory the directory of the file, ending in a slash.
+   * @param name      the name of the file without its extension.
+   * @return the file that exists, or the plain file if neither exists.
+   */
+  public static File find(String directory, String name) {
+    File plain = new File(directory + name + ".csv");
+    File compressed = new File(directory + name + ".csv.gz");
+    if (!plain.exists() && compressed.exists()) {
+      return compressed;
+    }
+    return plain;
+  }
+
+  /**
+   * Determines if a csv file with the given name exists, plain or compressed.
+   *
+   * @param directory the directory of the file, ending in a slash.
+   * @param name      the name of the file without its extension.
+   * @return true if the file exists, false if not.
+   */
+  public static boolean exists(String directory, String name) {
+    return find(directory, name).exists();
+  }
+
+  /**
+   * Opens a csv file for reading, decompressing it while it is read if it ends in .gz.
+   *
+   * @param file the file to read.
+   * @return a reader over the text of the file.
+   * @throws IOException if the file cannot be opened.
+   */
+  public static BufferedReader newReader(File file) throws IOException {
+    if (file.getName().endsWith(".gz")) {
+      return new BufferedReader(new InputStreamReader(new GZIPInputStream(
+              new FileInputStream(file), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+    return Files.newBufferedReader(file.toPath());
+  }
+
+  /**
+   * Opens a new csv file with the given name for writing, compressed if compressed output is
+   * turned on. The other form of the file is deleted, so it cannot be read in place of the
+   * new one.
+   *
+   * @param directory the directory of the file, ending in a slash.
+   * @param name      the name of the file without its extension.
+   * @return a writer to the new file.
+   * @throws IOException if the file cannot be created.
+   */
+  public static Writer newWriter(String directory, String name) throws IOException {
+    File plain = new File(directory + name + ".csv");
+    File compressed = new File(directory + name + ".csv.gz");
+    if (compressOutput) {
+      Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+              new FileOutputStream(compressed), BUFFER_SIZE), StandardCharsets.UTF_8));
+      plain.delete();
+      return writer;
+    }
+    Writer writer = Files.newBufferedWriter(plain.toPath());
+    compressed.delete();
+    return writer;
+  }
+}
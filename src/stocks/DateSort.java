@@ -0,0 +1,45 @@
+package stocks;
+
+import java.util.Arrays;
+
+/**
+ * DateSort orders rows of price data that were read in any order, such as the lines of a csv
+ * or the chunks of a parallel parse, by their dates. It is shared by the builders of the
+ * column-based stocks so that they all keep the same row when a date is read more than once.
+ */
+final class DateSort {
+
+  /**
+   * Constructs nothing, as DateSort only has static methods.
+   */
+  private DateSort() {
+  }
+
+  /**
+   * Sorts rows by date, keeping the last row read for each date. Each row is sorted as one
+   * long, with its date in the high bits and its position in the low bits, so only primitives
+   * are moved and long series are split across the common fork-join pool.
+   *
+   * @param days  the date of each row as an epoch day, in the order the rows were read.
+   * @param count the number of rows.
+   * @return the position of each row kept, in order of their dates.
+   */
+  static int[] sortedRows(int[] days, int count) {
+    long[] order = new long[count];
+    for (int i = 0; i < count; i++) {
+      order[i] = ((long) days[i] << 32) | i;
+    }
+    Arrays.parallelSort(order);
+    int rows = 0;
+    for (int i = 0; i < count; i++) {
+      if (i == count - 1 || (order[i] >> 32) != (order[i + 1] >> 32)) {
+        order[rows++] = order[i];
+      }
+    }
+    int[] kept = new int[rows];
+    for (int row = 0; row < rows; row++) {
+      kept[row] = (int) order[row];
+    }
+    return kept;
+  }
+}
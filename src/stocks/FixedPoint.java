@@ -0,0 +1,86 @@
+package stocks;
+
+/**
+ * FixedPoint for the stock program, used to hold prices and values as whole numbers of
+ * ten-thousandths of a dollar in a long, the same precision as the prices in the stock data.
+ * Sums of fixed-point values are exact and can be kept in primitive arrays, unlike sums of
+ * doubles which drift a little with every addition. Fixed-point is turned on with the
+ * "stocks.fixedpoint" system property or setEnabled, in which case makeStock keeps prices as
+ * fixed-point and the valuation commands add up portfolio values in fixed-point.
+ */
+public final class FixedPoint {
+  public static final long SCALE = 10000; // ten-thousandths in one dollar
+  public static final long MISSING = Long.MIN_VALUE; // a price that does not exist
+
+  private static boolean enabled = Boolean.getBoolean("stocks.fixedpoint"); // if prices and
+  // valuations use fixed-point
+
+  /**
+   * FixedPoint only has static methods.
+   */
+  private FixedPoint() {
+  }
+
+  /**
+   * Determines if fixed-point prices and valuation are turned on.
+   *
+   * @return true if fixed-point is turned on, false if not.
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Sets whether stocks loaded from now on keep their prices in fixed-point, and whether
+   * portfolios are valued in fixed-point. Defaults to the value of the "stocks.fixedpoint"
+   * system property.
+   *
+   * @param useFixedPoint true to use fixed-point, false to use doubles.
+   */
+  public static void setEnabled(boolean useFixedPoint) {
+    enabled = useFixedPoint;
+  }
+
+  /**
+   * Converts a price to fixed-point, rounding to the nearest ten-thousandth.
+   *
+   * @param price the price in dollars.
+   * @return the price in ten-thousandths, or MISSING if the price is NaN.
+   */
+  public static long fromDouble(double price) {
+    if (Double.isNaN(price)) {
+      return MISSING;
+    }
+    return Math.round(price * SCALE);
+  }
+
+  /**
+   * Converts a fixed-point price back to dollars. For any price with at most four decimal
+   * places, this gives the same double as parsing the price from the stock data.
+   *
+   * @param ticks the price in ten-thousandths.
+   * @return the price in dollars, or NaN if the price is MISSING.
+   */
+  public static double toDouble(long ticks) {
+    if (ticks == MISSING) {
+      return Double.NaN;
+    }
+    return ticks / (double) SCALE;
+  }
+
+  /**
+   * Gets the value of a number of shares at a fixed-point price, rounded to the nearest
+   * ten-thousandth so that values can be added up exactly.
+   *
+   * @param ticks  the price of one share in ten-thousandths.
+   * @param shares the number of shares, which may be fractional.
+   * @return the value of the shares in ten-thousandths.
+   * @throws IllegalArgumentException if the price is MISSING.
+   */
+  public static long value(long ticks, double shares) throws IllegalArgumentException {
+    if (ticks == MISSING) {
+      throw new IllegalArgumentException("No price to value the shares at.");
+    }
+    return Math.round(ticks * shares);
+  }
+}
@@ -0,0 +1,320 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A FixedPointStockImpl class which extends AbstractStock. It represents a stock whose prices
+ * are kept in primitive arrays of fixed-point ten-thousandths, sorted by date, instead of in
+ * maps of boxed doubles. This stores the price history in a fraction of the memory, and lets
+ * portfolio valuations add up closing prices exactly.
+ */
+public class FixedPointStockImpl extends AbstractStock {
+
+  protected final int[] epochDays; // Key: trading day index, Value: epoch day of that date
+  protected final long[] opens; // Key: trading day index, Value: opening price in ticks
+  protected final long[] highs; // Key: trading day index, Value: high price in ticks
+  protected final long[] lows; // Key: trading day index, Value: low price in ticks
+  protected final long[] closes; // Key: trading day index, Value: closing price in ticks
+  protected final long[] volumes; // Key: trading day index, Value: volume
+
+  /**
+   * The constructor for FixedPointStockImpl.
+   *
+   * @param ticker     the stock symbol
+   * @param numShares  number of shares of that stock
+   * @param epochDays  the dates as epoch days, sorted, by trading day index
+   * @param opens      the opening prices in ten-thousandths, by trading day index
+   * @param highs      the high prices in ten-thousandths, by trading day index
+   * @param lows       the low prices in ten-thousandths, by trading day index
+   * @param closes     the closing prices in ten-thousandths, by trading day index
+   * @param volumes    the volumes, by trading day index
+   * @param shareDates Key: date, Value: number of shares purchased at that date
+   */
+  protected FixedPointStockImpl(String ticker, double numShares, int[] epochDays, long[] opens,
+                                long[] highs, long[] lows, long[] closes, long[] volumes,
+                                Map<LocalDate, Double> shareDates) {
+    super(ticker, numShares, shareDates);
+    this.epochDays = epochDays;
+    this.opens = opens;
+    this.highs = highs;
+    this.lows = lows;
+    this.closes = closes;
+    this.volumes = volumes;
+  }
+
+  @Override
+  protected Stock withShares(double numShares, Map<LocalDate, Double> shareDates) {
+    return new FixedPointStockImpl(this.ticker, numShares, this.epochDays, this.opens,
+            this.highs, this.lows, this.closes, this.volumes, shareDates);
+  }
+
+  @Override
+  public Long getVolume(LocalDate date) {
+    int index = indexOf(date);
+    return index < 0 ? null : this.volumes[index];
+  }
+
+  @Override
+  public Double getOpeningPrice(LocalDate date) {
+    int index = indexOf(date);
+    return index < 0 ? null : FixedPoint.toDouble(this.opens[index]);
+  }
+
+  @Override
+  public Double getClosingPrice(LocalDate date) {
+    int index = indexOf(date);
+    return index < 0 ? null : FixedPoint.toDouble(this.closes[index]);
+  }
+
+  @Override
+  public Double getHighPrice(LocalDate date) {
+    int index = indexOf(date);
+    return index < 0 ? null : FixedPoint.toDouble(this.highs[index]);
+  }
+
+  @Override
+  public Double getLowPrice(LocalDate date) {
+    int index = indexOf(date);
+    return index < 0 ? null : FixedPoint.toDouble(this.lows[index]);
+  }
+
+  @Override
+  public int getTradingDayCount() {
+    return this.epochDays.length;
+  }
+
+  @Override
+  public int indexOf(int epochDay) {
+    int index = Arrays.binarySearch(this.epochDays, epochDay);
+    return index < 0 ? -1 : index;
+  }
+
+  @Override
+  public int ceilingIndex(int epochDay) {
+    int index = Arrays.binarySearch(this.epochDays, epochDay);
+    return index < 0 ? -index - 1 : index;
+  }
+
+  @Override
+  public int getEpochDayAt(int index) {
+    return this.epochDays[index];
+  }
+
+  @Override
+  public double getOpenAt(int index) {
+    return FixedPoint.toDouble(this.opens[index]);
+  }
+
+  @Override
+  public double getHighAt(int index) {
+    return FixedPoint.toDouble(this.highs[index]);
+  }
+
+  @Override
+  public double getLowAt(int index) {
+    return FixedPoint.toDouble(this.lows[index]);
+  }
+
+  @Override
+  public double getCloseAt(int index) {
+    return FixedPoint.toDouble(this.closes[index]);
+  }
+
+  @Override
+  public long getVolumeAt(int index) {
+    return this.volumes[index];
+  }
+
+  @Override
+  public long getCloseTicksAt(int index) {
+    return this.closes[index];
+  }
+
+  @Override
+  public void copyCloseTicks(int from, int to, long[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(this.closes, from, dest, destPos, to - from);
+  }
+
+  @Override
+  public void copyEpochDays(int from, int to, int[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(this.epochDays, from, dest, destPos, to - from);
+  }
+
+  @Override
+  public void copyOpens(int from, int to, double[] dest, int destPos) {
+    copyPrices(this.opens, from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyHighs(int from, int to, double[] dest, int destPos) {
+    copyPrices(this.highs, from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyLows(int from, int to, double[] dest, int destPos) {
+    copyPrices(this.lows, from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyCloses(int from, int to, double[] dest, int destPos) {
+    copyPrices(this.closes, from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyVolumes(int from, int to, long[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(this.volumes, from, dest, destPos, to - from);
+  }
+
+  /**
+   * Copies a range of a fixed-point price column into an array of prices in dollars.
+   *
+   * @param column  the price column to copy from.
+   * @param from    the index of the first trading day to copy.
+   * @param to      the index after the last trading day to copy.
+   * @param dest    the array to copy into.
+   * @param destPos the position in the array to start copying to.
+   */
+  private void copyPrices(long[] column, int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    for (int i = from; i < to; i++) {
+      dest[destPos + i - from] = FixedPoint.toDouble(column[i]);
+    }
+  }
+
+  /**
+   * A FixedPointBuilder which collects price rows in any order and sorts them into the arrays
+   * of a FixedPointStockImpl. If a date is added more than once, the last row added for it is
+   * kept.
+   */
+  public static class FixedPointBuilder {
+    private int[] days = new int[64];
+    private long[] opens = new long[64];
+    private long[] highs = new long[64];
+    private long[] lows = new long[64];
+    private long[] closes = new long[64];
+    private long[] volumes = new long[64];
+    private int count;
+
+    /**
+     * Adds one row of price data, rounding the prices to ten-thousandths.
+     *
+     * @param date   the date of the row.
+     * @param open   the opening price.
+     * @param high   the high price.
+     * @param low    the low price.
+     * @param close  the closing price.
+     * @param volume the volume.
+     * @return this builder.
+     */
+    public FixedPointBuilder add(LocalDate date, double open, double high, double low,
+                                 double close, long volume) {
+      return addTicks((int) date.toEpochDay(), FixedPoint.fromDouble(open),
+              FixedPoint.fromDouble(high), FixedPoint.fromDouble(low),
+              FixedPoint.fromDouble(close), volume);
+    }
+
+    /**
+     * Adds one row of price data that is already in fixed-point.
+     *
+     * @param epochDay the date of the row as a number of days since 1970-01-01.
+     * @param open     the opening price in ten-thousandths.
+     * @param high     the high price in ten-thousandths.
+     * @param low      the low price in ten-thousandths.
+     * @param close    the closing price in ten-thousandths.
+     * @param volume   the volume.
+     * @return this builder.
+     */
+    public FixedPointBuilder addTicks(int epochDay, long open, long high, long low, long close,
+                                      long volume) {
+      if (count == days.length) {
+        grow(count * 2);
+      }
+      days[count] = epochDay;
+      opens[count] = open;
+      highs[count] = high;
+      lows[count] = low;
+      closes[count] = close;
+      volumes[count] = volume;
+      count++;
+      return this;
+    }
+
+    /**
+     * Adds every row of another builder after the rows of this one, as if they had been added
+     * to this builder in the same order.
+     *
+     * @param other the builder to add the rows of.
+     * @return this builder.
+     */
+    public FixedPointBuilder addAll(FixedPointBuilder other) {
+      if (count + other.count > days.length) {
+        grow(count + other.count);
+      }
+      System.arraycopy(other.days, 0, days, count, other.count);
+      System.arraycopy(other.opens, 0, opens, count, other.count);
+      System.arraycopy(other.highs, 0, highs, count, other.count);
+      System.arraycopy(other.lows, 0, lows, count, other.count);
+      System.arraycopy(other.closes, 0, closes, count, other.count);
+      System.arraycopy(other.volumes, 0, volumes, count, other.count);
+      count += other.count;
+      return this;
+    }
+
+    /**
+     * Gets the number of rows added so far, including rows with repeated dates.
+     *
+     * @return the number of rows added.
+     */
+    public int size() {
+      return count;
+    }
+
+    /**
+     * Grows every column to the given capacity.
+     *
+     * @param capacity the new capacity.
+     */
+    private void grow(int capacity) {
+      days = Arrays.copyOf(days, capacity);
+      opens = Arrays.copyOf(opens, capacity);
+      highs = Arrays.copyOf(highs, capacity);
+      lows = Arrays.copyOf(lows, capacity);
+      closes = Arrays.copyOf(closes, capacity);
+      volumes = Arrays.copyOf(volumes, capacity);
+    }
+
+    /**
+     * Builds a FixedPointStockImpl with no shares from the added rows, sorted by date.
+     *
+     * @param ticker the stock symbol, or null if no rows were read.
+     * @return the built FixedPointStockImpl.
+     */
+    public FixedPointStockImpl build(String ticker) {
+      int[] kept = DateSort.sortedRows(days, count);
+      int rows = kept.length;
+      int[] sortedDays = new int[rows];
+      long[] sortedOpens = new long[rows];
+      long[] sortedHighs = new long[rows];
+      long[] sortedLows = new long[rows];
+      long[] sortedCloses = new long[rows];
+      long[] sortedVolumes = new long[rows];
+      for (int row = 0; row < rows; row++) {
+        int i = kept[row];
+        sortedDays[row] = days[i];
+        sortedOpens[row] = opens[i];
+        sortedHighs[row] = highs[i];
+        sortedLows[row] = lows[i];
+        sortedCloses[row] = closes[i];
+        sortedVolumes[row] = volumes[i];
+      }
+      return new FixedPointStockImpl(ticker, 0, sortedDays, sortedOpens, sortedHighs,
+              sortedLows, sortedCloses, sortedVolumes, new TreeMap<>());
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package stocks;
+
+/**
+ * Represents an indicator computed by an IndicatorPipeline. An Indicator is advanced one price
+ * bar at a time, oldest first, and after each bar has one or more values, such as the middle,
+ * upper and lower bands of Bollinger bands. Every indicator registered with a pipeline is
+ * advanced in the same scan over the prices of a stock.
+ */
+public interface Indicator {
+  int OPEN = 1; // the opening prices are read
+  int HIGH = 2; // the high prices are read
+  int LOW = 4; // the low prices are read
+  int CLOSE = 8; // the closing prices are read
+  int VOLUME = 16; // the volumes are read
+
+  /**
+   * Gets the names of the values of this indicator, which are the columns of the results of a
+   * pipeline.
+   *
+   * @return the name of each value, in the order they are written by getValues.
+   */
+  String[] getColumns();
+
+  /**
+   * Gets the fields of a price bar this indicator reads. A pipeline only copies the fields
+   * that one of its indicators reads out of the stock, and passes 0 for the others.
+   *
+   * @return OPEN, HIGH, LOW, CLOSE and VOLUME of the fields read, combined with |.
+   */
+  int getFields();
+
+  /**
+   * Advances this indicator by one price bar. Bars must be appended in increasing date order.
+   *
+   * @param epochDay the date of the bar as a number of days since 1970-01-01.
+   * @param open     the opening price on that date.
+   * @param high     the high price on that date.
+   * @param low      the low price on that date.
+   * @param close    the closing price on that date.
+   * @param volume   the volume on that date.
+   */
+  void append(int epochDay, double open, double high, double low, double close, long volume);
+
+  /**
+   * Writes the values of this indicator as of the last appended bar. A value that needs more
+   * bars than have been appended so far is NaN.
+   *
+   * @param dest    the array to write into.
+   * @param destPos where to write the first value.
+   */
+  void getValues(double[] dest, int destPos);
+}
@@ -0,0 +1,762 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * An IndicatorPipeline computes any number of indicators of a stock in a single scan over its
+ * prices. The prices are copied out of the stock a chunk at a time into primitive arrays, and
+ * every registered indicator is advanced by each bar before the scan moves on, so adding an
+ * indicator adds its own arithmetic but never another pass over the prices. The scan always
+ * starts at the first trading day, so indicators that need a warm-up have it before the first
+ * date asked for. Only the fields some indicator reads are copied, so a lazily loaded stock
+ * never loads a column none of them needs. A pipeline only holds how to create its indicators,
+ * so it can be run any number of times and on several stocks at once.
+ */
+public final class IndicatorPipeline {
+  private static final int CHUNK = 4096; // trading days copied out of the stock at a time
+
+  private final List<Supplier<Indicator>> indicators; // creates each indicator for a scan
+  private final String[] columns; // names of the values of every indicator, in order
+  private final int fields; // the fields of the price bars any indicator reads
+
+  /**
+   * Constructs an IndicatorPipeline from its builder.
+   *
+   * @param indicators creates each indicator of the pipeline.
+   */
+  private IndicatorPipeline(List<Supplier<Indicator>> indicators) {
+    this.indicators = new ArrayList<>(indicators);
+    List<String> names = new ArrayList<>();
+    int read = 0;
+    for (Supplier<Indicator> supplier : this.indicators) {
+      Indicator indicator = supplier.get();
+      names.addAll(Arrays.asList(indicator.getColumns()));
+      read |= indicator.getFields();
+    }
+    this.columns = names.toArray(new String[0]);
+    this.fields = read;
+  }
+
+  /**
+   * Gets the names of the values of every indicator in the pipeline.
+   *
+   * @return the columns of the results, in the order the indicators were added.
+   */
+  public String[] getColumns() {
+    return this.columns.clone();
+  }
+
+  /**
+   * Computes every indicator of the pipeline over the prices of a stock in one scan, keeping
+   * the values of the trading days between two dates.
+   *
+   * @param stock the stock to compute the indicators of.
+   * @param from  the first date to keep, inclusive.
+   * @param to    the last date to keep, inclusive.
+   * @return the values of every indicator on every trading day between the dates.
+   */
+  public Result run(Stock stock, LocalDate from, LocalDate to) {
+    long start = System.nanoTime();
+    Indicator[] running = new Indicator[this.indicators.size()];
+    for (int i = 0; i < running.length; i++) {
+      running[i] = this.indicators.get(i).get();
+    }
+    int[] offsets = new int[running.length]; // the first column of each indicator in a row
+    for (int i = 1; i < running.length; i++) {
+      offsets[i] = offsets[i - 1] + running[i - 1].getColumns().length;
+    }
+    int first = stock.ceilingIndex((int) from.toEpochDay());
+    int end = Math.max(first, stock.ceilingIndex((int) to.toEpochDay() + 1));
+    int rows = end - first;
+    int[] epochDays = new int[rows];
+    double[][] values = new double[this.columns.length][rows];
+    double[] row = new double[this.columns.length];
+
+    int[] days = new int[CHUNK];
+    double[] opens = new double[CHUNK];
+    double[] highs = new double[CHUNK];
+    double[] lows = new double[CHUNK];
+    double[] closes = new double[CHUNK];
+    long[] volumes = new long[CHUNK];
+    for (int chunk = 0; chunk < end; chunk += CHUNK) {
+      int count = Math.min(CHUNK, end - chunk);
+      stock.copyEpochDays(chunk, chunk + count, days, 0);
+      if ((this.fields & Indicator.OPEN) != 0) {
+        stock.copyOpens(chunk, chunk + count, opens, 0);
+      }
+      if ((this.fields & Indicator.HIGH) != 0) {
+        stock.copyHighs(chunk, chunk + count, highs, 0);
+      }
+      if ((this.fields & Indicator.LOW) != 0) {
+        stock.copyLows(chunk, chunk + count, lows, 0);
+      }
+      if ((this.fields & Indicator.CLOSE) != 0) {
+        stock.copyCloses(chunk, chunk + count, closes, 0);
+      }
+      if ((this.fields & Indicator.VOLUME) != 0) {
+        stock.copyVolumes(chunk, chunk + count, volumes, 0);
+      }
+      for (int i = 0; i < count; i++) {
+        for (Indicator indicator : running) {
+          indicator.append(days[i], opens[i], highs[i], lows[i], closes[i], volumes[i]);
+        }
+        int index = chunk + i - first;
+        if (index < 0) {
+          continue;
+        }
+        epochDays[index] = days[i];
+        for (int k = 0; k < running.length; k++) {
+          running[k].getValues(row, offsets[k]);
+        }
+        for (int column = 0; column < row.length; column++) {
+          values[column][index] = row[column];
+        }
+      }
+    }
+    MetricsRegistry.counter("indicators.rows").add(end);
+    MetricsRegistry.recordSince("indicators", start);
+    return new Result(this.columns, epochDays, values);
+  }
+
+  /**
+   * A Builder which registers the indicators of an IndicatorPipeline.
+   */
+  public static class Builder {
+    private final List<Supplier<Indicator>> indicators = new ArrayList<>();
+
+    /**
+     * Adds an indicator to the pipeline.
+     *
+     * @param indicator creates a new, empty indicator for each run of the pipeline.
+     * @return this builder.
+     */
+    public Builder add(Supplier<Indicator> indicator) {
+      this.indicators.add(indicator);
+      return this;
+    }
+
+    /**
+     * Adds the simple moving average of the closing prices over a number of trading days.
+     *
+     * @param days the number of trading days.
+     * @return this builder.
+     * @throws IllegalArgumentException if days is not positive.
+     */
+    public Builder sma(int days) throws IllegalArgumentException {
+      checkDays(days);
+      return add(() -> new Sma(days));
+    }
+
+    /**
+     * Adds the exponential moving average of the closing prices over a number of trading days.
+     *
+     * @param days the number of trading days.
+     * @return this builder.
+     * @throws IllegalArgumentException if days is not positive.
+     */
+    public Builder ema(int days) throws IllegalArgumentException {
+      checkDays(days);
+      return add(() -> new EmaIndicator(days));
+    }
+
+    /**
+     * Adds the relative strength index of the closing prices over a number of trading days,
+     * with Wilder's smoothing.
+     *
+     * @param days the number of trading days.
+     * @return this builder.
+     * @throws IllegalArgumentException if days is not positive.
+     */
+    public Builder rsi(int days) throws IllegalArgumentException {
+      checkDays(days);
+      return add(() -> new Rsi(days));
+    }
+
+    /**
+     * Adds Bollinger bands, the simple moving average of the closing prices over a number of
+     * trading days and the bands a number of standard deviations above and below it.
+     *
+     * @param days       the number of trading days.
+     * @param deviations the number of standard deviations between the average and each band.
+     * @return this builder.
+     * @throws IllegalArgumentException if days is not positive or deviations is negative.
+     */
+    public Builder bollinger(int days, double deviations) throws IllegalArgumentException {
+      checkDays(days);
+      if (!(deviations >= 0)) {
+        throw new IllegalArgumentException("Deviations cannot be negative.");
+      }
+      return add(() -> new Bollinger(days, deviations));
+    }
+
+    /**
+     * Adds the moving average convergence divergence of the closing prices, its signal line
+     * and their difference.
+     *
+     * @param fast   the number of trading days of the fast exponential moving average.
+     * @param slow   the number of trading days of the slow exponential moving average.
+     * @param signal the number of trading days of the exponential moving average of the MACD.
+     * @return this builder.
+     * @throws IllegalArgumentException if a number of days is not positive.
+     */
+    public Builder macd(int fast, int slow, int signal) throws IllegalArgumentException {
+      checkDays(fast);
+      checkDays(slow);
+      checkDays(signal);
+      return add(() -> new Macd(fast, slow, signal));
+    }
+
+    /**
+     * Adds the volume weighted average price over a number of trading days, weighting the
+     * typical price of each day, the average of its high, low and closing price, by its volume.
+     *
+     * @param days the number of trading days.
+     * @return this builder.
+     * @throws IllegalArgumentException if days is not positive.
+     */
+    public Builder vwap(int days) throws IllegalArgumentException {
+      checkDays(days);
+      return add(() -> new Vwap(days));
+    }
+
+    /**
+     * Adds an indicator from its specification, such as sma:20, ema:12, rsi:14,
+     * bollinger:20:2, macd:12:26:9 or vwap:20.
+     *
+     * @param spec the name of the indicator and its parameters, separated by colons.
+     * @return this builder.
+     * @throws IllegalArgumentException if the specification is not a known indicator with valid
+     *                                  parameters.
+     */
+    public Builder parse(String spec) throws IllegalArgumentException {
+      String[] parts = spec.trim().toLowerCase().split(":");
+      try {
+        switch (parts[0]) {
+          case "sma":
+            return parts.length == 2 ? sma(Integer.parseInt(parts[1])) : invalid(spec);
+          case "ema":
+            return parts.length == 2 ? ema(Integer.parseInt(parts[1])) : invalid(spec);
+          case "rsi":
+            return parts.length == 2 ? rsi(Integer.parseInt(parts[1])) : invalid(spec);
+          case "vwap":
+            return parts.length == 2 ? vwap(Integer.parseInt(parts[1])) : invalid(spec);
+          case "bollinger":
+            return parts.length == 3 ? bollinger(Integer.parseInt(parts[1]),
+                    Double.parseDouble(parts[2])) : invalid(spec);
+          case "macd":
+            return parts.length == 4 ? macd(Integer.parseInt(parts[1]),
+                    Integer.parseInt(parts[2]), Integer.parseInt(parts[3])) : invalid(spec);
+          default:
+            return invalid(spec);
+        }
+      } catch (NumberFormatException e) {
+        return invalid(spec);
+      }
+    }
+
+    /**
+     * Builds the IndicatorPipeline with the indicators added so far.
+     *
+     * @return the pipeline.
+     * @throws IllegalStateException if no indicator has been added.
+     */
+    public IndicatorPipeline build() throws IllegalStateException {
+      if (this.indicators.isEmpty()) {
+        throw new IllegalStateException("No indicators have been added.");
+      }
+      return new IndicatorPipeline(this.indicators);
+    }
+
+    /**
+     * Rejects a specification that is not a known indicator.
+     *
+     * @param spec the specification.
+     * @return never returns.
+     * @throws IllegalArgumentException always.
+     */
+    private Builder invalid(String spec) throws IllegalArgumentException {
+      throw new IllegalArgumentException("Unknown indicator: " + spec + ".");
+    }
+
+    /**
+     * Checks that a number of trading days is positive.
+     *
+     * @param days the number of trading days.
+     * @throws IllegalArgumentException if days is not positive.
+     */
+    private static void checkDays(int days) throws IllegalArgumentException {
+      if (days <= 0) {
+        throw new IllegalArgumentException("Days must be positive.");
+      }
+    }
+  }
+
+  /**
+   * The values of the indicators of a pipeline on every trading day between two dates.
+   */
+  public static final class Result {
+    private final String[] columns; // names of the values
+    private final int[] epochDays; // Key: row, Value: epoch day of that trading day
+    private final double[][] values; // Key: column then row, Value: the value, or NaN
+
+    /**
+     * Constructs a Result.
+     *
+     * @param columns   the names of the values.
+     * @param epochDays the trading days, oldest first.
+     * @param values    the values by column and then by row.
+     */
+    private Result(String[] columns, int[] epochDays, double[][] values) {
+      this.columns = columns;
+      this.epochDays = epochDays;
+      this.values = values;
+    }
+
+    /**
+     * Gets the names of the values.
+     *
+     * @return the name of each column.
+     */
+    public String[] getColumns() {
+      return this.columns.clone();
+    }
+
+    /**
+     * Finds the column with the given name.
+     *
+     * @param name the name of the column, such as SMA(20).
+     * @return the index of the column, or -1 if there is none with that name.
+     */
+    public int indexOfColumn(String name) {
+      return Arrays.asList(this.columns).indexOf(name);
+    }
+
+    /**
+     * Gets the number of trading days in the result.
+     *
+     * @return the number of rows.
+     */
+    public int size() {
+      return this.epochDays.length;
+    }
+
+    /**
+     * Gets the date of a row.
+     *
+     * @param row the row.
+     * @return the trading day of that row.
+     */
+    public LocalDate getDateAt(int row) {
+      return LocalDate.ofEpochDay(this.epochDays[row]);
+    }
+
+    /**
+     * Gets a value.
+     *
+     * @param column the column of the value.
+     * @param row    the row of the value.
+     * @return the value, or NaN if the indicator did not have enough bars yet on that day.
+     */
+    public double getValue(int column, int row) {
+      return this.values[column][row];
+    }
+  }
+
+  /**
+   * An exponential moving average, seeded with the simple average of its first values.
+   */
+  private static final class Ema {
+    private final int days; // number of values to average
+    private final double alpha; // weight of each new value
+    private int count; // number of values appended
+    private double value; // the average, or the sum of the values until there are days of them
+
+    /**
+     * Constructs an empty Ema.
+     *
+     * @param days the number of values to average.
+     */
+    Ema(int days) {
+      this.days = days;
+      this.alpha = 2.0 / (days + 1);
+    }
+
+    /**
+     * Advances the average by one value.
+     *
+     * @param x the value.
+     */
+    void append(double x) {
+      this.count++;
+      if (this.count < this.days) {
+        this.value += x;
+      } else if (this.count == this.days) {
+        this.value = (this.value + x) / this.days;
+      } else {
+        this.value += this.alpha * (x - this.value);
+      }
+    }
+
+    /**
+     * Determines if enough values have been appended for the average.
+     *
+     * @return true if there is an average.
+     */
+    boolean isReady() {
+      return this.count >= this.days;
+    }
+
+    /**
+     * Gets the average.
+     *
+     * @return the average, or NaN if it is not ready.
+     */
+    double get() {
+      return isReady() ? this.value : Double.NaN;
+    }
+  }
+
+  /**
+   * The simple moving average of the closing prices, summed in ten-thousandths so the running
+   * sum does not drift.
+   */
+  private static final class Sma implements Indicator {
+    private final int days; // number of trading days
+    private final long[] window; // ring buffer of the closing prices in ten-thousandths
+    private int count; // number of bars appended
+    private long sum; // sum of the ring buffer
+
+    /**
+     * Constructs an empty Sma.
+     *
+     * @param days the number of trading days.
+     */
+    Sma(int days) {
+      this.days = days;
+      this.window = new long[days];
+    }
+
+    @Override
+    public String[] getColumns() {
+      return new String[]{"SMA(" + this.days + ")"};
+    }
+
+    @Override
+    public int getFields() {
+      return CLOSE;
+    }
+
+    @Override
+    public void append(int epochDay, double open, double high, double low, double close,
+                       long volume) {
+      long ticks = FixedPoint.fromDouble(close);
+      int slot = this.count % this.days;
+      this.sum += ticks - this.window[slot];
+      this.window[slot] = ticks;
+      this.count++;
+    }
+
+    @Override
+    public void getValues(double[] dest, int destPos) {
+      dest[destPos] = this.count >= this.days ? this.sum / 10000.0 / this.days : Double.NaN;
+    }
+  }
+
+  /**
+   * The exponential moving average of the closing prices.
+   */
+  private static final class EmaIndicator implements Indicator {
+    private final int days; // number of trading days
+    private final Ema ema; // the average
+
+    /**
+     * Constructs an empty EmaIndicator.
+     *
+     * @param days the number of trading days.
+     */
+    EmaIndicator(int days) {
+      this.days = days;
+      this.ema = new Ema(days);
+    }
+
+    @Override
+    public String[] getColumns() {
+      return new String[]{"EMA(" + this.days + ")"};
+    }
+
+    @Override
+    public int getFields() {
+      return CLOSE;
+    }
+
+    @Override
+    public void append(int epochDay, double open, double high, double low, double close,
+                       long volume) {
+      this.ema.append(close);
+    }
+
+    @Override
+    public void getValues(double[] dest, int destPos) {
+      dest[destPos] = this.ema.get();
+    }
+  }
+
+  /**
+   * The relative strength index of the closing prices, with Wilder's smoothing of the average
+   * gains and losses.
+   */
+  private static final class Rsi implements Indicator {
+    private final int days; // number of trading days
+    private int changes; // number of day to day changes seen
+    private double previous = Double.NaN; // the previous closing price
+    private double gain; // average gain, or the sum of the gains until there are days of them
+    private double loss; // average loss, or the sum of the losses until there are days of them
+
+    /**
+     * Constructs an empty Rsi.
+     *
+     * @param days the number of trading days.
+     */
+    Rsi(int days) {
+      this.days = days;
+    }
+
+    @Override
+    public String[] getColumns() {
+      return new String[]{"RSI(" + this.days + ")"};
+    }
+
+    @Override
+    public int getFields() {
+      return CLOSE;
+    }
+
+    @Override
+    public void append(int epochDay, double open, double high, double low, double close,
+                       long volume) {
+      if (!Double.isNaN(this.previous)) {
+        double change = close - this.previous;
+        double up = Math.max(change, 0);
+        double down = Math.max(-change, 0);
+        this.changes++;
+        if (this.changes <= this.days) {
+          this.gain += up;
+          this.loss += down;
+          if (this.changes == this.days) {
+            this.gain /= this.days;
+            this.loss /= this.days;
+          }
+        } else {
+          this.gain = (this.gain * (this.days - 1) + up) / this.days;
+          this.loss = (this.loss * (this.days - 1) + down) / this.days;
+        }
+      }
+      this.previous = close;
+    }
+
+    @Override
+    public void getValues(double[] dest, int destPos) {
+      if (this.changes < this.days) {
+        dest[destPos] = Double.NaN;
+      } else if (this.loss == 0) {
+        dest[destPos] = this.gain == 0 ? 50 : 100;
+      } else {
+        dest[destPos] = 100 - 100 / (1 + this.gain / this.loss);
+      }
+    }
+  }
+
+  /**
+   * Bollinger bands of the closing prices. The running sums are kept relative to the first
+   * closing price, so they stay small and the variance does not lose precision.
+   */
+  private static final class Bollinger implements Indicator {
+    private final int days; // number of trading days
+    private final double deviations; // standard deviations from the average to each band
+    private final double[] window; // ring buffer of the closing prices, less the shift
+    private double shift = Double.NaN; // the first closing price
+    private int count; // number of bars appended
+    private double sum; // sum of the ring buffer
+    private double sumSquares; // sum of the squares of the ring buffer
+
+    /**
+     * Constructs empty Bollinger bands.
+     *
+     * @param days       the number of trading days.
+     * @param deviations the number of standard deviations from the average to each band.
+     */
+    Bollinger(int days, double deviations) {
+      this.days = days;
+      this.deviations = deviations;
+      this.window = new double[days];
+    }
+
+    @Override
+    public String[] getColumns() {
+      String name = "BB(" + this.days + "," + format(this.deviations) + ")";
+      return new String[]{name + ".middle", name + ".upper", name + ".lower"};
+    }
+
+    @Override
+    public int getFields() {
+      return CLOSE;
+    }
+
+    @Override
+    public void append(int epochDay, double open, double high, double low, double close,
+                       long volume) {
+      if (Double.isNaN(this.shift)) {
+        this.shift = close;
+      }
+      double x = close - this.shift;
+      int slot = this.count % this.days;
+      double old = this.window[slot];
+      this.sum += x - old;
+      this.sumSquares += x * x - old * old;
+      this.window[slot] = x;
+      this.count++;
+    }
+
+    @Override
+    public void getValues(double[] dest, int destPos) {
+      if (this.count < this.days) {
+        dest[destPos] = Double.NaN;
+        dest[destPos + 1] = Double.NaN;
+        dest[destPos + 2] = Double.NaN;
+        return;
+      }
+      double mean = this.sum / this.days;
+      double variance = Math.max(0, this.sumSquares / this.days - mean * mean);
+      double width = this.deviations * Math.sqrt(variance);
+      dest[destPos] = this.shift + mean;
+      dest[destPos + 1] = this.shift + mean + width;
+      dest[destPos + 2] = this.shift + mean - width;
+    }
+
+    /**
+     * Formats a number of deviations without a fraction if it is whole.
+     *
+     * @param deviations the number of deviations.
+     * @return the number as text.
+     */
+    private static String format(double deviations) {
+      return deviations == Math.rint(deviations) ? Long.toString((long) deviations)
+              : Double.toString(deviations);
+    }
+  }
+
+  /**
+   * The moving average convergence divergence of the closing prices, the difference of a fast
+   * and a slow exponential moving average, with its signal line and histogram.
+   */
+  private static final class Macd implements Indicator {
+    private final int fastDays; // number of trading days of the fast average
+    private final int slowDays; // number of trading days of the slow average
+    private final int signalDays; // number of trading days of the signal line
+    private final Ema fast; // the fast average
+    private final Ema slow; // the slow average
+    private final Ema signal; // the average of the MACD
+
+    /**
+     * Constructs an empty Macd.
+     *
+     * @param fast   the number of trading days of the fast average.
+     * @param slow   the number of trading days of the slow average.
+     * @param signal the number of trading days of the signal line.
+     */
+    Macd(int fast, int slow, int signal) {
+      this.fastDays = fast;
+      this.slowDays = slow;
+      this.signalDays = signal;
+      this.fast = new Ema(fast);
+      this.slow = new Ema(slow);
+      this.signal = new Ema(signal);
+    }
+
+    @Override
+    public String[] getColumns() {
+      String name = "MACD(" + this.fastDays + "," + this.slowDays + "," + this.signalDays + ")";
+      return new String[]{name, name + ".signal", name + ".histogram"};
+    }
+
+    @Override
+    public int getFields() {
+      return CLOSE;
+    }
+
+    @Override
+    public void append(int epochDay, double open, double high, double low, double close,
+                       long volume) {
+      this.fast.append(close);
+      this.slow.append(close);
+      if (this.fast.isReady() && this.slow.isReady()) {
+        this.signal.append(this.fast.get() - this.slow.get());
+      }
+    }
+
+    @Override
+    public void getValues(double[] dest, int destPos) {
+      boolean ready = this.fast.isReady() && this.slow.isReady();
+      double macd = ready ? this.fast.get() - this.slow.get() : Double.NaN;
+      double line = this.signal.get();
+      dest[destPos] = macd;
+      dest[destPos + 1] = line;
+      dest[destPos + 2] = macd - line;
+    }
+  }
+
+  /**
+   * The volume weighted average price over a window of trading days.
+   */
+  private static final class Vwap implements Indicator {
+    private final int days; // number of trading days
+    private final double[] prices; // ring buffer of typical price times volume
+    private final long[] volumes; // ring buffer of the volumes
+    private int count; // number of bars appended
+    private double priceVolume; // sum of the typical prices times the volumes in the window
+    private long volume; // sum of the volumes in the window
+
+    /**
+     * Constructs an empty Vwap.
+     *
+     * @param days the number of trading days.
+     */
+    Vwap(int days) {
+      this.days = days;
+      this.prices = new double[days];
+      this.volumes = new long[days];
+    }
+
+    @Override
+    public String[] getColumns() {
+      return new String[]{"VWAP(" + this.days + ")"};
+    }
+
+    @Override
+    public int getFields() {
+      return HIGH | LOW | CLOSE | VOLUME;
+    }
+
+    @Override
+    public void append(int epochDay, double open, double high, double low, double close,
+                       long volume) {
+      double weighted = (high + low + close) / 3 * volume;
+      int slot = this.count % this.days;
+      this.priceVolume += weighted - this.prices[slot];
+      this.volume += volume - this.volumes[slot];
+      this.prices[slot] = weighted;
+      this.volumes[slot] = volume;
+      this.count++;
+    }
+
+    @Override
+    public void getValues(double[] dest, int destPos) {
+      dest[destPos] = this.count >= this.days && this.volume > 0
+              ? this.priceVolume / this.volume : Double.NaN;
+    }
+  }
+}
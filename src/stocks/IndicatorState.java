@@ -0,0 +1,65 @@
+package stocks;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the running state of an indicator for a single stock and window. An IndicatorState
+ * is advanced one price bar at a time, oldest first, so that when new data arrives for a stock
+ * only the new bars need to be appended instead of recomputing over the whole history.
+ */
+public interface IndicatorState {
+
+  /**
+   * Advances this state by one price bar. Bars must be appended in increasing date order.
+   *
+   * @param date  the date of the bar.
+   * @param high  the high price on that date.
+   * @param low   the low price on that date.
+   * @param close the closing price on that date.
+   * @throws IllegalArgumentException if the date is not after the last appended date.
+   */
+  void append(LocalDate date, double high, double low, double close)
+          throws IllegalArgumentException;
+
+  /**
+   * Advances this state by one price bar given its date as an epoch day, so that callers
+   * looping over trading day indexes do not need to create a LocalDate for every bar.
+   *
+   * @param epochDay the date of the bar as a number of days since 1970-01-01.
+   * @param high     the high price on that date.
+   * @param low      the low price on that date.
+   * @param close    the closing price on that date.
+   * @throws IllegalArgumentException if the date is not after the last appended date.
+   */
+  void append(int epochDay, double high, double low, double close)
+          throws IllegalArgumentException;
+
+  /**
+   * Gets the number of days the indicator is computed over.
+   *
+   * @return the window of the indicator in days.
+   */
+  int getWindow();
+
+  /**
+   * Gets the date of the last bar appended to this state.
+   *
+   * @return the last appended date, or null if nothing has been appended yet.
+   */
+  LocalDate getLastDate();
+
+  /**
+   * Gets the value of the indicator as of the last appended bar.
+   *
+   * @return the current value of the indicator.
+   */
+  double getValue();
+
+  /**
+   * Determines if the last appended bar was a crossover, meaning its closing price was greater
+   * than the indicator value over the window of days before it.
+   *
+   * @return true if the last bar was a crossover, false if not.
+   */
+  boolean isCrossover();
+}
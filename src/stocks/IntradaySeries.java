@@ -0,0 +1,402 @@
+package stocks;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * IntradaySeries holds the intraday bars of one stock, such as the 1 or 5 minute bars of
+ * TIME_SERIES_INTRADAY, in primitive columns sorted by time. Each bar is keyed by its timestamp
+ * as a number of seconds since 1970-01-01 00:00, in the local time of the exchange as written in
+ * the data, so the date of a bar is its timestamp divided by SECONDS_PER_DAY. Prices are kept in
+ * fixed-point ten-thousandths, so a bar takes 48 bytes and millions of bars fit in a few
+ * arrays. It is immutable once built.
+ */
+public final class IntradaySeries {
+  public static final int SECONDS_PER_DAY = 86400; // seconds in one day
+
+  private final long[] timestamps; // Key: bar index, Value: seconds since 1970-01-01 00:00
+  private final long[] opens; // Key: bar index, Value: opening price in ticks
+  private final long[] highs; // Key: bar index, Value: high price in ticks
+  private final long[] lows; // Key: bar index, Value: low price in ticks
+  private final long[] closes; // Key: bar index, Value: closing price in ticks
+  private final long[] volumes; // Key: bar index, Value: volume
+
+  /**
+   * Constructs an IntradaySeries over sorted columns.
+   *
+   * @param timestamps the timestamps of the bars, sorted with no repeats.
+   * @param opens      the opening prices in ten-thousandths.
+   * @param highs      the high prices in ten-thousandths.
+   * @param lows       the low prices in ten-thousandths.
+   * @param closes     the closing prices in ten-thousandths.
+   * @param volumes    the volumes.
+   */
+  private IntradaySeries(long[] timestamps, long[] opens, long[] highs, long[] lows,
+                         long[] closes, long[] volumes) {
+    this.timestamps = timestamps;
+    this.opens = opens;
+    this.highs = highs;
+    this.lows = lows;
+    this.closes = closes;
+    this.volumes = volumes;
+  }
+
+  /**
+   * Converts a date and time to a timestamp of a bar.
+   *
+   * @param dateTime the date and time, in the local time of the exchange.
+   * @return the number of seconds since 1970-01-01 00:00.
+   */
+  public static long toTimestamp(LocalDateTime dateTime) {
+    return dateTime.toEpochSecond(ZoneOffset.UTC);
+  }
+
+  /**
+   * Gets the date of a timestamp of a bar.
+   *
+   * @param timestamp the number of seconds since 1970-01-01 00:00.
+   * @return the date as an epoch day.
+   */
+  public static int toEpochDay(long timestamp) {
+    return (int) Math.floorDiv(timestamp, SECONDS_PER_DAY);
+  }
+
+  /**
+   * Gets the number of bars in the series.
+   *
+   * @return the number of bars.
+   */
+  public int size() {
+    return this.timestamps.length;
+  }
+
+  /**
+   * Gets the timestamp of a bar.
+   *
+   * @param index the index of the bar, from 0 for the oldest.
+   * @return the number of seconds since 1970-01-01 00:00.
+   */
+  public long getTimestampAt(int index) {
+    return this.timestamps[index];
+  }
+
+  /**
+   * Gets the date and time of a bar.
+   *
+   * @param index the index of the bar, from 0 for the oldest.
+   * @return the date and time of the bar, in the local time of the exchange.
+   */
+  public LocalDateTime getDateTimeAt(int index) {
+    return LocalDateTime.ofEpochSecond(this.timestamps[index], 0, ZoneOffset.UTC);
+  }
+
+  /**
+   * Gets the opening price of a bar.
+   *
+   * @param index the index of the bar.
+   * @return the opening price in ten-thousandths.
+   */
+  public long getOpenTicksAt(int index) {
+    return this.opens[index];
+  }
+
+  /**
+   * Gets the high price of a bar.
+   *
+   * @param index the index of the bar.
+   * @return the high price in ten-thousandths.
+   */
+  public long getHighTicksAt(int index) {
+    return this.highs[index];
+  }
+
+  /**
+   * Gets the low price of a bar.
+   *
+   * @param index the index of the bar.
+   * @return the low price in ten-thousandths.
+   */
+  public long getLowTicksAt(int index) {
+    return this.lows[index];
+  }
+
+  /**
+   * Gets the closing price of a bar.
+   *
+   * @param index the index of the bar.
+   * @return the closing price in ten-thousandths.
+   */
+  public long getCloseTicksAt(int index) {
+    return this.closes[index];
+  }
+
+  /**
+   * Gets the volume of a bar.
+   *
+   * @param index the index of the bar.
+   * @return the volume.
+   */
+  public long getVolumeAt(int index) {
+    return this.volumes[index];
+  }
+
+  /**
+   * Finds the bar with the given timestamp.
+   *
+   * @param timestamp the number of seconds since 1970-01-01 00:00.
+   * @return the index of the bar, or -1 if there is no bar at that time.
+   */
+  public int indexOf(long timestamp) {
+    int index = Arrays.binarySearch(this.timestamps, timestamp);
+    return index < 0 ? -1 : index;
+  }
+
+  /**
+   * Finds the first bar at or after the given timestamp.
+   *
+   * @param timestamp the number of seconds since 1970-01-01 00:00.
+   * @return the index of the first bar at or after the time, or size() if there is none.
+   */
+  public int ceilingIndex(long timestamp) {
+    int index = Arrays.binarySearch(this.timestamps, timestamp);
+    return index < 0 ? -index - 1 : index;
+  }
+
+  /**
+   * Finds the first bar on or after the given date.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the index of the first bar on or after the date, or size() if there is none.
+   */
+  public int dayStart(int epochDay) {
+    return ceilingIndex((long) epochDay * SECONDS_PER_DAY);
+  }
+
+  /**
+   * Rolls the bars up into one bar per day: the opening price of the first bar, the highest
+   * high, the lowest low, the closing price of the last bar, and the total volume.
+   *
+   * @param ticker the stock symbol.
+   * @return a daily stock with no shares, which keeps this series as its bars.
+   * @throws IllegalStateException if the series has no bars.
+   */
+  public IntradayStockImpl toDaily(String ticker) throws IllegalStateException {
+    if (size() == 0) {
+      throw new IllegalStateException("There are no bars to roll up");
+    }
+    int days = 0;
+    for (int i = 0; i < size(); i++) {
+      if (i == 0 || toEpochDay(this.timestamps[i]) != toEpochDay(this.timestamps[i - 1])) {
+        days++;
+      }
+    }
+    int[] epochDays = new int[days];
+    long[] dayOpens = new long[days];
+    long[] dayHighs = new long[days];
+    long[] dayLows = new long[days];
+    long[] dayCloses = new long[days];
+    long[] dayVolumes = new long[days];
+    int day = -1;
+    for (int i = 0; i < size(); i++) {
+      int epochDay = toEpochDay(this.timestamps[i]);
+      if (day < 0 || epochDays[day] != epochDay) {
+        day++;
+        epochDays[day] = epochDay;
+        dayOpens[day] = this.opens[i];
+        dayHighs[day] = this.highs[i];
+        dayLows[day] = this.lows[i];
+      } else {
+        dayHighs[day] = Math.max(dayHighs[day], this.highs[i]);
+        dayLows[day] = Math.min(dayLows[day], this.lows[i]);
+      }
+      dayCloses[day] = this.closes[i];
+      dayVolumes[day] += this.volumes[i];
+    }
+    return new IntradayStockImpl(ticker, 0, this, epochDays, dayOpens,
+            dayHighs, dayLows, dayCloses, dayVolumes, new TreeMap<>());
+  }
+
+  /**
+   * A builder for IntradaySeries, which takes bars in any order.
+   */
+  public static class Builder {
+    private long[] timestamps = new long[64];
+    private long[] opens = new long[64];
+    private long[] highs = new long[64];
+    private long[] lows = new long[64];
+    private long[] closes = new long[64];
+    private long[] volumes = new long[64];
+    private int count;
+
+    /**
+     * Adds one bar, rounding the prices to ten-thousandths.
+     *
+     * @param dateTime the date and time of the bar, in the local time of the exchange.
+     * @param open     the opening price.
+     * @param high     the high price.
+     * @param low      the low price.
+     * @param close    the closing price.
+     * @param volume   the volume.
+     * @return this builder.
+     */
+    public Builder add(LocalDateTime dateTime, double open, double high, double low,
+                       double close, long volume) {
+      return addTicks(toTimestamp(dateTime), FixedPoint.fromDouble(open),
+              FixedPoint.fromDouble(high), FixedPoint.fromDouble(low),
+              FixedPoint.fromDouble(close), volume);
+    }
+
+    /**
+     * Adds one bar that is already in fixed-point.
+     *
+     * @param timestamp the number of seconds since 1970-01-01 00:00.
+     * @param open      the opening price in ten-thousandths.
+     * @param high      the high price in ten-thousandths.
+     * @param low       the low price in ten-thousandths.
+     * @param close     the closing price in ten-thousandths.
+     * @param volume    the volume.
+     * @return this builder.
+     */
+    public Builder addTicks(long timestamp, long open, long high, long low, long close,
+                            long volume) {
+      if (count == timestamps.length) {
+        grow(count * 2);
+      }
+      timestamps[count] = timestamp;
+      opens[count] = open;
+      highs[count] = high;
+      lows[count] = low;
+      closes[count] = close;
+      volumes[count] = volume;
+      count++;
+      return this;
+    }
+
+    /**
+     * Adds every bar of another builder after the bars of this one, as if they had been added
+     * to this builder in the same order.
+     *
+     * @param other the builder to add the bars of.
+     * @return this builder.
+     */
+    public Builder addAll(Builder other) {
+      if (count + other.count > timestamps.length) {
+        grow(count + other.count);
+      }
+      System.arraycopy(other.timestamps, 0, timestamps, count, other.count);
+      System.arraycopy(other.opens, 0, opens, count, other.count);
+      System.arraycopy(other.highs, 0, highs, count, other.count);
+      System.arraycopy(other.lows, 0, lows, count, other.count);
+      System.arraycopy(other.closes, 0, closes, count, other.count);
+      System.arraycopy(other.volumes, 0, volumes, count, other.count);
+      count += other.count;
+      return this;
+    }
+
+    /**
+     * Gets the number of bars added so far, including bars with repeated timestamps.
+     *
+     * @return the number of bars added.
+     */
+    public int size() {
+      return count;
+    }
+
+    /**
+     * Grows every column to the given capacity.
+     *
+     * @param capacity the new capacity.
+     */
+    private void grow(int capacity) {
+      timestamps = Arrays.copyOf(timestamps, capacity);
+      opens = Arrays.copyOf(opens, capacity);
+      highs = Arrays.copyOf(highs, capacity);
+      lows = Arrays.copyOf(lows, capacity);
+      closes = Arrays.copyOf(closes, capacity);
+      volumes = Arrays.copyOf(volumes, capacity);
+    }
+
+    /**
+     * Sorts bar indexes by timestamp, keeping bars with the same timestamp in the order they
+     * were added.
+     *
+     * @param order   the bar indexes to sort.
+     * @param scratch an array as long as order to merge through.
+     * @param from    the first index to sort.
+     * @param to      one past the last index to sort.
+     */
+    private void mergeSort(int[] order, int[] scratch, int from, int to) {
+      if (to - from < 2) {
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      mergeSort(order, scratch, from, mid);
+      mergeSort(order, scratch, mid, to);
+      if (timestamps[order[mid - 1]] <= timestamps[order[mid]]) {
+        return;
+      }
+      System.arraycopy(order, from, scratch, from, to - from);
+      int left = from;
+      int right = mid;
+      for (int i = from; i < to; i++) {
+        if (right >= to || (left < mid
+                && timestamps[scratch[left]] <= timestamps[scratch[right]])) {
+          order[i] = scratch[left++];
+        } else {
+          order[i] = scratch[right++];
+        }
+      }
+    }
+
+    /**
+     * Builds an IntradaySeries from the added bars, sorted by time. If two bars have the same
+     * timestamp, the one added last is kept.
+     *
+     * @return the built IntradaySeries.
+     */
+    public IntradaySeries build() {
+      int[] sorted = new int[count];
+      for (int i = 0; i < count; i++) {
+        sorted[i] = i;
+      }
+      // the data from the API is newest first, so the bars are usually just reversed
+      boolean descending = true;
+      for (int i = 1; i < count && descending; i++) {
+        descending = timestamps[i - 1] > timestamps[i];
+      }
+      if (descending) {
+        for (int i = 0; i < count; i++) {
+          sorted[i] = count - 1 - i;
+        }
+      } else {
+        mergeSort(sorted, new int[count], 0, count);
+      }
+      int bars = 0;
+      for (int i = 0; i < count; i++) {
+        if (i == count - 1 || timestamps[sorted[i]] != timestamps[sorted[i + 1]]) {
+          sorted[bars++] = sorted[i];
+        }
+      }
+
+      long[] sortedTimestamps = new long[bars];
+      long[] sortedOpens = new long[bars];
+      long[] sortedHighs = new long[bars];
+      long[] sortedLows = new long[bars];
+      long[] sortedCloses = new long[bars];
+      long[] sortedVolumes = new long[bars];
+      for (int bar = 0; bar < bars; bar++) {
+        int i = sorted[bar];
+        sortedTimestamps[bar] = timestamps[i];
+        sortedOpens[bar] = opens[i];
+        sortedHighs[bar] = highs[i];
+        sortedLows[bar] = lows[i];
+        sortedCloses[bar] = closes[i];
+        sortedVolumes[bar] = volumes[i];
+      }
+      return new IntradaySeries(sortedTimestamps, sortedOpens, sortedHighs, sortedLows,
+              sortedCloses, sortedVolumes);
+    }
+  }
+}
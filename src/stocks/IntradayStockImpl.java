@@ -0,0 +1,62 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * An IntradayStockImpl class which extends FixedPointStockImpl. It represents a stock loaded
+ * from intraday bars: every daily price it answers is rolled up from the bars of that day, so
+ * the daily commands work on it like on any other stock, while the bars themselves stay
+ * available through getBars().
+ */
+public class IntradayStockImpl extends FixedPointStockImpl {
+
+  protected final IntradaySeries bars; // the intraday bars the daily prices are rolled up from
+
+  /**
+   * The constructor for IntradayStockImpl.
+   *
+   * @param ticker     the stock symbol
+   * @param numShares  number of shares of that stock
+   * @param bars       the intraday bars of the stock
+   * @param epochDays  the dates with bars as epoch days, sorted, by trading day index
+   * @param opens      the opening price of the first bar of each day, in ten-thousandths
+   * @param highs      the highest price of each day, in ten-thousandths
+   * @param lows       the lowest price of each day, in ten-thousandths
+   * @param closes     the closing price of the last bar of each day, in ten-thousandths
+   * @param volumes    the total volume of each day
+   * @param shareDates Key: date, Value: number of shares purchased at that date
+   */
+  protected IntradayStockImpl(String ticker, double numShares, IntradaySeries bars,
+                              int[] epochDays, long[] opens, long[] highs, long[] lows,
+                              long[] closes, long[] volumes, Map<LocalDate, Double> shareDates) {
+    super(ticker, numShares, epochDays, opens, highs, lows, closes, volumes, shareDates);
+    this.bars = bars;
+  }
+
+  @Override
+  protected Stock withShares(double numShares, Map<LocalDate, Double> shareDates) {
+    return new IntradayStockImpl(this.ticker, numShares, this.bars, this.epochDays,
+            this.opens, this.highs, this.lows, this.closes, this.volumes, shareDates);
+  }
+
+  /**
+   * Gets the intraday bars of the stock.
+   *
+   * @return the bars, sorted by time.
+   */
+  public IntradaySeries getBars() {
+    return this.bars;
+  }
+
+  /**
+   * Finds the bars of one trading day.
+   *
+   * @param index the trading day index.
+   * @return the index of the first bar of the day and one past the index of its last bar.
+   */
+  public int[] getBarRange(int index) {
+    int day = getEpochDayAt(index);
+    return new int[]{this.bars.dayStart(day), this.bars.dayStart(day + 1)};
+  }
+}
@@ -0,0 +1,122 @@
+package stocks;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A LatencyHistogram which implements LatencyHistogramMXBean. It records how long an operation
+ * takes into buckets by powers of two nanoseconds, so recording is a few atomic additions
+ * without any locking, and percentiles are accurate to within a factor of two. It can also
+ * record how many bytes the operation allocated.
+ */
+public class LatencyHistogram implements LatencyHistogramMXBean {
+
+  private final AtomicLongArray buckets = new AtomicLongArray(64); // bucket i counts timings
+  // from 2^i up to 2^(i + 1) nanoseconds
+  private final LongAdder count = new LongAdder(); // number of recorded timings
+  private final LongAdder totalNanos = new LongAdder(); // sum of the recorded timings
+  private final AtomicLong maxNanos = new AtomicLong(); // longest recorded timing
+  private final LongAdder allocations = new LongAdder(); // number of recorded allocations
+  private final LongAdder allocatedBytes = new LongAdder(); // sum of the recorded allocations
+  private final AtomicLong maxAllocatedBytes = new AtomicLong(); // largest recorded allocation
+
+  /**
+   * Records one timing of the operation.
+   *
+   * @param nanos how long the operation took in nanoseconds.
+   */
+  public void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    this.buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos | 1));
+    this.count.increment();
+    this.totalNanos.add(nanos);
+    this.maxNanos.accumulateAndGet(nanos, Math::max);
+  }
+
+  /**
+   * Records how many bytes one run of the operation allocated.
+   *
+   * @param bytes the bytes allocated, ignored if negative because it could not be measured.
+   */
+  public void recordAllocation(long bytes) {
+    if (bytes < 0) {
+      return;
+    }
+    this.allocations.increment();
+    this.allocatedBytes.add(bytes);
+    this.maxAllocatedBytes.accumulateAndGet(bytes, Math::max);
+  }
+
+  @Override
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  @Override
+  public double getMeanMillis() {
+    long n = getCount();
+    if (n == 0) {
+      return 0;
+    }
+    return this.totalNanos.sum() / (double) n / 1_000_000;
+  }
+
+  @Override
+  public double getMaxMillis() {
+    return this.maxNanos.get() / 1_000_000.0;
+  }
+
+  @Override
+  public long getMeanAllocatedBytes() {
+    long n = this.allocations.sum();
+    if (n == 0) {
+      return -1;
+    }
+    return this.allocatedBytes.sum() / n;
+  }
+
+  @Override
+  public long getMaxAllocatedBytes() {
+    if (this.allocations.sum() == 0) {
+      return -1;
+    }
+    return this.maxAllocatedBytes.get();
+  }
+
+  @Override
+  public double getP50Millis() {
+    return getPercentileMillis(0.5);
+  }
+
+  @Override
+  public double getP99Millis() {
+    return getPercentileMillis(0.99);
+  }
+
+  /**
+   * Estimates the time that the given fraction of the timings were under, as the upper bound
+   * of the bucket the percentile falls in, capped at the maximum timing.
+   *
+   * @param fraction the percentile as a fraction between 0 and 1.
+   * @return the estimated percentile latency in milliseconds.
+   */
+  public double getPercentileMillis(double fraction) {
+    long n = getCount();
+    if (n == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(fraction * n);
+    long seen = 0;
+    for (int i = 0; i < 64; i++) {
+      seen += this.buckets.get(i);
+      if (seen >= rank) {
+        double upper = i >= 62 ? Long.MAX_VALUE : (double) (1L << (i + 1));
+        return Math.min(upper, this.maxNanos.get()) / 1_000_000;
+      }
+    }
+    return getMaxMillis();
+  }
+}
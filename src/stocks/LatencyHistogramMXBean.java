@@ -0,0 +1,57 @@
+package stocks;
+
+/**
+ * The management interface of a LatencyHistogram, used to expose the timings of an operation
+ * in the stock program through JMX.
+ */
+public interface LatencyHistogramMXBean {
+
+  /**
+   * Gets the number of times the operation was timed.
+   *
+   * @return the number of recorded timings.
+   */
+  long getCount();
+
+  /**
+   * Gets the average time the operation took.
+   *
+   * @return the mean latency in milliseconds.
+   */
+  double getMeanMillis();
+
+  /**
+   * Gets the longest time the operation took.
+   *
+   * @return the maximum latency in milliseconds.
+   */
+  double getMaxMillis();
+
+  /**
+   * Gets the median time the operation took.
+   *
+   * @return the 50th percentile latency in milliseconds.
+   */
+  double getP50Millis();
+
+  /**
+   * Gets the time that 99 percent of the timings were under.
+   *
+   * @return the 99th percentile latency in milliseconds.
+   */
+  double getP99Millis();
+
+  /**
+   * Gets the average number of bytes the operation allocated.
+   *
+   * @return the mean bytes allocated, or -1 if allocations were not recorded.
+   */
+  long getMeanAllocatedBytes();
+
+  /**
+   * Gets the largest number of bytes the operation allocated.
+   *
+   * @return the maximum bytes allocated, or -1 if allocations were not recorded.
+   */
+  long getMaxAllocatedBytes();
+}
@@ -0,0 +1,374 @@
+package stocks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A LazyColumnStockImpl class which extends AbstractStock. It represents a stock that only
+ * loads its dates when it is created, and loads each of its opening, high, low and closing
+ * prices and volumes the first time one of them is read, either by parsing just that field of
+ * the csv or by decoding just that column of the binary store. A portfolio valuation only
+ * reads closing prices, so it loads two of the six columns, while moving averages and
+ * crossovers still load the high and low prices when they need them. A loaded column is
+ * shared by every copy of the stock. Before a column is parsed from the csv, the csv is checked
+ * for changes since its dates were read, and if it was rewritten, its dates are read again and
+ * the columns loaded so far are dropped, so the rows of a column always line up with the dates.
+ */
+public class LazyColumnStockImpl extends AbstractStock {
+  public static final int OPENS = 1; // column of the opening prices
+  public static final int HIGHS = 2; // column of the high prices
+  public static final int LOWS = 3; // column of the low prices
+  public static final int CLOSES = 4; // column of the closing prices
+  public static final int VOLUMES = 5; // column of the volumes
+
+  private final ColumnSource source; // where the dates and columns are loaded from
+  private final AtomicReference<Columns> data; // the dates and the columns loaded so far,
+  // shared by every copy of the stock
+
+  /**
+   * The constructor for LazyColumnStockImpl.
+   *
+   * @param ticker     the stock symbol
+   * @param numShares  number of shares of that stock
+   * @param source     where to load the dates and the other columns from
+   * @param data       the dates and the columns that have been loaded so far
+   * @param shareDates Key: date, Value: number of shares purchased at that date
+   */
+  private LazyColumnStockImpl(String ticker, double numShares, ColumnSource source,
+                              AtomicReference<Columns> data,
+                              Map<LocalDate, Double> shareDates) {
+    super(ticker, numShares, shareDates);
+    this.source = source;
+    this.data = data;
+  }
+
+  /**
+   * Creates a stock that loads its columns from a csv file, one field at a time. Only the
+   * dates are parsed now.
+   *
+   * @param ticker the ticker of the stock.
+   * @param csv    the csv file, plain or gzip compressed.
+   * @return the stock, with no shares.
+   * @throws IOException if the csv cannot be read.
+   */
+  public static LazyColumnStockImpl fromCsv(String ticker, File csv) throws IOException {
+    CsvSource source = new CsvSource(csv);
+    Columns data = source.readDates();
+    return new LazyColumnStockImpl(data.epochDays.length == 0 ? null : ticker, 0, source,
+            new AtomicReference<>(data), new TreeMap<>());
+  }
+
+  /**
+   * Creates a stock that decodes its columns from compressed price columns, one column at a
+   * time. Only the dates are decoded now.
+   *
+   * @param ticker the ticker of the stock.
+   * @param prices the compressed price columns, such as read from the binary store.
+   * @return the stock, with no shares.
+   */
+  public static LazyColumnStockImpl fromStore(String ticker, CompressedPriceColumns prices) {
+    int[] epochDays = new int[prices.size()];
+    int[] block = new int[CompressedPriceColumns.BLOCK_SIZE];
+    for (int i = 0; i < prices.getBlockCount(); i++) {
+      int count = prices.decodeDays(i, block);
+      System.arraycopy(block, 0, epochDays, i * CompressedPriceColumns.BLOCK_SIZE, count);
+    }
+    ColumnSource source = new ColumnSource() {
+      @Override
+      public Columns refresh(Columns current) {
+        return current;
+      }
+
+      @Override
+      public long[] load(Columns current, int column) {
+        long[] values = new long[prices.size()];
+        long[] decoded = new long[CompressedPriceColumns.BLOCK_SIZE];
+        for (int i = 0; i < prices.getBlockCount(); i++) {
+          int count = prices.decodeColumn(i, column, decoded);
+          System.arraycopy(decoded, 0, values, i * CompressedPriceColumns.BLOCK_SIZE, count);
+        }
+        return values;
+      }
+    };
+    return new LazyColumnStockImpl(epochDays.length == 0 ? null : ticker, 0, source,
+            new AtomicReference<>(new Columns(epochDays, null, 0, 0, 0)), new TreeMap<>());
+  }
+
+  @Override
+  protected Stock withShares(double numShares, Map<LocalDate, Double> shareDates) {
+    return new LazyColumnStockImpl(this.ticker, numShares, this.source, this.data, shareDates);
+  }
+
+  /**
+   * Determines if a column has been loaded yet.
+   *
+   * @param column the column, OPENS, HIGHS, LOWS, CLOSES or VOLUMES.
+   * @return true if it has been loaded, false if not.
+   */
+  public boolean isLoaded(int column) {
+    return this.data.get().loaded.get(column) != null;
+  }
+
+  /**
+   * Gets a column, loading it if it has not been loaded yet. If the csv has changed since the
+   * dates were read, the dates are read again first.
+   *
+   * @param column the column, OPENS, HIGHS, LOWS, CLOSES or VOLUMES.
+   * @return the column, by trading day index.
+   * @throws UncheckedIOException if the column cannot be loaded.
+   */
+  private long[] column(int column) throws UncheckedIOException {
+    Columns current = this.data.get();
+    long[] values = current.loaded.get(column);
+    if (values == null) {
+      try {
+        Columns fresh = this.source.refresh(current);
+        if (fresh != current) {
+          MetricsRegistry.increment("load.stock.reloads");
+          this.data.compareAndSet(current, fresh);
+          current = this.data.get();
+        }
+        values = this.source.load(current, column);
+      } catch (IOException e) {
+        MetricsRegistry.increment("load.stock.errors");
+        throw new UncheckedIOException(e);
+      }
+      MetricsRegistry.increment("load.stock.columns");
+      if (!current.loaded.compareAndSet(column, null, values)) {
+        values = current.loaded.get(column);
+      }
+    }
+    return values;
+  }
+
+  @Override
+  public int getTradingDayCount() {
+    return this.data.get().epochDays.length;
+  }
+
+  @Override
+  public int indexOf(int epochDay) {
+    int index = Arrays.binarySearch(this.data.get().epochDays, epochDay);
+    return index < 0 ? -1 : index;
+  }
+
+  @Override
+  public int ceilingIndex(int epochDay) {
+    int index = Arrays.binarySearch(this.data.get().epochDays, epochDay);
+    return index < 0 ? -index - 1 : index;
+  }
+
+  @Override
+  public int getEpochDayAt(int index) {
+    return this.data.get().epochDays[index];
+  }
+
+  @Override
+  public double getOpenAt(int index) {
+    return FixedPoint.toDouble(column(OPENS)[index]);
+  }
+
+  @Override
+  public double getHighAt(int index) {
+    return FixedPoint.toDouble(column(HIGHS)[index]);
+  }
+
+  @Override
+  public double getLowAt(int index) {
+    return FixedPoint.toDouble(column(LOWS)[index]);
+  }
+
+  @Override
+  public double getCloseAt(int index) {
+    return FixedPoint.toDouble(getCloseTicksAt(index));
+  }
+
+  @Override
+  public long getCloseTicksAt(int index) {
+    return column(CLOSES)[index];
+  }
+
+  @Override
+  public long getVolumeAt(int index) {
+    return column(VOLUMES)[index];
+  }
+
+  @Override
+  public void copyEpochDays(int from, int to, int[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(this.data.get().epochDays, from, dest, destPos, to - from);
+  }
+
+  @Override
+  public void copyOpens(int from, int to, double[] dest, int destPos) {
+    copyPrices(column(OPENS), from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyHighs(int from, int to, double[] dest, int destPos) {
+    copyPrices(column(HIGHS), from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyLows(int from, int to, double[] dest, int destPos) {
+    copyPrices(column(LOWS), from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyCloses(int from, int to, double[] dest, int destPos) {
+    copyPrices(column(CLOSES), from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyCloseTicks(int from, int to, long[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(column(CLOSES), from, dest, destPos, to - from);
+  }
+
+  @Override
+  public void copyVolumes(int from, int to, long[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(column(VOLUMES), from, dest, destPos, to - from);
+  }
+
+  /**
+   * Copies fixed-point prices into an array of doubles.
+   *
+   * @param ticks   the prices in ten-thousandths.
+   * @param from    the first trading day index to copy.
+   * @param to      one past the last trading day index to copy.
+   * @param dest    the array to copy into.
+   * @param destPos where to start in dest.
+   */
+  private void copyPrices(long[] ticks, int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    for (int i = from; i < to; i++) {
+      dest[destPos + i - from] = FixedPoint.toDouble(ticks[i]);
+    }
+  }
+
+  /**
+   * The dates of a stock, where each of them is in its source, and the columns loaded for them
+   * so far. The dates never change, so when the source changes a new Columns replaces this one.
+   */
+  private static final class Columns {
+    private final int[] epochDays; // Key: trading day index, Value: epoch day of that date
+    private final int[] fileRows; // Key: trading day index, Value: row of the csv, or null
+    private final int fileRowCount; // number of rows of the csv with a date
+    private final long modified; // when the csv was last modified as the dates were read
+    private final long length; // size of the csv as the dates were read
+    private final AtomicReferenceArray<long[]> loaded = new AtomicReferenceArray<>(VOLUMES + 1);
+    // Key: column, Value: the column by trading day index once it has been loaded, or null
+
+    /**
+     * Constructs the Columns of a set of dates, with no columns loaded.
+     *
+     * @param epochDays    the dates as epoch days, sorted, by trading day index.
+     * @param fileRows     the row of the csv of each date, or null if there is no csv.
+     * @param fileRowCount the number of rows of the csv with a date.
+     * @param modified     when the csv was last modified as the dates were read.
+     * @param length       the size of the csv as the dates were read.
+     */
+    Columns(int[] epochDays, int[] fileRows, int fileRowCount, long modified, long length) {
+      this.epochDays = epochDays;
+      this.fileRows = fileRows;
+      this.fileRowCount = fileRowCount;
+      this.modified = modified;
+      this.length = length;
+    }
+  }
+
+  /**
+   * Loads the columns of a stock, by trading day index.
+   */
+  private interface ColumnSource {
+
+    /**
+     * Checks that the dates are still those of the source, reading them again if not.
+     *
+     * @param current the dates read so far.
+     * @return current if it is up to date, or the dates read again.
+     * @throws IOException if the dates cannot be read.
+     */
+    Columns refresh(Columns current) throws IOException;
+
+    /**
+     * Loads a column.
+     *
+     * @param current the dates to load the column for.
+     * @param column  the column, OPENS, HIGHS, LOWS, CLOSES or VOLUMES.
+     * @return the values of the column, by trading day index.
+     * @throws IOException if the column cannot be read.
+     */
+    long[] load(Columns current, int column) throws IOException;
+  }
+
+  /**
+   * Loads the columns of a stock from its csv, one field at a time.
+   */
+  private static final class CsvSource implements ColumnSource {
+    private final File csv; // the csv file, plain or gzip compressed
+
+    /**
+     * Constructs a CsvSource over the given file.
+     *
+     * @param csv the csv file.
+     */
+    CsvSource(File csv) {
+      this.csv = csv;
+    }
+
+    /**
+     * Reads the dates of the csv, sorted, keeping the last row of each date.
+     *
+     * @return the dates, with no columns loaded.
+     * @throws IOException if the csv cannot be read.
+     */
+    Columns readDates() throws IOException {
+      long modified = this.csv.lastModified();
+      long length = this.csv.length();
+      ParallelCsvParser.Column days = ParallelCsvParser.parseColumn(this.csv, 0,
+              ForkJoinPool.commonPool());
+      int[] fileDays = new int[days.size()];
+      for (int i = 0; i < fileDays.length; i++) {
+        fileDays[i] = (int) days.get(i);
+      }
+      int[] fileRows = DateSort.sortedRows(fileDays, fileDays.length);
+      int[] epochDays = new int[fileRows.length];
+      for (int row = 0; row < epochDays.length; row++) {
+        epochDays[row] = fileDays[fileRows[row]];
+      }
+      return new Columns(epochDays, fileRows, fileDays.length, modified, length);
+    }
+
+    @Override
+    public Columns refresh(Columns current) throws IOException {
+      if (this.csv.lastModified() == current.modified && this.csv.length() == current.length) {
+        return current;
+      }
+      return readDates();
+    }
+
+    @Override
+    public long[] load(Columns current, int column) throws IOException {
+      ParallelCsvParser.Column parsed = ParallelCsvParser.parseColumn(this.csv, column,
+              ForkJoinPool.commonPool());
+      if (parsed.size() != current.fileRowCount) {
+        throw new IOException(this.csv + " changed while its prices were being read");
+      }
+      long[] values = new long[current.fileRows.length];
+      for (int row = 0; row < values.length; row++) {
+        values[row] = parsed.get(current.fileRows[row]);
+      }
+      return values;
+    }
+  }
+}
@@ -0,0 +1,227 @@
+package stocks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A LazyStockImpl class which extends AbstractStock. It stands in for a stock of a retrieved
+ * portfolio, holding only its ticker and shares, so that a portfolio can be opened, shown and
+ * traded without reading the price history of every stock in it. The prices are loaded the first
+ * time one of them is read, from the stock cached in Utils.getStocks() if it has been loaded, or
+ * with makeStock otherwise, and are then shared by every copy of the stock. A LazyStockImpl is
+ * never put in Utils.getStocks() itself. Loading writes the maps of Utils, which are not thread
+ * safe, so the prices can only be loaded on the thread that created the stock, the thread that
+ * runs the commands; other threads may only read them once they have been loaded.
+ */
+public class LazyStockImpl extends AbstractStock {
+
+  private final AtomicReference<Stock> prices; // the stock the prices are read from once it
+  // has been loaded, or null
+  private final Thread owner; // the thread that may load the prices
+
+  /**
+   * The constructor for LazyStockImpl.
+   *
+   * @param ticker     the stock symbol
+   * @param numShares  number of shares of that stock
+   * @param shareDates Key: date, Value: number of shares purchased at that date
+   */
+  public LazyStockImpl(String ticker, double numShares, Map<LocalDate, Double> shareDates) {
+    this(ticker, numShares, new AtomicReference<>(), Thread.currentThread(), shareDates);
+  }
+
+  /**
+   * Constructs a LazyStockImpl that shares the prices already loaded by another.
+   *
+   * @param ticker     the stock symbol
+   * @param numShares  number of shares of that stock
+   * @param prices     the stock the prices are read from, once it has been loaded
+   * @param owner      the thread that may load the prices
+   * @param shareDates Key: date, Value: number of shares purchased at that date
+   */
+  private LazyStockImpl(String ticker, double numShares, AtomicReference<Stock> prices,
+                        Thread owner, Map<LocalDate, Double> shareDates) {
+    super(ticker, numShares, shareDates);
+    this.prices = prices;
+    this.owner = owner;
+  }
+
+  @Override
+  protected Stock withShares(double numShares, Map<LocalDate, Double> shareDates) {
+    return new LazyStockImpl(this.ticker, numShares, this.prices, this.owner, shareDates);
+  }
+
+  /**
+   * Determines if the prices of the stock have been loaded yet.
+   *
+   * @return true if they have been loaded, false if not.
+   */
+  public boolean isLoaded() {
+    return this.prices.get() != null;
+  }
+
+  /**
+   * Gets the stock the prices are read from, loading it into Utils.getStocks() if it has not
+   * been loaded yet.
+   *
+   * @return the loaded stock.
+   * @throws IOException           if the stock cannot be loaded.
+   * @throws IllegalStateException if the stock has not been loaded and this is not the thread
+   *                               that created it.
+   */
+  public Stock load() throws IOException, IllegalStateException {
+    Stock loaded = this.prices.get();
+    if (loaded == null) {
+      if (Thread.currentThread() != this.owner) {
+        throw new IllegalStateException("The prices of " + this.ticker + " must be loaded on "
+                + "the thread that runs the commands before other threads read them.");
+      }
+      loaded = Utils.getStocks().get(this.ticker);
+      if (loaded == null) {
+        try {
+          loaded = StockBuilder.makeStock(this.ticker);
+        } catch (IOException e) {
+          MetricsRegistry.increment("load.stock.errors");
+          throw e;
+        }
+      }
+      MetricsRegistry.increment("load.stock.deferred");
+      this.prices.set(loaded);
+    }
+    return loaded;
+  }
+
+  /**
+   * Gets the stock the prices are read from, loading it if it has not been loaded yet. A
+   * command that cannot load it is ended by the controller, which reports the error.
+   *
+   * @return the loaded stock.
+   * @throws UncheckedIOException if the stock cannot be loaded.
+   */
+  private Stock prices() throws UncheckedIOException {
+    try {
+      return load();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public Long getVolume(LocalDate date) {
+    return prices().getVolume(date);
+  }
+
+  @Override
+  public Double getOpeningPrice(LocalDate date) {
+    return prices().getOpeningPrice(date);
+  }
+
+  @Override
+  public Double getClosingPrice(LocalDate date) {
+    return prices().getClosingPrice(date);
+  }
+
+  @Override
+  public Double getHighPrice(LocalDate date) {
+    return prices().getHighPrice(date);
+  }
+
+  @Override
+  public Double getLowPrice(LocalDate date) {
+    return prices().getLowPrice(date);
+  }
+
+  @Override
+  public List<LocalDate> getDates() {
+    return prices().getDates();
+  }
+
+  @Override
+  public int getTradingDayCount() {
+    return prices().getTradingDayCount();
+  }
+
+  @Override
+  public int indexOf(int epochDay) {
+    return prices().indexOf(epochDay);
+  }
+
+  @Override
+  public int ceilingIndex(int epochDay) {
+    return prices().ceilingIndex(epochDay);
+  }
+
+  @Override
+  public int getEpochDayAt(int index) {
+    return prices().getEpochDayAt(index);
+  }
+
+  @Override
+  public double getOpenAt(int index) {
+    return prices().getOpenAt(index);
+  }
+
+  @Override
+  public double getHighAt(int index) {
+    return prices().getHighAt(index);
+  }
+
+  @Override
+  public double getLowAt(int index) {
+    return prices().getLowAt(index);
+  }
+
+  @Override
+  public double getCloseAt(int index) {
+    return prices().getCloseAt(index);
+  }
+
+  @Override
+  public long getCloseTicksAt(int index) {
+    return prices().getCloseTicksAt(index);
+  }
+
+  @Override
+  public long getVolumeAt(int index) {
+    return prices().getVolumeAt(index);
+  }
+
+  @Override
+  public void copyEpochDays(int from, int to, int[] dest, int destPos) {
+    prices().copyEpochDays(from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyOpens(int from, int to, double[] dest, int destPos) {
+    prices().copyOpens(from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyHighs(int from, int to, double[] dest, int destPos) {
+    prices().copyHighs(from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyLows(int from, int to, double[] dest, int destPos) {
+    prices().copyLows(from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyCloses(int from, int to, double[] dest, int destPos) {
+    prices().copyCloses(from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyCloseTicks(int from, int to, long[] dest, int destPos) {
+    prices().copyCloseTicks(from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyVolumes(int from, int to, long[] dest, int destPos) {
+    prices().copyVolumes(from, to, dest, destPos);
+  }
+}
@@ -0,0 +1,26 @@
+package stocks;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A MetricCounter which implements MetricCounterMXBean. It counts events such as cache hits or
+ * rows loaded, and can be incremented from any thread without locking.
+ */
+public class MetricCounter implements MetricCounterMXBean {
+
+  private final LongAdder count = new LongAdder(); // number of events counted
+
+  /**
+   * Increments the counter by the given amount.
+   *
+   * @param amount the amount to add to the counter.
+   */
+  public void add(long amount) {
+    this.count.add(amount);
+  }
+
+  @Override
+  public long getCount() {
+    return this.count.sum();
+  }
+}
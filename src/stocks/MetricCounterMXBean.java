@@ -0,0 +1,15 @@
+package stocks;
+
+/**
+ * The management interface of a MetricCounter, used to expose a counter of the stock program
+ * through JMX.
+ */
+public interface MetricCounterMXBean {
+
+  /**
+   * Gets the current value of the counter.
+   *
+   * @return the number of times the counter has been incremented.
+   */
+  long getCount();
+}
@@ -0,0 +1,159 @@
+package stocks;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * MetricsRegistry for the stock program, used to keep counters and latency histograms for the
+ * operations of the program such as commands, loading stocks and fetching data. Every metric is
+ * created on first use, is safe to update from any thread without locking, and is registered as
+ * an MBean under the "stocks" domain so it can be watched with JMX tools such as JConsole.
+ */
+public class MetricsRegistry {
+  private static final ConcurrentMap<String, MetricCounter> counters = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+
+  /**
+   * Gets the counter with the given name, creating it if it does not exist.
+   *
+   * @param name the name of the counter.
+   * @return the counter with that name.
+   */
+  public static MetricCounter counter(String name) {
+    MetricCounter counter = counters.get(name);
+    if (counter == null) {
+      MetricCounter created = new MetricCounter();
+      counter = counters.putIfAbsent(name, created);
+      if (counter == null) {
+        counter = created;
+        register("Counter", name, created);
+      }
+    }
+    return counter;
+  }
+
+  /**
+   * Gets the latency histogram with the given name, creating it if it does not exist.
+   *
+   * @param name the name of the timed operation.
+   * @return the latency histogram with that name.
+   */
+  public static LatencyHistogram timer(String name) {
+    LatencyHistogram timer = timers.get(name);
+    if (timer == null) {
+      LatencyHistogram created = new LatencyHistogram();
+      timer = timers.putIfAbsent(name, created);
+      if (timer == null) {
+        timer = created;
+        register("Timer", name, created);
+      }
+    }
+    return timer;
+  }
+
+  /**
+   * Increments the counter with the given name by one.
+   *
+   * @param name the name of the counter.
+   */
+  public static void increment(String name) {
+    counter(name).add(1);
+  }
+
+  /**
+   * Records how long an operation took, from the given start time until now.
+   *
+   * @param name       the name of the timed operation.
+   * @param startNanos the value of System.nanoTime() when the operation started.
+   */
+  public static void recordSince(String name, long startNanos) {
+    timer(name).record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Records how long an operation took and how many bytes it allocated, from the given start
+   * time and tracker until now.
+   *
+   * @param name       the name of the timed operation.
+   * @param startNanos the value of System.nanoTime() when the operation started.
+   * @param tracker    the allocation tracker started with the operation.
+   */
+  public static void recordSince(String name, long startNanos, AllocationTracker tracker) {
+    LatencyHistogram timer = timer(name);
+    timer.record(System.nanoTime() - startNanos);
+    timer.recordAllocation(tracker.allocatedBytes());
+  }
+
+  /**
+   * Returns every counter of the program, sorted by name.
+   *
+   * @return a sorted copy of the counters.
+   */
+  public static Map<String, MetricCounter> getCounters() {
+    return new TreeMap<>(counters);
+  }
+
+  /**
+   * Returns every latency histogram of the program, sorted by name.
+   *
+   * @return a sorted copy of the latency histograms.
+   */
+  public static Map<String, LatencyHistogram> getTimers() {
+    return new TreeMap<>(timers);
+  }
+
+  /**
+   * Builds a readable table of every counter and latency histogram, used by the stats command
+   * and the GUI.
+   *
+   * @return the metrics as a String.
+   */
+  public static String report() {
+    StringBuilder s = new StringBuilder();
+    if (counters.isEmpty() && timers.isEmpty()) {
+      return "No statistics recorded yet.\n";
+    }
+    if (!timers.isEmpty()) {
+      s.append("Timings (count, mean ms, p50 ms, p99 ms, max ms, mean KB allocated):\n");
+      for (Map.Entry<String, LatencyHistogram> entry : getTimers().entrySet()) {
+        LatencyHistogram timer = entry.getValue();
+        String allocated = "-";
+        if (timer.getMeanAllocatedBytes() >= 0) {
+          allocated = String.format("%.1f", timer.getMeanAllocatedBytes() / 1024.0);
+        }
+        s.append(String.format("  %-28s %8d %10.3f %10.3f %10.3f %10.3f %10s\n",
+                entry.getKey(), timer.getCount(), timer.getMeanMillis(), timer.getP50Millis(),
+                timer.getP99Millis(), timer.getMaxMillis(), allocated));
+      }
+    }
+    if (!counters.isEmpty()) {
+      s.append("Counters:\n");
+      for (Map.Entry<String, MetricCounter> entry : getCounters().entrySet()) {
+        s.append(String.format("  %-28s %8d\n", entry.getKey(), entry.getValue().getCount()));
+      }
+    }
+    return s.toString();
+  }
+
+  /**
+   * Registers a metric with the platform MBean server.
+   *
+   * @param type   the type of the metric, Counter or Timer.
+   * @param name   the name of the metric.
+   * @param metric the metric to register.
+   */
+  private static void register(String type, String name, Object metric) {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(metric,
+              new ObjectName("stocks:type=" + type + ",name=" + ObjectName.quote(name)));
+    } catch (JMException | SecurityException e) {
+      // metric is still recorded, just not visible through JMX
+    }
+  }
+}
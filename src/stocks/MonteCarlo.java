@@ -0,0 +1,479 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A MonteCarlo projects the value of a set of stock positions into the future by resampling
+ * their past daily returns. The closing prices of the stocks are read once, on the trading days
+ * every stock traded, into one primitive array of daily returns, a row per day, so a draw
+ * takes the returns of every stock on the same past day and the stocks keep moving together as
+ * they did. Each simulated path strings together blocks of consecutive past days picked at
+ * random, which keeps streaks and calm or volatile spells of up to a block long; a block of one
+ * day is a plain bootstrap. The paths are split between the threads of a fork-join pool, each
+ * task with its own SplittableRandom split from the one before, so a run needs no locking and
+ * gives the same values for the same seed however many threads it runs on. A day a stock closed
+ * at zero is left out of the history like a day it did not trade, since no return can be taken
+ * from it.
+ */
+public final class MonteCarlo {
+  public static final int MAX_PATHS = 1_000_000; // most paths in one run, 8 MB of end values
+  public static final int MAX_HORIZON = 30 * 252; // most trading days ahead, about 30 years
+  private static final int LEAF_SIZE = 256; // most paths simulated by one fork-join task
+  private final String[] tickers; // Key: stock, Value: its ticker
+  private final double[] startValues; // Key: stock, Value: value of its shares on the last day
+  private final double[] returns; // Key: day * number of stocks + stock, Value: closing price
+  // divided by the closing price of the trading day before
+  private final int days; // number of days of returns
+  private final LocalDate lastDate; // last trading day of the history, the day projected from
+
+  /**
+   * Constructs a MonteCarlo from its builder.
+   *
+   * @param stocks the stocks, by ticker.
+   * @param shares the shares held of each stock, by ticker.
+   * @param from   the first date of the history, inclusive.
+   * @param to     the last date of the history, inclusive.
+   * @throws IllegalStateException if the stocks do not have two trading days in common between
+   *                               the dates with a closing price above zero.
+   */
+  private MonteCarlo(Map<String, Stock> stocks, Map<String, Double> shares, LocalDate from,
+                     LocalDate to) throws IllegalStateException {
+    int count = stocks.size();
+    this.tickers = stocks.keySet().toArray(new String[0]);
+    int start = (int) from.toEpochDay();
+    int end = (int) to.toEpochDay() + 1;
+    int[][] epochDays = new int[count][];
+    double[][] closes = new double[count][];
+    for (int s = 0; s < count; s++) {
+      Stock stock = stocks.get(this.tickers[s]);
+      int first = stock.ceilingIndex(start);
+      int last = stock.ceilingIndex(end);
+      epochDays[s] = new int[last - first];
+      closes[s] = new double[last - first];
+      stock.copyEpochDays(first, last, epochDays[s], 0);
+      stock.copyCloses(first, last, closes[s], 0);
+    }
+
+    // the history is the trading days of the first stock that every other stock also traded,
+    // with a closing price that can be divided by
+    int[] rows = new int[count]; // Key: stock, Value: index of the current day in its prices
+    double[] common = new double[epochDays[0].length * count];
+    int size = 0;
+    int lastDay = 0;
+    for (int day : epochDays[0]) {
+      boolean everyStock = true;
+      for (int s = 0; s < count; s++) {
+        while (rows[s] < epochDays[s].length && epochDays[s][rows[s]] < day) {
+          rows[s]++;
+        }
+        everyStock &= rows[s] < epochDays[s].length && epochDays[s][rows[s]] == day
+                && closes[s][rows[s]] > 0;
+      }
+      if (everyStock) {
+        for (int s = 0; s < count; s++) {
+          common[size * count + s] = closes[s][rows[s]];
+        }
+        size++;
+        lastDay = day;
+      }
+    }
+    if (size < 2) {
+      throw new IllegalStateException("The stocks do not have two trading days in common "
+              + "with prices between these dates.");
+    }
+    this.lastDate = LocalDate.ofEpochDay(lastDay);
+    this.days = size - 1;
+    this.returns = new double[this.days * count];
+    for (int i = 0; i < this.returns.length; i++) {
+      this.returns[i] = common[i + count] / common[i];
+    }
+    this.startValues = new double[count];
+    for (int s = 0; s < count; s++) {
+      this.startValues[s] = shares.get(this.tickers[s]) * common[this.days * count + s];
+    }
+  }
+
+  /**
+   * Gets the tickers of the stocks.
+   *
+   * @return the ticker of each stock.
+   */
+  public List<String> getTickers() {
+    return Arrays.asList(this.tickers.clone());
+  }
+
+  /**
+   * Gets the number of past daily returns the paths are drawn from.
+   *
+   * @return the number of days of returns.
+   */
+  public int getReturnDayCount() {
+    return this.days;
+  }
+
+  /**
+   * Gets the last trading day of the history, which the paths start from.
+   *
+   * @return the last trading day every stock traded on.
+   */
+  public LocalDate getLastDate() {
+    return this.lastDate;
+  }
+
+  /**
+   * Gets the value of the positions on the last trading day of the history.
+   *
+   * @return the starting value of every path.
+   */
+  public double getStartValue() {
+    double value = 0;
+    for (double stockValue : this.startValues) {
+      value += stockValue;
+    }
+    return value;
+  }
+
+  /**
+   * Simulates paths in parallel on the common fork-join pool.
+   *
+   * @param paths     the number of paths.
+   * @param horizon   the number of trading days each path goes forward.
+   * @param blockSize the number of consecutive past days each draw takes.
+   * @param seed      the seed of the random draws.
+   * @return the value at the end of each path.
+   * @throws IllegalArgumentException if a count is not positive, the paths or horizon are more
+   *                                  than MAX_PATHS or MAX_HORIZON, or the block is longer
+   *                                  than the history.
+   */
+  public Result run(int paths, int horizon, int blockSize, long seed)
+          throws IllegalArgumentException {
+    return run(paths, horizon, blockSize, seed, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Simulates paths in parallel on the given fork-join pool.
+   *
+   * @param paths     the number of paths.
+   * @param horizon   the number of trading days each path goes forward.
+   * @param blockSize the number of consecutive past days each draw takes.
+   * @param seed      the seed of the random draws.
+   * @param pool      the pool to simulate the paths on.
+   * @return the value at the end of each path.
+   * @throws IllegalArgumentException if a count is not positive, the paths or horizon are more
+   *                                  than MAX_PATHS or MAX_HORIZON, or the block is longer
+   *                                  than the history.
+   */
+  public Result run(int paths, int horizon, int blockSize, long seed, ForkJoinPool pool)
+          throws IllegalArgumentException {
+    if (paths <= 0 || horizon <= 0 || blockSize <= 0) {
+      throw new IllegalArgumentException("Paths, horizon and block size must be positive.");
+    }
+    if (paths > MAX_PATHS || horizon > MAX_HORIZON) {
+      throw new IllegalArgumentException("Cannot simulate more than " + MAX_PATHS
+              + " paths or more than " + MAX_HORIZON + " trading days ahead.");
+    }
+    if (blockSize > this.days) {
+      throw new IllegalArgumentException("Block size cannot be longer than the "
+              + this.days + " days of returns.");
+    }
+    long start = System.nanoTime();
+    double[] terminal = new double[paths];
+    pool.invoke(new PathTask(this, horizon, blockSize, terminal, 0, paths,
+            new SplittableRandom(seed)));
+    long elapsed = System.nanoTime() - start;
+    Arrays.sort(terminal);
+    MetricsRegistry.counter("montecarlo.paths").add(paths);
+    MetricsRegistry.recordSince("montecarlo", start);
+    return new Result(getStartValue(), horizon, terminal, elapsed);
+  }
+
+  /**
+   * Simulates one path.
+   *
+   * @param horizon   the number of trading days to go forward.
+   * @param blockSize the number of consecutive past days each draw takes.
+   * @param random    the source of the draws.
+   * @param values    a scratch array with room for the value of each stock.
+   * @return the value at the end of the path.
+   */
+  private double simulate(int horizon, int blockSize, SplittableRandom random, double[] values) {
+    int count = this.startValues.length;
+    System.arraycopy(this.startValues, 0, values, 0, count);
+    for (int step = 0; step < horizon; ) {
+      int row = random.nextInt(this.days - blockSize + 1) * count;
+      int length = Math.min(blockSize, horizon - step);
+      for (int end = row + length * count; row < end; row += count) {
+        for (int s = 0; s < count; s++) {
+          values[s] *= this.returns[row + s];
+        }
+      }
+      step += length;
+    }
+    double value = 0;
+    for (int s = 0; s < count; s++) {
+      value += values[s];
+    }
+    return value;
+  }
+
+  /**
+   * The values at the end of the paths of a simulation.
+   */
+  public static final class Result {
+    private final double startValue; // value of the positions at the start of every path
+    private final int horizon; // number of trading days each path went forward
+    private final double[] terminal; // Key: rank, Value: value at the end of a path, lowest
+    // first
+    private final long elapsedNanos; // time taken to simulate the paths
+
+    /**
+     * Constructs a Result.
+     *
+     * @param startValue   the value at the start of every path.
+     * @param horizon      the number of trading days each path went forward.
+     * @param terminal     the value at the end of each path, sorted.
+     * @param elapsedNanos the time taken to simulate the paths.
+     */
+    Result(double startValue, int horizon, double[] terminal, long elapsedNanos) {
+      this.startValue = startValue;
+      this.horizon = horizon;
+      this.terminal = terminal;
+      this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the value at the start of every path.
+     *
+     * @return the starting value.
+     */
+    public double getStartValue() {
+      return this.startValue;
+    }
+
+    /**
+     * Gets the number of trading days each path went forward.
+     *
+     * @return the horizon.
+     */
+    public int getHorizon() {
+      return this.horizon;
+    }
+
+    /**
+     * Gets the number of paths simulated.
+     *
+     * @return the number of paths.
+     */
+    public int getPathCount() {
+      return this.terminal.length;
+    }
+
+    /**
+     * Gets a percentile of the values at the end of the paths, interpolating between the two
+     * nearest paths.
+     *
+     * @param percent the percentile, from 0 for the lowest value to 100 for the highest.
+     * @return the value below which that percentage of the paths ended.
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100.
+     */
+    public double getPercentile(double percent) throws IllegalArgumentException {
+      if (!(percent >= 0 && percent <= 100)) {
+        throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+      }
+      double rank = percent / 100 * (this.terminal.length - 1);
+      int below = (int) rank;
+      if (below == this.terminal.length - 1) {
+        return this.terminal[below];
+      }
+      return this.terminal[below] + (rank - below)
+              * (this.terminal[below + 1] - this.terminal[below]);
+    }
+
+    /**
+     * Gets the average value at the end of the paths.
+     *
+     * @return the mean value.
+     */
+    public double getMean() {
+      double total = 0;
+      for (double value : this.terminal) {
+        total += value;
+      }
+      return total / this.terminal.length;
+    }
+
+    /**
+     * Gets the share of the paths that ended below their starting value.
+     *
+     * @return the probability of a loss, between 0 and 1.
+     */
+    public double getLossProbability() {
+      int losses = 0;
+      while (losses < this.terminal.length && this.terminal[losses] < this.startValue) {
+        losses++;
+      }
+      return (double) losses / this.terminal.length;
+    }
+
+    /**
+     * Gets the time taken to simulate the paths.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+      return this.elapsedNanos;
+    }
+
+    /**
+     * Gets how fast the paths were simulated.
+     *
+     * @return the number of paths simulated per second.
+     */
+    public double getPathsPerSecond() {
+      return this.terminal.length * 1e9 / Math.max(1, this.elapsedNanos);
+    }
+  }
+
+  /**
+   * A Builder which sets the positions and the history of a MonteCarlo.
+   */
+  public static class Builder {
+    private final Map<String, Stock> stocks = new LinkedHashMap<>();
+    private final Map<String, Double> shares = new LinkedHashMap<>();
+    private LocalDate from = LocalDate.MIN;
+    private LocalDate to = LocalDate.MAX;
+
+    /**
+     * Adds a position in a stock. The stock is read once, when the simulation is built.
+     *
+     * @param stock     the stock.
+     * @param numShares the number of shares held.
+     * @return this builder.
+     * @throws IllegalArgumentException if the number of shares is negative.
+     */
+    public Builder stock(Stock stock, double numShares) throws IllegalArgumentException {
+      if (!(numShares >= 0)) {
+        throw new IllegalArgumentException("Shares cannot be negative.");
+      }
+      this.stocks.put(stock.getTicker(), stock);
+      this.shares.put(stock.getTicker(), numShares);
+      return this;
+    }
+
+    /**
+     * Adds the stocks a portfolio held shares of on a date, with those shares.
+     *
+     * @param portfolio the portfolio.
+     * @param date      the date of the positions.
+     * @return this builder.
+     */
+    public Builder portfolio(Portfolio portfolio, LocalDate date) {
+      for (Stock stock : portfolio.getListOfStocks().values()) {
+        double held = stock.getSharesAtDate(date);
+        if (held > 0) {
+          stock(stock, held);
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Sets the dates of the history the daily returns are drawn from. The paths start from
+     * the last trading day of the history. Defaults to every trading day of the stocks.
+     *
+     * @param from the first date, inclusive.
+     * @param to   the last date, inclusive.
+     * @return this builder.
+     * @throws IllegalArgumentException if the last date is before the first.
+     */
+    public Builder history(LocalDate from, LocalDate to) throws IllegalArgumentException {
+      if (to.isBefore(from)) {
+        throw new IllegalArgumentException("End date cannot be before the start date.");
+      }
+      this.from = from;
+      this.to = to;
+      return this;
+    }
+
+    /**
+     * Builds the MonteCarlo, copying the daily returns of its stocks between its dates.
+     *
+     * @return the simulation.
+     * @throws IllegalStateException if no stock has been added, or the stocks do not have two
+     *                               trading days in common with prices between the dates.
+     */
+    public MonteCarlo build() throws IllegalStateException {
+      if (this.stocks.isEmpty()) {
+        throw new IllegalStateException("No stocks have been added.");
+      }
+      LocalDate first = this.from.isBefore(LocalDate.of(0, 1, 1))
+              ? LocalDate.of(0, 1, 1) : this.from;
+      LocalDate last = this.to.isAfter(LocalDate.of(9999, 12, 31))
+              ? LocalDate.of(9999, 12, 31) : this.to;
+      return new MonteCarlo(this.stocks, this.shares, first, last);
+    }
+  }
+
+  /**
+   * A fork-join task which simulates a range of the paths, splitting it in half until at most
+   * LEAF_SIZE paths are left. Each task owns its SplittableRandom, and splits a new one off it
+   * for the half it hands on, before either half runs.
+   */
+  private static final class PathTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final MonteCarlo simulation; // the returns and starting values shared by every path
+    private final int horizon; // number of trading days each path goes forward
+    private final int blockSize; // number of consecutive past days each draw takes
+    private final double[] terminal; // Key: path, Value: its value at the end, filled in by the
+    // task
+    private final int from; // first path of this task, inclusive
+    private final int to; // last path of this task, exclusive
+    private final SplittableRandom random; // source of the draws of this task
+
+    /**
+     * Constructs a PathTask.
+     *
+     * @param simulation the returns and starting values shared by every path.
+     * @param horizon    the number of trading days each path goes forward.
+     * @param blockSize  the number of consecutive past days each draw takes.
+     * @param terminal   where to put the value at the end of each path.
+     * @param from       the first path of this task, inclusive.
+     * @param to         the last path of this task, exclusive.
+     * @param random     the source of the draws of this task.
+     */
+    PathTask(MonteCarlo simulation, int horizon, int blockSize, double[] terminal, int from,
+             int to, SplittableRandom random) {
+      this.simulation = simulation;
+      this.horizon = horizon;
+      this.blockSize = blockSize;
+      this.terminal = terminal;
+      this.from = from;
+      this.to = to;
+      this.random = random;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.to - this.from > LEAF_SIZE) {
+        int mid = (this.from + this.to) >>> 1;
+        SplittableRandom split = this.random.split();
+        invokeAll(new PathTask(this.simulation, this.horizon, this.blockSize, this.terminal,
+                this.from, mid, split), new PathTask(this.simulation, this.horizon,
+                this.blockSize, this.terminal, mid, this.to, this.random));
+        return;
+      }
+      double[] values = new double[this.simulation.startValues.length];
+      for (int i = this.from; i < this.to; i++) {
+        this.terminal[i] = this.simulation.simulate(this.horizon, this.blockSize, this.random,
+                values);
+      }
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A MovingAverageCrosses finds the days where a fast simple moving average of the closing
+ * prices of a stock crosses a slow one, such as the 50-day and 200-day averages. A golden cross
+ * is the fast average rising above the slow one and a death cross is it falling back to or
+ * below it. Averages are over trading days. The closing prices are summed once into prefix sums
+ * in ten-thousandths, so the average over any window is one subtraction, and any number of
+ * (fast, slow) pairs are checked in a single pass over the days without scanning the prices
+ * again for each pair. A MovingAverageCrosses is immutable, so it can be shared by threads.
+ */
+public final class MovingAverageCrosses {
+  private final int[] epochDays; // Key: index, Value: epoch day of the trading day
+  private final long[] sums; // Key: index, Value: sum of the closes before it in ten-thousandths
+
+  /**
+   * A day where the fast average crossed the slow one.
+   */
+  public static final class Cross {
+    private final LocalDate date; // the trading day of the cross
+    private final boolean golden; // if the fast average rose above the slow one
+
+    /**
+     * Constructs a Cross.
+     *
+     * @param date   the trading day of the cross.
+     * @param golden true if the fast average rose above the slow one, false if it fell.
+     */
+    Cross(LocalDate date, boolean golden) {
+      this.date = date;
+      this.golden = golden;
+    }
+
+    /**
+     * Gets the trading day of the cross.
+     *
+     * @return the date.
+     */
+    public LocalDate getDate() {
+      return this.date;
+    }
+
+    /**
+     * Determines if this is a golden cross.
+     *
+     * @return true if the fast average rose above the slow one, false if it fell to or below it.
+     */
+    public boolean isGolden() {
+      return this.golden;
+    }
+  }
+
+  /**
+   * Constructs a MovingAverageCrosses over every trading day of a stock.
+   *
+   * @param stock the stock whose closing prices are averaged.
+   */
+  public MovingAverageCrosses(Stock stock) {
+    int count = stock.getTradingDayCount();
+    this.epochDays = new int[count];
+    long[] closes = new long[count];
+    stock.copyEpochDays(0, count, this.epochDays, 0);
+    stock.copyCloseTicks(0, count, closes, 0);
+    this.sums = new long[count + 1];
+    for (int i = 0; i < count; i++) {
+      this.sums[i + 1] = this.sums[i] + closes[i];
+    }
+  }
+
+  /**
+   * Gets the number of trading days.
+   *
+   * @return the number of trading days of the stock.
+   */
+  public int getTradingDayCount() {
+    return this.epochDays.length;
+  }
+
+  /**
+   * Gets the simple moving average of the closing prices over the trading days ending on a day.
+   *
+   * @param window the number of trading days.
+   * @param index  the index of the last trading day of the window.
+   * @return the average, or NaN if there are fewer than window trading days up to the index.
+   * @throws IllegalArgumentException if the window is not positive.
+   */
+  public double getAverageAt(int window, int index) throws IllegalArgumentException {
+    checkWindow(window);
+    if (index + 1 < window || index >= this.epochDays.length) {
+      return Double.NaN;
+    }
+    return (this.sums[index + 1] - this.sums[index + 1 - window]) / 10000.0 / window;
+  }
+
+  /**
+   * Finds the crosses of a fast and a slow average between two dates. The first day checked
+   * is compared against the trading day before it.
+   *
+   * @param fast the number of trading days of the fast average.
+   * @param slow the number of trading days of the slow average.
+   * @param from the first date to check, inclusive.
+   * @param to   the last date to check, inclusive.
+   * @return the crosses in date order.
+   * @throws IllegalArgumentException if a window is not positive.
+   */
+  public List<Cross> getCrosses(int fast, int slow, LocalDate from, LocalDate to)
+          throws IllegalArgumentException {
+    return getCrosses(new int[]{fast}, new int[]{slow}, from, to).get(0);
+  }
+
+  /**
+   * Finds the crosses of several pairs of fast and slow averages between two dates, in a
+   * single pass over the trading days. The first day checked is compared against the trading
+   * day before it.
+   *
+   * @param fasts the number of trading days of the fast average of each pair.
+   * @param slows the number of trading days of the slow average of each pair.
+   * @param from  the first date to check, inclusive.
+   * @param to    the last date to check, inclusive.
+   * @return the crosses of each pair in date order, in the order of the pairs.
+   * @throws IllegalArgumentException if a window is not positive or there are not as many fast
+   *                                  windows as slow ones.
+   */
+  public List<List<Cross>> getCrosses(int[] fasts, int[] slows, LocalDate from, LocalDate to)
+          throws IllegalArgumentException {
+    if (fasts.length != slows.length) {
+      throw new IllegalArgumentException("Each fast window needs a slow window.");
+    }
+    long start = System.nanoTime();
+    int pairs = fasts.length;
+    int[] longest = new int[pairs];
+    List<List<Cross>> crosses = new ArrayList<>(pairs);
+    for (int p = 0; p < pairs; p++) {
+      checkWindow(fasts[p]);
+      checkWindow(slows[p]);
+      longest[p] = Math.max(fasts[p], slows[p]);
+      crosses.add(new ArrayList<>());
+    }
+    int first = Math.max(1, ceilingIndex((int) from.toEpochDay()));
+    int end = ceilingIndex((int) to.toEpochDay() + 1);
+    boolean[] above = new boolean[pairs];
+    for (int p = 0; p < pairs; p++) {
+      above[p] = first - 1 >= longest[p] - 1 && isAbove(fasts[p], slows[p], first - 1);
+    }
+    for (int i = first; i < end; i++) {
+      for (int p = 0; p < pairs; p++) {
+        // the first day with both averages only sets whether the fast one starts above
+        if (i < longest[p] - 1) {
+          continue;
+        }
+        boolean now = isAbove(fasts[p], slows[p], i);
+        if (i >= longest[p] && now != above[p]) {
+          crosses.get(p).add(new Cross(LocalDate.ofEpochDay(this.epochDays[i]), now));
+        }
+        above[p] = now;
+      }
+    }
+    MetricsRegistry.counter("crosses.pairs").add(pairs);
+    MetricsRegistry.recordSince("crosses", start);
+    return crosses;
+  }
+
+  /**
+   * Determines if the fast average is above the slow one on a day.
+   *
+   * @param fast  the number of trading days of the fast average.
+   * @param slow  the number of trading days of the slow average.
+   * @param index the index of the day.
+   * @return true if the fast average is above the slow one, false if it is not or there are
+   *     fewer trading days up to the index than either window.
+   * @throws IllegalArgumentException if a window is not positive.
+   */
+  public boolean isFastAboveAt(int fast, int slow, int index) throws IllegalArgumentException {
+    checkWindow(fast);
+    checkWindow(slow);
+    if (index + 1 < Math.max(fast, slow) || index >= this.epochDays.length) {
+      return false;
+    }
+    return isAbove(fast, slow, index);
+  }
+
+  /**
+   * Determines if the fast average is above the slow one on a day. The averages are compared
+   * as cross multiplied sums, so the comparison is exact.
+   *
+   * @param fast  the number of trading days of the fast average.
+   * @param slow  the number of trading days of the slow average.
+   * @param index the index of the day, which must have at least both windows of days up to it.
+   * @return true if the fast average is above the slow one.
+   */
+  private boolean isAbove(int fast, int slow, int index) {
+    long fastSum = this.sums[index + 1] - this.sums[index + 1 - fast];
+    long slowSum = this.sums[index + 1] - this.sums[index + 1 - slow];
+    return fastSum * slow > slowSum * fast;
+  }
+
+  /**
+   * Finds the first trading day on or after a day.
+   *
+   * @param epochDay the day as a number of days since 1970-01-01.
+   * @return the index of the trading day, or the number of trading days if there is none.
+   */
+  private int ceilingIndex(int epochDay) {
+    int index = Arrays.binarySearch(this.epochDays, epochDay);
+    return index < 0 ? -index - 1 : index;
+  }
+
+  /**
+   * Checks that a window is positive.
+   *
+   * @param window the number of trading days.
+   * @throws IllegalArgumentException if the window is not positive.
+   */
+  private static void checkWindow(int window) throws IllegalArgumentException {
+    if (window <= 0) {
+      throw new IllegalArgumentException("Window must be positive.");
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package stocks;
+
+import java.time.LocalDate;
+
+/**
+ * A MovingAverageState which implements IndicatorState. It keeps the x-day moving average of a
+ * stock, where each day is the average of its high and low price, the same way as the
+ * moving-average and crossover commands. The bars inside the window are kept in a ring buffer
+ * together with their running sum, so appending a new bar only adds it and drops the bars that
+ * fell out of the window. Prices are summed in ten-thousandths, the precision of the stock data,
+ * so the running sum does not drift no matter how many bars are appended.
+ */
+public class MovingAverageState implements IndicatorState {
+
+  private final int window; // number of calendar days in the window
+  private long[] epochDays; // ring buffer, epoch day of each bar in the window
+  private long[] highLows; // ring buffer, high + low of each bar in ten-thousandths
+  private int head; // index of the oldest bar in the ring buffer
+  private int size; // number of bars in the ring buffer
+  private long sum; // sum of the highLows in the ring buffer
+  private long lastDay = Long.MIN_VALUE; // epoch day of the last appended bar
+  private double value; // moving average including the last appended bar
+  private boolean crossover; // if the last appended bar was a crossover
+
+  /**
+   * Constructs an empty MovingAverageState over the given number of days.
+   *
+   * @param window the number of days to average over.
+   * @throws IllegalArgumentException if the window is negative.
+   */
+  public MovingAverageState(int window) throws IllegalArgumentException {
+    if (window < 0) {
+      throw new IllegalArgumentException("Window cannot be negative.");
+    }
+    this.window = window;
+    int capacity = Math.min(window + 1, 16);
+    this.epochDays = new long[capacity];
+    this.highLows = new long[capacity];
+  }
+
+  @Override
+  public void append(LocalDate date, double high, double low, double close)
+          throws IllegalArgumentException {
+    append((int) date.toEpochDay(), high, low, close);
+  }
+
+  @Override
+  public void append(int day, double high, double low, double close)
+          throws IllegalArgumentException {
+    if (day <= lastDay) {
+      throw new IllegalArgumentException("Bars must be appended in date order.");
+    }
+
+    // the crossover compares against the window of days before this one
+    evictBefore(day - window);
+    crossover = Math.round(close * 10000) * 2 * size > sum;
+    if (size == 0) {
+      crossover = close > 0;
+    }
+
+    push(day, Math.round(high * 10000) + Math.round(low * 10000));
+    evictBefore(day - window + 1);
+    value = 0;
+    if (size > 0) {
+      value = sum / 20000.0 / size;
+    }
+    lastDay = day;
+  }
+
+  @Override
+  public int getWindow() {
+    return this.window;
+  }
+
+  @Override
+  public LocalDate getLastDate() {
+    return this.lastDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(this.lastDay);
+  }
+
+  @Override
+  public double getValue() {
+    return this.value;
+  }
+
+  @Override
+  public boolean isCrossover() {
+    return this.crossover;
+  }
+
+  /**
+   * Adds a bar to the end of the ring buffer, growing it if it is full.
+   *
+   * @param day     the epoch day of the bar.
+   * @param highLow the high plus the low price of the bar in ten-thousandths.
+   */
+  private void push(long day, long highLow) {
+    if (size == epochDays.length) {
+      long[] newDays = new long[size * 2];
+      long[] newHighLows = new long[size * 2];
+      for (int i = 0; i < size; i++) {
+        newDays[i] = epochDays[(head + i) % size];
+        newHighLows[i] = highLows[(head + i) % size];
+      }
+      epochDays = newDays;
+      highLows = newHighLows;
+      head = 0;
+    }
+    int tail = (head + size) % epochDays.length;
+    epochDays[tail] = day;
+    highLows[tail] = highLow;
+    size++;
+    sum += highLow;
+  }
+
+  /**
+   * Removes every bar older than the given epoch day from the front of the ring buffer.
+   *
+   * @param day the oldest epoch day to keep.
+   */
+  private void evictBefore(long day) {
+    while (size > 0 && epochDays[head] < day) {
+      sum -= highLows[head];
+      head = (head + 1) % epochDays.length;
+      size--;
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package stocks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OffHeapPriceColumns holds the price history of one stock outside of the Java heap, in a direct
+ * ByteBuffer laid out as one column per field (opening, high, low and closing price, volume, and
+ * date as an epoch day), sorted by date. Since the garbage collector never scans the contents
+ * of a direct buffer, the heap used per stock is a few objects no matter how long its history
+ * is. It is immutable once built.
+ */
+public final class OffHeapPriceColumns {
+  private static final AtomicLong allocatedBytes = new AtomicLong(); // total off-heap bytes
+
+  private final ByteBuffer buffer; // direct buffer holding every column
+  private final int rows; // number of dates in the columns
+
+  /**
+   * Constructs OffHeapPriceColumns over an already filled buffer.
+   *
+   * @param buffer the direct buffer holding the columns.
+   * @param rows   the number of dates in the columns.
+   */
+  private OffHeapPriceColumns(ByteBuffer buffer, int rows) {
+    this.buffer = buffer;
+    this.rows = rows;
+  }
+
+  /**
+   * Gets the number of bytes allocated off the heap for the price columns of every stock.
+   *
+   * @return the total off-heap bytes allocated so far.
+   */
+  public static long getAllocatedBytes() {
+    return allocatedBytes.get();
+  }
+
+  /**
+   * Gets the number of dates in the columns.
+   *
+   * @return the number of rows.
+   */
+  public int size() {
+    return this.rows;
+  }
+
+  /**
+   * Gets the number of off-heap bytes these columns take up.
+   *
+   * @return the capacity of the buffer in bytes.
+   */
+  public long getSizeInBytes() {
+    return this.buffer.capacity();
+  }
+
+  /**
+   * Finds the row of the given date using a binary search over the date column.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the row of the date, or -1 if there is no price data for it.
+   */
+  public int indexOf(long epochDay) {
+    int row = ceilingIndex(epochDay);
+    return row < this.rows && getEpochDay(row) == epochDay ? row : -1;
+  }
+
+  /**
+   * Finds the first row on or after the given date using a binary search over the date column.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the first row on or after the date, or size() if there is none.
+   */
+  public int ceilingIndex(long epochDay) {
+    int low = 0;
+    int high = this.rows;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (getEpochDay(mid) < epochDay) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Finds the row of the given date.
+   *
+   * @param date the date to find.
+   * @return the row of the date, or -1 if there is no price data for it.
+   */
+  public int indexOf(LocalDate date) {
+    if (date == null) {
+      return -1;
+    }
+    return indexOf(date.toEpochDay());
+  }
+
+  /**
+   * Gets the date of a row as an epoch day.
+   *
+   * @param row the row.
+   * @return the number of days since 1970-01-01.
+   */
+  public int getEpochDay(int row) {
+    return this.buffer.getInt(40 * this.rows + 4 * row);
+  }
+
+  /**
+   * Gets the opening price of a row.
+   *
+   * @param row the row.
+   * @return the opening price.
+   */
+  public double getOpen(int row) {
+    return this.buffer.getDouble(8 * row);
+  }
+
+  /**
+   * Gets the high price of a row.
+   *
+   * @param row the row.
+   * @return the high price.
+   */
+  public double getHigh(int row) {
+    return this.buffer.getDouble(8 * (this.rows + row));
+  }
+
+  /**
+   * Gets the low price of a row.
+   *
+   * @param row the row.
+   * @return the low price.
+   */
+  public double getLow(int row) {
+    return this.buffer.getDouble(8 * (2 * this.rows + row));
+  }
+
+  /**
+   * Gets the closing price of a row.
+   *
+   * @param row the row.
+   * @return the closing price.
+   */
+  public double getClose(int row) {
+    return this.buffer.getDouble(8 * (3 * this.rows + row));
+  }
+
+  /**
+   * Gets the volume of a row.
+   *
+   * @param row the row.
+   * @return the volume.
+   */
+  public long getVolume(int row) {
+    return this.buffer.getLong(8 * (4 * this.rows + row));
+  }
+
+  /**
+   * Copies the dates of a range of rows into an array, without creating a LocalDate for each.
+   *
+   * @param from    the first row to copy.
+   * @param to      the row after the last row to copy.
+   * @param dest    the array to copy into, as numbers of days since 1970-01-01.
+   * @param destPos the position in the array to start copying to.
+   */
+  public void copyEpochDays(int from, int to, int[] dest, int destPos) {
+    ByteBuffer view = this.buffer.duplicate().order(this.buffer.order());
+    view.position(40 * this.rows + 4 * from);
+    view.asIntBuffer().get(dest, destPos, to - from);
+  }
+
+  /**
+   * Copies one price column of a range of rows into an array.
+   *
+   * @param column  the column, 0 for opening, 1 for high, 2 for low and 3 for closing prices.
+   * @param from    the first row to copy.
+   * @param to      the row after the last row to copy.
+   * @param dest    the array to copy into.
+   * @param destPos the position in the array to start copying to.
+   */
+  public void copyPrices(int column, int from, int to, double[] dest, int destPos) {
+    ByteBuffer view = this.buffer.duplicate().order(this.buffer.order());
+    view.position(8 * (column * this.rows + from));
+    view.asDoubleBuffer().get(dest, destPos, to - from);
+  }
+
+  /**
+   * Copies the volumes of a range of rows into an array.
+   *
+   * @param from    the first row to copy.
+   * @param to      the row after the last row to copy.
+   * @param dest    the array to copy into.
+   * @param destPos the position in the array to start copying to.
+   */
+  public void copyVolumes(int from, int to, long[] dest, int destPos) {
+    ByteBuffer view = this.buffer.duplicate().order(this.buffer.order());
+    view.position(8 * (4 * this.rows + from));
+    view.asLongBuffer().get(dest, destPos, to - from);
+  }
+
+  /**
+   * A Builder which collects price rows in any order and copies them into off-heap columns
+   * sorted by date. If a date is added more than once, the last row added for it is kept.
+   */
+  public static class Builder {
+    private int[] days = new int[64];
+    private double[] opens = new double[64];
+    private double[] highs = new double[64];
+    private double[] lows = new double[64];
+    private double[] closes = new double[64];
+    private long[] volumes = new long[64];
+    private int count;
+
+    /**
+     * Adds one row of price data.
+     *
+     * @param date   the date of the row.
+     * @param open   the opening price.
+     * @param high   the high price.
+     * @param low    the low price.
+     * @param close  the closing price.
+     * @param volume the volume.
+     * @return this builder.
+     */
+    public Builder add(LocalDate date, double open, double high, double low, double close,
+                       long volume) {
+      if (count == days.length) {
+        int capacity = count * 2;
+        days = Arrays.copyOf(days, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+      }
+      days[count] = (int) date.toEpochDay();
+      opens[count] = open;
+      highs[count] = high;
+      lows[count] = low;
+      closes[count] = close;
+      volumes[count] = volume;
+      count++;
+      return this;
+    }
+
+    /**
+     * Copies the added rows, sorted by date, into a new direct buffer.
+     *
+     * @return the built OffHeapPriceColumns.
+     */
+    public OffHeapPriceColumns build() {
+      int[] kept = DateSort.sortedRows(days, count);
+      int rows = kept.length;
+      ByteBuffer buffer = ByteBuffer.allocateDirect(44 * rows).order(ByteOrder.nativeOrder());
+      for (int row = 0; row < rows; row++) {
+        int i = kept[row];
+        buffer.putDouble(8 * row, opens[i]);
+        buffer.putDouble(8 * (rows + row), highs[i]);
+        buffer.putDouble(8 * (2 * rows + row), lows[i]);
+        buffer.putDouble(8 * (3 * rows + row), closes[i]);
+        buffer.putLong(8 * (4 * rows + row), volumes[i]);
+        buffer.putInt(40 * rows + 4 * row, days[i]);
+      }
+      allocatedBytes.addAndGet(buffer.capacity());
+      return new OffHeapPriceColumns(buffer, rows);
+    }
+  }
+}
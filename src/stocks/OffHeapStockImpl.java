@@ -0,0 +1,145 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * An OffHeapStockImpl class which extends AbstractStock. It represents a stock whose price
+ * history is kept outside of the Java heap in OffHeapPriceColumns, so that thousands of stocks
+ * can be loaded without growing the heap or the garbage collection pauses. Prices are looked up
+ * with a binary search over the dates.
+ */
+public class OffHeapStockImpl extends AbstractStock {
+
+  protected final OffHeapPriceColumns prices; // off-heap price history, sorted by date
+
+  /**
+   * The constructor for OffHeapStockImpl.
+   *
+   * @param ticker     the stock symbol
+   * @param numShares  number of shares of that stock
+   * @param prices     the off-heap price history of the stock
+   * @param shareDates Key: date, Value: number of shares purchased at that date
+   */
+  protected OffHeapStockImpl(String ticker, double numShares, OffHeapPriceColumns prices,
+                             Map<LocalDate, Double> shareDates) {
+    super(ticker, numShares, shareDates);
+    this.prices = prices;
+  }
+
+  @Override
+  protected Stock withShares(double numShares, Map<LocalDate, Double> shareDates) {
+    return new OffHeapStockImpl(this.ticker, numShares, this.prices, shareDates);
+  }
+
+  @Override
+  public Long getVolume(LocalDate date) {
+    int row = this.prices.indexOf(date);
+    return row < 0 ? null : this.prices.getVolume(row);
+  }
+
+  @Override
+  public Double getOpeningPrice(LocalDate date) {
+    int row = this.prices.indexOf(date);
+    return row < 0 ? null : this.prices.getOpen(row);
+  }
+
+  @Override
+  public Double getClosingPrice(LocalDate date) {
+    int row = this.prices.indexOf(date);
+    return row < 0 ? null : this.prices.getClose(row);
+  }
+
+  @Override
+  public Double getHighPrice(LocalDate date) {
+    int row = this.prices.indexOf(date);
+    return row < 0 ? null : this.prices.getHigh(row);
+  }
+
+  @Override
+  public Double getLowPrice(LocalDate date) {
+    int row = this.prices.indexOf(date);
+    return row < 0 ? null : this.prices.getLow(row);
+  }
+
+  @Override
+  public int getTradingDayCount() {
+    return this.prices.size();
+  }
+
+  @Override
+  public int indexOf(int epochDay) {
+    return this.prices.indexOf(epochDay);
+  }
+
+  @Override
+  public int ceilingIndex(int epochDay) {
+    return this.prices.ceilingIndex(epochDay);
+  }
+
+  @Override
+  public int getEpochDayAt(int index) {
+    return this.prices.getEpochDay(index);
+  }
+
+  @Override
+  public double getOpenAt(int index) {
+    return this.prices.getOpen(index);
+  }
+
+  @Override
+  public double getHighAt(int index) {
+    return this.prices.getHigh(index);
+  }
+
+  @Override
+  public double getLowAt(int index) {
+    return this.prices.getLow(index);
+  }
+
+  @Override
+  public double getCloseAt(int index) {
+    return this.prices.getClose(index);
+  }
+
+  @Override
+  public long getVolumeAt(int index) {
+    return this.prices.getVolume(index);
+  }
+
+  @Override
+  public void copyEpochDays(int from, int to, int[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    this.prices.copyEpochDays(from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyOpens(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    this.prices.copyPrices(0, from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyHighs(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    this.prices.copyPrices(1, from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyLows(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    this.prices.copyPrices(2, from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyCloses(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    this.prices.copyPrices(3, from, to, dest, destPos);
+  }
+
+  @Override
+  public void copyVolumes(int from, int to, long[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    this.prices.copyVolumes(from, to, dest, destPos);
+  }
+}
@@ -0,0 +1,719 @@
+package stocks;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * ParallelCsvParser parses one large stock csv file on a fork-join pool. The rows after the
+ * header are split into chunks of at least MIN_CHUNK_BYTES, each starting just after a newline,
+ * and each chunk is memory mapped and parsed straight from its bytes into fixed-point columns,
+ * without creating a String per line or a double per price, and unmapped as soon as it has been
+ * parsed. The chunks are then joined back
+ * together in file order, so sorting them by date gives the same series as parsing the file on
+ * one thread. A gzip compressed file cannot be split, so it is parsed on the calling thread, one
+ * chunk at a time as it is decompressed. Daily rows are parsed with parse, and intraday bars,
+ * keyed by their time as well as their date, with parseIntraday. Daily rows are checked the same
+ * way as makeStock checks them: a row is kept only if its date is exactly yyyy-MM-dd, and a row
+ * with a price or volume that is not a number fails even if its date cannot be read.
+ */
+public final class ParallelCsvParser {
+  public static final long MIN_CHUNK_BYTES = 1 << 20; // smallest chunk given to one task
+  private static final int SCAN_SIZE = 4096; // bytes read at a time when looking for a newline
+  private static final Object UNSAFE; // sun.misc.Unsafe, or null if it cannot be reached
+  private static final Method INVOKE_CLEANER; // Unsafe.invokeCleaner, or null
+
+  static {
+    Object unsafe = null;
+    Method invokeCleaner = null;
+    try {
+      Class<?> type = Class.forName("sun.misc.Unsafe");
+      Field field = type.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      unsafe = field.get(null);
+      invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // the mapped chunks are left for the garbage collector to unmap
+    }
+    UNSAFE = unsafe;
+    INVOKE_CLEANER = invokeCleaner;
+  }
+
+  /**
+   * This class only has static methods, so it cannot be constructed.
+   */
+  private ParallelCsvParser() {
+  }
+
+  /**
+   * Parses a stock csv file on the common fork-join pool.
+   *
+   * @param file the csv file to parse, in the format timestamp,open,high,low,close,volume.
+   * @return a builder holding every row of the file, in file order.
+   * @throws IOException if the file cannot be read.
+   */
+  public static FixedPointStockImpl.FixedPointBuilder parse(File file) throws IOException {
+    return parse(file, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Parses a stock csv file on the given fork-join pool. Rows whose date is not exactly
+   * yyyy-MM-dd are skipped, the same as makeStock does.
+   *
+   * @param file the csv file to parse, in the format timestamp,open,high,low,close,volume.
+   * @param pool the pool to parse the chunks on.
+   * @return a builder holding every row of the file, in file order.
+   * @throws IOException           if the file cannot be read.
+   * @throws NumberFormatException if a row has a price or volume that is not a number, or is
+   *                               missing one, whether or not its date can be read.
+   */
+  public static FixedPointStockImpl.FixedPointBuilder parse(File file, ForkJoinPool pool)
+          throws IOException, NumberFormatException {
+    return parse(file, pool, ParallelCsvParser::parseChunk,
+            FixedPointStockImpl.FixedPointBuilder::addAll);
+  }
+
+  /**
+   * Parses a csv file of intraday bars, such as from TIME_SERIES_INTRADAY, on the given
+   * fork-join pool. Timestamps are read as yyyy-MM-dd HH:mm:ss, where the time may be left out
+   * or cut short, and rows whose timestamp cannot be read are skipped.
+   *
+   * @param file the csv file to parse, in the format timestamp,open,high,low,close,volume.
+   * @param pool the pool to parse the chunks on.
+   * @return a builder holding every bar of the file, in file order.
+   * @throws IOException           if the file cannot be read.
+   * @throws NumberFormatException if a row has a price or volume that is not a number, or is
+   *                               missing one.
+   */
+  public static IntradaySeries.Builder parseIntraday(File file, ForkJoinPool pool)
+          throws IOException, NumberFormatException {
+    return parse(file, pool, ParallelCsvParser::parseIntradayChunk,
+            IntradaySeries.Builder::addAll);
+  }
+
+  /**
+   * Parses a single field of every row of a stock csv file on the given fork-join pool, skipping
+   * over the other fields without reading them. Rows whose date cannot be read are skipped, so
+   * the values line up with the rows that parse keeps.
+   *
+   * @param file  the csv file to parse, in the format timestamp,open,high,low,close,volume.
+   * @param field the field to read: 0 for the date as an epoch day, 1 to 4 for the opening,
+   *              high, low or closing price in ten-thousandths, or 5 for the volume.
+   * @param pool  the pool to parse the chunks on.
+   * @return the value of the field in every row, in file order.
+   * @throws IOException              if the file cannot be read.
+   * @throws NumberFormatException    if a row has a value in the field that is not a number.
+   * @throws IllegalArgumentException if the field is not between 0 and 5.
+   */
+  public static Column parseColumn(File file, int field, ForkJoinPool pool)
+          throws IOException, NumberFormatException, IllegalArgumentException {
+    if (field < 0 || field > 5) {
+      throw new IllegalArgumentException("Not a stock csv field: " + field);
+    }
+    return parse(file, pool, bytes -> parseColumnChunk(bytes, field), Column::addAll);
+  }
+
+  /**
+   * Splits a csv file into chunks after its header and parses them on the given pool.
+   *
+   * @param file   the csv file to parse.
+   * @param pool   the pool to parse the chunks on.
+   * @param parser parses the rows of one chunk.
+   * @param join   adds the rows of a later chunk to the rows of an earlier one.
+   * @param <B>    the type holding the parsed rows.
+   * @return the rows of every chunk, in file order.
+   * @throws IOException if the file cannot be read.
+   */
+  private static <B> B parse(File file, ForkJoinPool pool, Function<ByteBuffer, B> parser,
+                             BinaryOperator<B> join) throws IOException {
+    if (file.getName().endsWith(".gz")) {
+      return parseCompressed(file, parser, join);
+    }
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      long start = nextLine(channel, 0, size); // skips the header
+      long chunks = Math.max(1, Math.min((size - start) / MIN_CHUNK_BYTES,
+              pool.getParallelism() * 4L));
+      long[] bounds = new long[(int) chunks + 1];
+      bounds[0] = start;
+      for (int i = 1; i < chunks; i++) {
+        bounds[i] = nextLine(channel, start + (size - start) * i / chunks, size);
+      }
+      bounds[(int) chunks] = size;
+      return pool.invoke(new ChunkTask<>(channel, bounds, 0, (int) chunks, parser, join));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Parses a gzip compressed csv file on the calling thread, decompressing it one chunk at a
+   * time.
+   *
+   * @param file   the csv file to parse.
+   * @param parser parses the rows of one chunk.
+   * @param join   adds the rows of a later chunk to the rows of an earlier one.
+   * @param <B>    the type holding the parsed rows.
+   * @return the rows of every chunk, in file order.
+   * @throws IOException if the file cannot be read.
+   */
+  private static <B> B parseCompressed(File file, Function<ByteBuffer, B> parser,
+                                       BinaryOperator<B> join) throws IOException {
+    B rows = null;
+    try (InputStream in = new GZIPInputStream(new FileInputStream(file), SCAN_SIZE * 16)) {
+      byte[] buffer = new byte[(int) MIN_CHUNK_BYTES];
+      int filled = 0;
+      boolean header = true;
+      boolean done = false;
+      while (!done) {
+        int read = in.read(buffer, filled, buffer.length - filled);
+        done = read < 0;
+        filled += Math.max(0, read);
+        if (!done && filled < buffer.length) {
+          continue;
+        }
+        int end = filled;
+        while (!done && end > 0 && buffer[end - 1] != '\n') {
+          end--;
+        }
+        if (end == 0 && !done) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2); // a line longer than the buffer
+          continue;
+        }
+        int start = 0;
+        while (header && start < end && buffer[start++] != '\n') {
+          // skips the header
+        }
+        header = false;
+        B chunk = parser.apply(ByteBuffer.wrap(buffer, start, end - start).slice());
+        rows = rows == null ? chunk : join.apply(rows, chunk);
+        System.arraycopy(buffer, end, buffer, 0, filled - end);
+        filled -= end;
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Finds the start of the line after the given position.
+   *
+   * @param channel  the file to search.
+   * @param position where to start searching.
+   * @param size     the size of the file.
+   * @return the position just after the next newline, or the size if there is none.
+   * @throws IOException if the file cannot be read.
+   */
+  private static long nextLine(FileChannel channel, long position, long size)
+          throws IOException {
+    ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+    while (position < size) {
+      scan.clear();
+      int read = channel.read(scan, position);
+      if (read <= 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (scan.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += read;
+    }
+    return size;
+  }
+
+  /**
+   * Unmaps a chunk of the file once it has been parsed, rather than leaving it mapped until the
+   * garbage collector finds it. Nothing may read the chunk afterwards.
+   *
+   * @param bytes the mapped chunk.
+   */
+  private static void unmap(MappedByteBuffer bytes) {
+    if (INVOKE_CLEANER == null) {
+      return;
+    }
+    try {
+      INVOKE_CLEANER.invoke(UNSAFE, bytes);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // the chunk is left for the garbage collector to unmap
+    }
+  }
+
+  /**
+   * Parses the rows of one chunk.
+   *
+   * @param bytes the mapped bytes of the chunk, which starts at the beginning of a line.
+   * @return a builder holding the rows of the chunk, in file order.
+   * @throws NumberFormatException if a price or volume is not a number, or is missing, even in
+   *                               a row that is skipped for its date.
+   */
+  static FixedPointStockImpl.FixedPointBuilder parseChunk(ByteBuffer bytes)
+          throws NumberFormatException {
+    FixedPointStockImpl.FixedPointBuilder rows = new FixedPointStockImpl.FixedPointBuilder();
+    Cursor cursor = new Cursor(bytes);
+    while (cursor.position < cursor.limit) {
+      int lineEnd = cursor.lineEnd();
+      if (lineEnd > cursor.position) {
+        int epochDay = cursor.readDate();
+        long open = cursor.readTicks(lineEnd);
+        long high = cursor.readTicks(lineEnd);
+        long low = cursor.readTicks(lineEnd);
+        long close = cursor.readTicks(lineEnd);
+        long volume = cursor.readLong(lineEnd);
+        if (epochDay != Integer.MIN_VALUE) {
+          rows.addTicks(epochDay, open, high, low, close, volume);
+        }
+      }
+      cursor.position = lineEnd + 1;
+    }
+    return rows;
+  }
+
+  /**
+   * Parses one field of the rows of one chunk.
+   *
+   * @param bytes the mapped bytes of the chunk, which starts at the beginning of a line.
+   * @param field the field to read, 0 for the date, 1 to 4 for a price, or 5 for the volume.
+   * @return the values of the field, in file order.
+   * @throws NumberFormatException if a value is not a number, or is missing.
+   */
+  static Column parseColumnChunk(ByteBuffer bytes, int field) throws NumberFormatException {
+    Column values = new Column();
+    Cursor cursor = new Cursor(bytes);
+    while (cursor.position < cursor.limit) {
+      int lineEnd = cursor.lineEnd();
+      if (lineEnd > cursor.position) {
+        int epochDay = cursor.readDate();
+        if (epochDay != Integer.MIN_VALUE) {
+          for (int i = 1; i < field; i++) {
+            cursor.skipField(lineEnd);
+          }
+          if (field == 0) {
+            values.add(epochDay);
+          } else if (field == 5) {
+            values.add(cursor.readLong(lineEnd));
+          } else {
+            values.add(cursor.readTicks(lineEnd));
+          }
+        }
+      }
+      cursor.position = lineEnd + 1;
+    }
+    return values;
+  }
+
+  /**
+   * Parses the bars of one chunk of intraday data.
+   *
+   * @param bytes the mapped bytes of the chunk, which starts at the beginning of a line.
+   * @return a builder holding the bars of the chunk, in file order.
+   * @throws NumberFormatException if a price or volume is not a number, or is missing.
+   */
+  static IntradaySeries.Builder parseIntradayChunk(ByteBuffer bytes)
+          throws NumberFormatException {
+    IntradaySeries.Builder bars = new IntradaySeries.Builder();
+    Cursor cursor = new Cursor(bytes);
+    while (cursor.position < cursor.limit) {
+      int lineEnd = cursor.lineEnd();
+      if (lineEnd > cursor.position) {
+        long timestamp = cursor.readTimestamp();
+        if (timestamp == Long.MIN_VALUE) {
+          cursor.position = lineEnd;
+        } else {
+          long open = cursor.readTicks(lineEnd);
+          long high = cursor.readTicks(lineEnd);
+          long low = cursor.readTicks(lineEnd);
+          long close = cursor.readTicks(lineEnd);
+          long volume = cursor.readLong(lineEnd);
+          bars.addTicks(timestamp, open, high, low, close, volume);
+        }
+      }
+      cursor.position = lineEnd + 1;
+    }
+    return bars;
+  }
+
+  /**
+   * Parses a range of chunks, splitting it in half until there is one chunk per task, and
+   * joining the rows of the halves back together in order.
+   */
+  private static class ChunkTask<B> extends RecursiveTask<B> {
+    private static final long serialVersionUID = 1L;
+    private final FileChannel channel;
+    private final long[] bounds; // Key: chunk, Value: where the chunk starts in the file
+    private final int from; // first chunk of this task
+    private final int to; // one past the last chunk of this task
+    private final Function<ByteBuffer, B> parser; // parses the rows of one chunk
+    private final BinaryOperator<B> join; // adds the rows of a later chunk to an earlier one
+
+    /**
+     * Constructs a ChunkTask over the given chunks.
+     *
+     * @param channel the file being parsed.
+     * @param bounds  the start of every chunk, then the size of the file.
+     * @param from    the first chunk to parse.
+     * @param to      one past the last chunk to parse.
+     * @param parser  parses the rows of one chunk.
+     * @param join    adds the rows of a later chunk to the rows of an earlier one.
+     */
+    ChunkTask(FileChannel channel, long[] bounds, int from, int to,
+              Function<ByteBuffer, B> parser, BinaryOperator<B> join) {
+      this.channel = channel;
+      this.bounds = bounds;
+      this.from = from;
+      this.to = to;
+      this.parser = parser;
+      this.join = join;
+    }
+
+    @Override
+    protected B compute() {
+      if (to - from == 1) {
+        MappedByteBuffer bytes;
+        try {
+          long start = bounds[from];
+          bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, bounds[to] - start);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        try {
+          return parser.apply(bytes);
+        } finally {
+          unmap(bytes);
+        }
+      }
+      int mid = (from + to) >>> 1;
+      ChunkTask<B> left = new ChunkTask<>(channel, bounds, from, mid, parser, join);
+      left.fork();
+      B right = new ChunkTask<>(channel, bounds, mid, to, parser, join).compute();
+      return join.apply(left.join(), right);
+    }
+  }
+
+  /**
+   * Reads fields from the bytes of a chunk, one after the other.
+   */
+  private static class Cursor {
+    private final ByteBuffer bytes;
+    private final int limit;
+    private int position;
+
+    /**
+     * Constructs a Cursor at the start of the given bytes.
+     *
+     * @param bytes the bytes to read.
+     */
+    Cursor(ByteBuffer bytes) {
+      this.bytes = bytes;
+      this.limit = bytes.limit();
+    }
+
+    /**
+     * Finds the end of the current line.
+     *
+     * @return the position of the newline, or the limit if it is the last line.
+     */
+    int lineEnd() {
+      int i = position;
+      while (i < limit && bytes.get(i) != '\n') {
+        i++;
+      }
+      return i;
+    }
+
+    /**
+     * Reads a date in the form yyyy-MM-dd, and moves past its comma. Like LocalDate.parse, it
+     * does not accept anything else in the field, such as a time.
+     *
+     * @return the date as an epoch day, or Integer.MIN_VALUE if it is not a valid date.
+     */
+    int readDate() {
+      int start = position;
+      while (position < limit && bytes.get(position) != ',' && bytes.get(position) != '\n') {
+        position++;
+      }
+      int end = position;
+      position++; // skips the comma
+      long epochDay = end - start == 10 ? epochDay(start) : Long.MIN_VALUE;
+      return epochDay == Long.MIN_VALUE ? Integer.MIN_VALUE : (int) epochDay;
+    }
+
+    /**
+     * Reads a timestamp in the form yyyy-MM-dd HH:mm:ss, where the time, or its seconds, may be
+     * left out.
+     *
+     * @return the number of seconds since 1970-01-01 00:00, or Long.MIN_VALUE if it is not a
+     *     valid timestamp.
+     */
+    long readTimestamp() {
+      int start = position;
+      while (position < limit && bytes.get(position) != ',' && bytes.get(position) != '\n') {
+        position++;
+      }
+      int end = position;
+      position++; // skips the comma
+      long epochDay = end - start < 10 ? Long.MIN_VALUE : epochDay(start);
+      if (epochDay == Long.MIN_VALUE) {
+        return Long.MIN_VALUE;
+      }
+      int seconds = 0;
+      if (end - start >= 16 && (bytes.get(start + 10) == ' ' || bytes.get(start + 10) == 'T')
+              && bytes.get(start + 13) == ':') {
+        int hour = digits(start + 11, start + 13);
+        int minute = digits(start + 14, start + 16);
+        int second = end - start >= 19 && bytes.get(start + 16) == ':'
+                ? digits(start + 17, start + 19) : 0;
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+          return Long.MIN_VALUE;
+        }
+        seconds = hour * 3600 + minute * 60 + second;
+      }
+      return epochDay * IntradaySeries.SECONDS_PER_DAY + seconds;
+    }
+
+    /**
+     * Reads the ten bytes of a date in the form yyyy-MM-dd.
+     *
+     * @param start where the date starts.
+     * @return the date as an epoch day, or Long.MIN_VALUE if it is not a valid date.
+     */
+    private long epochDay(int start) {
+      if (bytes.get(start + 4) != '-' || bytes.get(start + 7) != '-') {
+        return Long.MIN_VALUE;
+      }
+      int year = digits(start, start + 4);
+      int month = digits(start + 5, start + 7);
+      int day = digits(start + 8, start + 10);
+      if (year < 0 || month < 0 || day < 0) {
+        return Long.MIN_VALUE;
+      }
+      try {
+        return LocalDate.of(year, month, day).toEpochDay();
+      } catch (DateTimeException e) {
+        return Long.MIN_VALUE;
+      }
+    }
+
+    /**
+     * Reads a price and rounds it to ten-thousandths. Plain decimals are read straight from the
+     * bytes, and anything else, such as an exponent, is left to Double.parseDouble.
+     *
+     * @param lineEnd the end of the current line.
+     * @return the price in ten-thousandths.
+     * @throws NumberFormatException if the field is not a number.
+     */
+    long readTicks(int lineEnd) throws NumberFormatException {
+      int start = position;
+      boolean negative = position < lineEnd && bytes.get(position) == '-';
+      if (negative) {
+        position++;
+      }
+      long whole = 0;
+      int digits = 0;
+      while (position < lineEnd && isDigit(bytes.get(position))) {
+        whole = whole * 10 + (bytes.get(position++) - '0');
+        digits++;
+      }
+      long fraction = 0;
+      int places = 0;
+      boolean roundUp = false;
+      if (position < lineEnd && bytes.get(position) == '.') {
+        position++;
+        while (position < lineEnd && isDigit(bytes.get(position))) {
+          int digit = bytes.get(position++) - '0';
+          if (places < 4) {
+            fraction = fraction * 10 + digit;
+          } else if (places == 4) {
+            roundUp = digit >= 5;
+          }
+          places++;
+          digits++;
+        }
+      }
+      if (digits == 0 || digits > 18 || !endField(lineEnd)) {
+        return FixedPoint.fromDouble(Double.parseDouble(readField(start, lineEnd)));
+      }
+      for (int i = Math.min(places, 4); i < 4; i++) {
+        fraction *= 10;
+      }
+      long ticks = whole * FixedPoint.SCALE + fraction + (roundUp ? 1 : 0);
+      return negative ? -ticks : ticks;
+    }
+
+    /**
+     * Reads a whole number.
+     *
+     * @param lineEnd the end of the current line.
+     * @return the number.
+     * @throws NumberFormatException if the field is not a whole number.
+     */
+    long readLong(int lineEnd) throws NumberFormatException {
+      int start = position;
+      long value = 0;
+      int digits = 0;
+      while (position < lineEnd && isDigit(bytes.get(position))) {
+        value = value * 10 + (bytes.get(position++) - '0');
+        digits++;
+      }
+      if (digits == 0 || digits > 18 || !endField(lineEnd)) {
+        return Long.parseLong(readField(start, lineEnd));
+      }
+      return value;
+    }
+
+    /**
+     * Skips the comma, or the carriage return and end of the line, after a field.
+     *
+     * @param lineEnd the end of the current line.
+     * @return true if the field ended there, false if there is more to it.
+     */
+    private boolean endField(int lineEnd) {
+      if (position < lineEnd && bytes.get(position) == '\r' && position + 1 == lineEnd) {
+        position++;
+      }
+      if (position < lineEnd && bytes.get(position) != ',') {
+        return false;
+      }
+      position++;
+      return true;
+    }
+
+    /**
+     * Moves past a field and its comma without reading it.
+     *
+     * @param lineEnd the end of the current line.
+     */
+    void skipField(int lineEnd) {
+      while (position < lineEnd && bytes.get(position) != ',') {
+        position++;
+      }
+      position++;
+    }
+
+    /**
+     * Reads a whole field as text, and moves past its comma.
+     *
+     * @param start   where the field starts.
+     * @param lineEnd the end of the current line.
+     * @return the text of the field, without a carriage return.
+     */
+    private String readField(int start, int lineEnd) {
+      int end = start;
+      while (end < lineEnd && bytes.get(end) != ',') {
+        end++;
+      }
+      position = end + 1;
+      if (end > start && end == lineEnd && bytes.get(end - 1) == '\r') {
+        end--;
+      }
+      byte[] field = new byte[Math.max(0, end - start)];
+      for (int i = 0; i < field.length; i++) {
+        field[i] = bytes.get(start + i);
+      }
+      return new String(field, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reads a run of digits as a number.
+     *
+     * @param from where the digits start.
+     * @param to   where the digits end.
+     * @return the number, or -1 if there is anything other than a digit.
+     */
+    private int digits(int from, int to) {
+      int value = 0;
+      for (int i = from; i < to; i++) {
+        byte b = bytes.get(i);
+        if (!isDigit(b)) {
+          return -1;
+        }
+        value = value * 10 + (b - '0');
+      }
+      return value;
+    }
+
+    /**
+     * Determines if a byte is an ASCII digit.
+     *
+     * @param b the byte.
+     * @return true if it is 0-9.
+     */
+    private static boolean isDigit(byte b) {
+      return b >= '0' && b <= '9';
+    }
+  }
+
+  /**
+   * A growable column of the values of one field of a csv, in file order.
+   */
+  public static class Column {
+    private long[] values = new long[64];
+    private int size;
+
+    /**
+     * Adds a value to the end of the column.
+     *
+     * @param value the value to add.
+     */
+    void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    /**
+     * Adds every value of another column after the values of this one.
+     *
+     * @param other the column to add the values of.
+     * @return this column.
+     */
+    Column addAll(Column other) {
+      if (size + other.size > values.length) {
+        values = Arrays.copyOf(values, size + other.size);
+      }
+      System.arraycopy(other.values, 0, values, size, other.size);
+      size += other.size;
+      return this;
+    }
+
+    /**
+     * Gets the number of values in the column.
+     *
+     * @return the number of values.
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Gets a value of the column.
+     *
+     * @param index the row of the value, in file order.
+     * @return the value.
+     */
+    public long get(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index);
+      }
+      return values[index];
+    }
+  }
+}
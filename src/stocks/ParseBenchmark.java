@@ -0,0 +1,133 @@
+package stocks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ParseBenchmark times parsing a synthetic stock csv of several million rows, first line by line
+ * the way makeStock reads a small csv, then with ParallelCsvParser on one thread and on the
+ * common fork-join pool. Run it with the number of rows and the number of runs, e.g.
+ * java stocks.ParseBenchmark 3000000 5, and it prints the best time of each way to parse.
+ */
+public class ParseBenchmark {
+  private static final long FIRST_DAY = LocalDate.of(1, 1, 1).toEpochDay(); // first date
+  private static final int MAX_ROWS = 3600000; // days until the year 9999
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the number of rows, default 3000000, and the number of runs, default 5.
+   * @throws IOException              if the synthetic csv cannot be written or read.
+   * @throws IllegalArgumentException if the number of rows is not between 1 and 3600000.
+   */
+  public static void main(String[] args) throws IOException {
+    int rows = args.length > 0 ? Integer.parseInt(args[0]) : 3000000;
+    int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    if (rows <= 0 || rows > MAX_ROWS) {
+      throw new IllegalArgumentException("Rows must be between 1 and " + MAX_ROWS + ".");
+    }
+    File file = File.createTempFile("benchmark", ".csv");
+    try {
+      writeSynthetic(file, rows);
+      System.out.println(rows + " rows, " + file.length() / (1 << 20) + " MB, "
+              + ForkJoinPool.commonPool().getParallelism() + " pool threads");
+      ForkJoinPool single = new ForkJoinPool(1);
+      long lineByLine = Long.MAX_VALUE;
+      long oneThread = Long.MAX_VALUE;
+      long parallel = Long.MAX_VALUE;
+      for (int run = 0; run < runs; run++) {
+        long start = System.nanoTime();
+        int sequentialRows = parseLines(file).build("TEST").getTradingDayCount();
+        lineByLine = Math.min(lineByLine, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        int singleRows = ParallelCsvParser.parse(file, single).build("TEST")
+                .getTradingDayCount();
+        oneThread = Math.min(oneThread, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        int parallelRows = ParallelCsvParser.parse(file).build("TEST").getTradingDayCount();
+        parallel = Math.min(parallel, System.nanoTime() - start);
+
+        if (sequentialRows != rows || singleRows != rows || parallelRows != rows) {
+          throw new IllegalStateException("Parsed " + sequentialRows + ", " + singleRows
+                  + " and " + parallelRows + " rows instead of " + rows);
+        }
+      }
+      single.shutdown();
+      System.out.println("line by line:         " + lineByLine / 1000000 + " ms");
+      System.out.println("chunked, one thread:  " + oneThread / 1000000 + " ms");
+      System.out.println("chunked, parallel:    " + parallel / 1000000 + " ms");
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Writes a csv of random prices, newest first, like the data from the API.
+   *
+   * @param file the file to write.
+   * @param rows the number of rows.
+   * @throws IOException if the file cannot be written.
+   */
+  private static void writeSynthetic(File file, int rows) throws IOException {
+    Random random = new Random(42);
+    long[] closes = new long[rows];
+    long close = 1000000;
+    for (int i = 0; i < rows; i++) {
+      close = Math.max(100, close + random.nextInt(20001) - 10000);
+      closes[i] = close;
+    }
+    try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file.toPath()), 1 << 16)) {
+      writer.write("timestamp,open,high,low,close,volume\n");
+      for (int i = rows - 1; i >= 0; i--) {
+        long open = Math.max(100, closes[i] + random.nextInt(2001) - 1000);
+        writer.write(LocalDate.ofEpochDay(FIRST_DAY + i).toString() + ","
+                + format(open) + ","
+                + format(Math.max(open, closes[i]) + random.nextInt(5000)) + ","
+                + format(Math.max(1, Math.min(open, closes[i]) - random.nextInt(5000))) + ","
+                + format(closes[i]) + ","
+                + (1000000 + random.nextInt(50000000)) + "\n");
+      }
+    }
+  }
+
+  /**
+   * Formats a price with four decimal places, the way the API does.
+   *
+   * @param ticks the price in ten-thousandths.
+   * @return the formatted price.
+   */
+  private static String format(long ticks) {
+    return String.format("%d.%04d", ticks / FixedPoint.SCALE, ticks % FixedPoint.SCALE);
+  }
+
+  /**
+   * Parses a csv line by line on one thread, the way makeStock reads a csv below the parallel
+   * threshold.
+   *
+   * @param file the file to parse.
+   * @return a builder holding every row of the file.
+   * @throws IOException if the file cannot be read.
+   */
+  private static FixedPointStockImpl.FixedPointBuilder parseLines(File file) throws IOException {
+    FixedPointStockImpl.FixedPointBuilder rows = new FixedPointStockImpl.FixedPointBuilder();
+    try (BufferedReader reader = CsvFiles.newReader(file)) {
+      String line = reader.readLine();
+      while ((line = reader.readLine()) != null) {
+        String[] data = line.split(",");
+        rows.add(LocalDate.parse(data[0]), Double.parseDouble(data[1]),
+                Double.parseDouble(data[2]), Double.parseDouble(data[3]),
+                Double.parseDouble(data[4]), Long.parseLong(data[5]));
+      }
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,161 @@
+package stocks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * PartitionedPriceStore keeps the price history of a stock on disk split into one partition per
+ * calendar year, in a directory StockData/ticker.parts/. Each partition, year.stk, holds the
+ * rows of that year as CompressedPriceColumns, and a small index file lists every partition
+ * with its year, number of rows and first and last date. A stock opened from the store only
+ * reads the index; each partition is read the first time one of its dates is needed, so a
+ * command that looks at the last month never reads the years before it.
+ */
+public final class PartitionedPriceStore {
+  private static final String INDEX = "index"; // name of the index file
+  private static final int MAGIC = 0x53545031; // "STP1", start of an index file
+
+  /**
+   * This class only has static methods, so it cannot be constructed.
+   */
+  private PartitionedPriceStore() {
+  }
+
+  /**
+   * Determines if the partitions in a directory were written from the current csv.
+   *
+   * @param directory the directory of the partitions.
+   * @param csv       the csv the partitions are written from.
+   * @return true if the index exists and is at least as new as the csv.
+   */
+  public static boolean isUpToDate(File directory, File csv) {
+    File index = new File(directory, INDEX);
+    return index.isFile() && index.lastModified() >= csv.lastModified();
+  }
+
+  /**
+   * Splits the price history of a stock by year and writes every partition, then the index.
+   *
+   * @param directory the directory to write the partitions to, which is created if needed.
+   * @param stock     the stock to write, with its prices sorted by date.
+   * @throws IOException if a partition or the index cannot be written.
+   */
+  public static void write(File directory, FixedPointStockImpl stock) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create " + directory);
+    }
+    int rows = stock.getTradingDayCount();
+    int[] years = new int[rows];
+    int[] counts = new int[rows];
+    int[] firstDays = new int[rows];
+    int[] lastDays = new int[rows];
+    int partitions = 0;
+    int from = 0;
+    while (from < rows) {
+      int year = LocalDate.ofEpochDay(stock.epochDays[from]).getYear();
+      int to = from;
+      int nextYear = (int) LocalDate.of(year + 1, 1, 1).toEpochDay();
+      while (to < rows && stock.epochDays[to] < nextYear) {
+        to++;
+      }
+      writePartition(new File(directory, year + ".stk"), CompressedPriceColumns.encode(
+              to - from, Arrays.copyOfRange(stock.epochDays, from, to),
+              Arrays.copyOfRange(stock.opens, from, to), Arrays.copyOfRange(stock.highs, from, to),
+              Arrays.copyOfRange(stock.lows, from, to), Arrays.copyOfRange(stock.closes, from, to),
+              Arrays.copyOfRange(stock.volumes, from, to)));
+      years[partitions] = year;
+      counts[partitions] = to - from;
+      firstDays[partitions] = stock.epochDays[from];
+      lastDays[partitions] = stock.epochDays[to - 1];
+      partitions++;
+      from = to;
+    }
+
+    // the index is written last, so it never lists a partition that was not written
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(new File(directory, INDEX))))) {
+      out.writeInt(MAGIC);
+      out.writeInt(partitions);
+      for (int i = 0; i < partitions; i++) {
+        out.writeInt(years[i]);
+        out.writeInt(counts[i]);
+        out.writeInt(firstDays[i]);
+        out.writeInt(lastDays[i]);
+      }
+    }
+  }
+
+  /**
+   * Opens a stock from its partitions, reading only the index.
+   *
+   * @param ticker    the ticker of the stock.
+   * @param directory the directory of the partitions.
+   * @return the stock, with no shares, which reads each partition when it is first needed.
+   * @throws IOException if the index cannot be read.
+   */
+  public static PartitionedStockImpl open(String ticker, File directory) throws IOException {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(new File(directory, INDEX))))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a partition index.");
+      }
+      int partitions = in.readInt();
+      int[] years = new int[partitions];
+      int[] starts = new int[partitions + 1];
+      int[] firstDays = new int[partitions];
+      int[] lastDays = new int[partitions];
+      for (int i = 0; i < partitions; i++) {
+        years[i] = in.readInt();
+        starts[i + 1] = starts[i] + in.readInt();
+        firstDays[i] = in.readInt();
+        lastDays[i] = in.readInt();
+      }
+      return new PartitionedStockImpl(partitions == 0 ? null : ticker, 0, directory, years,
+              starts, firstDays, lastDays, new TreeMap<>());
+    }
+  }
+
+  /**
+   * Reads one partition.
+   *
+   * @param directory the directory of the partitions.
+   * @param year      the year of the partition.
+   * @return the rows of that year.
+   * @throws IOException if the partition cannot be read.
+   */
+  public static CompressedPriceColumns readPartition(File directory, int year)
+          throws IOException {
+    File partition = new File(directory, year + ".stk");
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(partition)))) {
+      CompressedPriceColumns columns = CompressedPriceColumns.readFrom(in);
+      MetricsRegistry.increment("load.partition.reads");
+      MetricsRegistry.counter("load.partition.bytes").add(partition.length());
+      return columns;
+    }
+  }
+
+  /**
+   * Writes one partition.
+   *
+   * @param partition the file to write.
+   * @param columns   the rows of the partition.
+   * @throws IOException if the file cannot be written.
+   */
+  private static void writePartition(File partition, CompressedPriceColumns columns)
+          throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(partition)))) {
+      columns.writeTo(out);
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package stocks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A PartitionedStockImpl class which extends AbstractStock. It represents a stock whose price
+ * history is stored by PartitionedPriceStore as one partition per year. Only the index of the
+ * partitions is read when the stock is opened, which is enough to know every year, how many
+ * trading days it has, and its first and last date. A partition is read the first time one of
+ * its prices is needed and is then shared by every copy of the stock, so queries only touch the
+ * years that overlap the dates they ask for, and the other years stay on disk.
+ */
+public class PartitionedStockImpl extends AbstractStock {
+
+  protected final File directory; // directory of the partitions
+  protected final int[] years; // Key: partition, Value: year of the partition
+  protected final int[] starts; // Key: partition, Value: trading day index of its first row,
+  // followed by the total number of trading days
+  protected final int[] firstDays; // Key: partition, Value: epoch day of its first row
+  protected final int[] lastDays; // Key: partition, Value: epoch day of its last row
+  private final AtomicReferenceArray<CompressedStockImpl> partitions; // Key: partition,
+  // Value: the partition once it has been read, or null
+
+  /**
+   * The constructor for PartitionedStockImpl.
+   *
+   * @param ticker     the stock symbol
+   * @param numShares  number of shares of that stock
+   * @param directory  the directory of the partitions
+   * @param years      the year of each partition, sorted
+   * @param starts     the trading day index of the first row of each partition, then the
+   *                   total number of trading days
+   * @param firstDays  the epoch day of the first row of each partition
+   * @param lastDays   the epoch day of the last row of each partition
+   * @param shareDates Key: date, Value: number of shares purchased at that date
+   */
+  protected PartitionedStockImpl(String ticker, double numShares, File directory, int[] years,
+                                 int[] starts, int[] firstDays, int[] lastDays,
+                                 Map<LocalDate, Double> shareDates) {
+    this(ticker, numShares, directory, years, starts, firstDays, lastDays,
+            new AtomicReferenceArray<>(years.length), shareDates);
+  }
+
+  /**
+   * Constructs a PartitionedStockImpl that shares the partitions already read by another.
+   *
+   * @param ticker     the stock symbol
+   * @param numShares  number of shares of that stock
+   * @param directory  the directory of the partitions
+   * @param years      the year of each partition, sorted
+   * @param starts     the trading day index of the first row of each partition, then the
+   *                   total number of trading days
+   * @param firstDays  the epoch day of the first row of each partition
+   * @param lastDays   the epoch day of the last row of each partition
+   * @param partitions the partitions that have been read so far
+   * @param shareDates Key: date, Value: number of shares purchased at that date
+   */
+  private PartitionedStockImpl(String ticker, double numShares, File directory, int[] years,
+                               int[] starts, int[] firstDays, int[] lastDays,
+                               AtomicReferenceArray<CompressedStockImpl> partitions,
+                               Map<LocalDate, Double> shareDates) {
+    super(ticker, numShares, shareDates);
+    this.directory = directory;
+    this.years = years;
+    this.starts = starts;
+    this.firstDays = firstDays;
+    this.lastDays = lastDays;
+    this.partitions = partitions;
+  }
+
+  @Override
+  protected Stock withShares(double numShares, Map<LocalDate, Double> shareDates) {
+    return new PartitionedStockImpl(this.ticker, numShares, this.directory, this.years,
+            this.starts, this.firstDays, this.lastDays, this.partitions, shareDates);
+  }
+
+  /**
+   * Gets the number of partitions that have been read from disk so far.
+   *
+   * @return the number of partitions in memory.
+   */
+  public int getLoadedPartitionCount() {
+    int loaded = 0;
+    for (int i = 0; i < this.partitions.length(); i++) {
+      if (this.partitions.get(i) != null) {
+        loaded++;
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Gets a partition, reading it from disk if it has not been read yet.
+   *
+   * @param partition the partition to get.
+   * @return the rows of the partition.
+   * @throws UncheckedIOException if the partition cannot be read.
+   */
+  private CompressedStockImpl partition(int partition) throws UncheckedIOException {
+    CompressedStockImpl rows = this.partitions.get(partition);
+    if (rows == null) {
+      try {
+        rows = new CompressedStockImpl(this.ticker, 0, PartitionedPriceStore.readPartition(
+                this.directory, this.years[partition]), new TreeMap<>());
+      } catch (IOException e) {
+        MetricsRegistry.increment("load.stock.errors");
+        throw new UncheckedIOException(e);
+      }
+      if (!this.partitions.compareAndSet(partition, null, rows)) {
+        rows = this.partitions.get(partition);
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Gets the partition a trading day is in.
+   *
+   * @param index the trading day index.
+   * @return the partition of the trading day.
+   * @throws IndexOutOfBoundsException if there is no trading day with that index.
+   */
+  private int partitionOf(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= getTradingDayCount()) {
+      throw new IndexOutOfBoundsException("Index: " + index);
+    }
+    int low = 0;
+    int high = this.years.length - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (this.starts[mid] <= index) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Finds the first partition whose last date is on or after the given date.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the partition, or the number of partitions if every partition ends before the date.
+   */
+  private int partitionFrom(int epochDay) {
+    int low = 0;
+    int high = this.years.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (this.lastDays[mid] < epochDay) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public int getTradingDayCount() {
+    return this.starts[this.years.length];
+  }
+
+  @Override
+  public int indexOf(int epochDay) {
+    int partition = partitionFrom(epochDay);
+    if (partition == this.years.length || this.firstDays[partition] > epochDay) {
+      return -1;
+    }
+    int row = partition(partition).indexOf(epochDay);
+    return row < 0 ? -1 : this.starts[partition] + row;
+  }
+
+  @Override
+  public int ceilingIndex(int epochDay) {
+    int partition = partitionFrom(epochDay);
+    if (partition == this.years.length || this.firstDays[partition] >= epochDay) {
+      return this.starts[partition];
+    }
+    return this.starts[partition] + partition(partition).ceilingIndex(epochDay);
+  }
+
+  @Override
+  public int getEpochDayAt(int index) {
+    int partition = partitionOf(index);
+    return partition(partition).getEpochDayAt(index - this.starts[partition]);
+  }
+
+  @Override
+  public double getOpenAt(int index) {
+    int partition = partitionOf(index);
+    return partition(partition).getOpenAt(index - this.starts[partition]);
+  }
+
+  @Override
+  public double getHighAt(int index) {
+    int partition = partitionOf(index);
+    return partition(partition).getHighAt(index - this.starts[partition]);
+  }
+
+  @Override
+  public double getLowAt(int index) {
+    int partition = partitionOf(index);
+    return partition(partition).getLowAt(index - this.starts[partition]);
+  }
+
+  @Override
+  public double getCloseAt(int index) {
+    return FixedPoint.toDouble(getCloseTicksAt(index));
+  }
+
+  @Override
+  public long getCloseTicksAt(int index) {
+    int partition = partitionOf(index);
+    return partition(partition).getCloseTicksAt(index - this.starts[partition]);
+  }
+
+  @Override
+  public long getVolumeAt(int index) {
+    int partition = partitionOf(index);
+    return partition(partition).getVolumeAt(index - this.starts[partition]);
+  }
+}
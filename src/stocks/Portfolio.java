@@ -38,6 +38,14 @@ public interface Portfolio {
    */
   boolean isValidDateForAll(LocalDate date);
 
+  /**
+   * Finds the first date on or after the inputted date that is valid for all Stocks within this
+   * portfolio.
+   * @param date the date to start from.
+   * @return the first date valid for all stocks, or null if there is none.
+   */
+  LocalDate nextValidDateForAll(LocalDate date);
+
   /**
    * Returns a new portfolio with a list of stocks that contains the stock being added.
    * @param stock the stock to be added to the portfolio.
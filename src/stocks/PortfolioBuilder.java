@@ -2,13 +2,14 @@ package stocks;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+
+import stocks.events.PortfolioLoadEvent;
 
 import static stocks.StockBuilder.makeStock;
 
@@ -19,6 +20,8 @@ import static stocks.StockBuilder.makeStock;
  * @param <T> Is a subclass of PortfolioBuilder.
  */
 public abstract class PortfolioBuilder<T extends PortfolioBuilder<T>> {
+  private static boolean lazyStocks = !Boolean.getBoolean("stocks.portfolio.eager"); // if
+  // makePortfolio defers loading the prices of its stocks
   protected Map<String, Stock> listOfStocks = new HashMap<String, Stock>();
 
   /**
@@ -49,10 +52,11 @@ public abstract class PortfolioBuilder<T extends PortfolioBuilder<T>> {
    * @return A subclass of PortfolioBuilder used to allow chaining the and the building process
    *     for creating a PortfolioImpl.
    * @throws IllegalArgumentException if the stock is not a publicly available stock in the stock
-   *                                  market.
+   *                                  market. A LazyStockImpl is only made for a stock with price
+   *                                  data, so it is accepted before it has been loaded.
    */
   public T addStock(Stock stock) {
-    if (Utils.isValidStock(stock.getTicker())) {
+    if (stock instanceof LazyStockImpl || Utils.isValidStock(stock.getTicker())) {
       this.listOfStocks.put(stock.getTicker(), stock);
     } else {
       throw new IllegalArgumentException("Not a valid ticker");
@@ -71,21 +75,39 @@ public abstract class PortfolioBuilder<T extends PortfolioBuilder<T>> {
   protected abstract T returnBuilder();
 
 
+  /**
+   * Sets whether makePortfolio defers loading the prices of the stocks in a portfolio until one
+   * of them is read, with a LazyStockImpl for each stock that has not been loaded yet, instead of
+   * loading every stock before returning. Defaults to true, unless the
+   * "stocks.portfolio.eager" system property is set.
+   *
+   * @param useLazyStocks true to load the prices of each stock when they are first read, false
+   *                      to load them all with the portfolio.
+   */
+  public static void setLazyStocks(boolean useLazyStocks) {
+    lazyStocks = useLazyStocks;
+  }
+
   /**
    * Constructs a portfolio with the given portfolio name, from the DataBase of portfolios.
    * Retrieves the data for the portfolio from the PortfolioData/ folder, and constructs a
-   * new portfolio with its identical data.
+   * new portfolio with its identical data. The file may be gzip compressed. Unless lazy stocks
+   * are turned off, a stock that has already been loaded is taken from Utils.getStocks(), and
+   * any other stock is a LazyStockImpl that is only loaded when one of its prices is read, so
+   * the composition of the portfolio is available without reading any price history.
    *
    * @param portfolioName the name of the portfolio to be reconstructed.
    * @return the completed Portfolio.
    */
   public static Portfolio makePortfolio(String portfolioName) {
+    long start = System.nanoTime();
+    PortfolioLoadEvent event = new PortfolioLoadEvent();
+    event.begin();
 
-    String filePath = "PortfolioData/" + portfolioName + ".csv";
     PortfolioImpl.PortfolioImplBuilder portfolio = new PortfolioImpl.PortfolioImplBuilder();
     Map<String, Stock> portStocks = new HashMap<>();
-    try {
-      BufferedReader reader = Files.newBufferedReader(Paths.get(filePath));
+    try (BufferedReader reader = CsvFiles.newReader(
+            CsvFiles.find("PortfolioData/", portfolioName))) {
       String line = reader.readLine();
 
 
@@ -117,16 +139,47 @@ public abstract class PortfolioBuilder<T extends PortfolioBuilder<T>> {
           tempShares.remove(0);
         }
 
-        Stock stockToMake = makeStock(tempTicker);
+        Stock stockToMake = lazyStocks ? deferStock(tempTicker) : makeStock(tempTicker);
         Stock stockMade = stockToMake.addShareDates(tempShareDates).setNumShares(tempNumShares);
 
         portfolio.addStock(stockMade);
       }
     } catch (IOException e) {
+      MetricsRegistry.increment("load.portfolio.errors");
       System.out.println(e.getMessage());
     }
 
-    return portfolio.build();
+    MetricsRegistry.recordSince("load.portfolio", start);
+    Portfolio built = portfolio.build();
+    event.end();
+    if (event.shouldCommit()) {
+      event.portfolio = portfolioName;
+      event.stocks = built.getListOfStocks().size();
+      event.commit();
+    }
+    return built;
+  }
+
+  /**
+   * Gets a stock for a portfolio without loading its prices, if they have not been loaded yet.
+   * The stock is not added to Utils.getStocks() until its prices are loaded.
+   *
+   * @param ticker the ticker of the stock.
+   * @return the stock cached in Utils.getStocks(), or a new LazyStockImpl, with no shares. A
+   *     ticker without any price data is loaded with makeStock straight away.
+   * @throws IOException if the stock has no price data and cannot be loaded.
+   */
+  private static Stock deferStock(String ticker) throws IOException {
+    Stock cached = Utils.getStocks().get(ticker);
+    if (cached != null) {
+      return cached;
+    }
+    if (!CsvFiles.exists("StockData/", ticker)
+            && !CsvFiles.exists("StockData/intraday/", ticker)) {
+      return makeStock(ticker);
+    }
+    MetricsRegistry.increment("load.portfolio.deferred");
+    return new LazyStockImpl(ticker, 0, new TreeMap<>());
   }
 }
 
@@ -12,6 +12,8 @@ public class PortfolioImpl implements Portfolio {
 
   private final Map<String, Stock> listOfStocks; // immutable Key: Ticker,
   // Value: Stock of that ticker
+  private volatile CommonDays tradingDays; // the trading days every stock has in common, or
+  // null if they have not been intersected yet
 
 
   /**
@@ -122,25 +124,123 @@ public class PortfolioImpl implements Portfolio {
   }
 
   /**
-   * Determines if the inputted date is valid for all Stocks within this portfolio.
+   * Determines if the inputted date is valid for all Stocks within this portfolio, with one bit
+   * test on the trading days every stock has in common.
    *
    * @param date the date to check amongst the stocks.
    * @return true if its valid for all, false if not.
    */
   @Override
   public boolean isValidDateForAll(LocalDate date) {
-    for (String ticker : listOfStocks.keySet()) {
-      if (!Utils.isValidDate(date, ticker)) {
+    if (this.listOfStocks.isEmpty()) {
+      return true;
+    }
+    return getTradingDays().contains(date);
+  }
+
+  @Override
+  public LocalDate nextValidDateForAll(LocalDate date) {
+    if (this.listOfStocks.isEmpty()) {
+      return date;
+    }
+    long epochDay = date.toEpochDay();
+    if (epochDay > Integer.MAX_VALUE) {
+      return null;
+    }
+    int next = getTradingDays().nextDay((int) Math.max(epochDay, Integer.MIN_VALUE));
+    return next == TradingDayBitmap.NONE ? null : LocalDate.ofEpochDay(next);
+  }
+
+  /**
+   * Gets the trading days every stock in the portfolio has in common. While no stock has been
+   * loaded again since they were intersected, they are returned after a single comparison.
+   * Otherwise the trading days of each stock are looked up, and intersected again only if one
+   * of them is no longer what they were intersected from.
+   *
+   * @return the intersection of the trading days of every stock.
+   */
+  private TradingDayBitmap getTradingDays() {
+    int reloads = Utils.getStockReloads();
+    CommonDays common = this.tradingDays;
+    if (common != null && common.reloads == reloads) {
+      return common.days;
+    }
+    Map<String, TradingDayBitmap> days = new HashMap<>();
+    for (Stock stock : this.listOfStocks.values()) {
+      if (stock instanceof LazyStockImpl) {
+        stock.getTradingDayCount(); // loads the stock into Utils.getStocks()
+      }
+      days.put(stock.getTicker(), Utils.getTradingDays(stock.getTicker()));
+    }
+    common = common != null && common.isFrom(days) ? new CommonDays(common, reloads)
+            : new CommonDays(days, reloads);
+    this.tradingDays = common;
+    return common.days;
+  }
+
+  /**
+   * The trading days every stock in a portfolio has in common, with the trading days of each
+   * stock they were intersected from and the number of reloads they were last checked at. It
+   * is immutable, so it can be shared between threads through a single volatile field.
+   */
+  private static final class CommonDays {
+    private final Map<String, TradingDayBitmap> sources; // Key: ticker, Value: its trading days
+    private final TradingDayBitmap days; // the intersection of the sources
+    private final int reloads; // Utils.getStockReloads() when the sources were last checked
+
+    /**
+     * Intersects the trading days of the stocks.
+     *
+     * @param sources the trading days of each stock, which must not be empty.
+     * @param reloads the number of reloads the sources were looked up at.
+     */
+    private CommonDays(Map<String, TradingDayBitmap> sources, int reloads) {
+      TradingDayBitmap common = null;
+      for (TradingDayBitmap stockDays : sources.values()) {
+        common = common == null ? stockDays : common.and(stockDays);
+      }
+      this.sources = sources;
+      this.days = common;
+      this.reloads = reloads;
+    }
+
+    /**
+     * Reuses an intersection whose sources were found to be unchanged.
+     *
+     * @param checked the intersection.
+     * @param reloads the number of reloads its sources were checked at.
+     */
+    private CommonDays(CommonDays checked, int reloads) {
+      this.sources = checked.sources;
+      this.days = checked.days;
+      this.reloads = reloads;
+    }
+
+    /**
+     * Determines if these days were intersected from exactly the given trading days, comparing
+     * each bitmap by identity since a stock is given new ones only when it is loaded again.
+     *
+     * @param current the current trading days of each stock.
+     * @return true if the intersection can be reused, false if not.
+     */
+    private boolean isFrom(Map<String, TradingDayBitmap> current) {
+      if (current.size() != this.sources.size()) {
         return false;
       }
+      for (Map.Entry<String, TradingDayBitmap> entry : current.entrySet()) {
+        if (this.sources.get(entry.getKey()) != entry.getValue()) {
+          return false;
+        }
+      }
+      return true;
     }
-    return true;
   }
 
   @Override
   public Portfolio addStockAfterCreation(Stock stock) {
     Map<String, Stock> tempListOfStocks = this.listOfStocks;
     tempListOfStocks.put(stock.getTicker(), stock);
+    this.tradingDays = null; // the map is shared, so this portfolio has changed too
     return new PortfolioImpl(tempListOfStocks);
   }
 
@@ -148,6 +248,7 @@ public class PortfolioImpl implements Portfolio {
   public Portfolio removeStockAfterCreation(Stock stock) {
     Map<String, Stock> tempListOfStocks = this.listOfStocks;
     tempListOfStocks.remove(stock.getTicker());
+    this.tradingDays = null; // the map is shared, so this portfolio has changed too
     return new PortfolioImpl(tempListOfStocks);
   }
 
@@ -0,0 +1,80 @@
+package stocks;
+
+import java.time.LocalDate;
+
+/**
+ * A PriceRangeIndex answers the highest and lowest prices of a stock between any two dates, such
+ * as its 52-week high and low, without walking the prices in between. It keeps a RangeMinMax
+ * over the high and low prices of the stock, each copied out of the stock the first time it is
+ * asked about. It is shared by every thread that reads the stock, so each index is published
+ * through a volatile field once it is complete; two threads asking at once may both build it,
+ * and either copy is kept.
+ */
+public final class PriceRangeIndex {
+  private final Stock stock; // the stock the prices are taken from
+  private volatile RangeMinMax highs; // the high prices, or null until they are asked about
+  private volatile RangeMinMax lows; // the low prices, or null until they are asked about
+
+  /**
+   * Constructs a PriceRangeIndex over the prices of a stock.
+   *
+   * @param stock the stock to index.
+   */
+  public PriceRangeIndex(Stock stock) {
+    this.stock = stock;
+  }
+
+  /**
+   * Finds the highest high price of the stock between two dates.
+   *
+   * @param from the first date, inclusive.
+   * @param to   the last date, inclusive.
+   * @return the highest high price, or null if the stock has no price data between the dates.
+   */
+  public Double getHighestHigh(LocalDate from, LocalDate to) {
+    RangeMinMax column = this.highs;
+    if (column == null) {
+      double[] values = new double[this.stock.getTradingDayCount()];
+      this.stock.copyHighs(0, values.length, values, 0);
+      column = new RangeMinMax(values);
+      this.highs = column;
+    }
+    return extreme(column, from, to, true);
+  }
+
+  /**
+   * Finds the lowest low price of the stock between two dates.
+   *
+   * @param from the first date, inclusive.
+   * @param to   the last date, inclusive.
+   * @return the lowest low price, or null if the stock has no price data between the dates.
+   */
+  public Double getLowestLow(LocalDate from, LocalDate to) {
+    RangeMinMax column = this.lows;
+    if (column == null) {
+      double[] values = new double[this.stock.getTradingDayCount()];
+      this.stock.copyLows(0, values.length, values, 0);
+      column = new RangeMinMax(values);
+      this.lows = column;
+    }
+    return extreme(column, from, to, false);
+  }
+
+  /**
+   * Finds the extreme of a column between two dates.
+   *
+   * @param column the index over the column.
+   * @param from   the first date, inclusive.
+   * @param to     the last date, inclusive.
+   * @param max    true to find the largest value, false to find the smallest.
+   * @return the extreme, or null if there are no trading days between the dates.
+   */
+  private Double extreme(RangeMinMax column, LocalDate from, LocalDate to, boolean max) {
+    int first = this.stock.ceilingIndex((int) from.toEpochDay());
+    int last = this.stock.ceilingIndex((int) to.toEpochDay() + 1);
+    if (first >= last) {
+      return null;
+    }
+    return max ? column.max(first, last) : column.min(first, last);
+  }
+}
@@ -0,0 +1,329 @@
+package stocks;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * A PriceRollup keeps the prices of a stock rolled up into one bar per week, month, quarter or
+ * year: the opening price of the first trading day of the period, the highest high, the lowest
+ * low, the closing price of the last trading day, and the total volume. It is advanced one
+ * trading day at a time, oldest first, like an IndicatorState, so when new data arrives for a
+ * stock only the new days are appended to the last period instead of rolling up the whole
+ * history again. A chart or statistic over decades then reads a few hundred bars instead of
+ * every trading day.
+ * Prices are kept in ten-thousandths, the precision of the stock data.
+ */
+public class PriceRollup {
+
+  /**
+   * The length of the periods of a PriceRollup.
+   */
+  public enum Resolution {
+    WEEKLY, MONTHLY, QUARTERLY, YEARLY;
+
+    /**
+     * Finds the first day of the period a day is in.
+     *
+     * @param epochDay the day as a number of days since 1970-01-01.
+     * @return the first day of its period, a Monday, the first of a month, the first of January,
+     *     April, July or October, or the first of a year, as a number of days since 1970-01-01.
+     */
+    public int periodStart(int epochDay) {
+      switch (this) {
+        case WEEKLY:
+          // 1970-01-01 was a Thursday, so Mondays are 4 days after a multiple of 7
+          return epochDay - Math.floorMod(epochDay - 4, 7);
+        case MONTHLY:
+          return (int) LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+        case QUARTERLY:
+          LocalDate date = LocalDate.ofEpochDay(epochDay);
+          int month = date.getMonthValue() - (date.getMonthValue() - 1) % 3;
+          return (int) LocalDate.of(date.getYear(), month, 1).toEpochDay();
+        default:
+          return (int) LocalDate.ofEpochDay(epochDay).withDayOfYear(1).toEpochDay();
+      }
+    }
+  }
+
+  private final Resolution resolution; // the length of the periods
+  private int size; // number of periods
+  private int[] periodStarts; // Key: period, Value: epoch day the period starts on
+  private int[] firstDays; // Key: period, Value: epoch day of its first trading day
+  private int[] lastDays; // Key: period, Value: epoch day of its last trading day
+  private int[] counts; // Key: period, Value: number of trading days in it
+  private long[] opens; // Key: period, Value: opening price in ten-thousandths
+  private long[] highs; // Key: period, Value: highest high price in ten-thousandths
+  private long[] lows; // Key: period, Value: lowest low price in ten-thousandths
+  private long[] closes; // Key: period, Value: closing price in ten-thousandths
+  private long[] volumes; // Key: period, Value: total volume
+
+  /**
+   * Constructs an empty PriceRollup.
+   *
+   * @param resolution the length of the periods.
+   */
+  public PriceRollup(Resolution resolution) {
+    this.resolution = resolution;
+    this.periodStarts = new int[16];
+    this.firstDays = new int[16];
+    this.lastDays = new int[16];
+    this.counts = new int[16];
+    this.opens = new long[16];
+    this.highs = new long[16];
+    this.lows = new long[16];
+    this.closes = new long[16];
+    this.volumes = new long[16];
+  }
+
+  /**
+   * Creates the PriceRollup of every trading day of a stock.
+   *
+   * @param stock      the stock to roll up.
+   * @param resolution the length of the periods.
+   * @return the rolled up prices of the stock.
+   */
+  public static PriceRollup of(Stock stock, Resolution resolution) {
+    PriceRollup rollup = new PriceRollup(resolution);
+    rollup.appendFrom(stock);
+    return rollup;
+  }
+
+  /**
+   * Appends every trading day of a stock after the last day already appended.
+   *
+   * @param stock the stock to take the prices from.
+   */
+  public void appendFrom(Stock stock) {
+    int start = 0;
+    if (this.size > 0) {
+      start = stock.ceilingIndex(this.lastDays[this.size - 1] + 1);
+    }
+    for (int i = start; i < stock.getTradingDayCount(); i++) {
+      append(stock.getEpochDayAt(i), FixedPoint.fromDouble(stock.getOpenAt(i)),
+              FixedPoint.fromDouble(stock.getHighAt(i)), FixedPoint.fromDouble(stock.getLowAt(i)),
+              stock.getCloseTicksAt(i), stock.getVolumeAt(i));
+    }
+  }
+
+  /**
+   * Advances the rollup by one trading day. Days must be appended in increasing date order.
+   *
+   * @param epochDay the date of the day as a number of days since 1970-01-01.
+   * @param open     the opening price in ten-thousandths.
+   * @param high     the high price in ten-thousandths.
+   * @param low      the low price in ten-thousandths.
+   * @param close    the closing price in ten-thousandths.
+   * @param volume   the volume.
+   * @throws IllegalArgumentException if the date is not after the last appended date.
+   */
+  public void append(int epochDay, long open, long high, long low, long close, long volume)
+          throws IllegalArgumentException {
+    int last = this.size - 1;
+    if (last >= 0 && epochDay <= this.lastDays[last]) {
+      throw new IllegalArgumentException("Days must be appended in date order.");
+    }
+    int periodStart = this.resolution.periodStart(epochDay);
+    if (last >= 0 && this.periodStarts[last] == periodStart) {
+      this.lastDays[last] = epochDay;
+      this.counts[last]++;
+      this.highs[last] = Math.max(this.highs[last], high);
+      this.lows[last] = Math.min(this.lows[last], low);
+      this.closes[last] = close;
+      this.volumes[last] += volume;
+      return;
+    }
+    if (this.size == this.periodStarts.length) {
+      grow();
+    }
+    this.periodStarts[this.size] = periodStart;
+    this.firstDays[this.size] = epochDay;
+    this.lastDays[this.size] = epochDay;
+    this.counts[this.size] = 1;
+    this.opens[this.size] = open;
+    this.highs[this.size] = high;
+    this.lows[this.size] = low;
+    this.closes[this.size] = close;
+    this.volumes[this.size] = volume;
+    this.size++;
+  }
+
+  /**
+   * Doubles the capacity of the columns.
+   */
+  private void grow() {
+    int capacity = this.periodStarts.length * 2;
+    this.periodStarts = Arrays.copyOf(this.periodStarts, capacity);
+    this.firstDays = Arrays.copyOf(this.firstDays, capacity);
+    this.lastDays = Arrays.copyOf(this.lastDays, capacity);
+    this.counts = Arrays.copyOf(this.counts, capacity);
+    this.opens = Arrays.copyOf(this.opens, capacity);
+    this.highs = Arrays.copyOf(this.highs, capacity);
+    this.lows = Arrays.copyOf(this.lows, capacity);
+    this.closes = Arrays.copyOf(this.closes, capacity);
+    this.volumes = Arrays.copyOf(this.volumes, capacity);
+  }
+
+  /**
+   * Gets the length of the periods.
+   *
+   * @return the resolution of the rollup.
+   */
+  public Resolution getResolution() {
+    return this.resolution;
+  }
+
+  /**
+   * Gets the number of periods with at least one trading day.
+   *
+   * @return the number of bars.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Finds the period a day is in.
+   *
+   * @param epochDay the day as a number of days since 1970-01-01.
+   * @return the index of its period, or -1 if no trading day falls in that period.
+   */
+  public int indexOf(int epochDay) {
+    int index = Arrays.binarySearch(this.periodStarts, 0, this.size,
+            this.resolution.periodStart(epochDay));
+    return index < 0 ? -1 : index;
+  }
+
+  /**
+   * Finds the first period on or after a day.
+   *
+   * @param epochDay the day as a number of days since 1970-01-01.
+   * @return the index of the period the day is in, or of the first period after it, or size()
+   *     if there is none.
+   */
+  public int ceilingIndex(int epochDay) {
+    int index = Arrays.binarySearch(this.periodStarts, 0, this.size,
+            this.resolution.periodStart(epochDay));
+    return index < 0 ? -index - 1 : index;
+  }
+
+  /**
+   * Gets the first day of a period.
+   *
+   * @param index the index of the period.
+   * @return the day the period starts on, which need not be a trading day.
+   */
+  public LocalDate getPeriodStartAt(int index) {
+    checkIndex(index);
+    return LocalDate.ofEpochDay(this.periodStarts[index]);
+  }
+
+  /**
+   * Gets the first trading day of a period.
+   *
+   * @param index the index of the period.
+   * @return the first trading day as a number of days since 1970-01-01.
+   */
+  public int getFirstDayAt(int index) {
+    checkIndex(index);
+    return this.firstDays[index];
+  }
+
+  /**
+   * Gets the last trading day of a period.
+   *
+   * @param index the index of the period.
+   * @return the last trading day as a number of days since 1970-01-01.
+   */
+  public int getLastDayAt(int index) {
+    checkIndex(index);
+    return this.lastDays[index];
+  }
+
+  /**
+   * Gets the number of trading days in a period.
+   *
+   * @param index the index of the period.
+   * @return the number of trading days rolled up into the bar.
+   */
+  public int getTradingDayCountAt(int index) {
+    checkIndex(index);
+    return this.counts[index];
+  }
+
+  /**
+   * Gets the opening price of a period, the opening price of its first trading day.
+   *
+   * @param index the index of the period.
+   * @return the opening price.
+   */
+  public double getOpenAt(int index) {
+    checkIndex(index);
+    return FixedPoint.toDouble(this.opens[index]);
+  }
+
+  /**
+   * Gets the highest high price of a period.
+   *
+   * @param index the index of the period.
+   * @return the high price.
+   */
+  public double getHighAt(int index) {
+    checkIndex(index);
+    return FixedPoint.toDouble(this.highs[index]);
+  }
+
+  /**
+   * Gets the lowest low price of a period.
+   *
+   * @param index the index of the period.
+   * @return the low price.
+   */
+  public double getLowAt(int index) {
+    checkIndex(index);
+    return FixedPoint.toDouble(this.lows[index]);
+  }
+
+  /**
+   * Gets the closing price of a period, the closing price of its last trading day.
+   *
+   * @param index the index of the period.
+   * @return the closing price.
+   */
+  public double getCloseAt(int index) {
+    return FixedPoint.toDouble(getCloseTicksAt(index));
+  }
+
+  /**
+   * Gets the closing price of a period in ten-thousandths.
+   *
+   * @param index the index of the period.
+   * @return the closing price in ten-thousandths.
+   */
+  public long getCloseTicksAt(int index) {
+    checkIndex(index);
+    return this.closes[index];
+  }
+
+  /**
+   * Gets the total volume of a period.
+   *
+   * @param index the index of the period.
+   * @return the sum of the volumes of its trading days.
+   */
+  public long getVolumeAt(int index) {
+    checkIndex(index);
+    return this.volumes[index];
+  }
+
+  /**
+   * Checks that a period exists.
+   *
+   * @param index the index of the period.
+   * @throws IndexOutOfBoundsException if there is no period with that index.
+   */
+  private void checkIndex(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+    }
+  }
+}
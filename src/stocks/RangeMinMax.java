@@ -0,0 +1,160 @@
+package stocks;
+
+/**
+ * A RangeMinMax answers the minimum or maximum of any range of a series of values without
+ * walking the range. The series is split into blocks of BLOCK_SIZE values, and a sparse table
+ * over the minimums and maximums of the blocks holds, for every block and every power of two,
+ * the extreme of that many blocks starting there. A query scans at most two partial blocks at
+ * its ends and covers every whole block between them with two overlapping table entries, so it
+ * takes constant time, while the tables take only a few values per block. Each table is built
+ * the first time it is asked for, so a series that is only ever asked for its maximum never
+ * builds the table of minimums. Each table is published through a volatile field once it is
+ * complete, so a RangeMinMax can be queried from several threads. The values must not be NaN.
+ */
+public final class RangeMinMax {
+  public static final int BLOCK_SIZE = 32; // values per block
+
+  private final double[] values; // the series
+  private volatile double[][] mins; // Key: level k then block, Value: minimum of 2^k blocks
+  // from there
+  private volatile double[][] maxes; // Key: level k then block, Value: maximum of 2^k blocks
+  // from there
+
+  /**
+   * Constructs a RangeMinMax over a series of values. The array is not copied, and must not
+   * be changed afterwards.
+   *
+   * @param values the series, without NaN.
+   */
+  public RangeMinMax(double[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Gets the number of values in the series.
+   *
+   * @return the number of values.
+   */
+  public int size() {
+    return this.values.length;
+  }
+
+  /**
+   * Finds the smallest value in a range of the series.
+   *
+   * @param from the index of the first value in the range.
+   * @param to   the index after the last value in the range.
+   * @return the smallest value, or positive infinity if the range is empty.
+   * @throws IndexOutOfBoundsException if the range is not within the series.
+   */
+  public double min(int from, int to) throws IndexOutOfBoundsException {
+    checkRange(from, to);
+    double[][] table = this.mins;
+    if (table == null) {
+      table = buildTable(false);
+      this.mins = table;
+    }
+    return query(table, from, to, false);
+  }
+
+  /**
+   * Finds the largest value in a range of the series.
+   *
+   * @param from the index of the first value in the range.
+   * @param to   the index after the last value in the range.
+   * @return the largest value, or negative infinity if the range is empty.
+   * @throws IndexOutOfBoundsException if the range is not within the series.
+   */
+  public double max(int from, int to) throws IndexOutOfBoundsException {
+    checkRange(from, to);
+    double[][] table = this.maxes;
+    if (table == null) {
+      table = buildTable(true);
+      this.maxes = table;
+    }
+    return query(table, from, to, true);
+  }
+
+  /**
+   * Finds the extreme of a range, scanning the partial blocks at its ends and looking up the
+   * whole blocks in between.
+   *
+   * @param table the sparse table of the extremes of the blocks.
+   * @param from  the index of the first value in the range.
+   * @param to    the index after the last value in the range.
+   * @param max   true to find the largest value, false to find the smallest.
+   * @return the extreme of the range.
+   */
+  private double query(double[][] table, int from, int to, boolean max) {
+    double best = max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+    int firstBlock = (from + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    int lastBlock = to / BLOCK_SIZE;
+    if (firstBlock >= lastBlock) {
+      return scan(best, from, to, max);
+    }
+    best = scan(best, from, firstBlock * BLOCK_SIZE, max);
+    best = scan(best, lastBlock * BLOCK_SIZE, to, max);
+    int level = 31 - Integer.numberOfLeadingZeros(lastBlock - firstBlock);
+    double left = table[level][firstBlock];
+    double right = table[level][lastBlock - (1 << level)];
+    return max ? Math.max(best, Math.max(left, right)) : Math.min(best, Math.min(left, right));
+  }
+
+  /**
+   * Scans a range of values, keeping the extreme.
+   *
+   * @param best the extreme so far.
+   * @param from the index of the first value to scan.
+   * @param to   the index after the last value to scan.
+   * @param max  true to keep the largest value, false to keep the smallest.
+   * @return the extreme of best and the values scanned.
+   */
+  private double scan(double best, int from, int to, boolean max) {
+    for (int i = from; i < to; i++) {
+      best = max ? Math.max(best, this.values[i]) : Math.min(best, this.values[i]);
+    }
+    return best;
+  }
+
+  /**
+   * Builds the sparse table over the extremes of the whole blocks of the series.
+   *
+   * @param max true to build the table of maximums, false for the table of minimums.
+   * @return the table, by level and then by block.
+   */
+  private double[][] buildTable(boolean max) {
+    int blocks = this.values.length / BLOCK_SIZE;
+    int levels = blocks == 0 ? 1 : 32 - Integer.numberOfLeadingZeros(blocks);
+    double[][] table = new double[levels][];
+    table[0] = new double[blocks];
+    for (int block = 0; block < blocks; block++) {
+      table[0][block] = scan(max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY,
+              block * BLOCK_SIZE, (block + 1) * BLOCK_SIZE, max);
+    }
+    for (int level = 1; level < levels; level++) {
+      int half = 1 << (level - 1);
+      double[] below = table[level - 1];
+      double[] row = new double[blocks - (1 << level) + 1];
+      for (int block = 0; block < row.length; block++) {
+        row[block] = max ? Math.max(below[block], below[block + half])
+                : Math.min(below[block], below[block + half]);
+      }
+      table[level] = row;
+    }
+    return table;
+  }
+
+  /**
+   * Checks that a range is within the series.
+   *
+   * @param from the index of the first value in the range.
+   * @param to   the index after the last value in the range.
+   * @throws IndexOutOfBoundsException if the range is not within the series.
+   */
+  private void checkRange(int from, int to) throws IndexOutOfBoundsException {
+    if (from < 0 || to > this.values.length || from > to) {
+      throw new IndexOutOfBoundsException("Cannot query values " + from + " to " + to
+              + " of a series of " + this.values.length + ".");
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package stocks;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -63,6 +64,222 @@ public interface Stock {
    */
   Double getLowPrice(LocalDate date);
 
+  /**
+   * Gets every date the stock has price data for.
+   *
+   * @return an unmodifiable list of the dates with price data, oldest first.
+   */
+  List<LocalDate> getDates();
+
+  /**
+   * Gets the number of trading days the stock has price data for. Trading days are indexed from
+   * 0, the oldest date, to this number minus 1, in the same order as getDates().
+   *
+   * @return the number of trading days.
+   */
+  int getTradingDayCount();
+
+  /**
+   * Finds the trading day index of a date.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the index of the date, or -1 if the stock has no price data for it.
+   */
+  int indexOf(int epochDay);
+
+  /**
+   * Finds the first trading day on or after a date.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the index of the first trading day on or after the date, or getTradingDayCount() if
+   *     there is none.
+   */
+  int ceilingIndex(int epochDay);
+
+  /**
+   * Gets the date of a trading day.
+   *
+   * @param index the index of the trading day.
+   * @return the date as a number of days since 1970-01-01.
+   */
+  int getEpochDayAt(int index);
+
+  /**
+   * Gets the opening price of a trading day.
+   *
+   * @param index the index of the trading day.
+   * @return the opening price.
+   */
+  double getOpenAt(int index);
+
+  /**
+   * Gets the high price of a trading day.
+   *
+   * @param index the index of the trading day.
+   * @return the high price.
+   */
+  double getHighAt(int index);
+
+  /**
+   * Gets the low price of a trading day.
+   *
+   * @param index the index of the trading day.
+   * @return the low price.
+   */
+  double getLowAt(int index);
+
+  /**
+   * Gets the closing price of a trading day.
+   *
+   * @param index the index of the trading day.
+   * @return the closing price.
+   */
+  double getCloseAt(int index);
+
+  /**
+   * Gets the volume of a trading day.
+   *
+   * @param index the index of the trading day.
+   * @return the volume.
+   */
+  long getVolumeAt(int index);
+
+  /**
+   * Gets the volume of the stock at a specific date without boxing.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the volume on the date, or -1 if there is no price data for it.
+   */
+  long getVolume(int epochDay);
+
+  /**
+   * Gets the opening price of the stock at a specific date without boxing.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the opening price on the date, or NaN if there is no price data for it.
+   */
+  double getOpeningPrice(int epochDay);
+
+  /**
+   * Gets the closing price of the stock at a specific date without boxing.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the closing price on the date, or NaN if there is no price data for it.
+   */
+  double getClosingPrice(int epochDay);
+
+  /**
+   * Gets the high price of the stock at a specific date without boxing.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the high price on the date, or NaN if there is no price data for it.
+   */
+  double getHighPrice(int epochDay);
+
+  /**
+   * Gets the low price of the stock at a specific date without boxing.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the low price on the date, or NaN if there is no price data for it.
+   */
+  double getLowPrice(int epochDay);
+
+  /**
+   * Gets the closing price of the stock at a specific date in fixed-point.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return the closing price in ten-thousandths of a dollar, or FixedPoint.MISSING if there is
+   *     no price data for the date.
+   */
+  long getClosingPriceTicks(int epochDay);
+
+  /**
+   * Gets the closing price of a trading day in fixed-point.
+   *
+   * @param index the index of the trading day.
+   * @return the closing price in ten-thousandths of a dollar.
+   */
+  long getCloseTicksAt(int index);
+
+  /**
+   * Copies the closing prices of a range of trading days into an array in fixed-point.
+   *
+   * @param from    the index of the first trading day to copy.
+   * @param to      the index after the last trading day to copy.
+   * @param dest    the array to copy into, in ten-thousandths of a dollar.
+   * @param destPos the position in the array to start copying to.
+   * @throws IndexOutOfBoundsException if the range is outside the trading days or the array.
+   */
+  void copyCloseTicks(int from, int to, long[] dest, int destPos)
+          throws IndexOutOfBoundsException;
+
+  /**
+   * Copies the dates of a range of trading days into an array.
+   *
+   * @param from    the index of the first trading day to copy.
+   * @param to      the index after the last trading day to copy.
+   * @param dest    the array to copy into, as numbers of days since 1970-01-01.
+   * @param destPos the position in the array to start copying to.
+   * @throws IndexOutOfBoundsException if the range is outside the trading days or the array.
+   */
+  void copyEpochDays(int from, int to, int[] dest, int destPos)
+          throws IndexOutOfBoundsException;
+
+  /**
+   * Copies the opening prices of a range of trading days into an array.
+   *
+   * @param from    the index of the first trading day to copy.
+   * @param to      the index after the last trading day to copy.
+   * @param dest    the array to copy into.
+   * @param destPos the position in the array to start copying to.
+   * @throws IndexOutOfBoundsException if the range is outside the trading days or the array.
+   */
+  void copyOpens(int from, int to, double[] dest, int destPos) throws IndexOutOfBoundsException;
+
+  /**
+   * Copies the high prices of a range of trading days into an array.
+   *
+   * @param from    the index of the first trading day to copy.
+   * @param to      the index after the last trading day to copy.
+   * @param dest    the array to copy into.
+   * @param destPos the position in the array to start copying to.
+   * @throws IndexOutOfBoundsException if the range is outside the trading days or the array.
+   */
+  void copyHighs(int from, int to, double[] dest, int destPos) throws IndexOutOfBoundsException;
+
+  /**
+   * Copies the low prices of a range of trading days into an array.
+   *
+   * @param from    the index of the first trading day to copy.
+   * @param to      the index after the last trading day to copy.
+   * @param dest    the array to copy into.
+   * @param destPos the position in the array to start copying to.
+   * @throws IndexOutOfBoundsException if the range is outside the trading days or the array.
+   */
+  void copyLows(int from, int to, double[] dest, int destPos) throws IndexOutOfBoundsException;
+
+  /**
+   * Copies the closing prices of a range of trading days into an array.
+   *
+   * @param from    the index of the first trading day to copy.
+   * @param to      the index after the last trading day to copy.
+   * @param dest    the array to copy into.
+   * @param destPos the position in the array to start copying to.
+   * @throws IndexOutOfBoundsException if the range is outside the trading days or the array.
+   */
+  void copyCloses(int from, int to, double[] dest, int destPos) throws IndexOutOfBoundsException;
+
+  /**
+   * Copies the volumes of a range of trading days into an array.
+   *
+   * @param from    the index of the first trading day to copy.
+   * @param to      the index after the last trading day to copy.
+   * @param dest    the array to copy into.
+   * @param destPos the position in the array to start copying to.
+   * @throws IndexOutOfBoundsException if the range is outside the trading days or the array.
+   */
+  void copyVolumes(int from, int to, long[] dest, int destPos) throws IndexOutOfBoundsException;
+
   /**
    * Returns a new stock object with the same fields but its number of shares incremented by
    * a specific amount.
@@ -1,15 +1,23 @@
 package stocks;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.io.BufferedReader;
-import java.nio.file.Paths;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import stocks.events.StockLoadEvent;
 
 
 /**
@@ -18,6 +26,16 @@ import java.util.TreeMap;
  * @param <T> A subclass of StockBuilder.
  */
 public abstract class StockBuilder<T extends StockBuilder<T>> {
+  private static boolean offHeap = Boolean.getBoolean("stocks.offheap"); // if makeStock keeps
+  // prices off the heap
+  private static boolean compressed = Boolean.getBoolean("stocks.compressed"); // if makeStock
+  // uses the compressed binary store
+  private static boolean partitioned = Boolean.getBoolean("stocks.partitioned"); // if
+  // makeStock uses the year-partitioned store
+  private static boolean lazyColumns = Boolean.getBoolean("stocks.lazy"); // if makeStock
+  // loads each price column the first time it is read
+  private static long parallelThreshold = Long.getLong("stocks.parallel.threshold",
+          8L << 20); // size in bytes from which makeStock parses a csv on several threads
   protected String ticker;
   protected double numShares;
   protected ArrayList<LocalDate> dates = new ArrayList<>();
@@ -172,9 +190,83 @@ public abstract class StockBuilder<T extends StockBuilder<T>> {
   }
 
 
+  /**
+   * Sets whether makeStock keeps the prices of the stocks it loads off the Java heap, as an
+   * OffHeapStockImpl, instead of in the maps of a StockImpl. Defaults to the value of the
+   * "stocks.offheap" system property.
+   *
+   * @param useOffHeap true to load stocks off the heap, false to load them on the heap.
+   */
+  public static void setOffHeap(boolean useOffHeap) {
+    offHeap = useOffHeap;
+  }
+
+  /**
+   * Sets whether makeStock keeps the prices of the stocks it loads compressed, as a
+   * CompressedStockImpl, and caches them in the binary store, a .stk file next to the csv in
+   * StockData/ which is read instead of the csv while it is up to date. Defaults to the value of
+   * the "stocks.compressed" system property.
+   *
+   * @param useCompressed true to load stocks compressed, false to load them uncompressed.
+   */
+  public static void setCompressed(boolean useCompressed) {
+    compressed = useCompressed;
+  }
+
+  /**
+   * Sets whether makeStock stores the prices of the stocks it loads in PartitionedPriceStore,
+   * one partition per year in StockData/ticker.parts/, and opens them from there as a
+   * PartitionedStockImpl which only reads the years it is asked about. Defaults to the value of
+   * the "stocks.partitioned" system property.
+   *
+   * @param usePartitions true to load stocks from year partitions, false to load them whole.
+   */
+  public static void setPartitioned(boolean usePartitions) {
+    partitioned = usePartitions;
+  }
+
+  /**
+   * Sets whether makeStock only loads the dates of the stocks it loads, as a
+   * LazyColumnStockImpl which loads each of the other columns from the csv, or from the binary
+   * store if compressed loading is also turned on, the first time it is read. Defaults to the
+   * value of the "stocks.lazy" system property.
+   *
+   * @param useLazyColumns true to load price columns when they are read, false to load them
+   *                       all with the stock.
+   */
+  public static void setLazyColumns(boolean useLazyColumns) {
+    lazyColumns = useLazyColumns;
+  }
+
+  /**
+   * Sets the size from which makeStock splits a plain csv into chunks and parses them in
+   * parallel with ParallelCsvParser, instead of reading it line by line. Defaults to the value
+   * of the "stocks.parallel.threshold" system property, or 8 MB.
+   *
+   * @param bytes the smallest csv size in bytes to parse in parallel.
+   */
+  public static void setParallelThreshold(long bytes) {
+    parallelThreshold = bytes;
+  }
+
   /**
    * Constructs a Stock object by parsing through a csv file and adding the date
    * to the StockBuilder and creating a Stock at the end with the StockBuilder Field.
+   * The csv file may be gzip compressed, as ticker.csv.gz, in which case it is decompressed
+   * as it is read. A plain csv at least as large as the parallel threshold is parsed in chunks
+   * on the common fork-join pool instead.
+   * If off-heap loading is turned on, the prices are copied into OffHeapPriceColumns instead
+   * and an OffHeapStockImpl is created. Otherwise, if partitioned loading is turned on, a
+   * PartitionedStockImpl is opened from the year partitions, which are written first if they
+   * are missing or older than the csv. Otherwise, if lazy column loading is turned on, a
+   * LazyColumnStockImpl is created which only parses the dates of the csv, or only decodes the
+   * dates of the binary store if compressed loading is also turned on, and loads the other
+   * columns as they are read. Otherwise, if compressed loading is turned on, a
+   * CompressedStockImpl is created, read from the binary store if it is up to date. Otherwise,
+   * if fixed-point is turned on, the prices are kept in fixed-point arrays and a
+   * FixedPointStockImpl is created. If there is no daily csv for the ticker but there are
+   * intraday bars in StockData/intraday/, the stock is loaded from those with
+   * makeIntradayStock.
    *
    * @param ticker the specific stock ticker for the respective stock being built.
    * @return A stock object with its fields that reflect the date of the underlying stock in the
@@ -182,47 +274,313 @@ public abstract class StockBuilder<T extends StockBuilder<T>> {
    * @throws IOException if the csv file cannot be properly parsed.
    */
   public static Stock makeStock(String ticker) throws IOException {
-    String filePath = "StockData/" + ticker + ".csv";
+    if (!CsvFiles.exists("StockData/", ticker)
+            && CsvFiles.exists("StockData/intraday/", ticker)) {
+      return makeIntradayStock(ticker);
+    }
+    long start = System.nanoTime();
+    StockLoadEvent event = new StockLoadEvent();
+    event.begin();
+    long bytes = 0;
+    boolean loadOffHeap = offHeap;
+    boolean loadPartitioned = !loadOffHeap && partitioned;
+    boolean loadLazy = !loadOffHeap && !loadPartitioned && lazyColumns;
+    boolean loadCompressed = !loadOffHeap && !loadPartitioned && compressed;
+    boolean loadFixedPoint = !loadOffHeap
+            && (loadPartitioned || loadCompressed || FixedPoint.isEnabled());
+    File csv = CsvFiles.find("StockData/", ticker);
+    File store = new File("StockData/" + ticker + ".stk");
+    CompressedPriceColumns stored = null;
+    if (loadCompressed && store.isFile() && store.lastModified() >= csv.lastModified()) {
+      stored = readStore(store);
+    }
+    if (stored != null) {
+      bytes = store.length();
+      MetricsRegistry.increment("cache.store.hits");
+    } else if (loadCompressed) {
+      MetricsRegistry.increment("cache.store.misses");
+    }
+    File parts = new File("StockData/" + ticker + ".parts");
+    PartitionedStockImpl opened = null;
+    if (loadPartitioned && PartitionedPriceStore.isUpToDate(parts, csv)) {
+      opened = openPartitions(ticker, parts);
+    }
+    if (opened != null) {
+      MetricsRegistry.increment("cache.partitions.hits");
+    } else if (loadPartitioned) {
+      MetricsRegistry.increment("cache.partitions.misses");
+    }
+    LazyColumnStockImpl lazy = null;
+    if (loadLazy && !loadCompressed) {
+      lazy = openColumns(ticker, csv);
+    }
     StockImpl.StockImplBuilder stock = new StockImpl.StockImplBuilder();
+    OffHeapPriceColumns.Builder columns = new OffHeapPriceColumns.Builder();
+    FixedPointStockImpl.FixedPointBuilder fixed = new FixedPointStockImpl.FixedPointBuilder();
+    String loadedTicker = null;
 
-    try {
-      BufferedReader reader = Files.newBufferedReader(Paths.get(filePath));
-      String line = reader.readLine();
-
-      while ((line = reader.readLine()) != null) {
-        String[] data = line.split(",");
-        LocalDate stockDate = null;
-        long volume = 0;
-        double openPrice = 0;
-        double highPrice = 0;
-        double lowPrice = 0;
-        double closePrice = 0;
-        try {
-          stockDate = LocalDate.parse(data[0]);
-        } catch (DateTimeParseException e) {
-          // empty
+    // the csv is only parsed if the binary store, the partitions or the dates were not read
+    boolean cached = stored != null || opened != null || lazy != null;
+    boolean parallel = !cached && !csv.getName().endsWith(".gz")
+            && csv.length() >= parallelThreshold;
+    if (parallel) {
+      fixed = ParallelCsvParser.parse(csv);
+      bytes = csv.length();
+      if (fixed.size() > 0) {
+        loadedTicker = ticker;
+      }
+      if (!loadFixedPoint) {
+        copyRows(fixed.build(loadedTicker), loadOffHeap ? columns : null, stock);
+      }
+      MetricsRegistry.increment("load.stock.parallel");
+    } else if (!cached) {
+      try (BufferedReader reader = CsvFiles.newReader(csv)) {
+        String line = reader.readLine();
+        if (line != null) {
+          bytes += line.length() + 1;
+        }
+
+        while ((line = reader.readLine()) != null) {
+          bytes += line.length() + 1;
+          String[] data = line.split(",");
+          LocalDate stockDate = null;
+          long volume = 0;
+          double openPrice = 0;
+          double highPrice = 0;
+          double lowPrice = 0;
+          double closePrice = 0;
+          try {
+            stockDate = LocalDate.parse(data[0]);
+          } catch (DateTimeParseException e) {
+            // empty
+          }
+          volume = Long.parseLong(data[5]);
+          openPrice = Double.parseDouble(data[1]);
+          highPrice = Double.parseDouble(data[2]);
+          lowPrice = Double.parseDouble(data[3]);
+          closePrice = Double.parseDouble(data[4]);
+
+          if (loadOffHeap || loadFixedPoint) {
+            if (stockDate != null && loadOffHeap) {
+              columns.add(stockDate, openPrice, highPrice, lowPrice, closePrice, volume);
+            } else if (stockDate != null) {
+              fixed.add(stockDate, openPrice, highPrice, lowPrice, closePrice, volume);
+            }
+            loadedTicker = ticker;
+            continue;
+          }
+          stock.addOpeningPrice(stockDate, openPrice)
+                  .addVolume(stockDate, volume)
+                  .addHighPrice(stockDate, highPrice)
+                  .addLowPrice(stockDate, lowPrice)
+                  .addClosingPrice(stockDate, closePrice)
+                  .addTicker(ticker);
         }
-        volume = Long.parseLong(data[5]);
-        openPrice = Double.parseDouble(data[1]);
-        highPrice = Double.parseDouble(data[2]);
-        lowPrice = Double.parseDouble(data[3]);
-        closePrice = Double.parseDouble(data[4]);
-
-        stock.addOpeningPrice(stockDate, openPrice)
-                .addVolume(stockDate, volume)
-                .addHighPrice(stockDate, highPrice)
-                .addLowPrice(stockDate, lowPrice)
-                .addClosingPrice(stockDate, closePrice)
-                .addTicker(ticker);
+      } catch (IOException e) {
+        MetricsRegistry.increment("load.stock.errors");
       }
-    } catch (IOException e) {
-      // empty
     }
 
-    Stock entireStock = stock.build();
-    Utils.getStocks().put(entireStock.getTicker(), entireStock);
+    Stock entireStock;
+    if (loadOffHeap) {
+      OffHeapPriceColumns prices = columns.build();
+      entireStock = new OffHeapStockImpl(loadedTicker, 0, prices, new TreeMap<>());
+      MetricsRegistry.counter("load.stock.offheap.bytes").add(prices.getSizeInBytes());
+    } else if (loadPartitioned) {
+      entireStock = opened;
+      if (opened == null) {
+        FixedPointStockImpl parsed = fixed.build(loadedTicker);
+        entireStock = parsed;
+        if (loadedTicker != null) {
+          writePartitions(parts, parsed);
+          opened = openPartitions(ticker, parts);
+          entireStock = opened == null ? parsed : opened;
+        }
+      }
+    } else if (lazy != null) {
+      entireStock = lazy;
+      bytes = csv.length();
+    } else if (loadCompressed) {
+      CompressedPriceColumns prices = stored;
+      if (prices == null) {
+        FixedPointStockImpl parsed = fixed.build(loadedTicker);
+        prices = CompressedPriceColumns.encode(parsed.epochDays.length, parsed.epochDays,
+                parsed.opens, parsed.highs, parsed.lows, parsed.closes, parsed.volumes);
+        if (loadedTicker != null) {
+          writeStore(store, prices);
+        }
+      } else if (prices.size() > 0) {
+        loadedTicker = ticker;
+      }
+      if (loadLazy) {
+        entireStock = LazyColumnStockImpl.fromStore(ticker, prices);
+      } else {
+        entireStock = new CompressedStockImpl(loadedTicker, 0, prices, new TreeMap<>());
+      }
+      MetricsRegistry.counter("load.stock.compressed.bytes").add(prices.getSizeInBytes());
+    } else if (loadFixedPoint) {
+      entireStock = fixed.build(loadedTicker);
+    } else {
+      entireStock = stock.build();
+    }
+    Stock replaced = Utils.getStocks().put(entireStock.getTicker(), entireStock);
+    Utils.refreshIndicators(entireStock);
+    Utils.refreshRollups(entireStock);
+    Utils.refreshTradingDays(replaced);
+    MetricsRegistry.counter("load.stock.rows").add(entireStock.getDates().size());
+    MetricsRegistry.recordSince("load.stock", start);
+    event.end();
+    if (event.shouldCommit()) {
+      event.ticker = ticker;
+      event.rows = entireStock.getDates().size();
+      event.bytes = bytes;
+      event.commit();
+    }
     return entireStock;
   }
 
+  /**
+   * Constructs a Stock from the intraday bars in StockData/intraday/, such as those of
+   * TIME_SERIES_INTRADAY at any interval, in the same csv format as the daily data. The bars
+   * are kept in an IntradaySeries, and the daily prices of the stock are rolled up from them.
+   * The csv may be gzip compressed, and a plain csv is parsed in chunks on the common
+   * fork-join pool.
+   *
+   * @param ticker the ticker of the stock.
+   * @return the stock, with its bars available through getBars().
+   * @throws IOException if the csv cannot be read, or has no bars that can be read.
+   */
+  public static IntradayStockImpl makeIntradayStock(String ticker) throws IOException {
+    long start = System.nanoTime();
+    StockLoadEvent event = new StockLoadEvent();
+    event.begin();
+    File csv = CsvFiles.find("StockData/intraday/", ticker);
+    IntradaySeries bars = ParallelCsvParser.parseIntraday(csv, ForkJoinPool.commonPool())
+            .build();
+    if (bars.size() == 0) {
+      MetricsRegistry.increment("load.stock.errors");
+      throw new IOException("No intraday bars could be read for " + ticker);
+    }
+    IntradayStockImpl stock = bars.toDaily(ticker);
+    Stock replaced = Utils.getStocks().put(stock.getTicker(), stock);
+    Utils.refreshIndicators(stock);
+    Utils.refreshRollups(stock);
+    Utils.refreshTradingDays(replaced);
+    MetricsRegistry.counter("load.intraday.bars").add(bars.size());
+    MetricsRegistry.recordSince("load.intraday", start);
+    event.end();
+    if (event.shouldCommit()) {
+      event.ticker = ticker;
+      event.rows = bars.size();
+      event.bytes = csv.length();
+      event.commit();
+    }
+    return stock;
+  }
+
+  /**
+   * Copies rows parsed in fixed-point into the builder of an OffHeapStockImpl or a StockImpl.
+   *
+   * @param parsed  the parsed rows, sorted by date.
+   * @param columns the off-heap builder to copy into, or null to copy into the StockImpl
+   *                builder.
+   * @param stock   the StockImpl builder to copy into if columns is null.
+   */
+  private static void copyRows(FixedPointStockImpl parsed, OffHeapPriceColumns.Builder columns,
+                               StockImpl.StockImplBuilder stock) {
+    for (int i = 0; i < parsed.getTradingDayCount(); i++) {
+      LocalDate date = LocalDate.ofEpochDay(parsed.getEpochDayAt(i));
+      if (columns != null) {
+        columns.add(date, parsed.getOpenAt(i), parsed.getHighAt(i), parsed.getLowAt(i),
+                parsed.getCloseAt(i), parsed.getVolumeAt(i));
+      } else {
+        stock.addOpeningPrice(date, parsed.getOpenAt(i))
+                .addVolume(date, parsed.getVolumeAt(i))
+                .addHighPrice(date, parsed.getHighAt(i))
+                .addLowPrice(date, parsed.getLowAt(i))
+                .addClosingPrice(date, parsed.getCloseAt(i))
+                .addTicker(parsed.getTicker());
+      }
+    }
+  }
+
+  /**
+   * Opens a stock from its year partitions.
+   *
+   * @param ticker the ticker of the stock.
+   * @param parts  the directory of the partitions.
+   * @return the stock, or null if the index could not be read.
+   */
+  private static PartitionedStockImpl openPartitions(String ticker, File parts) {
+    try {
+      return PartitionedPriceStore.open(ticker, parts);
+    } catch (IOException e) {
+      MetricsRegistry.increment("load.stock.errors");
+      return null;
+    }
+  }
+
+  /**
+   * Opens a stock that loads its columns from a csv as they are read, parsing only the dates.
+   *
+   * @param ticker the ticker of the stock.
+   * @param csv    the csv of the stock.
+   * @return the stock, or null if the dates could not be parsed.
+   */
+  private static LazyColumnStockImpl openColumns(String ticker, File csv) {
+    try {
+      return LazyColumnStockImpl.fromCsv(ticker, csv);
+    } catch (IOException e) {
+      MetricsRegistry.increment("load.stock.errors");
+      return null;
+    }
+  }
+
+  /**
+   * Writes the year partitions of a stock, so the next load does not need to parse the csv.
+   *
+   * @param parts  the directory of the partitions.
+   * @param parsed the stock to write.
+   */
+  private static void writePartitions(File parts, FixedPointStockImpl parsed) {
+    try {
+      PartitionedPriceStore.write(parts, parsed);
+    } catch (IOException e) {
+      MetricsRegistry.increment("save.store.errors");
+    }
+  }
+
+  /**
+   * Reads compressed price columns from the binary store.
+   *
+   * @param store the .stk file to read.
+   * @return the columns, or null if the file could not be read.
+   */
+  private static CompressedPriceColumns readStore(File store) {
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(store)))) {
+      return CompressedPriceColumns.readFrom(in);
+    } catch (IOException e) {
+      MetricsRegistry.increment("load.stock.errors");
+      return null;
+    }
+  }
+
+  /**
+   * Writes compressed price columns to the binary store, so the next load does not need to
+   * parse the csv.
+   *
+   * @param store  the .stk file to write.
+   * @param prices the columns to write.
+   */
+  private static void writeStore(File store, CompressedPriceColumns prices) {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(store)))) {
+      prices.writeTo(out);
+    } catch (IOException e) {
+      MetricsRegistry.increment("save.store.errors");
+    }
+  }
+
 
 }
@@ -1,21 +1,33 @@
 package stocks;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Scanner;
 
+import stocks.commands.BacktestCommand;
+import stocks.commands.BarsCommand;
 import stocks.commands.BuildPortfolioCommand;
 import stocks.commands.CompositionCommand;
 import stocks.commands.CrossoverCommand;
 import stocks.commands.DistributionDisplayCommand;
+import stocks.commands.GoldenCrossCommand;
+import stocks.commands.IndicatorsCommand;
+import stocks.commands.MonteCarloCommand;
 import stocks.commands.MovingAverageCommand;
 import stocks.commands.PerformanceCommand;
 import stocks.commands.PerformanceAllCommand;
 import stocks.commands.PerformanceOverTimeCommand;
 import stocks.commands.PurchaseStockCommand;
 import stocks.commands.RebalancePortfolioCommand;
+import stocks.commands.RebalanceScheduleCommand;
 import stocks.commands.RetrievePortfolioCommand;
 import stocks.commands.SavePortfolioCommand;
+import stocks.commands.ScreenCommand;
 import stocks.commands.SellStockCommand;
+import stocks.commands.StatsCommand;
+import stocks.commands.SweepCommand;
+import stocks.commands.TickerSearchCommand;
+import stocks.events.CommandEvent;
 
 
 /**
@@ -72,13 +84,57 @@ public class StockControllerImpl implements StockController {
   }
 
   /**
-   * Processes a command from the given user instruction.
+   * Processes a command from the given user instruction, recording how long it took and how
+   * much it allocated in the MetricsRegistry and as a Java Flight Recorder CommandEvent. A
+   * command that fails because the price data of a stock cannot be read, such as a stock of a
+   * retrieved portfolio loaded on first use, is ended with a message instead of ending the
+   * program.
    *
    * @param userInstruction The command to execute.
    * @param s               Scanner object from user input.
    * @throws IOException if input is invalid.
    */
   public void processStrategy(String userInstruction, Scanner s) throws IOException {
+    long start = System.nanoTime();
+    AllocationTracker allocations = AllocationTracker.start();
+    CommandEvent event = new CommandEvent();
+    event.begin();
+    String metric = "command." + userInstruction;
+    boolean succeeded = false;
+    try {
+      if (!runStrategy(userInstruction, s)) {
+        metric = "command.unknown";
+      }
+      succeeded = true;
+    } catch (UncheckedIOException e) {
+      // the price data of a stock could not be read part way through the command
+      MetricsRegistry.increment(metric + ".errors");
+      view.writeMessage("Could not read the price data: " + e.getCause().getMessage() + "\n");
+      view.writeMessage("Returning to main menu.\n");
+    } catch (IOException | RuntimeException e) {
+      MetricsRegistry.increment(metric + ".errors");
+      throw e;
+    } finally {
+      MetricsRegistry.recordSince(metric, start, allocations);
+      event.end();
+      if (event.shouldCommit()) {
+        event.command = userInstruction;
+        event.succeeded = succeeded;
+        event.allocated = allocations.allocatedBytes();
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * Runs the command for the given user instruction.
+   *
+   * @param userInstruction The command to execute.
+   * @param s               Scanner object from user input.
+   * @return true if the instruction was a known command, false if not.
+   * @throws IOException if input is invalid.
+   */
+  private boolean runStrategy(String userInstruction, Scanner s) throws IOException {
     CommandInfoImpl context = new CommandInfoImpl(s, this.view);
     switch (userInstruction) {
       case "performance-over-time":
@@ -135,6 +191,13 @@ public class StockControllerImpl implements StockController {
         }
         new RebalancePortfolioCommand(context).run();
         break;
+      case "rebalance-schedule":
+        if (Utils.getPortfolios().isEmpty()) {
+          context.getView().writeMessage("There are no portfolios to rebalance.\n");
+          break;
+        }
+        new RebalanceScheduleCommand(context).run();
+        break;
       case "create-portfolio":
         new BuildPortfolioCommand(context).run();
         break;
@@ -148,17 +211,49 @@ public class StockControllerImpl implements StockController {
       case "performance":
         new PerformanceCommand(context).run();
         break;
+      case "monte-carlo":
+        if (Utils.getPortfolios().isEmpty()) {
+          context.getView().writeMessage("There are no portfolios to project.\n");
+          break;
+        }
+        new MonteCarloCommand(context).run();
+        break;
       case "moving-average":
         new MovingAverageCommand(context).run();
         break;
       case "quit":
-        return;
+        return true;
       case "crossover":
         new CrossoverCommand(context).run();
         break;
+      case "backtest":
+        new BacktestCommand(context).run();
+        break;
+      case "golden-cross":
+        new GoldenCrossCommand(context).run();
+        break;
+      case "indicators":
+        new IndicatorsCommand(context).run();
+        break;
+      case "bars":
+        new BarsCommand(context).run();
+        break;
+      case "screen":
+        new ScreenCommand(context).run();
+        break;
+      case "sweep":
+        new SweepCommand(context).run();
+        break;
+      case "stats":
+        new StatsCommand(context).run();
+        break;
+      case "tickers":
+        new TickerSearchCommand(context).run();
+        break;
       default:
         view.writeMessage("Unknown command\n");
-        break;
+        return false;
     }
+    return true;
   }
 }
@@ -1,17 +1,20 @@
 package stocks;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 
 
 /**
- * A StockImpl class which implements Stock. It represents a stock which contains important
+ * A StockImpl class which extends AbstractStock. It represents a stock which contains important
  * information about its prices, volume, ticker, and how many shares it has.
  */
-public class StockImpl implements Stock {
+public class StockImpl extends AbstractStock {
 
-  protected final String ticker;  // stock symbol
-  protected final double numShares;  // number of shares of that stock
   protected final Map<LocalDate, Long> volume;   // Key: date, Value: Volume at that date
   protected final Map<LocalDate, Double> openingPrice; // Key: date, Value: opening price
   // at that date
@@ -19,8 +22,13 @@ public class StockImpl implements Stock {
   // at that date
   protected final Map<LocalDate, Double> highPrice; // Key: date, Value: high price at that date
   protected final Map<LocalDate, Double> lowPrice; // Key: date, Value low price at that date
-  protected final Map<LocalDate, Double> shareDates; // Key: date, Value number of shares
-  // purchased at that date
+  protected final List<LocalDate> dates; // every date with price data, oldest first
+  protected final int[] epochDays; // Key: trading day index, Value: epoch day of that date
+  protected final double[] opens; // Key: trading day index, Value: opening price
+  protected final double[] highs; // Key: trading day index, Value: high price
+  protected final double[] lows; // Key: trading day index, Value: low price
+  protected final double[] closes; // Key: trading day index, Value: closing price
+  protected final long[] volumes; // Key: trading day index, Value: volume
 
   /**
    * The constructor for StockImpl.
@@ -33,18 +41,32 @@ public class StockImpl implements Stock {
    * @param highPrice    Key: date, Value: high price at that date
    * @param lowPrice     Key: date, Value: low price at that date
    * @param shareDates   Key: date, Value: number of shares purchased at that date
+   * @param dates        every date with price data, oldest first
+   * @param epochDays    the dates as epoch days, by trading day index
+   * @param opens        the opening prices, by trading day index
+   * @param highs        the high prices, by trading day index
+   * @param lows         the low prices, by trading day index
+   * @param closes       the closing prices, by trading day index
+   * @param volumes      the volumes, by trading day index
    */
   protected StockImpl(String ticker, double numShares, Map<LocalDate, Long> volume, Map<LocalDate,
           Double> openingPrice, Map<LocalDate, Double> closingPrice, Map<LocalDate,
-          Double> highPrice, Map<LocalDate, Double> lowPrice, Map<LocalDate, Double> shareDates) {
-    this.ticker = ticker;
-    this.numShares = numShares;
+          Double> highPrice, Map<LocalDate, Double> lowPrice, Map<LocalDate, Double> shareDates,
+                      List<LocalDate> dates, int[] epochDays, double[] opens, double[] highs,
+                      double[] lows, double[] closes, long[] volumes) {
+    super(ticker, numShares, shareDates);
     this.volume = volume;
     this.openingPrice = openingPrice;
     this.closingPrice = closingPrice;
     this.highPrice = highPrice;
     this.lowPrice = lowPrice;
-    this.shareDates = shareDates;
+    this.dates = dates;
+    this.epochDays = epochDays;
+    this.opens = opens;
+    this.highs = highs;
+    this.lows = lows;
+    this.closes = closes;
+    this.volumes = volumes;
   }
 
 
@@ -61,15 +83,53 @@ public class StockImpl implements Stock {
     }
 
     /**
-     * Builds a StockImpl with its fields.
+     * Builds a StockImpl with its fields, along with its prices as primitive arrays indexed by
+     * trading day. A price that was never added for a date is NaN, and a volume is -1.
      *
      * @return A StockImpl object.
      */
     @Override
     public Stock build() {
+      TreeSet<LocalDate> sorted = new TreeSet<>();
+      for (LocalDate date : this.closingPrice.keySet()) {
+        if (date != null) {
+          sorted.add(date);
+        }
+      }
+      this.dates = new ArrayList<>(sorted);
+
+      int size = this.dates.size();
+      int[] epochDays = new int[size];
+      double[] opens = new double[size];
+      double[] highs = new double[size];
+      double[] lows = new double[size];
+      double[] closes = new double[size];
+      long[] volumes = new long[size];
+      for (int i = 0; i < size; i++) {
+        LocalDate date = this.dates.get(i);
+        epochDays[i] = (int) date.toEpochDay();
+        opens[i] = orNaN(this.openingPrice.get(date));
+        highs[i] = orNaN(this.highPrice.get(date));
+        lows[i] = orNaN(this.lowPrice.get(date));
+        closes[i] = orNaN(this.closingPrice.get(date));
+        Long dayVolume = this.volume.get(date);
+        volumes[i] = dayVolume == null ? -1 : dayVolume;
+      }
 
       return new StockImpl(this.ticker, this.numShares, this.volume, this.openingPrice,
-              this.closingPrice, this.highPrice, this.lowPrice, this.shareDates);
+              this.closingPrice, this.highPrice, this.lowPrice, this.shareDates,
+              Collections.unmodifiableList(this.dates), epochDays, opens, highs, lows, closes,
+              volumes);
+    }
+
+    /**
+     * Unboxes a price, using NaN for a missing price.
+     *
+     * @param price the price, or null.
+     * @return the price, or NaN if it is null.
+     */
+    private static double orNaN(Double price) {
+      return price == null ? Double.NaN : price;
     }
 
     /**
@@ -84,113 +144,124 @@ public class StockImpl implements Stock {
   }
 
   @Override
-  public Double getNumShares() {
-    return this.numShares;
+  protected Stock withShares(double numShares, Map<LocalDate, Double> shareDates) {
+    return new StockImpl(this.ticker, numShares,
+            this.volume, this.openingPrice, this.closingPrice, this.highPrice, this.lowPrice,
+            shareDates, this.dates, this.epochDays, this.opens, this.highs, this.lows,
+            this.closes, this.volumes);
   }
 
   @Override
-  public Stock increaseShares(LocalDate date, double num) {
-    Map<LocalDate, Double> temp = this.shareDates;
-    if (this.shareDates.get(date) != null) {
-      double newShares = this.shareDates.get(date) + num;
-      temp.replace(date, newShares);
-    } else {
-      temp.put(date, num);
-    }
+  public Long getVolume(LocalDate date) {
+    return this.volume.get(date);
+  }
 
-    return new StockImpl(this.ticker, this.numShares + num,
-            this.volume, this.openingPrice, this.closingPrice, this.highPrice, this.lowPrice,
-            temp);
+  @Override
+  public Double getOpeningPrice(LocalDate date) {
+    return this.openingPrice.get(date);
   }
 
   @Override
-  public Stock decreaseShares(LocalDate date, double num) throws IllegalArgumentException {
+  public Double getClosingPrice(LocalDate date) {
+    return this.closingPrice.get(date);
+  }
 
-    Map<LocalDate, Double> temp = this.shareDates;
-    if (this.shareDates.get(date) != null) {
-      double newShares = this.shareDates.get(date) - num;
-      temp.replace(date, newShares);
-    } else {
-      temp.put(date, -1 * num);
-    }
+  @Override
+  public Double getHighPrice(LocalDate date) {
+    return this.highPrice.get(date);
+  }
 
-    return new StockImpl(this.ticker, this.numShares - num,
-            this.volume, this.openingPrice, this.closingPrice, this.highPrice, this.lowPrice,
-            temp);
+  @Override
+  public Double getLowPrice(LocalDate date) {
+    return this.lowPrice.get(date);
   }
 
+  @Override
+  public List<LocalDate> getDates() {
+    return this.dates;
+  }
 
   @Override
-  public Stock addShareDates(Map<LocalDate, Double> shareDates) {
-    return new StockImpl(this.ticker, this.numShares,
-            this.volume, this.openingPrice, this.closingPrice, this.highPrice, this.lowPrice,
-            shareDates);
+  public int getTradingDayCount() {
+    return this.epochDays.length;
   }
 
   @Override
-  public Stock setNumShares(Double shares) {
-    return new StockImpl(this.ticker, shares,
-            this.volume, this.openingPrice, this.closingPrice, this.highPrice, this.lowPrice,
-            this.shareDates);
+  public int indexOf(int epochDay) {
+    int index = Arrays.binarySearch(this.epochDays, epochDay);
+    return index < 0 ? -1 : index;
   }
 
+  @Override
+  public int ceilingIndex(int epochDay) {
+    int index = Arrays.binarySearch(this.epochDays, epochDay);
+    return index < 0 ? -index - 1 : index;
+  }
 
   @Override
-  public Double getSharesAtDate(LocalDate date) {
-    Double count = 0.0;
-    for (Map.Entry<LocalDate, Double> entry : shareDates.entrySet()) {
-      if (date.isAfter(entry.getKey()) || date.equals(entry.getKey())) {
-        count += entry.getValue();
-      }
-    }
-    return count;
+  public int getEpochDayAt(int index) {
+    return this.epochDays[index];
   }
 
+  @Override
+  public double getOpenAt(int index) {
+    return this.opens[index];
+  }
 
   @Override
-  public LocalDate lastDate() {
-    LocalDate last = LocalDate.MIN;
-    for (Map.Entry<LocalDate, Double> entry : shareDates.entrySet()) {
-      if (last.isBefore(entry.getKey())) {
-        last = entry.getKey();
-      }
-    }
-    return last;
+  public double getHighAt(int index) {
+    return this.highs[index];
   }
 
   @Override
-  public String getTicker() {
-    return this.ticker;
+  public double getLowAt(int index) {
+    return this.lows[index];
   }
 
   @Override
-  public Long getVolume(LocalDate date) {
-    return this.volume.get(date);
+  public double getCloseAt(int index) {
+    return this.closes[index];
   }
 
   @Override
-  public Double getOpeningPrice(LocalDate date) {
-    return this.openingPrice.get(date);
+  public long getVolumeAt(int index) {
+    return this.volumes[index];
   }
 
   @Override
-  public Double getClosingPrice(LocalDate date) {
-    return this.closingPrice.get(date);
+  public void copyEpochDays(int from, int to, int[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(this.epochDays, from, dest, destPos, to - from);
   }
 
   @Override
-  public Double getHighPrice(LocalDate date) {
-    return this.highPrice.get(date);
+  public void copyOpens(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(this.opens, from, dest, destPos, to - from);
   }
 
   @Override
-  public Double getLowPrice(LocalDate date) {
-    return this.lowPrice.get(date);
+  public void copyHighs(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(this.highs, from, dest, destPos, to - from);
+  }
+
+  @Override
+  public void copyLows(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(this.lows, from, dest, destPos, to - from);
+  }
+
+  @Override
+  public void copyCloses(int from, int to, double[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(this.closes, from, dest, destPos, to - from);
   }
 
   @Override
-  public Map<LocalDate, Double> getShareDates() {
-    return this.shareDates;
+  public void copyVolumes(int from, int to, long[] dest, int destPos) {
+    checkRange(from, to, destPos, dest.length);
+    System.arraycopy(this.volumes, from, dest, destPos, to - from);
   }
 
 }
@@ -1,7 +1,8 @@
 package stocks;
 
 /**
- * The enum StockTicker represents the values for DEFINED valid tickers in this class.
+ * The enum StockTicker represents the values for DEFINED valid tickers in this class. These are
+ * the tickers the SymbolTable always starts with, on top of the tickers found in StockData/.
  */
 public enum StockTicker {
   GME("GME"),
@@ -24,18 +25,14 @@ public enum StockTicker {
   }
 
   /**
-   * Determines if the given ticker is a ticker for a valid Stock.
+   * Determines if the given ticker is a ticker for a valid Stock, by looking it up in the
+   * SymbolTable.
    *
    * @param ticker the ticker to check.
    * @return true if valid, false if invalid.
    */
   public static boolean isValidTicker(String ticker) {
-    for (StockTicker st : StockTicker.values()) {
-      if (st.getTicker().equalsIgnoreCase(ticker)) {
-        return true;
-      }
-    }
-    return false;
+    return SymbolTable.isValidTicker(ticker);
   }
 
   /**
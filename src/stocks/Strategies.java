@@ -0,0 +1,263 @@
+package stocks;
+
+import java.util.Arrays;
+
+/**
+ * Strategies creates the trading strategies a Backtest can replay: regular purchases,
+ * moving average crossover entries and exits, and rebalancing on a schedule or when the weights
+ * drift. A strategy can be combined with others, such as regular purchases together with a
+ * yearly rebalance.
+ */
+public final class Strategies {
+
+  /**
+   * Constructs nothing, as Strategies only has static methods.
+   */
+  private Strategies() {
+  }
+
+  /**
+   * Creates a strategy which deposits an amount on the first trading day of every period and
+   * spends it on the stocks by their weights. The share of a stock that does not trade that
+   * day, such as one that was not listed yet, is kept as cash.
+   *
+   * @param resolution how often to buy.
+   * @param amount     the amount deposited and spent each period.
+   * @param weights    the weight of each stock, which must add up to at most 1.
+   * @return the strategy.
+   * @throws IllegalArgumentException if the amount or a weight is negative.
+   */
+  public static Strategy periodicBuy(PriceRollup.Resolution resolution, double amount,
+                                     double[] weights) throws IllegalArgumentException {
+    if (amount < 0) {
+      throw new IllegalArgumentException("Amount cannot be negative.");
+    }
+    double[] stockWeights = checkWeights(weights);
+    return session -> {
+      if (!session.isPeriodStart(resolution)) {
+        return;
+      }
+      session.deposit(amount);
+      for (int s = 0; s < stockWeights.length; s++) {
+        session.buy(s, amount * stockWeights[s]);
+      }
+    };
+  }
+
+  /**
+   * Creates a strategy which buys a stock when its fast moving average crosses above its slow
+   * one and sells all of it when the fast average crosses back below. Each golden cross spends
+   * an equal share of the cash on the stocks not held.
+   *
+   * @param fast the number of trading days of the fast average.
+   * @param slow the number of trading days of the slow average.
+   * @return the strategy.
+   * @throws IllegalArgumentException if a window is not positive or fast is not less than slow.
+   */
+  public static Strategy crossover(int fast, int slow) throws IllegalArgumentException {
+    if (fast <= 0 || fast >= slow) {
+      throw new IllegalArgumentException("Fast window must be positive and less than slow.");
+    }
+    return session -> {
+      for (int s = 0; s < session.getStockCount(); s++) {
+        if (session.getCross(s, fast, slow) < 0) {
+          session.sell(s, session.getShares(s));
+        }
+      }
+      int out = 0;
+      for (int s = 0; s < session.getStockCount(); s++) {
+        if (session.getShares(s) == 0) {
+          out++;
+        }
+      }
+      double cash = session.getCash();
+      for (int s = 0; s < session.getStockCount(); s++) {
+        if (session.getShares(s) == 0 && session.getCross(s, fast, slow) > 0) {
+          session.buy(s, cash / out);
+        }
+      }
+    };
+  }
+
+  /**
+   * Creates a strategy which rebalances the stocks to their weights on the first trading day
+   * of every period.
+   *
+   * @param resolution how often to rebalance.
+   * @param weights    the weight of each stock, which must add up to at most 1.
+   * @return the strategy.
+   * @throws IllegalArgumentException if a weight is negative.
+   */
+  public static Strategy rebalance(PriceRollup.Resolution resolution, double[] weights)
+          throws IllegalArgumentException {
+    double[] stockWeights = checkWeights(weights);
+    return session -> {
+      if (session.isPeriodStart(resolution)) {
+        session.rebalance(stockWeights);
+      }
+    };
+  }
+
+  /**
+   * Creates a strategy which rebalances the stocks to their weights whenever the weight of a
+   * stock that trades that day has drifted from its target by more than a band, such as 5
+   * percentage points. Only the weights are compared each day, so the strategy trades as
+   * rarely as the prices allow.
+   *
+   * @param weights the weight of each stock, which must add up to at most 1.
+   * @param band    how far a weight may drift from its target, as a fraction of the account.
+   * @return the strategy.
+   * @throws IllegalArgumentException if a weight is negative or the band is not positive.
+   */
+  public static Strategy thresholdRebalance(double[] weights, double band)
+          throws IllegalArgumentException {
+    if (!(band > 0)) {
+      throw new IllegalArgumentException("Band must be positive.");
+    }
+    double[] stockWeights = checkWeights(weights);
+    return session -> {
+      double value = session.getValue();
+      if (!(value > 0)) {
+        return;
+      }
+      for (int s = 0; s < stockWeights.length; s++) {
+        if (session.isTrading(s) && Math.abs(session.getShares(s) * session.getClose(s) / value
+                - stockWeights[s]) > band) {
+          session.rebalance(stockWeights);
+          return;
+        }
+      }
+    };
+  }
+
+  /**
+   * Creates a rebalancing strategy from its schedule: a frequency such as monthly or
+   * quarterly, or threshold with a band in percentage points, such as threshold:5.
+   *
+   * @param schedule the schedule.
+   * @param weights  the weight of each stock, which must add up to at most 1.
+   * @return the strategy.
+   * @throws IllegalArgumentException if the schedule is not known, or a weight or the band is
+   *                                  not valid.
+   */
+  public static Strategy rebalance(String schedule, double[] weights)
+          throws IllegalArgumentException {
+    String[] parts = schedule.trim().toLowerCase().split(":");
+    if (parts.length == 2 && parts[0].equals("threshold")) {
+      try {
+        return thresholdRebalance(weights, Double.parseDouble(parts[1]) / 100);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Unknown schedule: " + schedule + ".");
+      }
+    }
+    if (parts.length == 1) {
+      return rebalance(parseResolution(parts[0]), weights);
+    }
+    throw new IllegalArgumentException("Unknown schedule: " + schedule + ".");
+  }
+
+  /**
+   * Creates a strategy which runs several strategies in turn every day.
+   *
+   * @param strategies the strategies, in the order they trade each day.
+   * @return the combined strategy.
+   */
+  public static Strategy combine(Strategy... strategies) {
+    Strategy[] all = strategies.clone();
+    return session -> {
+      for (Strategy strategy : all) {
+        strategy.onDay(session);
+      }
+    };
+  }
+
+  /**
+   * Creates a strategy from its specification, such as buy:monthly:1000, cross:50:200,
+   * rebalance:quarterly or rebalance:threshold:5. Purchases and rebalancing weight the stocks
+   * equally.
+   *
+   * @param spec   the name of the strategy and its parameters, separated by colons.
+   * @param stocks the number of stocks of the backtest.
+   * @return the strategy.
+   * @throws IllegalArgumentException if the specification is not a known strategy with valid
+   *                                  parameters.
+   */
+  public static Strategy parse(String spec, int stocks) throws IllegalArgumentException {
+    String[] parts = spec.trim().toLowerCase().split(":");
+    double[] equal = new double[stocks];
+    Arrays.fill(equal, 1.0 / stocks);
+    try {
+      switch (parts[0]) {
+        case "buy":
+          if (parts.length == 3) {
+            return periodicBuy(parseResolution(parts[1]), Double.parseDouble(parts[2]), equal);
+          }
+          break;
+        case "cross":
+          if (parts.length == 3) {
+            return crossover(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+          }
+          break;
+        case "rebalance":
+          if (parts.length == 2 || parts.length == 3) {
+            return rebalance(spec.trim().substring("rebalance:".length()), equal);
+          }
+          break;
+        default:
+          break;
+      }
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Unknown strategy: " + spec + ".");
+    }
+    throw new IllegalArgumentException("Unknown strategy: " + spec + ".");
+  }
+
+  /**
+   * Parses how often a strategy trades.
+   *
+   * @param name weekly, monthly, quarterly or yearly.
+   * @return the resolution.
+   * @throws IllegalArgumentException if the name is not a resolution.
+   */
+  private static PriceRollup.Resolution parseResolution(String name)
+          throws IllegalArgumentException {
+    try {
+      return PriceRollup.Resolution.valueOf(name.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Unknown frequency: " + name + ".");
+    }
+  }
+
+  /**
+   * Checks and copies the weights of the stocks.
+   *
+   * @param weights the weight of each stock.
+   * @return a copy of the weights.
+   * @throws IllegalArgumentException if a weight is negative or they add up to more than 1.
+   */
+  private static double[] checkWeights(double[] weights) throws IllegalArgumentException {
+    for (double weight : weights) {
+      if (!(weight >= 0)) {
+        throw new IllegalArgumentException("Weights cannot be negative.");
+      }
+    }
+    if (sum(weights) > 1 + 1e-9) {
+      throw new IllegalArgumentException("Weights cannot add up to more than 1.");
+    }
+    return weights.clone();
+  }
+
+  /**
+   * Adds up weights.
+   *
+   * @param weights the weights.
+   * @return their sum.
+   */
+  private static double sum(double[] weights) {
+    double total = 0;
+    for (double weight : weights) {
+      total += weight;
+    }
+    return total;
+  }
+}
@@ -0,0 +1,18 @@
+package stocks;
+
+/**
+ * Represents a trading strategy replayed by a Backtest. A Strategy is called once for every
+ * trading day of the backtest, oldest first, and trades through the session it is given, which
+ * has the prices, moving averages and positions as of that day. A Strategy should decide only
+ * from what the session shows, without state of its own, so that one Strategy can be used by
+ * many backtests, even at the same time.
+ */
+public interface Strategy {
+
+  /**
+   * Trades on one day of a backtest.
+   *
+   * @param session the state of the backtest on the day.
+   */
+  void onDay(Backtest.Session session);
+}
@@ -0,0 +1,265 @@
+package stocks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A Sweep runs many variations of a strategy, such as every pair of crossover windows or every
+ * rebalance frequency, over the same Backtest and ranks them. The backtest and its prices are
+ * immutable and shared by every run, and each run has its own account, so the runs are split
+ * between the threads of a fork-join pool with nothing to lock.
+ */
+public final class Sweep {
+
+  /**
+   * The outcome of one strategy of a sweep.
+   */
+  public static final class Row {
+    private final String name; // the name of the strategy
+    private final double finalValue; // value of the account on the last day
+    private final double invested; // starting cash plus every deposit
+    private final double maxDrawdown; // largest fall from a previous high, as a fraction
+    private final int trades; // number of trades made
+
+    /**
+     * Constructs a Row from the result of a backtest.
+     *
+     * @param name   the name of the strategy.
+     * @param result the result of running it.
+     */
+    Row(String name, Backtest.Result result) {
+      this.name = name;
+      this.finalValue = result.getFinalValue();
+      this.invested = result.getInvested();
+      this.maxDrawdown = result.getMaxDrawdown();
+      this.trades = result.getTradeCount();
+    }
+
+    /**
+     * Gets the name of the strategy, such as cross:50:200.
+     *
+     * @return the name.
+     */
+    public String getName() {
+      return this.name;
+    }
+
+    /**
+     * Gets the value of the account on the last day.
+     *
+     * @return the final value.
+     */
+    public double getFinalValue() {
+      return this.finalValue;
+    }
+
+    /**
+     * Gets the cash put into the account.
+     *
+     * @return the starting cash plus every deposit.
+     */
+    public double getInvested() {
+      return this.invested;
+    }
+
+    /**
+     * Gets the largest fall of the value of the account from a previous high.
+     *
+     * @return the maximum drawdown, between 0 and 1.
+     */
+    public double getMaxDrawdown() {
+      return this.maxDrawdown;
+    }
+
+    /**
+     * Gets the number of trades made.
+     *
+     * @return the number of trades.
+     */
+    public int getTradeCount() {
+      return this.trades;
+    }
+  }
+
+  /**
+   * Constructs nothing, as a Sweep only has static methods.
+   */
+  private Sweep() {
+  }
+
+  /**
+   * Runs every strategy over a backtest in parallel on the common fork-join pool.
+   *
+   * @param backtest   the backtest to run the strategies over.
+   * @param strategies the strategies, by name.
+   * @return a row for each strategy, from the highest final value to the lowest.
+   */
+  public static List<Row> run(Backtest backtest, Map<String, Strategy> strategies) {
+    return run(backtest, strategies, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Runs every strategy over a backtest in parallel on the given fork-join pool.
+   *
+   * @param backtest   the backtest to run the strategies over.
+   * @param strategies the strategies, by name.
+   * @param pool       the pool to run the strategies on.
+   * @return a row for each strategy, from the highest final value to the lowest. Strategies
+   *     with the same final value keep their order.
+   */
+  public static List<Row> run(Backtest backtest, Map<String, Strategy> strategies,
+                              ForkJoinPool pool) {
+    long start = System.nanoTime();
+    String[] names = strategies.keySet().toArray(new String[0]);
+    Strategy[] runs = strategies.values().toArray(new Strategy[0]);
+    Row[] rows = new Row[names.length];
+    pool.invoke(new SweepTask(backtest, names, runs, rows, 0, names.length));
+    List<Row> ranked = new ArrayList<>(Arrays.asList(rows));
+    ranked.sort(Comparator.comparingDouble(Row::getFinalValue).reversed());
+    MetricsRegistry.counter("sweep.runs").add(names.length);
+    MetricsRegistry.recordSince("sweep", start);
+    return ranked;
+  }
+
+  /**
+   * Creates a crossover strategy for every pair of a fast and a longer slow window.
+   *
+   * @param fasts the fast windows.
+   * @param slows the slow windows.
+   * @return the strategies, named like cross:50:200, in the order of the windows.
+   * @throws IllegalArgumentException if a window is not positive.
+   */
+  public static Map<String, Strategy> crossovers(int[] fasts, int[] slows)
+          throws IllegalArgumentException {
+    Map<String, Strategy> strategies = new LinkedHashMap<>();
+    for (int fast : fasts) {
+      for (int slow : slows) {
+        if (fast < slow) {
+          strategies.put("cross:" + fast + ":" + slow, Strategies.crossover(fast, slow));
+        }
+      }
+    }
+    return strategies;
+  }
+
+  /**
+   * Creates a rebalancing strategy for every frequency.
+   *
+   * @param weights the weight of each stock.
+   * @return the strategies, named like rebalance:monthly.
+   * @throws IllegalArgumentException if a weight is negative or they add up to more than 1.
+   */
+  public static Map<String, Strategy> rebalances(double[] weights)
+          throws IllegalArgumentException {
+    Map<String, Strategy> strategies = new LinkedHashMap<>();
+    for (PriceRollup.Resolution resolution : PriceRollup.Resolution.values()) {
+      strategies.put("rebalance:" + resolution.name().toLowerCase(),
+              Strategies.rebalance(resolution, weights));
+    }
+    return strategies;
+  }
+
+  /**
+   * Creates the strategies of a sweep from its specification: cross with lists of fast and
+   * slow windows separated by slashes, such as cross:20/50:100/200, or rebalance for every
+   * rebalance frequency with the stocks weighted equally.
+   *
+   * @param spec   the specification.
+   * @param stocks the number of stocks of the backtest.
+   * @return the strategies, by name.
+   * @throws IllegalArgumentException if the specification is not a known sweep with valid
+   *                                  windows.
+   */
+  public static Map<String, Strategy> parse(String spec, int stocks)
+          throws IllegalArgumentException {
+    String[] parts = spec.trim().toLowerCase().split(":");
+    if (parts.length == 1 && parts[0].equals("rebalance")) {
+      double[] equal = new double[stocks];
+      Arrays.fill(equal, 1.0 / stocks);
+      return rebalances(equal);
+    }
+    if (parts.length == 3 && parts[0].equals("cross")) {
+      try {
+        Map<String, Strategy> strategies = crossovers(parseWindows(parts[1]),
+                parseWindows(parts[2]));
+        if (!strategies.isEmpty()) {
+          return strategies;
+        }
+      } catch (NumberFormatException e) {
+        // reported as an unknown sweep below
+      }
+    }
+    throw new IllegalArgumentException("Unknown sweep: " + spec + ".");
+  }
+
+  /**
+   * Parses windows separated by slashes.
+   *
+   * @param windows the windows, such as 20/50.
+   * @return each window.
+   * @throws NumberFormatException if a window is not a number.
+   */
+  private static int[] parseWindows(String windows) throws NumberFormatException {
+    String[] parts = windows.split("/");
+    int[] parsed = new int[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      parsed[i] = Integer.parseInt(parts[i].trim());
+    }
+    return parsed;
+  }
+
+  /**
+   * A fork-join task which runs a range of the strategies of a sweep, splitting it in half
+   * until a single strategy is left.
+   */
+  private static final class SweepTask extends RecursiveTask<Void> {
+    private static final long serialVersionUID = 1L;
+    private final Backtest backtest; // the backtest shared by every run
+    private final String[] names; // Key: run, Value: name of its strategy
+    private final Strategy[] strategies; // Key: run, Value: its strategy
+    private final Row[] rows; // Key: run, Value: its outcome, filled in by the task
+    private final int from; // first run of this task, inclusive
+    private final int to; // last run of this task, exclusive
+
+    /**
+     * Constructs a SweepTask.
+     *
+     * @param backtest   the backtest shared by every run.
+     * @param names      the name of the strategy of each run.
+     * @param strategies the strategy of each run.
+     * @param rows       where to put the outcome of each run.
+     * @param from       the first run of this task, inclusive.
+     * @param to         the last run of this task, exclusive.
+     */
+    SweepTask(Backtest backtest, String[] names, Strategy[] strategies, Row[] rows, int from,
+              int to) {
+      this.backtest = backtest;
+      this.names = names;
+      this.strategies = strategies;
+      this.rows = rows;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Void compute() {
+      if (this.to - this.from > 1) {
+        int mid = (this.from + this.to) >>> 1;
+        invokeAll(new SweepTask(this.backtest, this.names, this.strategies, this.rows,
+                this.from, mid), new SweepTask(this.backtest, this.names, this.strategies,
+                this.rows, mid, this.to));
+        return null;
+      }
+      for (int i = this.from; i < this.to; i++) {
+        this.rows[i] = new Row(this.names[i], this.backtest.run(this.strategies[i]));
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package stocks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * SymbolTable for the stock program, which knows every valid ticker. It starts with the tickers
+ * of StockTicker and every stock csv in StockData/ and StockData/intraday/, and grows as new
+ * stock data is fetched. Lookups ignore case and take constant time, each ticker is given a
+ * small integer id that can be used in place of the String in internal maps and arrays, and
+ * tickers can be searched by prefix.
+ */
+public class SymbolTable {
+  public static final int MAX_RESULTS = 20; // most tickers listed for one search by a user
+  private static final Map<String, Integer> ids = new ConcurrentHashMap<>(); // Key: upper case
+  // ticker, Value: id of that ticker
+  private static final NavigableMap<String, String> sorted = new ConcurrentSkipListMap<>(); // Key:
+  // upper case ticker, Value: ticker as it was added, sorted for prefix search
+  private static volatile String[] symbols = new String[64]; // Key: id, Value: ticker
+  private static int count = 0; // number of tickers in the table
+
+  static {
+    for (StockTicker st : StockTicker.values()) {
+      intern(st.getTicker());
+    }
+    loadDirectory("StockData/");
+    loadDirectory("StockData/intraday/");
+  }
+
+  /**
+   * Adds every stock csv in the given directory to the table, using its file name as the
+   * ticker. Files that are not stock data, meaning their header does not start with
+   * "timestamp", are skipped.
+   *
+   * @param directory the directory to load tickers from.
+   * @return the number of files that were added or already in the table.
+   */
+  public static int loadDirectory(String directory) {
+    File[] files = new File(directory).listFiles();
+    if (files == null) {
+      return 0;
+    }
+    int loaded = 0;
+    for (File file : files) {
+      if (loadFile(file)) {
+        loaded++;
+      }
+    }
+    return loaded;
+  }
+
+  /**
+   * Adds the ticker of a single stock csv to the table, if it holds stock data. The csv may be
+   * gzip compressed, as ticker.csv.gz.
+   *
+   * @param file the csv file, named after its ticker.
+   * @return true if the ticker is in the table, false if the file is not stock data.
+   */
+  public static boolean loadFile(File file) {
+    String name = file.getName();
+    String extension = name.endsWith(".csv.gz") ? ".csv.gz" : ".csv";
+    if (!file.isFile() || !name.endsWith(extension)) {
+      return false;
+    }
+    try (BufferedReader reader = CsvFiles.newReader(file)) {
+      String header = reader.readLine();
+      if (header == null || !header.startsWith("timestamp")) {
+        return false;
+      }
+    } catch (IOException e) {
+      return false;
+    }
+    intern(name.substring(0, name.length() - extension.length()));
+    return true;
+  }
+
+  /**
+   * Adds a ticker to the table if it is not in it yet, and returns its id.
+   *
+   * @param ticker the ticker to add.
+   * @return the id of the ticker.
+   * @throws IllegalArgumentException if the ticker is null or empty.
+   */
+  public static synchronized int intern(String ticker) throws IllegalArgumentException {
+    if (ticker == null || ticker.isEmpty()) {
+      throw new IllegalArgumentException("Ticker cannot be empty.");
+    }
+    String key = ticker.toUpperCase(Locale.ROOT);
+    Integer id = ids.get(key);
+    if (id != null) {
+      return id;
+    }
+    if (count == symbols.length) {
+      symbols = Arrays.copyOf(symbols, count * 2);
+    }
+    symbols[count] = ticker;
+    sorted.put(key, ticker);
+    ids.put(key, count);
+    return count++;
+  }
+
+  /**
+   * Determines if the given ticker is in the table, ignoring case.
+   *
+   * @param ticker the ticker to check.
+   * @return true if valid, false if invalid.
+   */
+  public static boolean isValidTicker(String ticker) {
+    return getId(ticker) >= 0;
+  }
+
+  /**
+   * Gets the id of a ticker, ignoring case.
+   *
+   * @param ticker the ticker to look up.
+   * @return the id of the ticker, or -1 if it is not in the table.
+   */
+  public static int getId(String ticker) {
+    if (ticker == null) {
+      return -1;
+    }
+    Integer id = ids.get(ticker.toUpperCase(Locale.ROOT));
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Gets the ticker with the given id, spelled the way it was added.
+   *
+   * @param id the id of the ticker.
+   * @return the ticker.
+   * @throws IllegalArgumentException if there is no ticker with that id.
+   */
+  public static String getSymbol(int id) throws IllegalArgumentException {
+    String[] current = symbols;
+    if (id < 0 || id >= current.length || current[id] == null) {
+      throw new IllegalArgumentException("No ticker with id " + id + ".");
+    }
+    return current[id];
+  }
+
+  /**
+   * Gets the ticker spelled the way it was added, which matches the name of its csv file, from
+   * a ticker in any case.
+   *
+   * @param ticker the ticker in any case.
+   * @return the ticker as it was added, or null if it is not in the table.
+   */
+  public static String canonical(String ticker) {
+    int id = getId(ticker);
+    return id < 0 ? null : getSymbol(id);
+  }
+
+  /**
+   * Finds the tickers that start with the given prefix, ignoring case, in alphabetical order.
+   *
+   * @param prefix the start of the tickers to find.
+   * @param limit  the most tickers to return.
+   * @return the matching tickers.
+   */
+  public static List<String> search(String prefix, int limit) {
+    String key = prefix.toUpperCase(Locale.ROOT);
+    List<String> result = new ArrayList<>();
+    for (String ticker : sorted.tailMap(key, true).values()) {
+      if (result.size() >= limit || !ticker.toUpperCase(Locale.ROOT).startsWith(key)) {
+        break;
+      }
+      result.add(ticker);
+    }
+    return result;
+  }
+
+  /**
+   * Gets the number of tickers in the table.
+   *
+   * @return the number of tickers.
+   */
+  public static synchronized int size() {
+    return count;
+  }
+}
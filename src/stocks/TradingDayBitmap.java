@@ -0,0 +1,146 @@
+package stocks;
+
+import java.time.LocalDate;
+
+/**
+ * A TradingDayBitmap is the set of dates a stock has price data for, as one bit per calendar
+ * day. Bit i of word w stands for the epoch day base + 64 * w + i, where base is a multiple of
+ * 64, so the bitmaps of two stocks line up word for word and can be intersected with one AND
+ * per 64 days. Checking a date is a single bit test, and the next trading day after a date is
+ * found a word at a time. A TradingDayBitmap is immutable.
+ */
+public final class TradingDayBitmap {
+  public static final int NONE = Integer.MIN_VALUE; // returned when there is no such day
+  private static final TradingDayBitmap EMPTY = new TradingDayBitmap(0, new long[0]);
+
+  private final int base; // epoch day of bit 0 of the first word, a multiple of 64
+  private final long[] words; // Key: word, Value: one bit per day, set if it is a trading day
+
+  /**
+   * The constructor for TradingDayBitmap.
+   *
+   * @param base  the epoch day of bit 0 of the first word, a multiple of 64
+   * @param words the bits of the days, 64 days per word
+   */
+  private TradingDayBitmap(int base, long[] words) {
+    this.base = base;
+    this.words = words;
+  }
+
+  /**
+   * Creates the bitmap of the trading days of a stock.
+   *
+   * @param stock the stock to take the dates from.
+   * @return the bitmap with a bit set for every date the stock has price data for.
+   */
+  public static TradingDayBitmap of(Stock stock) {
+    int count = stock.getTradingDayCount();
+    if (count == 0) {
+      return EMPTY;
+    }
+    int[] epochDays = new int[count];
+    stock.copyEpochDays(0, count, epochDays, 0);
+    return of(epochDays);
+  }
+
+  /**
+   * Creates the bitmap of a sorted list of trading days.
+   *
+   * @param epochDays the trading days as epoch days, oldest first.
+   * @return the bitmap with a bit set for every one of the days.
+   */
+  public static TradingDayBitmap of(int[] epochDays) {
+    if (epochDays.length == 0) {
+      return EMPTY;
+    }
+    int base = Math.floorDiv(epochDays[0], 64) * 64;
+    long[] words = new long[(int) (((long) epochDays[epochDays.length - 1] - base) >> 6) + 1];
+    for (int epochDay : epochDays) {
+      long offset = (long) epochDay - base;
+      words[(int) (offset >> 6)] |= 1L << offset;
+    }
+    return new TradingDayBitmap(base, words);
+  }
+
+  /**
+   * Determines if a day is a trading day.
+   *
+   * @param epochDay the date as a number of days since 1970-01-01.
+   * @return true if the bit of the day is set, false if not.
+   */
+  public boolean contains(int epochDay) {
+    long offset = (long) epochDay - this.base;
+    if (offset < 0 || offset >= (long) this.words.length << 6) {
+      return false;
+    }
+    return (this.words[(int) (offset >> 6)] & (1L << offset)) != 0;
+  }
+
+  /**
+   * Determines if a date is a trading day.
+   *
+   * @param date the date to check.
+   * @return true if the bit of the date is set, false if not.
+   */
+  public boolean contains(LocalDate date) {
+    long epochDay = date.toEpochDay();
+    return epochDay == (int) epochDay && contains((int) epochDay);
+  }
+
+  /**
+   * Finds the first trading day on or after a day.
+   *
+   * @param epochDay the day to start from, as a number of days since 1970-01-01.
+   * @return the first trading day on or after the day, or NONE if there is none.
+   */
+  public int nextDay(int epochDay) {
+    long offset = Math.max(0, (long) epochDay - this.base);
+    int word = (int) Math.min(offset >> 6, this.words.length);
+    if (word == this.words.length) {
+      return NONE;
+    }
+    long bits = this.words[word] & (-1L << offset);
+    while (bits == 0) {
+      if (++word == this.words.length) {
+        return NONE;
+      }
+      bits = this.words[word];
+    }
+    return this.base + (word << 6) + Long.numberOfTrailingZeros(bits);
+  }
+
+  /**
+   * Intersects this bitmap with another.
+   *
+   * @param other the bitmap to intersect with.
+   * @return the bitmap of the days that are trading days in both.
+   */
+  public TradingDayBitmap and(TradingDayBitmap other) {
+    int from = Math.max(this.base, other.base);
+    long to = Math.min(this.base + ((long) this.words.length << 6),
+            other.base + ((long) other.words.length << 6));
+    if (to <= from) {
+      return EMPTY;
+    }
+    long[] words = new long[(int) ((to - from) >> 6)];
+    int mine = (from - this.base) >> 6;
+    int theirs = (from - other.base) >> 6;
+    for (int i = 0; i < words.length; i++) {
+      words[i] = this.words[mine + i] & other.words[theirs + i];
+    }
+    return new TradingDayBitmap(from, words);
+  }
+
+  /**
+   * Counts the trading days in this bitmap.
+   *
+   * @return the number of bits set.
+   */
+  public int cardinality() {
+    int count = 0;
+    for (long word : this.words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+}
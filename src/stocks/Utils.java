@@ -1,12 +1,16 @@
 package stocks;
 
-import java.io.File;
 
 import java.time.LocalDate;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+
+import stocks.events.PortfolioSaveEvent;
 
 /**
  * Utils for the stock program used to perform misc. tasks for both stocks and portfolios,
@@ -17,6 +21,16 @@ import java.util.Map;
 public class Utils {
   private static Map<String, Stock> stocks = new HashMap<>();
   private static Map<String, Portfolio> portfolios = new HashMap<>();
+  private static Map<String, Map<Integer, IndicatorState>> indicators = new HashMap<>();
+  private static Map<String, Map<PriceRollup.Resolution, PriceRollup>> rollups =
+          new HashMap<>(); // Key: ticker, Value: its rollups by resolution
+  private static Map<Stock, TradingDayBitmap> tradingDays = new WeakHashMap<>(); // Key: a
+  // stock in stocks, Value: its trading days
+  private static volatile int stockReloads; // times a loaded stock has been loaded again
+  private static Map<Stock, PriceRangeIndex> priceRanges = new WeakHashMap<>(); // Key: a
+  // stock in stocks, Value: the index over its highs, lows and closes
+  private static Map<Stock, MovingAverageCrosses> movingAverageCrosses =
+          new WeakHashMap<>(); // Key: a stock in stocks, Value: the prefix sums of its closes
 
   /**
    * Returns the list of portfolios stored in this Utils class.
@@ -36,18 +50,242 @@ public class Utils {
     return stocks;
   }
 
+  /**
+   * Returns the indicators being tracked, by ticker and then by window.
+   *
+   * @return global map of tracked indicators.
+   */
+  public static Map<String, Map<Integer, IndicatorState>> getIndicators() {
+    return indicators;
+  }
+
+  /**
+   * Starts tracking the moving average of a loaded stock over the given number of days. The
+   * indicator is computed once over the whole history of the stock, and after that is only
+   * advanced by the new dates whenever the stock is loaded again.
+   *
+   * @param ticker the ticker of the stock to track.
+   * @param days   the number of days in the moving average.
+   * @return the tracked indicator for that ticker and window.
+   * @throws IllegalArgumentException if the stock has not been loaded.
+   */
+  public static IndicatorState trackIndicator(String ticker, int days)
+          throws IllegalArgumentException {
+    Stock stock = getStocks().get(ticker);
+    if (stock == null) {
+      throw new IllegalArgumentException("Stock " + ticker + " has not been loaded.\n");
+    }
+    Map<Integer, IndicatorState> tracked = indicators.get(ticker);
+    if (tracked == null) {
+      tracked = new HashMap<>();
+      indicators.put(ticker, tracked);
+    }
+    IndicatorState state = tracked.get(days);
+    if (state != null) {
+      MetricsRegistry.increment("cache.indicator.hits");
+    } else {
+      MetricsRegistry.increment("cache.indicator.misses");
+      state = new MovingAverageState(days);
+      tracked.put(days, state);
+      advanceIndicator(state, stock);
+    }
+    return state;
+  }
+
+  /**
+   * Appends the dates of the given stock that are newer than what each of its tracked
+   * indicators has already seen.
+   *
+   * @param stock the stock that was loaded.
+   */
+  public static void refreshIndicators(Stock stock) {
+    Map<Integer, IndicatorState> tracked = indicators.get(stock.getTicker());
+    if (tracked == null) {
+      return;
+    }
+    for (IndicatorState state : tracked.values()) {
+      advanceIndicator(state, stock);
+    }
+  }
+
+  /**
+   * Returns the weekly, monthly or yearly bars of a loaded stock. The bars are rolled up from
+   * the whole history of the stock the first time they are asked for, and after that are only
+   * advanced by the new dates whenever the stock is loaded again.
+   *
+   * @param ticker     the ticker of the stock.
+   * @param resolution the length of the bars.
+   * @return the rolled up prices of the stock.
+   * @throws IllegalArgumentException if the stock has not been loaded.
+   */
+  public static PriceRollup getRollup(String ticker, PriceRollup.Resolution resolution)
+          throws IllegalArgumentException {
+    Stock stock = getStocks().get(ticker);
+    if (stock == null) {
+      throw new IllegalArgumentException("Stock " + ticker + " has not been loaded.\n");
+    }
+    Map<PriceRollup.Resolution, PriceRollup> tracked = rollups.get(ticker);
+    if (tracked == null) {
+      tracked = new HashMap<>();
+      rollups.put(ticker, tracked);
+    }
+    PriceRollup rollup = tracked.get(resolution);
+    if (rollup != null) {
+      MetricsRegistry.increment("cache.rollup.hits");
+    } else {
+      MetricsRegistry.increment("cache.rollup.misses");
+      rollup = PriceRollup.of(stock, resolution);
+      tracked.put(resolution, rollup);
+    }
+    return rollup;
+  }
+
+  /**
+   * Appends the dates of the given stock that are newer than what each of its rollups has
+   * already seen.
+   *
+   * @param stock the stock that was loaded.
+   */
+  public static void refreshRollups(Stock stock) {
+    Map<PriceRollup.Resolution, PriceRollup> tracked = rollups.get(stock.getTicker());
+    if (tracked == null) {
+      return;
+    }
+    for (PriceRollup rollup : tracked.values()) {
+      rollup.appendFrom(stock);
+    }
+  }
+
+  /**
+   * Returns the trading days of a loaded stock as a bitmap, which is built the first time it is
+   * asked for and kept until the stock is replaced in the map of stocks.
+   *
+   * @param ticker the ticker of the stock.
+   * @return the bitmap of the dates the stock has price data for.
+   * @throws IllegalArgumentException if the stock has not been loaded.
+   */
+  public static TradingDayBitmap getTradingDays(String ticker) throws IllegalArgumentException {
+    Stock stock = getStocks().get(ticker);
+    if (stock == null) {
+      throw new IllegalArgumentException("Stock " + ticker + " has not been loaded.\n");
+    }
+    TradingDayBitmap days = tradingDays.get(stock);
+    if (days != null) {
+      MetricsRegistry.increment("cache.tradingdays.hits");
+    } else {
+      MetricsRegistry.increment("cache.tradingdays.misses");
+      days = TradingDayBitmap.of(stock);
+      tradingDays.put(stock, days);
+    }
+    return days;
+  }
+
+  /**
+   * Returns the number of times a stock already in the map of stocks has been replaced by
+   * loading it again, so that anything built from the trading days of loaded stocks only needs
+   * to check them again when it has changed.
+   *
+   * @return the number of reloads so far.
+   */
+  public static int getStockReloads() {
+    return stockReloads;
+  }
+
+  /**
+   * Counts a reload after a stock has been put into the map of stocks, if it replaced one that
+   * was already there.
+   *
+   * @param replaced the stock that was in the map before, or null if there was none.
+   */
+  public static synchronized void refreshTradingDays(Stock replaced) {
+    if (replaced != null) {
+      stockReloads++;
+    }
+  }
+
+  /**
+   * Returns the index over the high and low prices of a loaded stock, which answers
+   * the highest and lowest prices between any two dates. It is kept until the stock is
+   * replaced in the map of stocks.
+   *
+   * @param ticker the ticker of the stock.
+   * @return the index over the prices of the stock.
+   * @throws IllegalArgumentException if the stock has not been loaded.
+   */
+  public static PriceRangeIndex getPriceRanges(String ticker) throws IllegalArgumentException {
+    Stock stock = getStocks().get(ticker);
+    if (stock == null) {
+      throw new IllegalArgumentException("Stock " + ticker + " has not been loaded.\n");
+    }
+    PriceRangeIndex ranges = priceRanges.get(stock);
+    if (ranges != null) {
+      MetricsRegistry.increment("cache.priceranges.hits");
+    } else {
+      MetricsRegistry.increment("cache.priceranges.misses");
+      ranges = new PriceRangeIndex(stock);
+      priceRanges.put(stock, ranges);
+    }
+    return ranges;
+  }
+
+  /**
+   * Returns the prefix sums of the closing prices of a loaded stock, which find the crosses of
+   * any number of fast and slow moving averages. They are kept until the stock is replaced in
+   * the map of stocks.
+   *
+   * @param ticker the ticker of the stock.
+   * @return the moving average crosses of the stock.
+   * @throws IllegalArgumentException if the stock has not been loaded.
+   */
+  public static MovingAverageCrosses getMovingAverageCrosses(String ticker)
+          throws IllegalArgumentException {
+    Stock stock = getStocks().get(ticker);
+    if (stock == null) {
+      throw new IllegalArgumentException("Stock " + ticker + " has not been loaded.\n");
+    }
+    MovingAverageCrosses crosses = movingAverageCrosses.get(stock);
+    if (crosses != null) {
+      MetricsRegistry.increment("cache.crosses.hits");
+    } else {
+      MetricsRegistry.increment("cache.crosses.misses");
+      crosses = new MovingAverageCrosses(stock);
+      movingAverageCrosses.put(stock, crosses);
+    }
+    return crosses;
+  }
+
+  /**
+   * Appends every date of the stock after the last date of the indicator to the indicator.
+   *
+   * @param state the indicator to advance.
+   * @param stock the stock to take the prices from.
+   */
+  private static void advanceIndicator(IndicatorState state, Stock stock) {
+    int start = 0;
+    if (state.getLastDate() != null) {
+      start = stock.ceilingIndex((int) state.getLastDate().toEpochDay() + 1);
+    }
+    for (int i = start; i < stock.getTradingDayCount(); i++) {
+      state.append(stock.getEpochDayAt(i), stock.getHighAt(i), stock.getLowAt(i),
+              stock.getCloseAt(i));
+    }
+  }
+
   /**
    * Saves the given portfolio to a csv with the given portfolioName.
    * Constructs a "portfolioName.csv" file by parsing its data into a csv file.
-   * Saves the file to our database of portfolios, "PortfolioData/".
+   * Saves the file to our database of portfolios, "PortfolioData/". The file is written gzip
+   * compressed, as "portfolioName.csv.gz", if compressed output is turned on in CsvFiles.
    *
    * @param portfolio     the portfolio to save.
    * @param portfolioName the portfolio name.
    */
   public static void savePortfolioCSV(Portfolio portfolio, String portfolioName) {
-    File file = new File("PortfolioData/" + portfolioName + ".csv");
+    long start = System.nanoTime();
+    PortfolioSaveEvent event = new PortfolioSaveEvent();
+    event.begin();
 
-    try (FileWriter writer = new FileWriter(file)) {
+    try (Writer writer = CsvFiles.newWriter("PortfolioData/", portfolioName)) {
       // header
       writer.append("ticker,numShares,shareDates\n");
 
@@ -71,9 +309,45 @@ public class Utils {
       writer.append(resultString.toString());
     } catch (IOException e) {
       // CSV not saved.
+      MetricsRegistry.increment("save.portfolio.errors");
+    }
+    MetricsRegistry.recordSince("save.portfolio", start);
+    event.end();
+    if (event.shouldCommit()) {
+      event.portfolio = portfolioName;
+      event.stocks = portfolio.getListOfStocks().size();
+      event.bytes = CsvFiles.find("PortfolioData/", portfolioName).length();
+      event.commit();
     }
   }
 
+  /**
+   * Loads every stock with price data in StockData/ or StockData/intraday/ that has not been
+   * loaded yet, including stocks of retrieved portfolios whose prices were deferred, so that
+   * they can be read from several threads at once. A stock that cannot be loaded is skipped.
+   *
+   * @return every loaded stock, in ticker order.
+   */
+  public static List<Stock> loadAllStocks() {
+    List<Stock> loaded = new ArrayList<>();
+    for (String ticker : SymbolTable.search("", Integer.MAX_VALUE)) {
+      Stock stock = getStocks().get(ticker);
+      if (stock == null) {
+        if (!CsvFiles.exists("StockData/", ticker)
+                && !CsvFiles.exists("StockData/intraday/", ticker)) {
+          continue;
+        }
+        try {
+          stock = StockBuilder.makeStock(ticker);
+        } catch (IOException | RuntimeException e) {
+          MetricsRegistry.increment("load.stock.errors");
+          continue;
+        }
+      }
+      loaded.add(stock);
+    }
+    return loaded;
+  }
 
   /**
    * Static method returning if the ticker is a valid stock in the stock market.
@@ -102,20 +376,15 @@ public class Utils {
   }
 
   /**
-   * Determines if the given date exists for all stocks within a given portfolio.
+   * Determines if the given date exists for all stocks within a given portfolio, with one bit
+   * test on the trading days the stocks of the portfolio have in common.
    *
    * @param date          the date to check amongst the stocks.
    * @param portfolioName the name of the portfolio to check.
    * @return true if it exists in all stocks, false if not.
    */
   public static boolean dateExists(LocalDate date, String portfolioName) {
-    for (Map.Entry<String, Stock> entry :
-            Utils.getPortfolios().get(portfolioName).getListOfStocks().entrySet()) {
-      if (!isValidDate(date, entry.getKey())) {
-        return false;
-      }
-    }
-    return true;
+    return Utils.getPortfolios().get(portfolioName).isValidDateForAll(date);
   }
 
 }
@@ -54,6 +54,16 @@ public class ViewImpl implements View {
     writeMessage("Supported user instructions are: \n");
     writeMessage("create-portfolio (creates a new portfolio with the given name)\n");
     writeMessage("crossover (calculates the crossover dates for a given stock\n");
+    writeMessage("backtest (replays purchase, crossover and rebalance strategies over the"
+            + " history of a portfolio or stocks)\n");
+    writeMessage("golden-cross (finds where fast moving averages cross slow ones, such as"
+            + " 50/200, for a given stock between two dates)\n");
+    writeMessage("indicators (shows moving averages, RSI, Bollinger bands, MACD and VWAP"
+            + " for a given stock between two dates)\n");
+    writeMessage("bars (shows the weekly, monthly, quarterly or yearly open, high, low, close"
+            + " and volume of a given stock between two dates)\n");
+    writeMessage("monte-carlo (projects the value of a portfolio by simulating thousands of"
+            + " paths from its past daily returns)\n");
     writeMessage("moving-average (calculates the moving-average for a given stock, given"
             + " a date and a number of days)\n");
     writeMessage("performance (calculates the performance for a given stock\n");
@@ -63,6 +73,8 @@ public class ViewImpl implements View {
     writeMessage("display-composition (displays all the stocks in the given portfolio)\n");
     writeMessage("rebalance-portfolio (rebalances a portfolio by buying/selling shares "
             + "for each stock to match the users inputted percentages)\n");
+    writeMessage("rebalance-schedule (simulates rebalancing a portfolio monthly, quarterly or"
+            + " when its weights drift, over a range of dates)\n");
     writeMessage("distribution-display (displays the distribution of a portfolio\n"
             + " * at a specific date)\n");
     writeMessage("performance-over-time (shows a bar chart representation of the portfolio's"
@@ -71,6 +83,12 @@ public class ViewImpl implements View {
             + " the future)\n");
     writeMessage("retrieve-portfolio (retrieves the portfolio from the previously"
             + " saved portfolios)\n");
+    writeMessage("screen (finds every stock above, crossing above or crossing below its"
+            + " x-day moving average on a given date)\n");
+    writeMessage("sweep (backtests every crossover window pair or rebalance frequency in"
+            + " parallel and ranks them)\n");
+    writeMessage("tickers (lists the valid tickers starting with the given letters)\n");
+    writeMessage("stats (shows how long commands, loads and fetches have taken)\n");
     writeMessage("menu (Print supported instruction list)\n");
     writeMessage("q or quit (quit the program)\n");
   }
@@ -0,0 +1,246 @@
+package stocks.commands;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import stocks.Backtest;
+import stocks.CommandInfoImpl;
+import stocks.Portfolio;
+import stocks.StockBuilder;
+import stocks.Strategies;
+import stocks.Strategy;
+import stocks.SymbolTable;
+import stocks.Utils;
+
+/**
+ * This class represents a BacktestCommand.
+ * A BacktestCommand is a Command that replays trading strategies, such as monthly purchases,
+ * moving average crossovers and yearly rebalancing, day by day over the price history of a
+ * portfolio or a list of stocks, and displays the value of the simulated account at the end of
+ * each year and the trades it made. The portfolio itself is not changed.
+ */
+public class BacktestCommand implements Command {
+  private static final int MAX_TRADES_SHOWN = 50; // most trades listed, the latest ones
+  private CommandInfoImpl context;
+
+  /**
+   * Constructs a BacktestCommand object.
+   * Takes in a CommandInfo object that passes the Scanner and Appendable
+   * from the controller to execute its function with.
+   *
+   * @param context CommandInfo object that contains Scanner, Appendable.
+   */
+  public BacktestCommand(CommandInfoImpl context) {
+    this.context = context;
+  }
+
+  /**
+   * Runs the BacktestCommand.
+   * Processes user input for the stocks, dates, starting cash and strategies, and displays the
+   * result of the backtest.
+   *
+   * @throws IOException if user input cannot be parsed.
+   */
+  @Override
+  public void run() throws IOException {
+    Backtest.Builder builder = getStocks();
+    if (builder == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate start = getDate("Enter the start date (yyyy-MM-dd):\n");
+    if (start == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    while (end != null && end.isBefore(start)) {
+      context.getView().writeMessage("End date cannot be before the start date.\n");
+      end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    }
+    if (end == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    double cash = getCash();
+    if (cash < 0) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    Backtest backtest = builder.cash(cash).dates(start, end).build();
+    Strategy strategy = getStrategy(backtest.getTickers().size());
+    if (strategy == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    context.getView().writeMessage(formatResult(backtest.run(strategy)));
+    context.getView().writeMessage("Returning to main menu.\n");
+  }
+
+  /**
+   * Prompts the user to enter a portfolio or a list of tickers, and loads their stocks.
+   *
+   * @return A builder with the stocks added, or null if the user quits.
+   */
+  private Backtest.Builder getStocks() throws IOException {
+    while (true) {
+      context.getView().writeMessage("Which portfolio, or which stocks separated by commas, "
+              + "would you like to backtest? Or press quit to exit.\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return null;
+      }
+      Portfolio portfolio = Utils.getPortfolios().get(input);
+      if (portfolio != null && !portfolio.getListOfStocks().isEmpty()) {
+        return new Backtest.Builder().portfolio(portfolio);
+      }
+      Backtest.Builder builder = new Backtest.Builder();
+      boolean valid = true;
+      for (String ticker : input.split(",")) {
+        if (!SymbolTable.isValidTicker(ticker)) {
+          context.getView().writeMessage("Invalid ticker " + ticker + ", try again: \n");
+          valid = false;
+          break;
+        }
+        String canonical = SymbolTable.canonical(ticker);
+        try {
+          new GetDataCommand(this.context).run(canonical);
+        } catch (IOException e) {
+          context.getView().writeMessage("Could not get data for " + canonical + ".\n");
+          valid = false;
+          break;
+        }
+        builder.stock(StockBuilder.makeStock(canonical));
+      }
+      if (valid) {
+        return builder;
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter a date.
+   *
+   * @param prompt The message asking for the date.
+   * @return The date or null if the user quits.
+   */
+  private LocalDate getDate(String prompt) {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    while (true) {
+      context.getView().writeMessage(prompt);
+      String dateInput = this.context.getScanner().next();
+      if (isQuit(dateInput)) {
+        return null;
+      }
+      try {
+        return LocalDate.parse(dateInput, formatter);
+      } catch (DateTimeParseException e) {
+        context.getView().writeMessage("Invalid date format. Please use yyyy-MM-dd. Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter the cash the account starts with.
+   *
+   * @return The cash, or -1 if the user quits.
+   */
+  private double getCash() {
+    while (true) {
+      context.getView().writeMessage("How much cash does the account start with?\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return -1;
+      }
+      try {
+        double cash = Double.parseDouble(input);
+        if (cash >= 0) {
+          return cash;
+        }
+        context.getView().writeMessage("Cash cannot be negative, please enter a new value:\n");
+      } catch (NumberFormatException e) {
+        context.getView().writeMessage("Invalid number format. Please enter a valid amount:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter the strategies to replay.
+   *
+   * @param stocks The number of stocks of the backtest.
+   * @return The strategies combined, or null if the user quits.
+   */
+  private Strategy getStrategy(int stocks) {
+    while (true) {
+      context.getView().writeMessage("Which strategies would you like, separated by commas? "
+              + "(for example buy:monthly:1000,cross:50:200,rebalance:yearly)\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return null;
+      }
+      String[] specs = input.split(",");
+      Strategy[] strategies = new Strategy[specs.length];
+      try {
+        for (int i = 0; i < specs.length; i++) {
+          strategies[i] = Strategies.parse(specs[i], stocks);
+        }
+        return Strategies.combine(strategies);
+      } catch (IllegalArgumentException e) {
+        context.getView().writeMessage(e.getMessage() + " Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Formats the result of a backtest: the amount invested, the final value, the maximum
+   * drawdown, the value at the end of each year and the latest trades.
+   *
+   * @param result The result of the backtest.
+   * @return The message to display.
+   */
+  private String formatResult(Backtest.Result result) {
+    if (result.size() == 0) {
+      return "There are no trading days between these dates.\n";
+    }
+    StringBuilder message = new StringBuilder();
+    message.append(String.format("Invested: %.2f\nFinal value: %.2f\nMaximum drawdown: %.2f%%\n",
+            result.getInvested(), result.getFinalValue(), result.getMaxDrawdown() * 100));
+    message.append("Value at the end of each year:\n");
+    for (int day = 0; day < result.size(); day++) {
+      if (day == result.size() - 1
+              || result.getDateAt(day + 1).getYear() != result.getDateAt(day).getYear()) {
+        message.append(String.format("%s: %.2f\n", result.getDateAt(day),
+                result.getValueAt(day)));
+      }
+    }
+    int count = result.getTradeCount();
+    message.append(count).append(" trades");
+    if (count > MAX_TRADES_SHOWN) {
+      message.append(", the last ").append(MAX_TRADES_SHOWN).append(" of them");
+    }
+    message.append(":\n");
+    for (int i = Math.max(0, count - MAX_TRADES_SHOWN); i < count; i++) {
+      Backtest.Trade trade = result.getTrade(i);
+      message.append(String.format("%s %s %.4f shares of %s at %.2f\n", trade.getDate(),
+              trade.getShares() > 0 ? "bought" : "sold", Math.abs(trade.getShares()),
+              trade.getTicker(), trade.getPrice()));
+    }
+    return message.toString();
+  }
+
+  /**
+   * Checks if the user input is a quit command.
+   *
+   * @param input The user input to check.
+   * @return true if the input is "quit", false otherwise.
+   */
+  private boolean isQuit(String input) {
+    if (input.equalsIgnoreCase("quit")) {
+      context.getView().writeMessage("Program quit successfully.\n");
+      return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,212 @@
+package stocks.commands;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import stocks.CommandInfoImpl;
+import stocks.PriceRollup;
+import stocks.StockBuilder;
+import stocks.SymbolTable;
+import stocks.Utils;
+
+/**
+ * This class represents a BarsCommand.
+ * A BarsCommand is a Command that displays the weekly, monthly, quarterly or yearly bars of a
+ * stock between two dates: the open, high, low and close price and the total volume of each
+ * period, and how much its close changed from the close of the period before. The bars are
+ * read from the rollups Utils keeps for the stock, so asking again only costs a lookup.
+ */
+public class BarsCommand implements Command {
+  private CommandInfoImpl context;
+
+  /**
+   * Constructs a BarsCommand object.
+   * Takes in a CommandInfo object that passes the Scanner and Appendable
+   * from the controller to execute its function with.
+   *
+   * @param context CommandInfo object that contains Scanner, Appendable.
+   */
+  public BarsCommand(CommandInfoImpl context) {
+    this.context = context;
+  }
+
+  /**
+   * Runs the BarsCommand.
+   * Processes user input for a stock, two dates and the length of the bars, and displays a
+   * table of every bar whose period overlaps the dates.
+   *
+   * @throws IOException if user input cannot be parsed.
+   */
+  @Override
+  public void run() throws IOException {
+    String ticker = getStockTicker();
+    if (ticker == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    if (!getStockData(ticker)) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate start = getDate("Enter the start date (yyyy-MM-dd):\n");
+    if (start == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    while (end != null && end.isBefore(start)) {
+      context.getView().writeMessage("End date cannot be before the start date.\n");
+      end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    }
+    if (end == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    PriceRollup.Resolution resolution = getResolution();
+    if (resolution == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    PriceRollup rollup = Utils.getRollup(ticker, resolution);
+    int first = rollup.ceilingIndex((int) start.toEpochDay());
+    if (first < rollup.size() && rollup.getLastDayAt(first) < start.toEpochDay()) {
+      first++; // every trading day of the period of the start date is before it
+    }
+    int last = rollup.ceilingIndex((int) end.toEpochDay() + 1);
+    if (last < rollup.size() && rollup.getFirstDayAt(last) <= end.toEpochDay()) {
+      last++; // the day after the end date is in the same period as it
+    }
+    if (first >= last) {
+      context.getView().writeMessage("There are no trading days for " + ticker
+              + " between these dates.\n");
+    } else {
+      context.getView().writeMessage(formatBars(rollup, first, last));
+    }
+    context.getView().writeMessage("Returning to main menu.\n");
+  }
+
+  /**
+   * Prompts the user to enter a stock ticker and validates it.
+   *
+   * @return A valid stock ticker or null if the user quits.
+   */
+  private String getStockTicker() {
+    while (true) {
+      context.getView().writeMessage("Which stock would you like to use? "
+              + "Or press quit to exit.\n");
+      String ticker = this.context.getScanner().next();
+      if (isQuit(ticker)) {
+        return null;
+      }
+      if (SymbolTable.isValidTicker(ticker)) {
+        return SymbolTable.canonical(ticker);
+      }
+      context.getView().writeMessage("Invalid ticker, try again: \n");
+    }
+  }
+
+  /**
+   * Fetches the stock data and loads the stock so that its bars can be rolled up.
+   *
+   * @param ticker The ticker of the stock.
+   * @return true if the stock was loaded, false if its data could not be fetched.
+   */
+  private boolean getStockData(String ticker) throws IOException {
+    GetDataCommand data = new GetDataCommand(this.context);
+    try {
+      data.run(ticker);
+    } catch (IOException e) {
+      context.getView().writeMessage("Could not get data for the stock.\n");
+      return false;
+    }
+    StockBuilder.makeStock(ticker);
+    return true;
+  }
+
+  /**
+   * Prompts the user to enter a date.
+   *
+   * @param prompt The message asking for the date.
+   * @return The date or null if the user quits.
+   */
+  private LocalDate getDate(String prompt) {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    while (true) {
+      context.getView().writeMessage(prompt);
+      String dateInput = this.context.getScanner().next();
+      if (isQuit(dateInput)) {
+        return null;
+      }
+      try {
+        return LocalDate.parse(dateInput, formatter);
+      } catch (DateTimeParseException e) {
+        context.getView().writeMessage("Invalid date format. Please use yyyy-MM-dd. Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter the length of the bars.
+   *
+   * @return The length of the bars or null if the user quits.
+   */
+  private PriceRollup.Resolution getResolution() {
+    while (true) {
+      context.getView().writeMessage("How long should each bar be? "
+              + "(weekly, monthly, quarterly or yearly)\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return null;
+      }
+      try {
+        return PriceRollup.Resolution.valueOf(input.toUpperCase());
+      } catch (IllegalArgumentException e) {
+        context.getView().writeMessage("Unknown bar length " + input + ". Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Formats bars as a table with a row for each period. The change of the first bar the stock
+   * has is taken from its open, as there is no close before it.
+   *
+   * @param rollup The bars of the stock.
+   * @param first  The index of the first bar to show.
+   * @param last   The index after the last bar to show.
+   * @return The table.
+   */
+  private String formatBars(PriceRollup rollup, int first, int last) {
+    StringBuilder table = new StringBuilder("Period\tDays\tOpen\tHigh\tLow\tClose\tVolume"
+            + "\tChange\n");
+    for (int i = first; i < last; i++) {
+      double previous = i == 0 ? rollup.getOpenAt(i) : rollup.getCloseAt(i - 1);
+      table.append(rollup.getPeriodStartAt(i))
+              .append('\t').append(rollup.getTradingDayCountAt(i))
+              .append('\t').append(String.format("%.4f", rollup.getOpenAt(i)))
+              .append('\t').append(String.format("%.4f", rollup.getHighAt(i)))
+              .append('\t').append(String.format("%.4f", rollup.getLowAt(i)))
+              .append('\t').append(String.format("%.4f", rollup.getCloseAt(i)))
+              .append('\t').append(rollup.getVolumeAt(i))
+              .append('\t').append(previous == 0 ? "-"
+                      : String.format("%.2f%%", (rollup.getCloseAt(i) / previous - 1) * 100))
+              .append('\n');
+    }
+    return table.toString();
+  }
+
+  /**
+   * Checks if the user input is a quit command.
+   *
+   * @param input The user input to check.
+   * @return true if the input is "quit", false otherwise.
+   */
+  private boolean isQuit(String input) {
+    if (input.equalsIgnoreCase("quit")) {
+      context.getView().writeMessage("Program quit successfully.\n");
+      return true;
+    }
+    return false;
+  }
+}
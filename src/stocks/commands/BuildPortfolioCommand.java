@@ -9,7 +9,7 @@ import stocks.CommandInfoImpl;
 import stocks.PortfolioImpl;
 import stocks.Stock;
 import stocks.StockBuilder;
-import stocks.StockTicker;
+import stocks.SymbolTable;
 import stocks.Utils;
 
 /**
@@ -94,11 +94,11 @@ public class BuildPortfolioCommand implements Command {
   private String validateTicker() throws IOException {
     context.getView().writeMessage("Which stock would you like to use?\n");
     String ticker = this.context.getScanner().next();
-    while (!StockTicker.isValidTicker(ticker)) {
+    while (!SymbolTable.isValidTicker(ticker)) {
       context.getView().writeMessage("Invalid ticker, try again: ");
       ticker = this.context.getScanner().next();
     }
-    return ticker;
+    return SymbolTable.canonical(ticker);
   }
 
   /**
@@ -8,9 +8,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 import stocks.CommandInfoImpl;
+import stocks.MovingAverageState;
 import stocks.Stock;
 import stocks.StockBuilder;
-import stocks.StockTicker;
+import stocks.SymbolTable;
 import stocks.Utils;
 
 /**
@@ -76,7 +77,7 @@ public class CrossoverCommand implements Command {
       }
 
       List<LocalDate> dates = generateValidDates(start, end, ticker);
-      crossovers = calculateCrossoverDates(dates, stock, days, ticker);
+      crossovers = calculateCrossoverDates(dates, stock, days);
 
       displayCrossoverDates(crossovers);
       break;
@@ -96,8 +97,8 @@ public class CrossoverCommand implements Command {
       if (isQuit(ticker)) {
         return null;
       }
-      if (StockTicker.isValidTicker(ticker)) {
-        return ticker;
+      if (SymbolTable.isValidTicker(ticker)) {
+        return SymbolTable.canonical(ticker);
       }
       context.getView().writeMessage("Invalid ticker, try again: \n");
     }
@@ -197,38 +198,36 @@ public class CrossoverCommand implements Command {
   /**
    * Calculates the crossover dates given the list of dates to check. An x-day crossover happens
    * when the closing price for a day is greater than the x-day moving average for that day.
+   * The moving average is advanced once over the history of the stock from x days before the
+   * first date, rather than recomputed for every date.
    *
-   * @param dates  the dates to check.
-   * @param stock  the stock to compare to.
-   * @param days   the amount of days to check.
-   * @param ticker the ticker of the stock.
+   * @param dates the dates to check, oldest first.
+   * @param stock the stock to compare to.
+   * @param days  the amount of days to check.
    * @return the calculated list of crossover dates.
    */
   private List<LocalDate> calculateCrossoverDates(List<LocalDate> dates, Stock stock,
-                                                  double days, String ticker) {
+                                                  double days) {
     List<LocalDate> crossovers = new ArrayList<>();
-    for (LocalDate date : dates) {
-      double sum = 0;
-      double counter = 0;
-      LocalDate tempDate = date;
-      for (double i = 0; i < days; i++) {
-        tempDate = tempDate.minusDays(1);
-        if (Utils.isValidDate(tempDate, ticker)) {
-          double average = (stock.getHighPrice(tempDate) + stock.getLowPrice(tempDate)) / 2;
-          sum += average;
-          counter++;
+    if (dates.isEmpty()) {
+      return crossovers;
+    }
+    int window = (int) Math.ceil(days);
+    MovingAverageState state = new MovingAverageState(window);
+    int i = stock.ceilingIndex((int) dates.get(0).toEpochDay() - window);
+    int next = 0;
+    long nextDay = dates.get(0).toEpochDay();
+    for (; i < stock.getTradingDayCount() && next < dates.size(); i++) {
+      int day = stock.getEpochDayAt(i);
+      state.append(day, stock.getHighAt(i), stock.getLowAt(i), stock.getCloseAt(i));
+      if (day == nextDay) {
+        if (state.isCrossover()) {
+          crossovers.add(dates.get(next));
+        }
+        next++;
+        if (next < dates.size()) {
+          nextDay = dates.get(next).toEpochDay();
         }
-      }
-      double movingAverage = 0;  // Initialize with default value
-      if (counter != 0) {
-        movingAverage = sum / counter;
-      }
-      Double closingPrice = stock.getClosingPrice(date);
-      if (closingPrice == null) {
-        throw new IllegalStateException("Closing price for date " + date + " is null.");
-      }
-      if (closingPrice > movingAverage) {
-        crossovers.add(date);
       }
     }
     return crossovers;
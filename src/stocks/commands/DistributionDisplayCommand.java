@@ -6,6 +6,7 @@ import java.time.format.DateTimeParseException;
 import java.util.Map;
 
 import stocks.CommandInfoImpl;
+import stocks.FixedPoint;
 import stocks.Stock;
 import stocks.Utils;
 
@@ -98,6 +99,7 @@ public class DistributionDisplayCommand implements Command {
           return date;
         }
         context.getView().writeMessage("Invalid date for portfolio, please try again:\n");
+        writeNextValidDate(portfolioName, date);
       } catch (DateTimeParseException e) {
         context.getView().writeMessage("Invalid date entry, please try again:\n");
       }
@@ -105,19 +107,32 @@ public class DistributionDisplayCommand implements Command {
   }
 
   /**
-   * Displays the distribution of the portfolio on the given date.
+   * Displays the distribution of the portfolio on the given date. If fixed-point is turned on,
+   * each value is rounded to ten-thousandths and the total is their exact sum.
    *
    * @param portfolioName The name of the portfolio.
    * @param date          The date for which the distribution is displayed.
    */
   private void displayDistribution(String portfolioName, LocalDate date) {
     double total = 0.0;
+    long totalTicks = 0;
+    boolean fixedPoint = FixedPoint.isEnabled();
     for (Map.Entry<String, Stock> entry : Utils.getPortfolios().get(portfolioName)
             .getListOfStocks().entrySet()) {
-      double stockValue = calculateStockValue(entry.getValue(), date);
-      total += stockValue;
+      double stockValue;
+      if (fixedPoint) {
+        long stockTicks = calculateStockValueTicks(entry.getValue(), date);
+        totalTicks += stockTicks;
+        stockValue = FixedPoint.toDouble(stockTicks);
+      } else {
+        stockValue = calculateStockValue(entry.getValue(), date);
+        total += stockValue;
+      }
       context.getView().writeMessage("Values for: " + entry.getKey() + " " + stockValue + ": \n");
     }
+    if (fixedPoint) {
+      total = FixedPoint.toDouble(totalTicks);
+    }
     context.getView().writeMessage("Total of: " + portfolioName
             + " is: " + total + "\n");
   }
@@ -135,6 +150,33 @@ public class DistributionDisplayCommand implements Command {
     return closingPrice * numShares;
   }
 
+  /**
+   * Calculates the value of the stock on the given date in fixed-point.
+   *
+   * @param stock The stock object.
+   * @param date  The date for which the value is calculated.
+   * @return The value of the stock in ten-thousandths of a dollar.
+   */
+  private long calculateStockValueTicks(Stock stock, LocalDate date) {
+    long closingPrice = stock.getClosingPriceTicks((int) date.toEpochDay());
+    return FixedPoint.value(closingPrice, stock.getSharesAtDate(date));
+  }
+
+  /**
+   * Tells the user the first date on or after the given date that every stock in the portfolio
+   * has a price on, if there is one.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @param date          The date to search from.
+   */
+  private void writeNextValidDate(String portfolioName, LocalDate date) {
+    LocalDate next = Utils.getPortfolios().get(portfolioName).nextValidDateForAll(date);
+    if (next != null) {
+      context.getView().writeMessage("The next date every stock has a price on is " + next
+              + ".\n");
+    }
+  }
+
   /**
    * Checks if the user input is a quit command.
    *
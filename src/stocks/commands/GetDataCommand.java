@@ -1,15 +1,18 @@
 package stocks.commands;
 
 import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 
 import stocks.CommandInfoImpl;
+import stocks.CsvFiles;
+import stocks.MetricsRegistry;
+import stocks.SymbolTable;
+import stocks.events.DataFetchEvent;
 
 /**
  * This class represents a GetDataCommand.
@@ -41,9 +44,14 @@ public class GetDataCommand {
    * @throws IOException if user input cannot be parsed.
    */
   public void run(String ticker) throws IOException {
-
-    File file = new File("StockData/" + ticker + ".csv");
-    if (!file.exists()) {
+    long start = System.nanoTime();
+    DataFetchEvent event = new DataFetchEvent();
+    event.begin();
+    int rows = 0;
+    long bytes = 0;
+    boolean cached = CsvFiles.exists("StockData/", ticker);
+    if (!cached) {
+      MetricsRegistry.increment("cache.stockdata.misses");
       String tempUrl = url + "?function=TIME_SERIES_DAILY" + "&symbol=" + ticker + "&apikey="
               + apiKey + "&outputsize=full" + "&datatype=csv";
       URL newUrl = new URL(tempUrl);
@@ -56,22 +64,37 @@ public class GetDataCommand {
       try (InputStream in = connection.getInputStream();
            // read response stream
            BufferedReader reader = new BufferedReader(new InputStreamReader(in));
-           FileWriter writer = new FileWriter("StockData/" + ticker + ".csv")) {
+           Writer writer = CsvFiles.newWriter("StockData/", ticker)) {
         String line;
         while ((line = reader.readLine()) != null) {
           writer.write(line + "\n"); // writes each line to csv
+          rows++;
+          bytes += line.length() + 1;
         }
       } catch (IOException e) {
+        MetricsRegistry.increment("fetch.stock.errors");
         context.getView().writeMessage("IOException from trying to get data, message: "
                 + e.getMessage());
       } finally {
         // guarantees connection disconnects regardless of what happens
         connection.disconnect();
+        MetricsRegistry.recordSince("fetch.stock", start);
       }
+      // only adds the ticker if the download was stock data and not an error message
+      SymbolTable.loadFile(CsvFiles.find("StockData/", ticker));
     } else {
+      MetricsRegistry.increment("cache.stockdata.hits");
       context.getView().writeMessage("This file is already contained in the program\n");
     }
+    event.end();
+    if (event.shouldCommit()) {
+      event.ticker = ticker;
+      event.cached = cached;
+      event.rows = rows;
+      event.bytes = bytes;
+      event.commit();
+    }
   }
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+package stocks.commands;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import stocks.CommandInfoImpl;
+import stocks.MovingAverageCrosses;
+import stocks.StockBuilder;
+import stocks.SymbolTable;
+import stocks.Utils;
+
+/**
+ * This class represents a GoldenCrossCommand.
+ * A GoldenCrossCommand is a Command that finds the golden and death crosses of a stock between
+ * two dates, the days where a fast moving average of its closing prices rises above or falls
+ * below a slow one, for one or more pairs of windows such as 50/200. Every pair is checked in
+ * the same pass over the prices of the stock.
+ */
+public class GoldenCrossCommand implements Command {
+  private CommandInfoImpl context;
+
+  /**
+   * Constructs a GoldenCrossCommand object.
+   * Takes in a CommandInfo object that passes the Scanner and Appendable
+   * from the controller to execute its function with.
+   *
+   * @param context CommandInfo object that contains Scanner, Appendable.
+   */
+  public GoldenCrossCommand(CommandInfoImpl context) {
+    this.context = context;
+  }
+
+  /**
+   * Runs the GoldenCrossCommand.
+   * Processes user input for a stock, two dates and the pairs of windows, and displays the
+   * crosses of each pair.
+   *
+   * @throws IOException if user input cannot be parsed.
+   */
+  @Override
+  public void run() throws IOException {
+    String ticker = getStockTicker();
+    if (ticker == null || !loadStock(ticker)) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate start = getDate("Enter the start date (yyyy-MM-dd):\n");
+    if (start == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    while (end != null && end.isBefore(start)) {
+      context.getView().writeMessage("End date cannot be before the start date.\n");
+      end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    }
+    if (end == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    int[][] pairs = getPairs();
+    if (pairs == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    List<List<MovingAverageCrosses.Cross>> crosses = Utils.getMovingAverageCrosses(ticker)
+            .getCrosses(pairs[0], pairs[1], start, end);
+    StringBuilder message = new StringBuilder();
+    for (int p = 0; p < crosses.size(); p++) {
+      message.append(pairs[0][p]).append('/').append(pairs[1][p]).append(" day crosses:\n");
+      if (crosses.get(p).isEmpty()) {
+        message.append("None\n");
+      }
+      for (MovingAverageCrosses.Cross cross : crosses.get(p)) {
+        message.append(cross.getDate()).append(cross.isGolden() ? " golden\n" : " death\n");
+      }
+    }
+    context.getView().writeMessage(message.toString());
+    context.getView().writeMessage("Returning to main menu.\n");
+  }
+
+  /**
+   * Prompts the user to enter a stock ticker and validates it.
+   *
+   * @return A valid stock ticker or null if the user quits.
+   */
+  private String getStockTicker() {
+    while (true) {
+      context.getView().writeMessage("Which stock would you like to use? "
+              + "Or press quit to exit.\n");
+      String ticker = this.context.getScanner().next();
+      if (isQuit(ticker)) {
+        return null;
+      }
+      if (SymbolTable.isValidTicker(ticker)) {
+        return SymbolTable.canonical(ticker);
+      }
+      context.getView().writeMessage("Invalid ticker, try again: \n");
+    }
+  }
+
+  /**
+   * Fetches and loads the stock data.
+   *
+   * @param ticker The ticker of the stock.
+   * @return true if the stock was loaded, false if its data could not be fetched.
+   */
+  private boolean loadStock(String ticker) throws IOException {
+    GetDataCommand data = new GetDataCommand(this.context);
+    try {
+      data.run(ticker);
+    } catch (IOException e) {
+      context.getView().writeMessage("Could not get data for the stock.\n");
+      return false;
+    }
+    StockBuilder.makeStock(ticker);
+    return true;
+  }
+
+  /**
+   * Prompts the user to enter a date.
+   *
+   * @param prompt The message asking for the date.
+   * @return The date or null if the user quits.
+   */
+  private LocalDate getDate(String prompt) {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    while (true) {
+      context.getView().writeMessage(prompt);
+      String dateInput = this.context.getScanner().next();
+      if (isQuit(dateInput)) {
+        return null;
+      }
+      try {
+        return LocalDate.parse(dateInput, formatter);
+      } catch (DateTimeParseException e) {
+        context.getView().writeMessage("Invalid date format. Please use yyyy-MM-dd. Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter the pairs of fast and slow windows, such as 50/200,20/50.
+   *
+   * @return The fast windows followed by the slow windows, or null if the user quits.
+   */
+  private int[][] getPairs() {
+    while (true) {
+      context.getView().writeMessage("Which fast/slow day pairs would you like, separated by "
+              + "commas? (for example 50/200,20/50)\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return null;
+      }
+      String[] specs = input.split(",");
+      int[][] pairs = new int[2][specs.length];
+      try {
+        for (int p = 0; p < specs.length; p++) {
+          String[] windows = specs[p].split("/");
+          if (windows.length != 2) {
+            throw new NumberFormatException(specs[p]);
+          }
+          pairs[0][p] = Integer.parseInt(windows[0].trim());
+          pairs[1][p] = Integer.parseInt(windows[1].trim());
+          if (pairs[0][p] <= 0 || pairs[0][p] >= pairs[1][p]) {
+            throw new NumberFormatException(specs[p]);
+          }
+        }
+        return pairs;
+      } catch (NumberFormatException e) {
+        context.getView().writeMessage("Each pair must be a fast and a longer slow number of "
+                + "days, such as 50/200. Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Checks if the user input is a quit command.
+   *
+   * @param input The user input to check.
+   * @return true if the input is "quit", false otherwise.
+   */
+  private boolean isQuit(String input) {
+    if (input.equalsIgnoreCase("quit")) {
+      context.getView().writeMessage("Program quit successfully.\n");
+      return true;
+    }
+    return false;
+  }
+}
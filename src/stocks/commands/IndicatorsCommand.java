@@ -0,0 +1,205 @@
+package stocks.commands;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import stocks.CommandInfoImpl;
+import stocks.IndicatorPipeline;
+import stocks.Stock;
+import stocks.StockBuilder;
+import stocks.SymbolTable;
+
+/**
+ * This class represents an IndicatorsCommand.
+ * An IndicatorsCommand is a Command that displays several technical indicators of a stock,
+ * such as moving averages, the relative strength index and Bollinger bands, on every trading
+ * day between two dates. Every indicator asked for is computed in a single scan over the
+ * prices of the stock by an IndicatorPipeline.
+ */
+public class IndicatorsCommand implements Command {
+  private CommandInfoImpl context;
+
+  /**
+   * Constructs an IndicatorsCommand object.
+   * Takes in a CommandInfo object that passes the Scanner and Appendable
+   * from the controller to execute its function with.
+   *
+   * @param context CommandInfo object that contains Scanner, Appendable.
+   */
+  public IndicatorsCommand(CommandInfoImpl context) {
+    this.context = context;
+  }
+
+  /**
+   * Runs the IndicatorsCommand.
+   * Processes user input for a stock, two dates and a list of indicators, and displays a table
+   * of the indicators on every trading day between the dates.
+   *
+   * @throws IOException if user input cannot be parsed.
+   */
+  @Override
+  public void run() throws IOException {
+    String ticker = getStockTicker();
+    if (ticker == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    Stock stock = getStockData(ticker);
+    if (stock == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate start = getDate("Enter the start date (yyyy-MM-dd):\n");
+    if (start == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    while (end != null && end.isBefore(start)) {
+      context.getView().writeMessage("End date cannot be before the start date.\n");
+      end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    }
+    if (end == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    IndicatorPipeline pipeline = getPipeline();
+    if (pipeline == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    IndicatorPipeline.Result result = pipeline.run(stock, start, end);
+    if (result.size() == 0) {
+      context.getView().writeMessage("There are no trading days for " + ticker
+              + " between these dates.\n");
+    } else {
+      context.getView().writeMessage(formatResult(result));
+    }
+    context.getView().writeMessage("Returning to main menu.\n");
+  }
+
+  /**
+   * Prompts the user to enter a stock ticker and validates it.
+   *
+   * @return A valid stock ticker or null if the user quits.
+   */
+  private String getStockTicker() {
+    while (true) {
+      context.getView().writeMessage("Which stock would you like to use? "
+              + "Or press quit to exit.\n");
+      String ticker = this.context.getScanner().next();
+      if (isQuit(ticker)) {
+        return null;
+      }
+      if (SymbolTable.isValidTicker(ticker)) {
+        return SymbolTable.canonical(ticker);
+      }
+      context.getView().writeMessage("Invalid ticker, try again: \n");
+    }
+  }
+
+  /**
+   * Fetches and verifies the stock data.
+   *
+   * @param ticker The ticker of the stock.
+   * @return A Stock object or null if the stock is not valid.
+   */
+  private Stock getStockData(String ticker) throws IOException {
+    GetDataCommand data = new GetDataCommand(this.context);
+    try {
+      data.run(ticker);
+    } catch (IOException e) {
+      context.getView().writeMessage("Could not get data for the stock.\n");
+      return null;
+    }
+    return StockBuilder.makeStock(ticker);
+  }
+
+  /**
+   * Prompts the user to enter a date.
+   *
+   * @param prompt The message asking for the date.
+   * @return The date or null if the user quits.
+   */
+  private LocalDate getDate(String prompt) {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    while (true) {
+      context.getView().writeMessage(prompt);
+      String dateInput = this.context.getScanner().next();
+      if (isQuit(dateInput)) {
+        return null;
+      }
+      try {
+        return LocalDate.parse(dateInput, formatter);
+      } catch (DateTimeParseException e) {
+        context.getView().writeMessage("Invalid date format. Please use yyyy-MM-dd. Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter the indicators to compute and builds a pipeline of them.
+   *
+   * @return The pipeline or null if the user quits.
+   */
+  private IndicatorPipeline getPipeline() {
+    while (true) {
+      context.getView().writeMessage("Which indicators would you like, separated by commas? "
+              + "(for example sma:20,ema:12,rsi:14,bollinger:20:2,macd:12:26:9,vwap:20)\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return null;
+      }
+      IndicatorPipeline.Builder builder = new IndicatorPipeline.Builder();
+      try {
+        for (String spec : input.split(",")) {
+          builder.parse(spec);
+        }
+        return builder.build();
+      } catch (IllegalArgumentException e) {
+        context.getView().writeMessage(e.getMessage() + " Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Formats the result of a pipeline as a table with a row for each trading day and a column
+   * for each indicator. A value the indicator does not have yet is shown as a dash.
+   *
+   * @param result The result of the pipeline.
+   * @return The table.
+   */
+  private String formatResult(IndicatorPipeline.Result result) {
+    StringBuilder table = new StringBuilder("Date");
+    for (String column : result.getColumns()) {
+      table.append('\t').append(column);
+    }
+    table.append('\n');
+    int columns = result.getColumns().length;
+    for (int row = 0; row < result.size(); row++) {
+      table.append(result.getDateAt(row));
+      for (int column = 0; column < columns; column++) {
+        double value = result.getValue(column, row);
+        table.append('\t').append(Double.isNaN(value) ? "-" : String.format("%.4f", value));
+      }
+      table.append('\n');
+    }
+    return table.toString();
+  }
+
+  /**
+   * Checks if the user input is a quit command.
+   *
+   * @param input The user input to check.
+   * @return true if the input is "quit", false otherwise.
+   */
+  private boolean isQuit(String input) {
+    if (input.equalsIgnoreCase("quit")) {
+      context.getView().writeMessage("Program quit successfully.\n");
+      return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,218 @@
+package stocks.commands;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import stocks.CommandInfoImpl;
+import stocks.MonteCarlo;
+import stocks.Portfolio;
+import stocks.Utils;
+
+/**
+ * This class represents a MonteCarloCommand.
+ * A MonteCarloCommand projects the value of a portfolio a number of trading days ahead by
+ * simulating thousands of paths from the past daily returns of its stocks, and displays the
+ * percentiles of the projected value, the chance of a loss and how fast the paths were
+ * simulated. The portfolio itself is not changed.
+ */
+public class MonteCarloCommand implements Command {
+  private static final double[] PERCENTILES = {5, 25, 50, 75, 95}; // percentiles displayed
+  private CommandInfoImpl context;
+
+  /**
+   * Constructs a MonteCarloCommand object.
+   * Takes in a CommandInfo object that passes the Scanner and Appendable
+   * from the controller to execute its function with.
+   *
+   * @param context CommandInfo object that contains Scanner, Appendable.
+   */
+  public MonteCarloCommand(CommandInfoImpl context) {
+    this.context = context;
+  }
+
+  /**
+   * Runs the MonteCarloCommand.
+   * Processes user input for the portfolio, the date to project from, the history to draw
+   * returns from, the horizon, the number of paths and the block size, and displays the
+   * projection.
+   *
+   * @throws IOException if user input cannot be parsed.
+   */
+  @Override
+  public void run() throws IOException {
+    String portfolioName = getPortfolioName();
+    if (portfolioName == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate date = getDate("Enter the date (yyyy-MM-dd) to project the value from:\n");
+    if (date == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate from = getDate("Enter the first date (yyyy-MM-dd) of the history to draw "
+            + "daily returns from:\n");
+    while (from != null && !from.isBefore(date)) {
+      context.getView().writeMessage("The history must start before the date projected from.\n");
+      from = getDate("Enter the first date (yyyy-MM-dd) of the history to draw "
+              + "daily returns from:\n");
+    }
+    if (from == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    MonteCarlo.Builder builder = new MonteCarlo.Builder()
+            .portfolio(Utils.getPortfolios().get(portfolioName), date).history(from, date);
+    MonteCarlo simulation;
+    try {
+      simulation = builder.build();
+    } catch (IllegalStateException e) {
+      context.getView().writeMessage("Portfolio " + portfolioName + " holds no shares with "
+              + "prices between these dates.\n");
+      context.getView().writeMessage("Returning to main menu.\n");
+      return;
+    }
+    int horizon = getPositiveInt("How many trading days ahead would you like to project? "
+            + "(about 252 a year, up to " + MonteCarlo.MAX_HORIZON + ")\n",
+            MonteCarlo.MAX_HORIZON);
+    if (horizon < 0) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    int paths = getPositiveInt("How many paths would you like to simulate? "
+            + "(for example 10000, up to " + MonteCarlo.MAX_PATHS + ")\n", MonteCarlo.MAX_PATHS);
+    if (paths < 0) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    int blockSize = getPositiveInt("How many consecutive past days should each draw take? "
+            + "(1 for independent days, up to " + simulation.getReturnDayCount() + ")\n",
+            simulation.getReturnDayCount());
+    if (blockSize < 0) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    MonteCarlo.Result result = simulation.run(paths, horizon, blockSize, System.nanoTime());
+    context.getView().writeMessage(formatResult(simulation, result));
+    context.getView().writeMessage("Returning to main menu.\n");
+  }
+
+  /**
+   * Prompts the user to enter the name of a portfolio that holds stocks.
+   *
+   * @return The portfolio name or null if the user quits.
+   */
+  private String getPortfolioName() {
+    while (true) {
+      context.getView().writeMessage("Which portfolio would you like to project? "
+              + "Or press quit to exit.\n");
+      String portfolioName = context.getScanner().next();
+      if (isQuit(portfolioName)) {
+        return null;
+      }
+      Portfolio portfolio = Utils.getPortfolios().get(portfolioName);
+      if (portfolio == null) {
+        context.getView().writeMessage("This portfolio does not exist.\n");
+      } else if (portfolio.getListOfStocks().isEmpty()) {
+        context.getView().writeMessage("This portfolio has no stocks.\n");
+      } else {
+        return portfolioName;
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter a date.
+   *
+   * @param prompt The message asking for the date.
+   * @return The date or null if the user quits.
+   */
+  private LocalDate getDate(String prompt) {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    while (true) {
+      context.getView().writeMessage(prompt);
+      String dateInput = this.context.getScanner().next();
+      if (isQuit(dateInput)) {
+        return null;
+      }
+      try {
+        return LocalDate.parse(dateInput, formatter);
+      } catch (DateTimeParseException e) {
+        context.getView().writeMessage("Invalid date format. Please use yyyy-MM-dd. Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter a positive whole number up to a limit.
+   *
+   * @param prompt The message asking for the number.
+   * @param max    The largest number allowed.
+   * @return The number, or -1 if the user quits.
+   */
+  private int getPositiveInt(String prompt, int max) {
+    while (true) {
+      context.getView().writeMessage(prompt);
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return -1;
+      }
+      try {
+        int number = Integer.parseInt(input);
+        if (number <= 0) {
+          context.getView().writeMessage("The number must be positive, please enter a new "
+                  + "value:\n");
+        } else if (number > max) {
+          context.getView().writeMessage("The number cannot be more than " + max
+                  + ", please enter a new value:\n");
+        } else {
+          return number;
+        }
+      } catch (NumberFormatException e) {
+        context.getView().writeMessage("Invalid input, please enter a whole number:\n");
+      }
+    }
+  }
+
+  /**
+   * Formats a projection: the starting value, the percentiles and mean of the projected value,
+   * the chance of a loss and how fast the paths were simulated.
+   *
+   * @param simulation The simulation.
+   * @param result     The values at the end of its paths.
+   * @return The message to display.
+   */
+  private String formatResult(MonteCarlo simulation, MonteCarlo.Result result) {
+    StringBuilder message = new StringBuilder();
+    message.append(String.format("Value on %s: %.2f\n", simulation.getLastDate(),
+            result.getStartValue()));
+    message.append(String.format("Projected value after %d trading days, from %d days of "
+            + "returns:\n", result.getHorizon(), simulation.getReturnDayCount()));
+    for (double percent : PERCENTILES) {
+      message.append(String.format("%.0fth percentile: %.2f\n", percent,
+              result.getPercentile(percent)));
+    }
+    message.append(String.format("Mean: %.2f\nChance of a loss: %.2f%%\n", result.getMean(),
+            result.getLossProbability() * 100));
+    message.append(String.format("Simulated %d paths in %.1f ms (%.0f paths/sec).\n",
+            result.getPathCount(), result.getElapsedNanos() / 1e6,
+            result.getPathsPerSecond()));
+    return message.toString();
+  }
+
+  /**
+   * Checks if the user input is a quit command.
+   *
+   * @param input The user input to check.
+   * @return true if the input is "quit", false otherwise.
+   */
+  private boolean isQuit(String input) {
+    if (input.equalsIgnoreCase("quit")) {
+      context.getView().writeMessage("Program quit successfully.\n");
+      return true;
+    }
+    return false;
+  }
+}
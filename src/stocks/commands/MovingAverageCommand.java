@@ -8,7 +8,7 @@ import java.time.format.DateTimeParseException;
 import stocks.CommandInfoImpl;
 import stocks.Stock;
 import stocks.StockBuilder;
-import stocks.StockTicker;
+import stocks.SymbolTable;
 import stocks.Utils;
 
 /**
@@ -89,8 +89,8 @@ public class MovingAverageCommand implements Command {
       if (isQuit(ticker)) {
         return null;
       }
-      if (StockTicker.isValidTicker(ticker)) {
-        return ticker;
+      if (SymbolTable.isValidTicker(ticker)) {
+        return SymbolTable.canonical(ticker);
       }
       context.getView().writeMessage("Invalid ticker, try again: \n");
     }
@@ -7,6 +7,7 @@ import java.time.format.DateTimeParseException;
 import java.util.Map;
 
 import stocks.CommandInfoImpl;
+import stocks.FixedPoint;
 import stocks.Stock;
 import stocks.Utils;
 
@@ -119,13 +120,15 @@ public class PerformanceAllCommand implements Command {
             .isValidDateForAll(date)) {
       context.getView().writeMessage("Portfolio does not exist at this date or some "
               + "stocks do not have this date. Enter a new date:\n");
+      writeNextValidDate(portfolioName, date.isBefore(purchaseDate) ? purchaseDate : date);
       return false;
     }
     return true;
   }
 
   /**
-   * Calculates the total performance of the portfolio on the given date.
+   * Calculates the total performance of the portfolio on the given date. If fixed-point is
+   * turned on, the values of the stocks are added up exactly in ten-thousandths.
    *
    * @param portfolioName The name of the portfolio.
    * @param date          The date to calculate the performance for.
@@ -133,15 +136,22 @@ public class PerformanceAllCommand implements Command {
    */
   private double calculatePortfolioPerformance(String portfolioName, LocalDate date) {
     double total = 0.0;
+    long totalTicks = 0;
+    boolean fixedPoint = FixedPoint.isEnabled();
+    int day = (int) date.toEpochDay();
     if (date.isAfter(Utils.getPortfolios().get(portfolioName).getPurchaseDate())) {
       for (Map.Entry<String, Stock> entry : Utils.getPortfolios().get(portfolioName)
               .getListOfStocks().entrySet()) {
-        Double closingPrice = entry.getValue().getClosingPrice(date);
         double numShares = entry.getValue().getSharesAtDate(date);
+        if (fixedPoint) {
+          totalTicks += FixedPoint.value(entry.getValue().getClosingPriceTicks(day), numShares);
+          continue;
+        }
+        Double closingPrice = entry.getValue().getClosingPrice(date);
         total += closingPrice * numShares;
       }
     }
-    return total;
+    return fixedPoint ? FixedPoint.toDouble(totalTicks) : total;
   }
 
   /**
@@ -165,6 +175,21 @@ public class PerformanceAllCommand implements Command {
     }
   }
 
+  /**
+   * Tells the user the first date on or after the given date that every stock in the portfolio
+   * has a price on, if there is one.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @param date          The date to search from.
+   */
+  private void writeNextValidDate(String portfolioName, LocalDate date) {
+    LocalDate next = Utils.getPortfolios().get(portfolioName).nextValidDateForAll(date);
+    if (next != null) {
+      context.getView().writeMessage("The next date every stock has a price on is " + next
+              + ".\n");
+    }
+  }
+
   /**
    * Checks if the user input is a quit command.
    *
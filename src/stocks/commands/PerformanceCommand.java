@@ -6,9 +6,10 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 import stocks.CommandInfoImpl;
+import stocks.PriceRangeIndex;
 import stocks.Stock;
 import stocks.StockBuilder;
-import stocks.StockTicker;
+import stocks.SymbolTable;
 import stocks.Utils;
 
 /**
@@ -71,8 +72,8 @@ public class PerformanceCommand implements Command {
       if (isQuit(ticker)) {
         return null;
       }
-      if (StockTicker.isValidTicker(ticker)) {
-        return ticker;
+      if (SymbolTable.isValidTicker(ticker)) {
+        return SymbolTable.canonical(ticker);
       }
       context.getView().writeMessage("Invalid ticker, try again: ");
     }
@@ -132,7 +133,8 @@ public class PerformanceCommand implements Command {
   }
 
   /**
-   * Calculates the performance for the stock, given the start and end date.
+   * Calculates the performance for the stock, given the start and end date, along with its
+   * highest and lowest prices between them.
    * @param stock the stock to calculate the performance of.
    * @param startDate the start date.
    * @param endDate the end date.
@@ -152,6 +154,13 @@ public class PerformanceCommand implements Command {
     } else {
       context.getView().writeMessage("Stock lost value: " + difference + "\n");
     }
+    PriceRangeIndex ranges = Utils.getPriceRanges(stock.getTicker());
+    Double high = ranges.getHighestHigh(startDate, endDate);
+    Double low = ranges.getLowestLow(startDate, endDate);
+    if (high != null && low != null) {
+      context.getView().writeMessage("Highest price: " + high + "\n");
+      context.getView().writeMessage("Lowest price: " + low + "\n");
+    }
   }
 
   /**
@@ -1,6 +1,7 @@
 package stocks.commands;
 
 import stocks.CommandInfoImpl;
+import stocks.FixedPoint;
 import stocks.Stock;
 import stocks.Utils;
 
@@ -79,8 +80,9 @@ public class PerformanceOverTimeCommand implements Command {
       context.getView().writeMessage("Performance of portfolio " + name + " from " + start
               + " to " + end + ".\n\n");
 
-      int minPortVal = getMinAmount(start, end, ticks.get(0), name);
-      int maxPortVal = getMaxAmount(start, end, ticks.get(0), name);
+      double[] values = getPerformances(start, end, ticks.get(0), name);
+      int minPortVal = getMinAmount(values);
+      int maxPortVal = getMaxAmount(values);
 
       int starVal = (maxPortVal - minPortVal) / 20;
 
@@ -109,7 +111,8 @@ public class PerformanceOverTimeCommand implements Command {
 
   /**
    * Calculates the performance of a portfolio on a specific date. To be used for displaying info
-   * on the bar chart.
+   * on the bar chart. If fixed-point is turned on, the values of the stocks are added up exactly
+   * in ten-thousandths.
    *
    * @param date the date to check the performance on.
    * @param name the name of the portfolio.
@@ -117,7 +120,18 @@ public class PerformanceOverTimeCommand implements Command {
    */
   private double calculatePerformance(LocalDate date, String name) {
     double total = 0.0;
-    if (date.isAfter(Utils.getPortfolios().get(name).getPurchaseDate())) {
+    if (FixedPoint.isEnabled() && date.isAfter(Utils.getPortfolios().get(name)
+            .getPurchaseDate())) {
+      long totalTicks = 0;
+      int day = (int) date.toEpochDay();
+      for (Stock stock : Utils.getPortfolios().get(name).getListOfStocks().values()) {
+        long closingPrice = stock.getClosingPriceTicks(day);
+        if (closingPrice != FixedPoint.MISSING) {
+          totalTicks += FixedPoint.value(closingPrice, stock.getSharesAtDate(date));
+        }
+      }
+      total = FixedPoint.toDouble(totalTicks);
+    } else if (date.isAfter(Utils.getPortfolios().get(name).getPurchaseDate())) {
       for (Map.Entry<String, Stock> entry : Utils.getPortfolios()
               .get(name).getListOfStocks().entrySet()) {
 
@@ -142,26 +156,45 @@ public class PerformanceOverTimeCommand implements Command {
 
 
   /**
-   * Gets the minimum performance value to use as a base value.
+   * Calculates the performance of a portfolio every tick value days from the start date to the
+   * end date, once, so that its minimum and maximum do not each compute it again.
    *
    * @param start     the start date.
    * @param end       the end date.
    * @param tickValue the tickvalue to check.
    * @param name      the name of the portfolio.
-   * @return the minimum performance value.
+   * @return the performances, in date order.
    */
-  private int getMinAmount(LocalDate start, LocalDate end, double tickValue, String name) {
-    int smallest = Integer.MAX_VALUE;
+  private double[] getPerformances(LocalDate start, LocalDate end, double tickValue,
+                                   String name) {
+    ArrayList<Double> performances = new ArrayList<>();
     LocalDate tempDate = start;
     while (tempDate.isBefore(end) || tempDate.equals(end)) {
-      double performance = calculatePerformance(tempDate, name);
+      performances.add(calculatePerformance(tempDate, name));
+      tempDate = tempDate.plusDays((long) tickValue);
+    }
+    double[] values = new double[performances.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = performances.get(i);
+    }
+    return values;
+  }
+
+  /**
+   * Gets the minimum performance value to use as a base value, ignoring performances of 0.
+   *
+   * @param values the performances of the portfolio.
+   * @return the minimum performance value, or Integer.MAX_VALUE if every performance is 0.
+   */
+  private int getMinAmount(double[] values) {
+    int smallest = Integer.MAX_VALUE;
+    for (double performance : values) {
       if (performance != 0) {
         int temp = (int) performance;
         if (temp < smallest) {
           smallest = temp;
         }
       }
-      tempDate = tempDate.plusDays((long) tickValue);
     }
     return smallest;
   }
@@ -169,22 +202,16 @@ public class PerformanceOverTimeCommand implements Command {
   /**
    * Gets the maximum performance value of a portfolio.
    *
-   * @param start     the start date.
-   * @param end       the end date.
-   * @param tickValue the tickvalue to check.
-   * @param name      the name of the portfolio.
-   * @return the maximum performance value.
+   * @param values the performances of the portfolio.
+   * @return the maximum performance value, or Integer.MIN_VALUE if there are none.
    */
-  private int getMaxAmount(LocalDate start, LocalDate end, double tickValue, String name) {
+  private int getMaxAmount(double[] values) {
     int max = Integer.MIN_VALUE;
-    LocalDate tempDate = start;
-    while (tempDate.isBefore(end) || tempDate.equals(end)) {
-      double performance = calculatePerformance(tempDate, name);
+    for (double performance : values) {
       int temp = (int) performance;
       if (temp > max) {
         max = temp;
       }
-      tempDate = tempDate.plusDays((long) tickValue);
     }
     return max;
   }
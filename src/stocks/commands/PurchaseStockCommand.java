@@ -9,7 +9,7 @@ import stocks.CommandInfoImpl;
 import stocks.Portfolio;
 import stocks.Stock;
 import stocks.StockBuilder;
-import stocks.StockTicker;
+import stocks.SymbolTable;
 import stocks.Utils;
 
 import static stocks.StockBuilder.makeStock;
@@ -106,8 +106,8 @@ public class PurchaseStockCommand implements Command {
       if (isQuit(ticker)) {
         return null;
       }
-      if (StockTicker.isValidTicker(ticker)) {
-        return ticker;
+      if (SymbolTable.isValidTicker(ticker)) {
+        return SymbolTable.canonical(ticker);
       }
       context.getView().writeMessage(ticker + " is not a valid ticker, try again.\n");
     }
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Map;
 
 import stocks.CommandInfoImpl;
+import stocks.FixedPoint;
 import stocks.Stock;
 import stocks.Utils;
 
@@ -114,6 +115,7 @@ public class RebalancePortfolioCommand implements Command {
         if (!Utils.dateExists(date, portfolioName)) {
           context.getView().writeMessage("This date does not exist for one or more stocks."
                   + " Please enter a new date.\n");
+          writeNextValidDate(portfolioName, date);
           continue;
         }
         return date;
@@ -185,7 +187,9 @@ public class RebalancePortfolioCommand implements Command {
   }
 
   /**
-   * Rebalances the portfolio based on the specified percentages.
+   * Rebalances the portfolio based on the specified percentages, valuing each stock at the
+   * shares held on the date. If fixed-point is turned on, the values of the stocks and the
+   * portfolio total are added up exactly in ten-thousandths.
    *
    * @param portfolioName The portfolio name to rebalance.
    * @param percentages   The list of percentages for rebalancing.
@@ -197,18 +201,36 @@ public class RebalancePortfolioCommand implements Command {
     ArrayList<Double> stockTotals = new ArrayList<>();
 
     double total = 0.0;
+    long totalTicks = 0;
+    boolean fixedPoint = FixedPoint.isEnabled();
+    int day = (int) date.toEpochDay();
     for (Map.Entry<String, Stock> entry : Utils.getPortfolios().get(portfolioName)
             .getListOfStocks().entrySet()) {
       double stockValue = 0.0;
+      if (fixedPoint) {
+        long closingTicks = entry.getValue().getClosingPriceTicks(day);
+        if (closingTicks != FixedPoint.MISSING) {
+          long stockTicks = FixedPoint.value(closingTicks,
+                  entry.getValue().getSharesAtDate(date));
+          totalTicks += stockTicks;
+          stockValue = FixedPoint.toDouble(stockTicks);
+        }
+        stockTotals.add(stockValue);
+        tickers.add(entry.getValue().getTicker());
+        continue;
+      }
       Double closingPrice = entry.getValue().getClosingPrice(date);
       if (closingPrice != null) {
-        double numShares = entry.getValue().getNumShares();
+        double numShares = entry.getValue().getSharesAtDate(date);
         stockValue = closingPrice * numShares;
         total += stockValue;
       }
       stockTotals.add(stockValue);
       tickers.add(entry.getValue().getTicker());
     }
+    if (fixedPoint) {
+      total = FixedPoint.toDouble(totalTicks);
+    }
 
     for (int i = 0; i < percentages.size(); i++) {
       double newAmount = total / 100 * percentages.get(i);
@@ -221,22 +243,37 @@ public class RebalancePortfolioCommand implements Command {
                 .get(tickers.get(i)).decreaseShares(date, newShares);
         context.getView().writeMessage("Readjusted: Sold " + newShares + " of "
                 + tickers.get(i) + "\n");
-        Utils.getPortfolios().get(portfolioName).getListOfStocks()
-                .replace(tickers.get(i), replacement);
+        Utils.getPortfolios().replace(portfolioName, Utils.getPortfolios().get(portfolioName)
+                .addStockAfterCreation(replacement));
       } else {
         newShares = Math.abs(newShares);
         Stock replacement = Utils.getPortfolios().get(portfolioName).getListOfStocks()
                 .get(tickers.get(i)).increaseShares(date, newShares);
         context.getView().writeMessage("Readjusted: Bought " + newShares + " of "
                 + tickers.get(i) + "\n");
-        Utils.getPortfolios().get(portfolioName).getListOfStocks()
-                .replace(tickers.get(i), replacement);
+        Utils.getPortfolios().replace(portfolioName, Utils.getPortfolios().get(portfolioName)
+                .addStockAfterCreation(replacement));
       }
     }
 
     context.getView().writeMessage("Portfolio " + portfolioName + " readjusted.\n");
   }
 
+  /**
+   * Tells the user the first date on or after the given date that every stock in the portfolio
+   * has a price on, if there is one.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @param date          The date to search from.
+   */
+  private void writeNextValidDate(String portfolioName, LocalDate date) {
+    LocalDate next = Utils.getPortfolios().get(portfolioName).nextValidDateForAll(date);
+    if (next != null) {
+      context.getView().writeMessage("The next date every stock has a price on is " + next
+              + ".\n");
+    }
+  }
+
   /**
    * Checks if the user input is a quit command.
    *
@@ -0,0 +1,307 @@
+package stocks.commands;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import stocks.Backtest;
+import stocks.CommandInfoImpl;
+import stocks.Portfolio;
+import stocks.Stock;
+import stocks.Strategies;
+import stocks.Strategy;
+import stocks.Utils;
+
+/**
+ * This class represents a RebalanceScheduleCommand.
+ * A RebalanceScheduleCommand simulates rebalancing a portfolio to target weights on a schedule,
+ * such as every month or quarter, or whenever a weight drifts too far, over a range of dates in
+ * one run. It starts from the shares the portfolio held on the start date, compares the result
+ * with holding those shares without rebalancing, and can then record the trades in the
+ * portfolio.
+ */
+public class RebalanceScheduleCommand implements Command {
+  private static final int MAX_TRADES_SHOWN = 50; // most trades listed, the latest ones
+  private CommandInfoImpl context;
+
+  /**
+   * Constructs a RebalanceScheduleCommand object.
+   * Takes in a CommandInfo object that passes the Scanner and Appendable
+   * from the controller to execute its function with.
+   *
+   * @param context CommandInfo object that contains Scanner, Appendable.
+   */
+  public RebalanceScheduleCommand(CommandInfoImpl context) {
+    this.context = context;
+  }
+
+  /**
+   * Runs the RebalanceScheduleCommand.
+   * Processes user input for the portfolio, dates, schedule and weights, displays the result of
+   * the simulation and, if the user agrees, applies its trades to the portfolio.
+   *
+   * @throws IOException if user input cannot be parsed.
+   */
+  @Override
+  public void run() throws IOException {
+    String portfolioName = getPortfolioName();
+    if (portfolioName == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    Portfolio portfolio = Utils.getPortfolios().get(portfolioName);
+    LocalDate start = getDate("Enter the start date (yyyy-MM-dd):\n");
+    if (start == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    while (end != null && end.isBefore(start)) {
+      context.getView().writeMessage("End date cannot be before the start date.\n");
+      end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    }
+    if (end == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    Backtest backtest = new Backtest.Builder().portfolio(portfolio).dates(start, end).build();
+    Backtest.Result held = backtest.run(Strategies.combine());
+    if (held.size() == 0) {
+      context.getView().writeMessage("There are no trading days between these dates.\n");
+      context.getView().writeMessage("Returning to main menu.\n");
+      return;
+    }
+    if (!(held.getValueAt(0) > 0)) {
+      context.getView().writeMessage("Portfolio " + portfolioName
+              + " holds no shares on the start date.\n");
+      context.getView().writeMessage("Returning to main menu.\n");
+      return;
+    }
+    List<String> tickers = backtest.getTickers();
+    double[] weights = getWeights(tickers);
+    if (weights == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    Strategy strategy = getSchedule(weights);
+    if (strategy == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    Backtest.Result rebalanced = backtest.run(strategy);
+    context.getView().writeMessage(formatResult(rebalanced, held));
+    if (rebalanced.getTradeCount() > 0 && start.isBefore(portfolio.getLatestDate())) {
+      context.getView().writeMessage("These trades cannot be applied, as the portfolio has "
+              + "transactions after the start date.\n");
+    } else if (rebalanced.getTradeCount() > 0 && confirm(portfolioName)) {
+      apply(portfolioName, rebalanced);
+      context.getView().writeMessage("Portfolio " + portfolioName + " readjusted.\n");
+    }
+    context.getView().writeMessage("Returning to main menu.\n");
+  }
+
+  /**
+   * Prompts the user to enter the name of a portfolio that holds stocks.
+   *
+   * @return The portfolio name or null if the user quits.
+   */
+  private String getPortfolioName() {
+    while (true) {
+      context.getView().writeMessage("Which portfolio would you like to rebalance on a "
+              + "schedule? Or press quit to exit.\n");
+      String portfolioName = context.getScanner().next();
+      if (isQuit(portfolioName)) {
+        return null;
+      }
+      Portfolio portfolio = Utils.getPortfolios().get(portfolioName);
+      if (portfolio == null) {
+        context.getView().writeMessage("This portfolio does not exist.\n");
+      } else if (portfolio.getListOfStocks().isEmpty()) {
+        context.getView().writeMessage("This portfolio has no stocks.\n");
+      } else {
+        return portfolioName;
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter a date.
+   *
+   * @param prompt The message asking for the date.
+   * @return The date or null if the user quits.
+   */
+  private LocalDate getDate(String prompt) {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    while (true) {
+      context.getView().writeMessage(prompt);
+      String dateInput = this.context.getScanner().next();
+      if (isQuit(dateInput)) {
+        return null;
+      }
+      try {
+        return LocalDate.parse(dateInput, formatter);
+      } catch (DateTimeParseException e) {
+        context.getView().writeMessage("Invalid date format. Please use yyyy-MM-dd. Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter the target percentage of each stock, separated by commas in the
+   * order the stocks are displayed, or equal to weight them equally.
+   *
+   * @param tickers The tickers of the stocks, in order.
+   * @return The weight of each stock as a fraction, or null if the user quits.
+   */
+  private double[] getWeights(List<String> tickers) {
+    context.getView().writeMessage("Stocks in portfolio:\n");
+    for (String ticker : tickers) {
+      context.getView().writeMessage(ticker + "\n");
+    }
+    while (true) {
+      context.getView().writeMessage("Enter the percentage of each stock in the order they "
+              + "were displayed, separated by commas and adding up to 100 (for example "
+              + "40,30.5,29.5), or equal:\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return null;
+      }
+      double[] weights = new double[tickers.size()];
+      if (input.equalsIgnoreCase("equal")) {
+        Arrays.fill(weights, 1.0 / weights.length);
+        return weights;
+      }
+      String[] parts = input.split(",");
+      if (parts.length != weights.length) {
+        context.getView().writeMessage("Enter one percentage for each of the "
+                + weights.length + " stocks.\n");
+        continue;
+      }
+      try {
+        double sum = 0;
+        for (int i = 0; i < parts.length; i++) {
+          weights[i] = Double.parseDouble(parts[i]) / 100;
+          sum += weights[i];
+        }
+        if (Arrays.stream(weights).anyMatch(weight -> !(weight >= 0))) {
+          context.getView().writeMessage("Percentages cannot be negative.\n");
+        } else if (Math.abs(sum - 1) > 1e-9) {
+          context.getView().writeMessage("Total percentages do not add up to 100, try again.\n");
+        } else {
+          return weights;
+        }
+      } catch (NumberFormatException e) {
+        context.getView().writeMessage("Invalid input, please enter numbers.\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter when to rebalance.
+   *
+   * @param weights The weight of each stock.
+   * @return The rebalancing strategy, or null if the user quits.
+   */
+  private Strategy getSchedule(double[] weights) {
+    while (true) {
+      context.getView().writeMessage("When would you like to rebalance? (weekly, monthly, "
+              + "quarterly, yearly, or threshold:5 when a weight drifts by 5 points)\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return null;
+      }
+      try {
+        return Strategies.rebalance(input, weights);
+      } catch (IllegalArgumentException e) {
+        context.getView().writeMessage(e.getMessage() + " Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Formats the result of the simulation: the number of rebalances, the starting and final
+   * values against holding the starting shares, the maximum drawdowns and the latest trades.
+   *
+   * @param rebalanced The result of rebalancing.
+   * @param held       The result of holding the starting shares.
+   * @return The message to display.
+   */
+  private String formatResult(Backtest.Result rebalanced, Backtest.Result held) {
+    int count = rebalanced.getTradeCount();
+    int rebalances = 0;
+    for (int i = 0; i < count; i++) {
+      if (i == 0 || !rebalanced.getTrade(i).getDate()
+              .equals(rebalanced.getTrade(i - 1).getDate())) {
+        rebalances++;
+      }
+    }
+    StringBuilder message = new StringBuilder();
+    message.append(String.format("Rebalanced %d times over %d trading days.\n", rebalances,
+            rebalanced.size()));
+    message.append(String.format("Starting value: %.2f\n", rebalanced.getValueAt(0)));
+    message.append(String.format("Final value: %.2f rebalanced, %.2f held\n",
+            rebalanced.getFinalValue(), held.getFinalValue()));
+    message.append(String.format("Maximum drawdown: %.2f%% rebalanced, %.2f%% held\n",
+            rebalanced.getMaxDrawdown() * 100, held.getMaxDrawdown() * 100));
+    message.append(count).append(" trades");
+    if (count > MAX_TRADES_SHOWN) {
+      message.append(", the last ").append(MAX_TRADES_SHOWN).append(" of them");
+    }
+    message.append(":\n");
+    for (int i = Math.max(0, count - MAX_TRADES_SHOWN); i < count; i++) {
+      Backtest.Trade trade = rebalanced.getTrade(i);
+      message.append(String.format("%s %s %.4f shares of %s at %.2f\n", trade.getDate(),
+              trade.getShares() > 0 ? "bought" : "sold", Math.abs(trade.getShares()),
+              trade.getTicker(), trade.getPrice()));
+    }
+    return message.toString();
+  }
+
+  /**
+   * Asks the user whether to record the trades in the portfolio.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @return true if the user answers yes.
+   */
+  private boolean confirm(String portfolioName) {
+    context.getView().writeMessage("Apply these trades to portfolio " + portfolioName
+            + "? (yes/no)\n");
+    return context.getScanner().next().equalsIgnoreCase("yes");
+  }
+
+  /**
+   * Records the trades of a simulation in a portfolio, buying and selling its shares on the
+   * dates the trades were made.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @param result        The result of the simulation.
+   */
+  private void apply(String portfolioName, Backtest.Result result) {
+    Portfolio portfolio = Utils.getPortfolios().get(portfolioName);
+    for (Backtest.Trade trade : result.getTrades()) {
+      Stock stock = portfolio.getListOfStocks().get(trade.getTicker());
+      Stock replacement = trade.getShares() > 0
+              ? stock.increaseShares(trade.getDate(), trade.getShares())
+              : stock.decreaseShares(trade.getDate(), -trade.getShares());
+      portfolio = portfolio.addStockAfterCreation(replacement);
+    }
+    Utils.getPortfolios().replace(portfolioName, portfolio);
+  }
+
+  /**
+   * Checks if the user input is a quit command.
+   *
+   * @param input The user input to check.
+   * @return true if the input is "quit", false otherwise.
+   */
+  private boolean isQuit(String input) {
+    if (input.equalsIgnoreCase("quit")) {
+      context.getView().writeMessage("Program quit successfully.\n");
+      return true;
+    }
+    return false;
+  }
+}
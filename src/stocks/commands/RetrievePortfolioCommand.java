@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 
 import stocks.CommandInfoImpl;
+import stocks.CsvFiles;
 import stocks.Portfolio;
 import stocks.Utils;
 
@@ -96,8 +97,7 @@ public class RetrievePortfolioCommand implements Command {
    * @param portfolioName The name of the portfolio to retrieve.
    */
   private void retrievePortfolio(String portfolioName) {
-    File portfolioFile = new File("PortfolioData/" + portfolioName + ".csv");
-    while (!portfolioFile.exists()) {
+    while (!CsvFiles.exists("PortfolioData/", portfolioName)) {
       context.getView().writeMessage("No portfolio saved with that name, try again or type "
               + "'quit' to exit: \n");
       portfolioName = context.getScanner().next();
@@ -105,7 +105,6 @@ public class RetrievePortfolioCommand implements Command {
         context.getView().writeMessage("Program quit successfully.\n");
         return;
       }
-      portfolioFile = new File("PortfolioData/" + portfolioName + ".csv");
     }
 
     Portfolio madePortfolio = makePortfolio(portfolioName);
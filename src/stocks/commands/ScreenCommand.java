@@ -0,0 +1,155 @@
+package stocks.commands;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import stocks.CommandInfoImpl;
+import stocks.CrossoverScreener;
+import stocks.Stock;
+import stocks.Utils;
+
+/**
+ * This class represents a ScreenCommand.
+ * A ScreenCommand is a Command that finds every stock with local price data whose closing
+ * price is above, crossed above, or crossed below its x-day moving average on a given date.
+ * Crossovers are defined the same way as by the CrossoverCommand, and the stocks are screened
+ * in parallel by a CrossoverScreener.
+ */
+public class ScreenCommand implements Command {
+  private CommandInfoImpl context;
+
+  /**
+   * Constructs a ScreenCommand object.
+   * Takes in a CommandInfo object that passes the Scanner and Appendable
+   * from the controller to execute its function with.
+   *
+   * @param context CommandInfo object that contains Scanner, Appendable.
+   */
+  public ScreenCommand(CommandInfoImpl context) {
+    this.context = context;
+  }
+
+  /**
+   * Runs the ScreenCommand.
+   * Processes user input for a date, a number of days and a condition, and displays every
+   * stock that met the condition.
+   */
+  @Override
+  public void run() {
+    LocalDate date = getDate();
+    if (date == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    int days = getDays();
+    if (days < 0) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    CrossoverScreener.Condition condition = getCondition();
+    if (condition == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    List<Stock> universe = Utils.loadAllStocks();
+    List<CrossoverScreener.Match> matches = CrossoverScreener.screen(universe, date, days,
+            condition);
+    if (matches.isEmpty()) {
+      context.getView().writeMessage("No stocks out of " + universe.size()
+              + " met the condition.\n");
+    } else {
+      StringBuilder table = new StringBuilder("Stocks that met the condition ("
+              + matches.size() + " out of " + universe.size() + "):\n");
+      for (CrossoverScreener.Match match : matches) {
+        table.append(String.format("%s on %s: close %.4f, %d-day moving average %.4f\n",
+                match.getTicker(), match.getDate(), match.getClose(), days,
+                match.getAverage()));
+      }
+      context.getView().writeMessage(table.toString());
+    }
+    context.getView().writeMessage("Returning to main menu.\n");
+  }
+
+  /**
+   * Prompts the user to enter the date to screen on.
+   *
+   * @return The date or null if the user quits.
+   */
+  private LocalDate getDate() {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    while (true) {
+      context.getView().writeMessage("Which date would you like to screen on? (yyyy-MM-dd)\n");
+      String dateInput = this.context.getScanner().next();
+      if (isQuit(dateInput)) {
+        return null;
+      }
+      try {
+        return LocalDate.parse(dateInput, formatter);
+      } catch (DateTimeParseException e) {
+        context.getView().writeMessage("Invalid date format. Please use yyyy-MM-dd. Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter the number of days of the moving average.
+   *
+   * @return A positive number of days or -1 if the user quits.
+   */
+  private int getDays() {
+    while (true) {
+      context.getView().writeMessage("Please provide the number of days:\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return -1;
+      }
+      try {
+        int days = Integer.parseInt(input);
+        if (days > 0) {
+          return days;
+        }
+        context.getView().writeMessage("Days must be positive, please enter a new value:\n");
+      } catch (NumberFormatException e) {
+        context.getView().writeMessage("Invalid number format. Please enter "
+                + "a valid number of days:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter the condition to screen for.
+   *
+   * @return The condition or null if the user quits.
+   */
+  private CrossoverScreener.Condition getCondition() {
+    while (true) {
+      context.getView().writeMessage("Which condition would you like to screen for? "
+              + "(above, crossed-above or crossed-below)\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return null;
+      }
+      try {
+        return CrossoverScreener.Condition.valueOf(input.toUpperCase().replace('-', '_'));
+      } catch (IllegalArgumentException e) {
+        context.getView().writeMessage("Invalid condition, try again: \n");
+      }
+    }
+  }
+
+  /**
+   * Checks if the user input is a quit command.
+   *
+   * @param input The user input to check.
+   * @return true if the input is "quit", false otherwise.
+   */
+  private boolean isQuit(String input) {
+    if (input.equalsIgnoreCase("quit")) {
+      context.getView().writeMessage("Program quit successfully.\n");
+      return true;
+    }
+    return false;
+  }
+}
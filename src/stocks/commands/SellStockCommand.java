@@ -8,7 +8,7 @@ import java.time.format.DateTimeParseException;
 import stocks.CommandInfoImpl;
 import stocks.Portfolio;
 import stocks.Stock;
-import stocks.StockTicker;
+import stocks.SymbolTable;
 import stocks.Utils;
 
 /**
@@ -99,7 +99,7 @@ public class SellStockCommand implements Command {
    * Prompts the user for the stock ticker.
    *
    * @param portfolioName The name of the portfolio.
-   * @return The stock ticker entered by the user or null if user quits.
+   * @return The stock ticker as it is stored in the portfolio, or null if user quits.
    */
   private String getStockTicker(String portfolioName) {
     context.getView().writeMessage("What stock would you like to sell in " + portfolioName + "?\n");
@@ -109,9 +109,7 @@ public class SellStockCommand implements Command {
       return null;
     }
 
-    while (!StockTicker.isValidTicker(ticker) &&
-            Utils.getPortfolios().get(portfolioName).getListOfStocks().get(ticker)
-                    .getNumShares() == 0) {
+    while (!isHeld(portfolioName, ticker)) {
       context.getView().writeMessage("Invalid ticker or no shares available, try again or type "
               + "'quit' to exit:\n");
       ticker = context.getScanner().next();
@@ -121,7 +119,23 @@ public class SellStockCommand implements Command {
       }
     }
 
-    return ticker;
+    return SymbolTable.canonical(ticker);
+  }
+
+  /**
+   * Determines if a portfolio holds shares of a stock, in any spelling of its ticker.
+   *
+   * @param portfolioName The name of the portfolio.
+   * @param ticker        The stock ticker as entered by the user.
+   * @return true if the ticker is valid and the portfolio holds shares of it.
+   */
+  private boolean isHeld(String portfolioName, String ticker) {
+    if (!SymbolTable.isValidTicker(ticker)) {
+      return false;
+    }
+    Stock holding = Utils.getPortfolios().get(portfolioName).getListOfStocks()
+            .get(SymbolTable.canonical(ticker));
+    return holding != null && holding.getNumShares() != 0;
   }
 
   /**
@@ -145,9 +159,8 @@ public class SellStockCommand implements Command {
 
       try {
         date = LocalDate.parse(inputDate, formatter);
-        if (!Utils.isValidDate(date, ticker) ||
-                date.isBefore(Utils.getPortfolios().get(portfolioName).getListOfStocks()
-                        .get(ticker).lastDate())) {
+        Stock holding = Utils.getPortfolios().get(portfolioName).getListOfStocks().get(ticker);
+        if (holding.getOpeningPrice(date) == null || date.isBefore(holding.lastDate())) {
           context.getView().writeMessage("Invalid date or not chronological, try again.\n");
           continue;
         }
@@ -221,9 +234,8 @@ public class SellStockCommand implements Command {
     } else {
       context.getView().writeMessage("Removed " + amountShares + " shares of "
               + ticker + " from portfolio " + portfolioName + " sold at " + date + "\n");
-      Portfolio newPort = Utils.getPortfolios().get(portfolioName)
-              .removeStockAfterCreation(replacement);
-      Utils.getPortfolios().replace(portfolioName, newPort);
+      Utils.getPortfolios().replace(portfolioName, Utils.getPortfolios().get(portfolioName)
+              .addStockAfterCreation(replacement));
     }
   }
 }
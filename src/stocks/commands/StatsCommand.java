@@ -0,0 +1,31 @@
+package stocks.commands;
+
+import stocks.CommandInfoImpl;
+import stocks.MetricsRegistry;
+
+/**
+ * This class represents a StatsCommand.
+ * A StatsCommand is a Command that displays how long the commands, loads and fetches of the
+ * program have taken so far, along with its counters such as rows loaded and cache hits.
+ */
+public class StatsCommand implements Command {
+  private CommandInfoImpl context;
+
+  /**
+   * Constructs a StatsCommand object.
+   *
+   * @param context CommandInfo object that contains Scanner, Appendable.
+   */
+  public StatsCommand(CommandInfoImpl context) {
+    this.context = context;
+  }
+
+  /**
+   * Runs the StatsCommand.
+   * Displays every recorded timing and counter of the program.
+   */
+  @Override
+  public void run() {
+    context.getView().writeMessage(MetricsRegistry.report());
+  }
+}
@@ -0,0 +1,268 @@
+package stocks.commands;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import stocks.Backtest;
+import stocks.CommandInfoImpl;
+import stocks.Portfolio;
+import stocks.StockBuilder;
+import stocks.Strategies;
+import stocks.Strategy;
+import stocks.Sweep;
+import stocks.SymbolTable;
+import stocks.Utils;
+
+/**
+ * This class represents a SweepCommand.
+ * A SweepCommand is a Command that backtests many variations of a strategy over a portfolio
+ * or a list of stocks, such as every pair of crossover windows or every rebalance frequency,
+ * running them in parallel, and displays them ranked by their final value.
+ */
+public class SweepCommand implements Command {
+  private static final int MAX_ROWS_SHOWN = 20; // most strategies listed, the best ones
+  private CommandInfoImpl context;
+
+  /**
+   * Constructs a SweepCommand object.
+   * Takes in a CommandInfo object that passes the Scanner and Appendable
+   * from the controller to execute its function with.
+   *
+   * @param context CommandInfo object that contains Scanner, Appendable.
+   */
+  public SweepCommand(CommandInfoImpl context) {
+    this.context = context;
+  }
+
+  /**
+   * Runs the SweepCommand.
+   * Processes user input for the stocks, dates, starting cash, the variations to sweep and a
+   * strategy every variation also uses, and displays the ranked results.
+   *
+   * @throws IOException if user input cannot be parsed.
+   */
+  @Override
+  public void run() throws IOException {
+    Backtest.Builder builder = getStocks();
+    if (builder == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate start = getDate("Enter the start date (yyyy-MM-dd):\n");
+    if (start == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    LocalDate end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    while (end != null && end.isBefore(start)) {
+      context.getView().writeMessage("End date cannot be before the start date.\n");
+      end = getDate("Enter the end date (yyyy-MM-dd):\n");
+    }
+    if (end == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    double cash = getCash();
+    if (cash < 0) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    Backtest backtest = builder.cash(cash).dates(start, end).build();
+    int stocks = backtest.getTickers().size();
+    Map<String, Strategy> variations = getVariations(stocks);
+    if (variations == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    Strategy base = getBase(stocks);
+    if (base == null) {
+      context.getView().writeMessage("Quit successful, returning back to menu.\n");
+      return;
+    }
+    Map<String, Strategy> strategies = new LinkedHashMap<>();
+    for (Map.Entry<String, Strategy> variation : variations.entrySet()) {
+      strategies.put(variation.getKey(), Strategies.combine(base, variation.getValue()));
+    }
+    context.getView().writeMessage(formatRows(Sweep.run(backtest, strategies)));
+    context.getView().writeMessage("Returning to main menu.\n");
+  }
+
+  /**
+   * Prompts the user to enter a portfolio or a list of tickers, and loads their stocks.
+   *
+   * @return A builder with the stocks added, or null if the user quits.
+   */
+  private Backtest.Builder getStocks() throws IOException {
+    while (true) {
+      context.getView().writeMessage("Which portfolio, or which stocks separated by commas, "
+              + "would you like to backtest? Or press quit to exit.\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return null;
+      }
+      Portfolio portfolio = Utils.getPortfolios().get(input);
+      if (portfolio != null && !portfolio.getListOfStocks().isEmpty()) {
+        return new Backtest.Builder().portfolio(portfolio);
+      }
+      Backtest.Builder builder = new Backtest.Builder();
+      boolean valid = true;
+      for (String ticker : input.split(",")) {
+        if (!SymbolTable.isValidTicker(ticker)) {
+          context.getView().writeMessage("Invalid ticker " + ticker + ", try again: \n");
+          valid = false;
+          break;
+        }
+        String canonical = SymbolTable.canonical(ticker);
+        try {
+          new GetDataCommand(this.context).run(canonical);
+        } catch (IOException e) {
+          context.getView().writeMessage("Could not get data for " + canonical + ".\n");
+          valid = false;
+          break;
+        }
+        builder.stock(StockBuilder.makeStock(canonical));
+      }
+      if (valid) {
+        return builder;
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter a date.
+   *
+   * @param prompt The message asking for the date.
+   * @return The date or null if the user quits.
+   */
+  private LocalDate getDate(String prompt) {
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    while (true) {
+      context.getView().writeMessage(prompt);
+      String dateInput = this.context.getScanner().next();
+      if (isQuit(dateInput)) {
+        return null;
+      }
+      try {
+        return LocalDate.parse(dateInput, formatter);
+      } catch (DateTimeParseException e) {
+        context.getView().writeMessage("Invalid date format. Please use yyyy-MM-dd. Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter the cash the account starts with.
+   *
+   * @return The cash, or -1 if the user quits.
+   */
+  private double getCash() {
+    while (true) {
+      context.getView().writeMessage("How much cash does the account start with?\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return -1;
+      }
+      try {
+        double cash = Double.parseDouble(input);
+        if (cash >= 0) {
+          return cash;
+        }
+        context.getView().writeMessage("Cash cannot be negative, please enter a new value:\n");
+      } catch (NumberFormatException e) {
+        context.getView().writeMessage("Invalid number format. Please enter a valid amount:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter the variations to sweep.
+   *
+   * @param stocks The number of stocks of the backtest.
+   * @return The strategies, by name, or null if the user quits.
+   */
+  private Map<String, Strategy> getVariations(int stocks) {
+    while (true) {
+      context.getView().writeMessage("Which variations would you like to sweep? "
+              + "(for example cross:10/20/50:100/200 or rebalance)\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return null;
+      }
+      try {
+        return Sweep.parse(input, stocks);
+      } catch (IllegalArgumentException e) {
+        context.getView().writeMessage(e.getMessage() + " Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Prompts the user to enter the strategies every variation also uses.
+   *
+   * @param stocks The number of stocks of the backtest.
+   * @return The strategies combined, or null if the user quits.
+   */
+  private Strategy getBase(int stocks) {
+    while (true) {
+      context.getView().writeMessage("Which strategies should every variation also use, "
+              + "separated by commas? (for example buy:monthly:1000, or none)\n");
+      String input = this.context.getScanner().next();
+      if (isQuit(input)) {
+        return null;
+      }
+      if (input.equalsIgnoreCase("none")) {
+        return Strategies.combine();
+      }
+      String[] specs = input.split(",");
+      Strategy[] strategies = new Strategy[specs.length];
+      try {
+        for (int i = 0; i < specs.length; i++) {
+          strategies[i] = Strategies.parse(specs[i], stocks);
+        }
+        return Strategies.combine(strategies);
+      } catch (IllegalArgumentException e) {
+        context.getView().writeMessage(e.getMessage() + " Try again:\n");
+      }
+    }
+  }
+
+  /**
+   * Formats the ranked results of a sweep as a table.
+   *
+   * @param rows The results, best first.
+   * @return The table.
+   */
+  private String formatRows(List<Sweep.Row> rows) {
+    StringBuilder table = new StringBuilder("Rank\tStrategy\tFinal value\tInvested\t"
+            + "Max drawdown\tTrades\n");
+    for (int i = 0; i < rows.size() && i < MAX_ROWS_SHOWN; i++) {
+      Sweep.Row row = rows.get(i);
+      table.append(String.format("%d\t%s\t%.2f\t%.2f\t%.2f%%\t%d\n", i + 1, row.getName(),
+              row.getFinalValue(), row.getInvested(), row.getMaxDrawdown() * 100,
+              row.getTradeCount()));
+    }
+    if (rows.size() > MAX_ROWS_SHOWN) {
+      table.append("... and ").append(rows.size() - MAX_ROWS_SHOWN).append(" more\n");
+    }
+    return table.toString();
+  }
+
+  /**
+   * Checks if the user input is a quit command.
+   *
+   * @param input The user input to check.
+   * @return true if the input is "quit", false otherwise.
+   */
+  private boolean isQuit(String input) {
+    if (input.equalsIgnoreCase("quit")) {
+      context.getView().writeMessage("Program quit successfully.\n");
+      return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,54 @@
+package stocks.commands;
+
+import java.util.List;
+
+import stocks.CommandInfoImpl;
+import stocks.SymbolTable;
+
+/**
+ * This class represents a TickerSearchCommand.
+ * A TickerSearchCommand is a Command that lists the valid tickers starting with what the user
+ * types, so they can find a stock without knowing its exact ticker.
+ */
+public class TickerSearchCommand implements Command {
+  private CommandInfoImpl context;
+
+  /**
+   * Constructs a TickerSearchCommand object.
+   *
+   * @param context CommandInfo object that contains Scanner, Appendable.
+   */
+  public TickerSearchCommand(CommandInfoImpl context) {
+    this.context = context;
+  }
+
+  /**
+   * Runs the TickerSearchCommand.
+   * Asks for the start of a ticker and lists every valid ticker that starts with it.
+   */
+  @Override
+  public void run() {
+    context.getView().writeMessage("Enter the start of the ticker to search for:\n");
+    String prefix = context.getScanner().next();
+    context.getView().writeMessage(formatResults(prefix,
+            SymbolTable.search(prefix, SymbolTable.MAX_RESULTS)));
+  }
+
+  /**
+   * Formats the tickers found by a search, used by this command and the GUI.
+   *
+   * @param prefix  the start of the ticker that was searched for.
+   * @param tickers the tickers that were found.
+   * @return the results as a String.
+   */
+  public static String formatResults(String prefix, List<String> tickers) {
+    if (tickers.isEmpty()) {
+      return "No tickers start with " + prefix + ".\n";
+    }
+    StringBuilder s = new StringBuilder("Tickers starting with " + prefix + ":\n");
+    for (String ticker : tickers) {
+      s.append(ticker).append("\n");
+    }
+    return s.toString();
+  }
+}
@@ -0,0 +1,29 @@
+package stocks.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for running one command of the stock program, including the
+ * time spent waiting for user input.
+ */
+@Name("stocks.Command")
+@Label("Command")
+@Category({"Stocks", "Command"})
+@Description("Runs a user instruction from the text controller")
+public class CommandEvent extends Event {
+
+  @Label("Command")
+  public String command; // the user instruction
+
+  @Label("Succeeded")
+  public boolean succeeded; // false if the command threw an exception
+
+  @Label("Allocated")
+  @DataAmount
+  public long allocated; // bytes allocated by the thread running the command, -1 if unknown
+}
@@ -0,0 +1,33 @@
+package stocks.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for getting the data of a stock, either from the file already in
+ * StockData/ or by downloading it from the API.
+ */
+@Name("stocks.DataFetch")
+@Label("Data Fetch")
+@Category({"Stocks", "Fetch"})
+@Description("Downloads the csv price history of a stock if it is not saved yet")
+public class DataFetchEvent extends Event {
+
+  @Label("Ticker")
+  public String ticker; // ticker of the fetched stock
+
+  @Label("Cached")
+  @Description("The csv file already existed so nothing was downloaded")
+  public boolean cached; // if the file already existed
+
+  @Label("Rows")
+  public int rows; // number of lines downloaded
+
+  @Label("Bytes")
+  @DataAmount
+  public long bytes; // number of bytes downloaded
+}
@@ -0,0 +1,24 @@
+package stocks.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for retrieving a portfolio from its csv file in PortfolioData/,
+ * which includes loading each of its stocks.
+ */
+@Name("stocks.PortfolioLoad")
+@Label("Portfolio Load")
+@Category({"Stocks", "Load"})
+@Description("Retrieves a saved portfolio and loads its stocks")
+public class PortfolioLoadEvent extends Event {
+
+  @Label("Portfolio")
+  public String portfolio; // name of the loaded portfolio
+
+  @Label("Stocks")
+  public int stocks; // number of stocks in the portfolio
+}
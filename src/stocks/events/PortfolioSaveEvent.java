@@ -0,0 +1,28 @@
+package stocks.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for saving a portfolio to its csv file in PortfolioData/.
+ */
+@Name("stocks.PortfolioSave")
+@Label("Portfolio Save")
+@Category({"Stocks", "Save"})
+@Description("Writes a portfolio to its csv file")
+public class PortfolioSaveEvent extends Event {
+
+  @Label("Portfolio")
+  public String portfolio; // name of the saved portfolio
+
+  @Label("Stocks")
+  public int stocks; // number of stocks written
+
+  @Label("Bytes")
+  @DataAmount
+  public long bytes; // number of bytes written
+}
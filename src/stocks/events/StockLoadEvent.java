@@ -0,0 +1,29 @@
+package stocks.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for loading the price history of a stock from its csv file in
+ * StockData/.
+ */
+@Name("stocks.StockLoad")
+@Label("Stock Load")
+@Category({"Stocks", "Load"})
+@Description("Parses the csv price history of a stock")
+public class StockLoadEvent extends Event {
+
+  @Label("Ticker")
+  public String ticker; // ticker of the loaded stock
+
+  @Label("Rows")
+  public int rows; // number of dated rows parsed
+
+  @Label("Bytes")
+  @DataAmount
+  public long bytes; // number of bytes read from the file
+}
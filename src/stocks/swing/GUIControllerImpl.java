@@ -10,8 +10,12 @@ import java.util.Map;
 
 import javax.swing.JOptionPane;
 
+import stocks.AllocationTracker;
+import stocks.MetricsRegistry;
 import stocks.Stock;
+import stocks.SymbolTable;
 import stocks.Utils;
+import stocks.commands.TickerSearchCommand;
 
 /**
  * This class represents a GUIController object.
@@ -32,12 +36,19 @@ public class GUIControllerImpl implements GUIController {
     this.guimodel = guimodel;
     this.guiview = guiview;
 
-    guiview.addCreatePortfolioListener(new CreatePortfolioListener());
-    guiview.addBuyStockListener(new BuyStockListener());
-    guiview.addSellStockListener(new SellStockListener());
-    guiview.addShowPortfolioListener(new ShowPortfolioListener());
-    guiview.addSavePortfolioListener(new SavePortfolioListener());
-    guiview.addRetrievePortfolioListener(new RetrievePortfolioListener());
+    guiview.addCreatePortfolioListener(measured("gui.create-portfolio",
+            new CreatePortfolioListener()));
+    guiview.addBuyStockListener(measured("gui.buy-stock", new BuyStockListener()));
+    guiview.addSellStockListener(measured("gui.sell-stock", new SellStockListener()));
+    guiview.addShowPortfolioListener(measured("gui.show-portfolio",
+            new ShowPortfolioListener()));
+    guiview.addSavePortfolioListener(measured("gui.save-portfolio",
+            new SavePortfolioListener()));
+    guiview.addRetrievePortfolioListener(measured("gui.retrieve-portfolio",
+            new RetrievePortfolioListener()));
+    guiview.addStatsListener(new StatsListener());
+    guiview.addSearchTickersListener(measured("gui.search-tickers",
+            new SearchTickersListener()));
 
     updatePortfolioList();
   }
@@ -215,6 +226,50 @@ public class GUIControllerImpl implements GUIController {
     }
   }
 
+  /**
+   * Listener for the view statistics button.
+   * Displays how long the loads, fetches and commands of the program have taken so far.
+   */
+  class StatsListener implements ActionListener {
+    public void actionPerformed(ActionEvent e) {
+      guiview.displayMessage(MetricsRegistry.report());
+    }
+  }
+
+  /**
+   * Listener for the search tickers button.
+   * Lists the valid tickers that start with the letters the user enters.
+   */
+  class SearchTickersListener implements ActionListener {
+    public void actionPerformed(ActionEvent e) {
+      String prefix = guiview.getUserInput("Enter the start of the ticker to search for:");
+      if (prefix != null && !prefix.isEmpty()) {
+        guiview.displayMessage(TickerSearchCommand.formatResults(prefix,
+                SymbolTable.search(prefix, SymbolTable.MAX_RESULTS)));
+      }
+    }
+  }
+
+  /**
+   * Wraps a listener so that each action it handles records how long it took and how much it
+   * allocated in the MetricsRegistry.
+   *
+   * @param name     the name to record the action under.
+   * @param listener the listener to wrap.
+   * @return the wrapped listener.
+   */
+  private ActionListener measured(String name, ActionListener listener) {
+    return e -> {
+      long start = System.nanoTime();
+      AllocationTracker allocations = AllocationTracker.start();
+      try {
+        listener.actionPerformed(e);
+      } finally {
+        MetricsRegistry.recordSince(name, start, allocations);
+      }
+    };
+  }
+
   /**
    * Prompts the user for the name of the portfolio they would like.
    *
@@ -79,4 +79,18 @@ public interface GUIView {
    * @param listener the ActionListener to handle button actions
    */
   void addRetrievePortfolioListener(ActionListener listener);
+
+  /**
+   * Adds an ActionListener to handle actions for the "View Statistics" button.
+   *
+   * @param listener the ActionListener to handle button actions
+   */
+  void addStatsListener(ActionListener listener);
+
+  /**
+   * Adds an ActionListener to handle actions for the "Search Tickers" button.
+   *
+   * @param listener the ActionListener to handle button actions
+   */
+  void addSearchTickersListener(ActionListener listener);
 }
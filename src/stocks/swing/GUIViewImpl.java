@@ -28,6 +28,8 @@ public class GUIViewImpl extends JFrame implements GUIView {
   private JButton showPortfolioButton;
   private JButton savePortfolioButton;
   private JButton retrievePortfolioButton;
+  private JButton statsButton;
+  private JButton searchTickersButton;
   private JComboBox<String> portfolioComboBox;
   private DefaultListModel<String> portfolioListModel;
 
@@ -46,7 +48,7 @@ public class GUIViewImpl extends JFrame implements GUIView {
     add(new JScrollPane(textArea), BorderLayout.CENTER);
 
     JPanel buttonPanel = new JPanel();
-    buttonPanel.setLayout(new GridLayout(2, 3));
+    buttonPanel.setLayout(new GridLayout(2, 4));
 
     createPortfolioButton = new JButton("Create Portfolio");
     buyStockButton = new JButton("Buy Stock");
@@ -54,6 +56,8 @@ public class GUIViewImpl extends JFrame implements GUIView {
     showPortfolioButton = new JButton("View Portfolio Composition");
     savePortfolioButton = new JButton("Save Portfolio");
     retrievePortfolioButton = new JButton("Retrieve Portfolio");
+    statsButton = new JButton("View Statistics");
+    searchTickersButton = new JButton("Search Tickers");
 
     buttonPanel.add(createPortfolioButton);
     buttonPanel.add(buyStockButton);
@@ -61,6 +65,8 @@ public class GUIViewImpl extends JFrame implements GUIView {
     buttonPanel.add(showPortfolioButton);
     buttonPanel.add(savePortfolioButton);
     buttonPanel.add(retrievePortfolioButton);
+    buttonPanel.add(statsButton);
+    buttonPanel.add(searchTickersButton);
 
     add(buttonPanel, BorderLayout.SOUTH);
 
@@ -184,5 +190,24 @@ public class GUIViewImpl extends JFrame implements GUIView {
     retrievePortfolioButton.addActionListener(listener);
   }
 
-}
+  /**
+   * Adds an ActionListener to the "View Statistics" button.
+   *
+   * @param listener the ActionListener to handle button actions
+   */
+  @Override
+  public void addStatsListener(ActionListener listener) {
+    statsButton.addActionListener(listener);
+  }
 
+  /**
+   * Adds an ActionListener to the "Search Tickers" button.
+   *
+   * @param listener the ActionListener to handle button actions
+   */
+  @Override
+  public void addSearchTickersListener(ActionListener listener) {
+    searchTickersButton.addActionListener(listener);
+  }
+
+}
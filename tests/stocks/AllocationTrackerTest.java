@@ -0,0 +1,67 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the AllocationTracker class, and uses it to check the allocation budget of
+ * hot paths in the program.
+ */
+public class AllocationTrackerTest {
+
+  /**
+   * Tests to ensure a large allocation is measured by the tracker.
+   */
+  @Test
+  public void testMeasuresAllocation() {
+    if (!AllocationTracker.isSupported()) {
+      return;
+    }
+    AllocationTracker tracker = AllocationTracker.start();
+    byte[] data = new byte[1 << 20];
+    assertTrue(tracker.allocatedBytes() >= data.length);
+  }
+
+  /**
+   * Tests to ensure appending to a moving average does not allocate once its ring buffer has
+   * grown to fit the window.
+   */
+  @Test
+  public void testMovingAverageAllocationBudget() {
+    if (!AllocationTracker.isSupported()) {
+      return;
+    }
+    LocalDate[] dates = new LocalDate[10000];
+    for (int i = 0; i < dates.length; i++) {
+      dates[i] = LocalDate.of(2000, 1, 1).plusDays(i);
+    }
+    MovingAverageState state = new MovingAverageState(50);
+    for (int i = 0; i < 100; i++) {
+      state.append(dates[i], 12, 8, 10);
+    }
+
+    AllocationTracker tracker = AllocationTracker.start();
+    for (int i = 100; i < dates.length; i++) {
+      state.append(dates[i], 12, 8, 10);
+    }
+    assertTrue(tracker.allocatedBytes() < 16 * 1024);
+    assertEquals(10.0, state.getValue(), 0.0001);
+  }
+
+  /**
+   * Tests to ensure the allocations of a command are reported with its timings.
+   */
+  @Test
+  public void testRecordedWithTimings() {
+    AllocationTracker tracker = AllocationTracker.start();
+    MetricsRegistry.recordSince("test.allocation", System.nanoTime(), tracker);
+    assertEquals(1, MetricsRegistry.timer("test.allocation").getCount());
+    if (AllocationTracker.isSupported()) {
+      assertTrue(MetricsRegistry.timer("test.allocation").getMeanAllocatedBytes() >= 0);
+    }
+  }
+}
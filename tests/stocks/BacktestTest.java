@@ -0,0 +1,162 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the Backtest class and the strategies of Strategies.
+ */
+public class BacktestTest {
+
+  /**
+   * Loads a stock from its csv.
+   *
+   * @param ticker the ticker of the stock.
+   * @return the stock.
+   * @throws IOException if the csv cannot be read.
+   */
+  private static Stock load(String ticker) throws IOException {
+    return ParallelCsvParser.parse(new File("StockData/" + ticker + ".csv")).build(ticker);
+  }
+
+  /**
+   * Tests to ensure monthly purchases buy the amount at the closing price of the first trading
+   * day of each month, and the account is valued at the closing price of each day.
+   */
+  @Test
+  public void testPeriodicBuy() throws IOException {
+    Stock stock = load("GOOG");
+    Backtest backtest = new Backtest.Builder().stock(stock)
+            .dates(LocalDate.of(2020, 1, 1), LocalDate.of(2023, 12, 31)).build();
+    Backtest.Result result = backtest.run(Strategies.periodicBuy(
+            PriceRollup.Resolution.MONTHLY, 100, new double[]{1}));
+    assertEquals(48, result.getTradeCount());
+    assertEquals(4800, result.getInvested(), 1e-9);
+    double shares = 0;
+    int trade = 0;
+    for (int day = 0; day < result.size(); day++) {
+      LocalDate date = result.getDateAt(day);
+      if (day == 0 || date.getMonth() != result.getDateAt(day - 1).getMonth()) {
+        Backtest.Trade bought = result.getTrade(trade++);
+        assertEquals(date, bought.getDate());
+        assertEquals(100 / stock.getClosingPrice(date), bought.getShares(), 1e-9);
+        shares += bought.getShares();
+      }
+      assertEquals(shares * stock.getClosingPrice(date), result.getValueAt(day), 1e-6);
+    }
+    assertTrue(result.getMaxDrawdown() > 0 && result.getMaxDrawdown() < 1);
+  }
+
+  /**
+   * Tests to ensure a crossover strategy is fully invested between each golden cross and the
+   * following death cross, and only then.
+   */
+  @Test
+  public void testCrossover() throws IOException {
+    Stock stock = load("MSFT");
+    LocalDate from = LocalDate.of(2005, 1, 1);
+    LocalDate to = LocalDate.of(2024, 6, 6);
+    Backtest.Result result = new Backtest.Builder().stock(stock).cash(10000).dates(from, to)
+            .build().run(Strategies.crossover(50, 200));
+    List<MovingAverageCrosses.Cross> crosses = new MovingAverageCrosses(stock)
+            .getCrosses(50, 200, from, to);
+    // the first death cross before any golden cross has nothing to sell
+    int first = crosses.get(0).isGolden() ? 0 : 1;
+    assertEquals(crosses.size() - first, result.getTradeCount());
+    for (int i = 0; i < result.getTradeCount(); i++) {
+      MovingAverageCrosses.Cross cross = crosses.get(i + first);
+      assertEquals(cross.getDate(), result.getTrade(i).getDate());
+      assertEquals(cross.isGolden(), result.getTrade(i).getShares() > 0);
+    }
+  }
+
+  /**
+   * Tests to ensure a yearly rebalance leaves each stock worth its weight of the account, and
+   * that two runs of one backtest do not share their accounts.
+   */
+  @Test
+  public void testRebalance() throws IOException {
+    Backtest backtest = new Backtest.Builder().stock(load("AAPL")).stock(load("INTC"))
+            .cash(1000).dates(LocalDate.of(2010, 1, 1), LocalDate.of(2015, 12, 31)).build();
+    double[] weights = {0.6, 0.3};
+    Strategy strategy = Strategies.rebalance(PriceRollup.Resolution.YEARLY, weights);
+    Strategy check = session -> {
+      if (session.isPeriodStart(PriceRollup.Resolution.YEARLY)) {
+        for (int s = 0; s < 2; s++) {
+          assertEquals(weights[s] * session.getValue(),
+                  session.getShares(s) * session.getClose(s), 1e-6);
+        }
+        assertEquals(0.1 * session.getValue(), session.getCash(), 1e-6);
+      }
+    };
+    Backtest.Result first = backtest.run(Strategies.combine(strategy, check));
+    Backtest.Result second = backtest.run(strategy);
+    assertEquals(first.getFinalValue(), second.getFinalValue(), 1e-9);
+    assertEquals(first.getTradeCount(), second.getTradeCount());
+    assertTrue(first.getTradeCount() >= 2 + 2 * 5 - 2);
+  }
+
+  /**
+   * Tests to ensure a quarterly rebalance trades only on the first trading day of January,
+   * April, July and October.
+   */
+  @Test
+  public void testQuarterlyRebalance() throws IOException {
+    Backtest.Result result = new Backtest.Builder().stock(load("MSFT")).stock(load("INTC"))
+            .cash(1000).dates(LocalDate.of(2010, 1, 1), LocalDate.of(2014, 12, 31)).build()
+            .run(Strategies.rebalance("quarterly", new double[]{0.5, 0.5}));
+    int quarters = 0;
+    for (int day = 0; day < result.size(); day++) {
+      LocalDate date = result.getDateAt(day);
+      if (day == 0 || (date.getMonthValue() - 1) / 3
+              != (result.getDateAt(day - 1).getMonthValue() - 1) / 3) {
+        quarters++;
+      }
+    }
+    assertEquals(20, quarters);
+    for (Backtest.Trade trade : result.getTrades()) {
+      LocalDate date = trade.getDate();
+      assertEquals(0, (date.getMonthValue() - 1) % 3);
+      assertTrue(date.getDayOfMonth() <= 5);
+    }
+    assertTrue(result.getTradeCount() >= 2 && result.getTradeCount() <= 2 * quarters);
+  }
+
+  /**
+   * Tests to ensure a threshold rebalance keeps every weight within its band at the end of
+   * each day, and trades less often than the prices change.
+   */
+  @Test
+  public void testThresholdRebalance() throws IOException {
+    Backtest backtest = new Backtest.Builder().stock(load("AAPL")).stock(load("GME"))
+            .cash(1000).dates(LocalDate.of(2000, 1, 1), LocalDate.of(2024, 6, 6)).build();
+    double[] weights = {0.7, 0.3};
+    Strategy check = session -> {
+      for (int s = 0; s < 2; s++) {
+        if (session.isTrading(s)) {
+          assertTrue(Math.abs(session.getShares(s) * session.getClose(s) / session.getValue()
+                  - weights[s]) <= 0.05 + 1e-9);
+        }
+      }
+    };
+    Backtest.Result result = backtest.run(Strategies.combine(
+            Strategies.rebalance("threshold:5", weights), check));
+    assertTrue(result.getTradeCount() > 2);
+    assertTrue(result.getTradeCount() < result.size() / 10);
+  }
+
+  /**
+   * Tests to ensure an unknown rebalance schedule is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownSchedule() {
+    Strategies.rebalance("threshold:x", new double[]{1});
+  }
+}
@@ -0,0 +1,57 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the bars command.
+ */
+public class BarsCommandTest {
+
+  /**
+   * Tests to ensure the bars command shows every bar whose period has a trading day between the
+   * dates, with the prices of the whole period, and reads them from the rollup Utils keeps.
+   */
+  @Test
+  public void testWeeklyBars() throws IOException {
+    Utils.getStocks().clear();
+    try {
+      String out = run("bars goog 2024-05-01 2024-05-31 weekly quit");
+      PriceRollup weeks = Utils.getRollup("GOOG", PriceRollup.Resolution.WEEKLY);
+      int first = weeks.indexOf((int) LocalDate.of(2024, 5, 1).toEpochDay());
+      int last = weeks.indexOf((int) LocalDate.of(2024, 5, 31).toEpochDay());
+      assertEquals(LocalDate.of(2024, 4, 29), weeks.getPeriodStartAt(first));
+      for (int i = first; i <= last; i++) {
+        assertTrue(out.contains(weeks.getPeriodStartAt(i) + "\t" + weeks.getTradingDayCountAt(i)
+                + "\t" + String.format("%.4f", weeks.getOpenAt(i))));
+      }
+      assertTrue(!out.contains(weeks.getPeriodStartAt(first - 1) + "\t"));
+      assertTrue(!out.contains(weeks.getPeriodStartAt(last + 1) + "\t"));
+
+      long hits = MetricsRegistry.counter("cache.rollup.hits").getCount();
+      assertEquals(out, run("bars GOOG 2024-05-01 2024-05-31 weekly quit"));
+      assertEquals(hits + 1, MetricsRegistry.counter("cache.rollup.hits").getCount());
+    } finally {
+      Utils.getStocks().clear();
+    }
+  }
+
+  /**
+   * Runs the controller over some input.
+   *
+   * @param input the input.
+   * @return everything the controller wrote.
+   * @throws IOException if the controller fails to read the input.
+   */
+  private static String run(String input) throws IOException {
+    StringBuilder out = new StringBuilder();
+    new StockControllerImpl(new StringReader(input), new ViewImpl(new MockModel(out))).control();
+    return out.toString();
+  }
+}
@@ -0,0 +1,146 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the CompressedPriceColumns class and the CompressedStockImpl class.
+ */
+public class CompressedPriceColumnsTest {
+
+  /**
+   * Tests to ensure columns spanning several blocks decode back to the values encoded, including
+   * gaps between dates and prices that go down.
+   */
+  @Test
+  public void testRoundTrip() {
+    int rows = 300;
+    int[] days = new int[rows];
+    long[] opens = new long[rows];
+    long[] highs = new long[rows];
+    long[] lows = new long[rows];
+    long[] closes = new long[rows];
+    long[] volumes = new long[rows];
+    for (int i = 0; i < rows; i++) {
+      days[i] = 19000 + i + (i / 5) * 2;
+      closes[i] = 1000000 + (i % 7) * 1234 - (i % 3) * 5000;
+      opens[i] = closes[i] - 25;
+      highs[i] = closes[i] + 700;
+      lows[i] = closes[i] - 900;
+      volumes[i] = 5000000L - i * 17;
+    }
+    CompressedPriceColumns columns = CompressedPriceColumns.encode(rows, days, opens, highs,
+            lows, closes, volumes);
+    assertEquals(rows, columns.size());
+    assertEquals(3, columns.getBlockCount());
+
+    int[] decodedDays = new int[CompressedPriceColumns.BLOCK_SIZE];
+    long[] decodedCloses = new long[CompressedPriceColumns.BLOCK_SIZE];
+    long[] decodedVolumes = new long[CompressedPriceColumns.BLOCK_SIZE];
+    for (int block = 0; block < columns.getBlockCount(); block++) {
+      int count = columns.decodeDays(block, decodedDays);
+      columns.decodeColumn(block, CompressedPriceColumns.CLOSES, decodedCloses);
+      columns.decodeColumn(block, CompressedPriceColumns.VOLUMES, decodedVolumes);
+      for (int i = 0; i < count; i++) {
+        int row = block * CompressedPriceColumns.BLOCK_SIZE + i;
+        assertEquals(days[row], decodedDays[i]);
+        assertEquals(closes[row], decodedCloses[i]);
+        assertEquals(volumes[row], decodedVolumes[i]);
+      }
+    }
+    assertTrue(columns.getSizeInBytes() < rows * 44 / 3);
+  }
+
+  /**
+   * Tests to ensure seeking to a date finds the right trading day, including dates with no data
+   * and dates between blocks.
+   */
+  @Test
+  public void testSeek() throws IOException {
+    Stock stock = makeStock("GOOG");
+    int rows = stock.getTradingDayCount();
+    int[] days = new int[rows];
+    long[] closes = new long[rows];
+    long[] volumes = new long[rows];
+    stock.copyEpochDays(0, rows, days, 0);
+    stock.copyCloseTicks(0, rows, closes, 0);
+    stock.copyVolumes(0, rows, volumes, 0);
+    Stock compressed = new CompressedStockImpl("GOOG", 0, CompressedPriceColumns.encode(rows,
+            days, closes, closes, closes, closes, volumes), new TreeMap<>());
+
+    assertEquals(stock.getDates(), compressed.getDates());
+    for (int day = days[0] - 3; day <= days[rows - 1] + 3; day++) {
+      assertEquals(stock.indexOf(day), compressed.indexOf(day));
+      assertEquals(stock.ceilingIndex(day), compressed.ceilingIndex(day));
+    }
+    LocalDate date = LocalDate.of(2024, 6, 3);
+    assertEquals(stock.getClosingPrice(date), compressed.getClosingPrice(date));
+    assertEquals(stock.getVolume(date), compressed.getVolume(date));
+  }
+
+  /**
+   * Tests to ensure columns read back from the binary store match the columns written.
+   */
+  @Test
+  public void testWriteAndRead() throws IOException {
+    int[] days = {19000, 19001, 19004};
+    long[] prices = {10000, 10500, 9900};
+    long[] volumes = {100, 200, 50};
+    CompressedPriceColumns columns = CompressedPriceColumns.encode(3, days, prices, prices,
+            prices, prices, volumes);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    columns.writeTo(new DataOutputStream(bytes));
+    CompressedPriceColumns read = CompressedPriceColumns.readFrom(new DataInputStream(
+            new ByteArrayInputStream(bytes.toByteArray())));
+
+    Stock stock = new CompressedStockImpl("TEST", 0, read, new TreeMap<>());
+    assertEquals(3, stock.getTradingDayCount());
+    assertEquals(19004, stock.getEpochDayAt(2));
+    assertEquals(0.99, stock.getCloseAt(2), 0.0);
+    assertEquals(50, stock.getVolumeAt(2));
+    assertEquals(-1, stock.indexOf(19002));
+  }
+
+  /**
+   * Tests to ensure reading the columns of blocks far apart in turn, more blocks than are kept
+   * decoded at once, gives the same values as the stock the columns were encoded from.
+   */
+  @Test
+  public void testInterleavedBlocks() throws IOException {
+    Stock stock = makeStock("GOOG");
+    int rows = stock.getTradingDayCount();
+    int[] days = new int[rows];
+    long[] opens = new long[rows];
+    long[] closes = new long[rows];
+    long[] volumes = new long[rows];
+    stock.copyEpochDays(0, rows, days, 0);
+    stock.copyCloseTicks(0, rows, closes, 0);
+    stock.copyVolumes(0, rows, volumes, 0);
+    for (int i = 0; i < rows; i++) {
+      opens[i] = FixedPoint.fromDouble(stock.getOpenAt(i));
+    }
+    Stock compressed = new CompressedStockImpl("GOOG", 0, CompressedPriceColumns.encode(rows,
+            days, opens, closes, closes, closes, volumes), new TreeMap<>());
+
+    int stride = CompressedPriceColumns.BLOCK_SIZE * 5 + 3;
+    for (int start = 0; start < stride; start += 7) {
+      for (int i = start; i < rows; i += stride) {
+        assertEquals(closes[i], compressed.getCloseTicksAt(i));
+        assertEquals(volumes[i], compressed.getVolumeAt(i));
+        assertEquals(FixedPoint.toDouble(opens[i]), compressed.getOpenAt(i), 0.0);
+        assertEquals(days[i], compressed.getEpochDayAt(i));
+      }
+    }
+  }
+}
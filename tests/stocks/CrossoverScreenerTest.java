@@ -0,0 +1,83 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the CrossoverScreener class.
+ */
+public class CrossoverScreenerTest {
+
+  /**
+   * Tests to ensure screening a single day matches the crossovers found by sliding a moving
+   * average over the whole history, for every trading day of a stock.
+   */
+  @Test
+  public void testMatchesFullScan() throws IOException {
+    FixedPointStockImpl stock = ParallelCsvParser.parse(new File("StockData/GOOG.csv"))
+            .build("GOOG");
+    MovingAverageState state = new MovingAverageState(50);
+    boolean before = false;
+    int crossings = 0;
+    for (int i = 0; i < stock.getTradingDayCount(); i++) {
+      state.append(stock.getEpochDayAt(i), stock.getHighAt(i), stock.getLowAt(i),
+              stock.getCloseAt(i));
+      boolean now = state.isCrossover();
+      boolean crossed = i > 0 && now && !before;
+      CrossoverScreener.Match match = CrossoverScreener.screen(stock, stock.getEpochDayAt(i),
+              50, CrossoverScreener.Condition.CROSSED_ABOVE);
+      assertEquals(crossed, match != null);
+      if (match != null) {
+        assertEquals(state.getValue(), match.getAverage(), 1e-9);
+        crossings++;
+      }
+      assertEquals(now, CrossoverScreener.screen(stock, stock.getEpochDayAt(i), 50,
+              CrossoverScreener.Condition.ABOVE) != null);
+      before = now;
+    }
+    assertTrue(crossings > 0);
+    assertNull(CrossoverScreener.screen(stock, stock.getEpochDayAt(0) - 1, 50,
+            CrossoverScreener.Condition.ABOVE));
+  }
+
+  /**
+   * Tests to ensure a screen over several stocks screens each on its last trading day on or
+   * before the date, and returns the matches sorted by ticker.
+   */
+  @Test
+  public void testUniverse() throws IOException {
+    List<Stock> stocks = new ArrayList<>();
+    for (String ticker : Arrays.asList("MSFT", "GOOG", "INTC", "GME", "AMZN", "AAPL")) {
+      stocks.add(ParallelCsvParser.parse(new File("StockData/" + ticker + ".csv"))
+              .build(ticker));
+    }
+    LocalDate sunday = LocalDate.of(2024, 6, 2);
+    List<CrossoverScreener.Match> above = CrossoverScreener.screen(stocks, sunday, 20,
+            CrossoverScreener.Condition.ABOVE, new ForkJoinPool(3));
+    int expected = 0;
+    for (Stock stock : stocks) {
+      if (CrossoverScreener.screen(stock, (int) sunday.toEpochDay(), 20,
+              CrossoverScreener.Condition.ABOVE) != null) {
+        expected++;
+      }
+    }
+    assertEquals(expected, above.size());
+    for (int i = 0; i < above.size(); i++) {
+      assertEquals(LocalDate.of(2024, 5, 31), above.get(i).getDate());
+      if (i > 0) {
+        assertTrue(above.get(i - 1).getTicker().compareTo(above.get(i).getTicker()) < 0);
+      }
+    }
+  }
+}
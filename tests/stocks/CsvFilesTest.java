@@ -0,0 +1,94 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the CsvFiles class, which reads and writes plain and gzip compressed csv
+ * files.
+ */
+public class CsvFilesTest {
+
+  /**
+   * Tests to ensure a file written compressed is found and read back the same as a plain file,
+   * and that writing one form of a file removes the other.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    String directory = Files.createTempDirectory("csv").toString() + "/";
+    File plain = new File(directory + "test.csv");
+    File compressed = new File(directory + "test.csv.gz");
+    try {
+      assertFalse(CsvFiles.exists(directory, "test"));
+      CsvFiles.setCompressOutput(true);
+      try (Writer writer = CsvFiles.newWriter(directory, "test")) {
+        writer.write("ticker,numShares\nGOOG,5.0\n");
+      } finally {
+        CsvFiles.setCompressOutput(false);
+      }
+      assertTrue(compressed.isFile());
+      assertEquals(compressed, CsvFiles.find(directory, "test"));
+      try (BufferedReader reader = CsvFiles.newReader(CsvFiles.find(directory, "test"))) {
+        assertEquals("ticker,numShares", reader.readLine());
+        assertEquals("GOOG,5.0", reader.readLine());
+        assertNull(reader.readLine());
+      }
+
+      try (Writer writer = CsvFiles.newWriter(directory, "test")) {
+        writer.write("ticker,numShares\n");
+      }
+      assertTrue(plain.isFile());
+      assertFalse(compressed.exists());
+      assertEquals(plain, CsvFiles.find(directory, "test"));
+    } finally {
+      plain.delete();
+      compressed.delete();
+      new File(directory).delete();
+    }
+  }
+
+  /**
+   * Tests to ensure a stock loaded from a compressed csv has the same prices as one loaded from
+   * the plain csv.
+   */
+  @Test
+  public void testCompressedStock() throws IOException {
+    File compressed = new File("StockData/GZQT.csv.gz");
+    CsvFiles.setCompressOutput(true);
+    try {
+      try (BufferedReader reader = CsvFiles.newReader(new File("StockData/GOOG.csv"));
+           Writer writer = CsvFiles.newWriter("StockData/", "GZQT")) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          writer.write(line + "\n");
+        }
+      }
+      assertTrue(compressed.length() < new File("StockData/GOOG.csv").length() / 2);
+      assertTrue(SymbolTable.loadFile(compressed));
+      assertTrue(SymbolTable.isValidTicker("GZQT"));
+
+      Stock plain = makeStock("GOOG");
+      Stock stock = makeStock("GZQT");
+      assertEquals(plain.getDates(), stock.getDates());
+      for (int i = 0; i < plain.getTradingDayCount(); i++) {
+        assertEquals(plain.getCloseAt(i), stock.getCloseAt(i), 0.0);
+        assertEquals(plain.getVolumeAt(i), stock.getVolumeAt(i));
+      }
+    } finally {
+      CsvFiles.setCompressOutput(false);
+      compressed.delete();
+      Utils.getStocks().remove("GZQT");
+    }
+  }
+}
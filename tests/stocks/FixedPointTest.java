@@ -0,0 +1,69 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the FixedPoint class and the FixedPointStockImpl class.
+ */
+public class FixedPointTest {
+
+  /**
+   * Tests to ensure prices with four decimal places convert to fixed-point and back unchanged.
+   */
+  @Test
+  public void testRoundTrip() {
+    assertEquals(1234567, FixedPoint.fromDouble(123.4567));
+    assertEquals(123.4567, FixedPoint.toDouble(1234567), 0.0);
+    assertEquals(0.1, FixedPoint.toDouble(FixedPoint.fromDouble(0.1)), 0.0);
+    assertEquals(FixedPoint.MISSING, FixedPoint.fromDouble(Double.NaN));
+    assertTrue(Double.isNaN(FixedPoint.toDouble(FixedPoint.MISSING)));
+  }
+
+  /**
+   * Tests to ensure values are rounded to ten-thousandths and add up exactly.
+   */
+  @Test
+  public void testValue() {
+    assertEquals(3703701, FixedPoint.value(1234567, 3));
+    assertEquals(411522, FixedPoint.value(1234567, 1.0 / 3));
+    long total = 0;
+    double doubleTotal = 0;
+    for (int i = 0; i < 10; i++) {
+      total += FixedPoint.value(FixedPoint.fromDouble(0.1), 1);
+      doubleTotal += 0.1;
+    }
+    assertEquals(1.0, FixedPoint.toDouble(total), 0.0);
+    assertTrue(doubleTotal != 1.0);
+  }
+
+  /**
+   * Tests to ensure a stock loaded in fixed-point has the same prices as one loaded normally.
+   */
+  @Test
+  public void testFixedPointStock() throws IOException {
+    Stock normal = makeStock("GOOG");
+    FixedPoint.setEnabled(true);
+    Stock fixed;
+    try {
+      fixed = makeStock("GOOG");
+    } finally {
+      FixedPoint.setEnabled(false);
+    }
+    assertTrue(fixed instanceof FixedPointStockImpl);
+    assertEquals(normal.getDates(), fixed.getDates());
+    for (LocalDate date : normal.getDates()) {
+      assertEquals(normal.getClosingPrice(date), fixed.getClosingPrice(date));
+      assertEquals(normal.getHighPrice(date), fixed.getHighPrice(date));
+      assertEquals(normal.getVolume(date), fixed.getVolume(date));
+      int day = (int) date.toEpochDay();
+      assertEquals(normal.getClosingPriceTicks(day), fixed.getClosingPriceTicks(day));
+    }
+  }
+}
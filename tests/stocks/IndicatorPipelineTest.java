@@ -0,0 +1,168 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the IndicatorPipeline class.
+ */
+public class IndicatorPipelineTest {
+
+  /**
+   * Tests to ensure the moving averages, Bollinger bands and VWAP computed in one scan match
+   * the same values computed directly from the prices of each day.
+   */
+  @Test
+  public void testWindows() throws IOException {
+    FixedPointStockImpl stock = ParallelCsvParser.parse(new File("StockData/GOOG.csv"))
+            .build("GOOG");
+    IndicatorPipeline.Result result = new IndicatorPipeline.Builder()
+            .sma(20).bollinger(20, 2).vwap(10).build()
+            .run(stock, LocalDate.of(2023, 1, 1), LocalDate.of(2024, 6, 3));
+    assertEquals("BB(20,2).upper", result.getColumns()[2]);
+    int first = stock.ceilingIndex((int) LocalDate.of(2023, 1, 1).toEpochDay());
+    for (int row = 0; row < result.size(); row++) {
+      int day = first + row;
+      assertEquals(stock.getEpochDayAt(day), result.getDateAt(row).toEpochDay());
+      double sum = 0;
+      double squares = 0;
+      for (int i = day - 19; i <= day; i++) {
+        sum += stock.getCloseAt(i);
+      }
+      double mean = sum / 20;
+      for (int i = day - 19; i <= day; i++) {
+        squares += (stock.getCloseAt(i) - mean) * (stock.getCloseAt(i) - mean);
+      }
+      double width = 2 * Math.sqrt(squares / 20);
+      double weighted = 0;
+      long volume = 0;
+      for (int i = day - 9; i <= day; i++) {
+        weighted += (stock.getHighAt(i) + stock.getLowAt(i) + stock.getCloseAt(i)) / 3
+                * stock.getVolumeAt(i);
+        volume += stock.getVolumeAt(i);
+      }
+      assertEquals(mean, result.getValue(0, row), 1e-9);
+      assertEquals(mean, result.getValue(1, row), 1e-9);
+      assertEquals(mean + width, result.getValue(2, row), 1e-6);
+      assertEquals(mean - width, result.getValue(3, row), 1e-6);
+      assertEquals(weighted / volume, result.getValue(4, row), 1e-6);
+    }
+  }
+
+  /**
+   * Tests to ensure the EMA, RSI and MACD match a direct computation, and are NaN until they
+   * have seen enough trading days.
+   */
+  @Test
+  public void testSmoothed() throws IOException {
+    FixedPointStockImpl stock = ParallelCsvParser.parse(new File("StockData/GOOG.csv"))
+            .build("GOOG");
+    IndicatorPipeline.Result result = new IndicatorPipeline.Builder()
+            .ema(12).rsi(14).macd(12, 26, 9).build()
+            .run(stock, LocalDate.of(1900, 1, 1), LocalDate.of(2100, 1, 1));
+    assertEquals(stock.getTradingDayCount(), result.size());
+    assertTrue(Double.isNaN(result.getValue(0, 10)));
+    assertTrue(Double.isNaN(result.getValue(1, 13)));
+    assertTrue(Double.isNaN(result.getValue(2, 24)));
+    assertTrue(Double.isNaN(result.getValue(3, 32)));
+
+    double[] ema12 = ema(stock, 12);
+    double[] ema26 = ema(stock, 26);
+    double gain = 0;
+    double loss = 0;
+    double signal = 0;
+    for (int i = 1; i < result.size(); i++) {
+      assertEquals(ema12[i], result.getValue(0, i), 1e-9);
+      double change = stock.getCloseAt(i) - stock.getCloseAt(i - 1);
+      if (i <= 14) {
+        gain += Math.max(change, 0) / 14;
+        loss += Math.max(-change, 0) / 14;
+      } else {
+        gain = (gain * 13 + Math.max(change, 0)) / 14;
+        loss = (loss * 13 + Math.max(-change, 0)) / 14;
+      }
+      if (i >= 14) {
+        assertEquals(100 - 100 / (1 + gain / loss), result.getValue(1, i), 1e-6);
+      }
+      if (i >= 25) {
+        double macd = ema12[i] - ema26[i];
+        assertEquals(macd, result.getValue(2, i), 1e-9);
+        if (i <= 33) {
+          signal += macd / 9;
+        } else {
+          signal += 2.0 / 10 * (macd - signal);
+        }
+        if (i >= 33) {
+          assertEquals(signal, result.getValue(3, i), 1e-9);
+          assertEquals(macd - signal, result.getValue(4, i), 1e-9);
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests to ensure a pipeline only loads the columns of a lazy stock that its indicators read,
+   * and computes the same values as on a stock loaded whole.
+   */
+  @Test
+  public void testFieldsRead() throws IOException {
+    File csv = new File("StockData/GOOG.csv");
+    FixedPointStockImpl stock = ParallelCsvParser.parse(csv).build("GOOG");
+    LazyColumnStockImpl lazy = LazyColumnStockImpl.fromCsv("GOOG", csv);
+    LocalDate from = LocalDate.of(2024, 1, 2);
+    LocalDate to = LocalDate.of(2024, 6, 3);
+    IndicatorPipeline smas = new IndicatorPipeline.Builder().parse("sma:50").build();
+    IndicatorPipeline.Result expected = smas.run(stock, from, to);
+    IndicatorPipeline.Result result = smas.run(lazy, from, to);
+    assertTrue(lazy.isLoaded(LazyColumnStockImpl.CLOSES));
+    assertFalse(lazy.isLoaded(LazyColumnStockImpl.OPENS));
+    assertFalse(lazy.isLoaded(LazyColumnStockImpl.HIGHS));
+    assertFalse(lazy.isLoaded(LazyColumnStockImpl.LOWS));
+    assertFalse(lazy.isLoaded(LazyColumnStockImpl.VOLUMES));
+    assertEquals(expected.size(), result.size());
+    for (int row = 0; row < result.size(); row++) {
+      assertEquals(expected.getValue(0, row), result.getValue(0, row), 0.0);
+    }
+
+    new IndicatorPipeline.Builder().vwap(10).build().run(lazy, from, to);
+    assertFalse(lazy.isLoaded(LazyColumnStockImpl.OPENS));
+    assertTrue(lazy.isLoaded(LazyColumnStockImpl.HIGHS));
+    assertTrue(lazy.isLoaded(LazyColumnStockImpl.VOLUMES));
+  }
+
+  /**
+   * Tests to ensure invalid indicators are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalid() {
+    new IndicatorPipeline.Builder().parse("sma:0");
+  }
+
+  /**
+   * Computes an exponential moving average seeded with a simple average.
+   *
+   * @param stock the stock.
+   * @param days  the number of trading days.
+   * @return the average on each trading day, or NaN before there are enough days.
+   */
+  private static double[] ema(Stock stock, int days) {
+    double[] ema = new double[stock.getTradingDayCount()];
+    double sum = 0;
+    for (int i = 0; i < ema.length; i++) {
+      if (i < days) {
+        sum += stock.getCloseAt(i);
+        ema[i] = i == days - 1 ? sum / days : Double.NaN;
+      } else {
+        ema[i] = ema[i - 1] + 2.0 / (days + 1) * (stock.getCloseAt(i) - ema[i - 1]);
+      }
+    }
+    return ema;
+  }
+}
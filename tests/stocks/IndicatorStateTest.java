@@ -0,0 +1,74 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the IndicatorState interface and the MovingAverageState class, which keep
+ * moving averages up to date one price bar at a time.
+ */
+public class IndicatorStateTest {
+
+  /**
+   * Tests to ensure the moving average only includes the days inside the window.
+   */
+  @Test
+  public void testMovingAverageWindow() {
+    IndicatorState state = new MovingAverageState(2);
+    state.append(LocalDate.of(2024, 6, 3), 12, 8, 10);
+    assertEquals(10.0, state.getValue(), 0.0001);
+    state.append(LocalDate.of(2024, 6, 4), 22, 18, 20);
+    assertEquals(15.0, state.getValue(), 0.0001);
+    // 2024-06-03 is now outside of the 2 day window
+    state.append(LocalDate.of(2024, 6, 5), 32, 28, 30);
+    assertEquals(25.0, state.getValue(), 0.0001);
+    assertEquals(LocalDate.of(2024, 6, 5), state.getLastDate());
+  }
+
+  /**
+   * Tests to ensure a crossover is only found when the closing price is greater than the
+   * average of the days before it.
+   */
+  @Test
+  public void testCrossover() {
+    IndicatorState state = new MovingAverageState(3);
+    state.append(LocalDate.of(2024, 6, 3), 12, 8, 10);
+    state.append(LocalDate.of(2024, 6, 4), 12, 8, 11);
+    assertEquals(true, state.isCrossover());
+    state.append(LocalDate.of(2024, 6, 5), 12, 8, 10);
+    assertEquals(false, state.isCrossover());
+  }
+
+  /**
+   * Tests to ensure that bars cannot be appended out of order.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testAppendOutOfOrder() {
+    IndicatorState state = new MovingAverageState(3);
+    state.append(LocalDate.of(2024, 6, 4), 12, 8, 10);
+    state.append(LocalDate.of(2024, 6, 3), 12, 8, 10);
+  }
+
+  /**
+   * Tests to ensure a tracked indicator matches the moving average over the whole history,
+   * and is not advanced again when the stock is reloaded without new dates.
+   *
+   * @throws IOException if an exception is thrown.
+   */
+  @Test
+  public void testTrackIndicator() throws IOException {
+    makeStock("GOOG");
+    IndicatorState state = Utils.trackIndicator("GOOG", 10);
+    assertEquals(LocalDate.of(2024, 6, 6), state.getLastDate());
+    assertEquals(175.618125, state.getValue(), 0.0001);
+
+    makeStock("GOOG");
+    assertEquals(state, Utils.getIndicators().get("GOOG").get(10));
+    assertEquals(175.618125, state.getValue(), 0.0001);
+  }
+}
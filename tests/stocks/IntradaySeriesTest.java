@@ -0,0 +1,158 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the IntradaySeries class and the IntradayStockImpl class.
+ */
+public class IntradaySeriesTest {
+
+  /**
+   * Tests to ensure bars added out of order are sorted by time, and a later bar with the same
+   * time replaces an earlier one.
+   */
+  @Test
+  public void testBuild() {
+    LocalDateTime open = LocalDateTime.of(2024, 6, 3, 9, 30);
+    IntradaySeries bars = new IntradaySeries.Builder()
+            .add(open.plusMinutes(2), 3, 3, 3, 3, 30)
+            .add(open, 1, 1, 1, 1, 10)
+            .add(open.plusMinutes(1), 2, 2, 2, 2, 20)
+            .add(open, 9, 9, 9, 9, 90)
+            .build();
+    assertEquals(3, bars.size());
+    assertEquals(open, bars.getDateTimeAt(0));
+    assertEquals(90, bars.getVolumeAt(0));
+    assertEquals(20000, bars.getCloseTicksAt(1));
+    assertEquals(2, bars.indexOf(IntradaySeries.toTimestamp(open.plusMinutes(2))));
+    assertEquals(-1, bars.indexOf(IntradaySeries.toTimestamp(open.plusSeconds(30))));
+    assertEquals(1, bars.ceilingIndex(IntradaySeries.toTimestamp(open.plusSeconds(30))));
+  }
+
+  /**
+   * Tests to ensure the daily prices of an intraday stock are rolled up from the bars of each
+   * day, and the bars of a day can be found from its trading day index.
+   */
+  @Test
+  public void testDailyRollUp() {
+    LocalDateTime monday = LocalDateTime.of(2024, 6, 3, 9, 30);
+    LocalDateTime tuesday = monday.plusDays(1);
+    IntradayStockImpl stock = new IntradaySeries.Builder()
+            .add(tuesday.plusMinutes(1), 20, 22, 19, 21, 5)
+            .add(tuesday, 18, 19, 17, 20, 5)
+            .add(monday.plusMinutes(1), 11, 15, 10, 12, 7)
+            .add(monday, 10, 11, 9, 11, 3)
+            .build().toDaily("TEST");
+    assertEquals(2, stock.getTradingDayCount());
+    LocalDate date = monday.toLocalDate();
+    assertEquals(10.0, stock.getOpeningPrice(date), 0.0);
+    assertEquals(15.0, stock.getHighPrice(date), 0.0);
+    assertEquals(9.0, stock.getLowPrice(date), 0.0);
+    assertEquals(12.0, stock.getClosingPrice(date), 0.0);
+    assertEquals(Long.valueOf(10), stock.getVolume(date));
+    assertEquals(21.0, stock.getClosingPrice(date.plusDays(1)), 0.0);
+    assertArrayEquals(new int[]{2, 4}, stock.getBarRange(1));
+
+    Stock withShares = stock.increaseShares(date, 5);
+    assertTrue(withShares instanceof IntradayStockImpl);
+    assertSame(stock.getBars(), ((IntradayStockImpl) withShares).getBars());
+  }
+
+  /**
+   * Tests to ensure intraday csv files parse the same plain or compressed, and that makeStock
+   * loads a ticker with only intraday data from its bars.
+   */
+  @Test
+  public void testLoad() throws IOException {
+    File directory = new File("StockData/intraday/");
+    boolean created = directory.mkdirs();
+    File plain = new File(directory, "ZZIN.csv");
+    File compressed = new File(directory, "ZZIN.csv.gz");
+    try {
+      CsvFiles.setCompressOutput(true);
+      try (Writer writer = CsvFiles.newWriter("StockData/intraday/", "ZZIN")) {
+        writer.write("timestamp,open,high,low,close,volume\n");
+        for (int minute = 59; minute >= 0; minute--) {
+          writer.write("2024-06-03 10:" + String.format("%02d", minute) + ":00,10." + minute
+                  + ",11,9,10.5," + (100 + minute) + "\n");
+        }
+      } finally {
+        CsvFiles.setCompressOutput(false);
+      }
+      IntradaySeries fromCompressed = ParallelCsvParser.parseIntraday(compressed,
+              ForkJoinPool.commonPool()).build();
+      assertEquals(60, fromCompressed.size());
+      assertEquals(LocalDateTime.of(2024, 6, 3, 10, 59), fromCompressed.getDateTimeAt(59));
+      assertEquals(105900, fromCompressed.getOpenTicksAt(59));
+
+      Stock stock = makeStock("ZZIN");
+      assertTrue(stock instanceof IntradayStockImpl);
+      assertEquals(1, stock.getTradingDayCount());
+      LocalDate date = LocalDate.of(2024, 6, 3);
+      assertEquals(10.0, stock.getOpeningPrice(date), 0.0);
+      assertEquals(Long.valueOf(60 * 100 + 59 * 60 / 2), stock.getVolume(date));
+      assertEquals(60, ((IntradayStockImpl) stock).getBars().size());
+    } finally {
+      plain.delete();
+      compressed.delete();
+      if (created) {
+        directory.delete();
+      }
+      Utils.getStocks().remove("ZZIN");
+    }
+  }
+
+  /**
+   * Tests to ensure an empty series cannot be rolled up into a stock.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testEmptyToDaily() {
+    new IntradaySeries.Builder().build().toDaily("TEST");
+  }
+
+  /**
+   * Tests to ensure makeStock rejects an intraday csv with no bars that can be read, such as
+   * one whose timestamps are not dates, without adding anything to the loaded stocks.
+   */
+  @Test
+  public void testLoadEmpty() throws IOException {
+    File directory = new File("StockData/intraday/");
+    boolean created = directory.mkdirs();
+    File plain = new File(directory, "ZZIN.csv");
+    int loaded = Utils.getStocks().size();
+    try {
+      Files.write(plain.toPath(), ("timestamp,open,high,low,close,volume\n"
+              + "yesterday,1,1,1,1,1\n").getBytes());
+      try {
+        makeStock("ZZIN");
+        fail("A csv with no bars should not load");
+      } catch (IOException e) {
+        // expected
+      }
+      assertFalse(Utils.getStocks().containsKey(null));
+      assertFalse(Utils.getStocks().containsKey("ZZIN"));
+      assertEquals(loaded, Utils.getStocks().size());
+    } finally {
+      plain.delete();
+      if (created) {
+        directory.delete();
+      }
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package stocks;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This class tests the LatencyHistogram class.
+ */
+public class LatencyHistogramTest {
+
+  /**
+   * Tests to ensure an empty histogram reports zero timings and no allocations.
+   */
+  @Test
+  public void testEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMeanMillis(), 0.0);
+    assertEquals(0, histogram.getMaxMillis(), 0.0);
+    assertEquals(0, histogram.getP50Millis(), 0.0);
+    assertEquals(0, histogram.getP99Millis(), 0.0);
+    assertEquals(-1, histogram.getMeanAllocatedBytes());
+    assertEquals(-1, histogram.getMaxAllocatedBytes());
+  }
+
+  /**
+   * Tests to ensure a timing falls in the bucket of its power of two, so a percentile is the
+   * upper bound of that bucket, capped at the longest timing.
+   */
+  @Test
+  public void testBucketPlacement() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    // 1000 ns is in the bucket from 512 up to 1024 ns
+    histogram.record(1000);
+    assertEquals(1000 / 1e6, histogram.getP50Millis(), 1e-12);
+    histogram.record(600);
+    assertEquals(1000 / 1e6, histogram.getP50Millis(), 1e-12);
+    // 1500 ns is in the next bucket, up to 2048 ns, so the median is now the bound 1024 ns
+    histogram.record(1500);
+    histogram.record(1600);
+    assertEquals(1024 / 1e6, histogram.getP50Millis(), 1e-12);
+    assertEquals(1600 / 1e6, histogram.getPercentileMillis(1), 1e-12);
+  }
+
+  /**
+   * Tests to ensure percentiles count the timings in order, with a slow outlier only showing
+   * in the highest percentiles.
+   */
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 100; i++) {
+      histogram.record(1000);
+    }
+    histogram.record(1_000_000);
+    assertEquals(101, histogram.getCount());
+    assertEquals(1024 / 1e6, histogram.getP50Millis(), 1e-12);
+    assertEquals(1024 / 1e6, histogram.getP99Millis(), 1e-12);
+    assertEquals(1.0, histogram.getPercentileMillis(1), 1e-12);
+    assertEquals((100 * 1000 + 1_000_000) / 101.0 / 1e6, histogram.getMeanMillis(), 1e-12);
+  }
+
+  /**
+   * Tests to ensure the maximum timing and allocation are tracked, and that negative values
+   * are recorded as 0 ns or ignored.
+   */
+  @Test
+  public void testMaxTracking() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(5_000_000);
+    histogram.record(2_000_000);
+    histogram.record(-7);
+    assertEquals(3, histogram.getCount());
+    assertEquals(5.0, histogram.getMaxMillis(), 1e-12);
+    assertEquals(2 / 1e6, histogram.getPercentileMillis(0.3), 1e-12);
+
+    histogram.recordAllocation(100);
+    histogram.recordAllocation(300);
+    histogram.recordAllocation(-1);
+    assertEquals(200, histogram.getMeanAllocatedBytes());
+    assertEquals(300, histogram.getMaxAllocatedBytes());
+  }
+}
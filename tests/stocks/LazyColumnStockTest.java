@@ -0,0 +1,110 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the LazyColumnStockImpl class.
+ */
+public class LazyColumnStockTest {
+
+  /**
+   * Tests to ensure reading closing prices only loads the closing prices, and every column
+   * matches the stock parsed whole.
+   */
+  @Test
+  public void testFromCsv() throws IOException {
+    File csv = new File("StockData/GOOG.csv");
+    FixedPointStockImpl stock = ParallelCsvParser.parse(csv).build("GOOG");
+    LazyColumnStockImpl lazy = LazyColumnStockImpl.fromCsv("GOOG", csv);
+    assertEquals(stock.getTradingDayCount(), lazy.getTradingDayCount());
+    assertEquals(stock.getDates(), lazy.getDates());
+
+    LocalDate date = LocalDate.of(2024, 6, 3);
+    Stock bought = lazy.increaseShares(date, 2);
+    assertEquals(2.0, bought.getNumShares(), 0.0);
+    assertEquals(stock.getClosingPrice(date), bought.getClosingPrice(date));
+    assertTrue(lazy.isLoaded(LazyColumnStockImpl.CLOSES));
+    assertFalse(lazy.isLoaded(LazyColumnStockImpl.OPENS));
+    assertFalse(lazy.isLoaded(LazyColumnStockImpl.HIGHS));
+    assertFalse(lazy.isLoaded(LazyColumnStockImpl.LOWS));
+    assertFalse(lazy.isLoaded(LazyColumnStockImpl.VOLUMES));
+
+    for (int i = 0; i < stock.getTradingDayCount(); i++) {
+      assertEquals(stock.getEpochDayAt(i), lazy.getEpochDayAt(i));
+      assertEquals(stock.getOpenAt(i), lazy.getOpenAt(i), 0.0);
+      assertEquals(stock.getHighAt(i), lazy.getHighAt(i), 0.0);
+      assertEquals(stock.getLowAt(i), lazy.getLowAt(i), 0.0);
+      assertEquals(stock.getCloseTicksAt(i), lazy.getCloseTicksAt(i));
+      assertEquals(stock.getVolumeAt(i), lazy.getVolumeAt(i));
+    }
+  }
+
+  /**
+   * Tests to ensure makeStock loads a lazy stock from the binary store when compressed loading
+   * is also turned on, and that it matches the csv.
+   */
+  @Test
+  public void testMakeStockFromStore() throws IOException {
+    File store = new File("StockData/GOOG.stk");
+    StockBuilder.setCompressed(true);
+    StockBuilder.setLazyColumns(true);
+    try {
+      Stock written = makeStock("GOOG");
+      Stock opened = makeStock("GOOG");
+      assertTrue(opened instanceof LazyColumnStockImpl);
+      LazyColumnStockImpl lazy = (LazyColumnStockImpl) opened;
+      assertEquals(written.getTradingDayCount(), lazy.getTradingDayCount());
+      LocalDate date = LocalDate.of(2024, 6, 3);
+      assertEquals(written.getClosingPrice(date), lazy.getClosingPrice(date));
+      assertFalse(lazy.isLoaded(LazyColumnStockImpl.HIGHS));
+      assertEquals(written.getHighPrice(date), lazy.getHighPrice(date));
+      assertTrue(lazy.isLoaded(LazyColumnStockImpl.HIGHS));
+    } finally {
+      StockBuilder.setCompressed(false);
+      StockBuilder.setLazyColumns(false);
+      store.delete();
+    }
+  }
+
+  /**
+   * Tests to ensure a csv rewritten after its dates were read has its dates read again before
+   * the next column is loaded, so the prices line up with the new rows.
+   */
+  @Test
+  public void testCsvRewritten() throws IOException {
+    File csv = File.createTempFile("lazy", ".csv");
+    try {
+      Files.write(csv.toPath(), ("timestamp,open,high,low,close,volume\n"
+              + "2024-06-04,1,2,0.5,1.5,10\n"
+              + "2024-06-03,1,2,0.5,1.25,20\n").getBytes());
+      LazyColumnStockImpl lazy = LazyColumnStockImpl.fromCsv("TEST", csv);
+      assertEquals(1.25, lazy.getCloseAt(0), 0.0);
+      assertTrue(lazy.isLoaded(LazyColumnStockImpl.CLOSES));
+
+      Files.write(csv.toPath(), ("timestamp,open,high,low,close,volume\n"
+              + "2024-06-05,1,4,0.5,3,30\n"
+              + "2024-06-03,1,3,0.5,1.25,20\n"
+              + "2024-06-04,1,2,0.5,1.5,10\n").getBytes());
+      assertTrue(csv.setLastModified(csv.lastModified() + 2000));
+      assertEquals(3.0, lazy.getHighAt(0), 0.0);
+      assertEquals(3, lazy.getTradingDayCount());
+      assertFalse(lazy.isLoaded(LazyColumnStockImpl.CLOSES));
+      assertEquals(LocalDate.of(2024, 6, 5), lazy.getDates().get(2));
+      assertEquals(4.0, lazy.getHighAt(2), 0.0);
+      assertEquals(Long.valueOf(30), lazy.getVolume(LocalDate.of(2024, 6, 5)));
+      assertEquals(3.0, lazy.getClosingPrice(LocalDate.of(2024, 6, 5)), 0.0);
+    } finally {
+      csv.delete();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static stocks.PortfolioBuilder.makePortfolio;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the LazyStockImpl class and retrieving portfolios with it.
+ */
+public class LazyStockTest {
+
+  /**
+   * Tests to ensure a retrieved portfolio holds its stocks and shares without loading any
+   * prices, and loads a stock when one of its prices is read.
+   */
+  @Test
+  public void testRetrieveWithoutLoading() {
+    Utils.getStocks().clear();
+    try {
+      Portfolio portfolio = makePortfolio("z");
+      Map<String, Stock> stocks = portfolio.getListOfStocks();
+      Stock goog = stocks.get("GOOG");
+      assertTrue(goog instanceof LazyStockImpl);
+      assertEquals(4.5, goog.getNumShares(), 0.0);
+      assertEquals(4.5, goog.getSharesAtDate(LocalDate.of(2024, 6, 3)), 0.0);
+      assertEquals(LocalDate.of(2023, 11, 20), portfolio.getPurchaseDate());
+      for (Stock stock : stocks.values()) {
+        assertFalse(((LazyStockImpl) stock).isLoaded());
+        assertNull(Utils.getStocks().get(stock.getTicker()));
+      }
+
+      Stock bought = goog.increaseShares(LocalDate.of(2024, 6, 3), 1);
+      assertEquals(5.5, bought.getNumShares(), 0.0);
+      assertFalse(((LazyStockImpl) goog).isLoaded());
+    } finally {
+      Utils.getStocks().clear();
+    }
+  }
+
+  /**
+   * Tests to ensure the prices of a lazy stock match the stock loaded with makeStock, and that
+   * loading them puts the loaded stock in the cache and shares it with every copy.
+   */
+  @Test
+  public void testLoadOnFirstPrice() throws IOException {
+    Utils.getStocks().clear();
+    try {
+      Stock loaded = makeStock("GOOG");
+      Utils.getStocks().clear();
+      LazyStockImpl lazy = new LazyStockImpl("GOOG", 0, new TreeMap<>());
+      Stock copy = lazy.setNumShares(2.0);
+      LocalDate date = LocalDate.of(2024, 6, 3);
+      assertEquals(loaded.getClosingPrice(date), copy.getClosingPrice(date));
+      assertTrue(lazy.isLoaded());
+      assertFalse(Utils.getStocks().get("GOOG") instanceof LazyStockImpl);
+      assertEquals(Utils.getStocks().get("GOOG").getDates(), lazy.getDates());
+      assertEquals(loaded.getTradingDayCount(), lazy.getTradingDayCount());
+    } finally {
+      Utils.getStocks().clear();
+    }
+  }
+
+  /**
+   * Tests to ensure the prices of a lazy stock are only loaded on the thread that created it,
+   * and can be read from any thread once they have been loaded.
+   */
+  @Test
+  public void testLoadOnCreatingThread() throws InterruptedException {
+    Utils.getStocks().clear();
+    try {
+      LazyStockImpl lazy = new LazyStockImpl("GOOG", 0, new TreeMap<>());
+      LocalDate date = LocalDate.of(2024, 6, 3);
+      AtomicReference<Object> read = new AtomicReference<>();
+      Thread other = new Thread(() -> {
+        try {
+          read.set(lazy.getClosingPrice(date));
+        } catch (IllegalStateException e) {
+          read.set(e);
+        }
+      });
+      other.start();
+      other.join();
+      assertTrue(read.get() instanceof IllegalStateException);
+      assertFalse(lazy.isLoaded());
+      assertTrue(Utils.getStocks().isEmpty());
+
+      Double close = lazy.getClosingPrice(date);
+      other = new Thread(() -> read.set(lazy.getClosingPrice(date)));
+      other.start();
+      other.join();
+      assertEquals(close, read.get());
+    } finally {
+      Utils.getStocks().clear();
+    }
+  }
+
+  /**
+   * Tests to ensure a command that cannot read the prices of a stock part way through ends with
+   * a message, and the controller goes on to the next command.
+   */
+  @Test
+  public void testLoadFailureEndsCommand() throws IOException {
+    File csv = File.createTempFile("lazy", ".csv");
+    Files.write(csv.toPath(), ("timestamp,open,high,low,close,volume\n"
+            + "2024-06-03,1,2,0.5,1.5,10\n"
+            + "2024-06-04,1,2,0.5,1.75,10\n").getBytes());
+    Stock stock = LazyColumnStockImpl.fromCsv("ZZLAZY", csv)
+            .increaseShares(LocalDate.of(2024, 6, 3), 2);
+    Utils.getStocks().put("ZZLAZY", stock);
+    Utils.getPortfolios().put("lazyfail", new PortfolioImpl.PortfolioImplBuilder()
+            .addStock(stock).build());
+    try {
+      csv.delete();
+      StringBuilder out = new StringBuilder();
+      StockController controller = new StockControllerImpl(new StringReader(
+              "performance-all lazyfail 2024-06-04 menu quit"), new ViewImpl(new MockModel(out)));
+      controller.control();
+      assertTrue(out.toString().contains("Could not read the price data: "));
+      assertTrue(out.toString().contains("Returning to main menu.\nType instruction: "
+              + "Supported user instructions are:"));
+      assertTrue(out.toString().endsWith("Happy gambling!"));
+    } finally {
+      Utils.getPortfolios().remove("lazyfail");
+      Utils.getStocks().remove("ZZLAZY");
+    }
+  }
+}
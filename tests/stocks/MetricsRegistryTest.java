@@ -0,0 +1,71 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the MetricsRegistry class.
+ */
+public class MetricsRegistryTest {
+
+  /**
+   * Tests to ensure a metric is created once and then shared by every caller.
+   */
+  @Test
+  public void testCreatedOnce() {
+    assertSame(MetricsRegistry.counter("test.registry.same"),
+            MetricsRegistry.counter("test.registry.same"));
+    assertSame(MetricsRegistry.timer("test.registry.same"),
+            MetricsRegistry.timer("test.registry.same"));
+    MetricsRegistry.increment("test.registry.same");
+    MetricsRegistry.counter("test.registry.same").add(4);
+    assertEquals(5, MetricsRegistry.getCounters().get("test.registry.same").getCount());
+  }
+
+  /**
+   * Tests to ensure counters updated from many threads at once lose no increments.
+   */
+  @Test
+  public void testConcurrentIncrements() throws InterruptedException {
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < 10000; i++) {
+          MetricsRegistry.increment("test.registry.concurrent");
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(40000, MetricsRegistry.counter("test.registry.concurrent").getCount());
+  }
+
+  /**
+   * Tests to ensure the report lists each timer and counter in its column format, sorted by
+   * name.
+   */
+  @Test
+  public void testReportFormat() {
+    MetricsRegistry.timer("test.registry.report").record(2_000_000);
+    MetricsRegistry.counter("test.registry.report.b").add(3);
+    MetricsRegistry.counter("test.registry.report.a").add(7);
+    String report = MetricsRegistry.report();
+    assertTrue(report.startsWith("Timings (count, mean ms, p50 ms, p99 ms, max ms, "
+            + "mean KB allocated):\n"));
+    assertTrue(report.contains(String.format("  %-28s %8d %10.3f %10.3f %10.3f %10.3f %10s\n",
+            "test.registry.report", 1, 2.0, 2.0, 2.0, 2.0, "-")));
+    String a = String.format("  %-28s %8d\n", "test.registry.report.a", 7);
+    String b = String.format("  %-28s %8d\n", "test.registry.report.b", 3);
+    assertTrue(report.indexOf("Counters:\n") < report.indexOf(a));
+    assertTrue(report.indexOf(a) < report.indexOf(b));
+  }
+}
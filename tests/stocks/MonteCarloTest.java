@@ -0,0 +1,120 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the MonteCarlo class.
+ */
+public class MonteCarloTest {
+
+  /**
+   * Loads a stock from its csv.
+   *
+   * @param ticker the ticker of the stock.
+   * @return the stock.
+   * @throws IOException if the csv cannot be read.
+   */
+  private static Stock load(String ticker) throws IOException {
+    return ParallelCsvParser.parse(new File("StockData/" + ticker + ".csv")).build(ticker);
+  }
+
+  /**
+   * Tests to ensure that with a single day of returns every path compounds that return once
+   * per day of the horizon.
+   */
+  @Test
+  public void testSingleReturn() throws IOException {
+    Stock stock = load("GOOG");
+    LocalDate from = LocalDate.of(2024, 6, 3);
+    LocalDate to = LocalDate.of(2024, 6, 4);
+    MonteCarlo simulation = new MonteCarlo.Builder().stock(stock, 10).history(from, to).build();
+    assertEquals(1, simulation.getReturnDayCount());
+    assertEquals(to, simulation.getLastDate());
+    assertEquals(10 * stock.getClosingPrice(to), simulation.getStartValue(), 1e-9);
+    double ratio = stock.getClosingPrice(to) / stock.getClosingPrice(from);
+    MonteCarlo.Result result = simulation.run(1000, 10, 1, 42);
+    assertEquals(1000, result.getPathCount());
+    assertEquals(simulation.getStartValue() * Math.pow(ratio, 10), result.getPercentile(0),
+            1e-6);
+    assertEquals(result.getPercentile(0), result.getPercentile(100), 1e-9);
+  }
+
+  /**
+   * Tests to ensure a run gives the same values for the same seed on any number of threads,
+   * and that one day ahead every path ends within the range of the past daily returns.
+   */
+  @Test
+  public void testDeterministic() throws IOException {
+    MonteCarlo simulation = new MonteCarlo.Builder().stock(load("MSFT"), 5)
+            .stock(load("INTC"), 20)
+            .history(LocalDate.of(2015, 1, 1), LocalDate.of(2024, 6, 6)).build();
+    MonteCarlo.Result single = simulation.run(5000, 252, 20, 7, new ForkJoinPool(1));
+    MonteCarlo.Result parallel = simulation.run(5000, 252, 20, 7, new ForkJoinPool(4));
+    for (int percent = 0; percent <= 100; percent += 5) {
+      assertEquals(single.getPercentile(percent), parallel.getPercentile(percent), 0.0);
+    }
+    assertEquals(single.getMean(), parallel.getMean(), 1e-6);
+    assertTrue(single.getPercentile(5) < single.getPercentile(50));
+    assertTrue(single.getPercentile(50) < single.getPercentile(95));
+    assertTrue(single.getLossProbability() > 0 && single.getLossProbability() < 1);
+    assertTrue(single.getPathsPerSecond() > 0);
+
+    MonteCarlo.Result oneDay = simulation.run(2000, 1, 1, 11);
+    double start = simulation.getStartValue();
+    assertTrue(oneDay.getPercentile(0) > start * 0.7);
+    assertTrue(oneDay.getPercentile(100) < start * 1.3);
+  }
+
+  /**
+   * Tests to ensure a block longer than the history is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBlockTooLong() throws IOException {
+    new MonteCarlo.Builder().stock(load("GOOG"), 1)
+            .history(LocalDate.of(2024, 6, 3), LocalDate.of(2024, 6, 6)).build()
+            .run(100, 10, 5, 1);
+  }
+
+  /**
+   * Tests to ensure a day a stock closed at zero is left out of the history, so every path
+   * ends at a finite value.
+   */
+  @Test
+  public void testZeroClose() throws IOException {
+    File csv = File.createTempFile("zero", ".csv");
+    try {
+      Files.write(csv.toPath(), ("timestamp,open,high,low,close,volume\n"
+              + "2024-06-06,1,1,1,2.2,10\n2024-06-05,1,1,1,2,10\n2024-06-04,1,1,1,0,10\n"
+              + "2024-06-03,1,1,1,1,10\n").getBytes());
+      Stock stock = ParallelCsvParser.parse(csv).build("ZERO");
+      MonteCarlo simulation = new MonteCarlo.Builder().stock(stock, 1).build();
+      assertEquals(2, simulation.getReturnDayCount());
+      MonteCarlo.Result result = simulation.run(1000, 20, 1, 3);
+      assertTrue(result.getPercentile(0) >= Math.pow(1.1, 20) * 2.2 - 1e-9);
+      assertTrue(result.getPercentile(100) <= Math.pow(2, 20) * 2.2 + 1e-6);
+      assertTrue(Double.isFinite(result.getMean()));
+    } finally {
+      csv.delete();
+    }
+  }
+
+  /**
+   * Tests to ensure a run of more paths than MAX_PATHS is rejected before anything is
+   * allocated for it.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyPaths() throws IOException {
+    new MonteCarlo.Builder().stock(load("GOOG"), 1)
+            .history(LocalDate.of(2024, 6, 3), LocalDate.of(2024, 6, 6)).build()
+            .run(MonteCarlo.MAX_PATHS + 1, 10, 1, 1);
+  }
+}
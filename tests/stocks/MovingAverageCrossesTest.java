@@ -0,0 +1,80 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the MovingAverageCrosses class.
+ */
+public class MovingAverageCrossesTest {
+
+  /**
+   * Tests to ensure the crosses of several pairs found in one pass match the crosses found by
+   * averaging the closing prices of each pair directly.
+   */
+  @Test
+  public void testPairs() throws IOException {
+    FixedPointStockImpl stock = ParallelCsvParser.parse(new File("StockData/GOOG.csv"))
+            .build("GOOG");
+    MovingAverageCrosses averages = new MovingAverageCrosses(stock);
+    int[] fasts = {50, 5, 20};
+    int[] slows = {200, 20, 50};
+    LocalDate from = LocalDate.of(2015, 1, 1);
+    LocalDate to = LocalDate.of(2024, 6, 6);
+    List<List<MovingAverageCrosses.Cross>> crosses = averages.getCrosses(fasts, slows, from, to);
+    for (int p = 0; p < fasts.length; p++) {
+      int next = 0;
+      int first = stock.ceilingIndex((int) from.toEpochDay());
+      for (int i = Math.max(first, slows[p]); i < stock.getTradingDayCount(); i++) {
+        boolean before = average(stock, fasts[p], i - 1) > average(stock, slows[p], i - 1);
+        boolean now = average(stock, fasts[p], i) > average(stock, slows[p], i);
+        if (before != now) {
+          MovingAverageCrosses.Cross cross = crosses.get(p).get(next++);
+          assertEquals(stock.getEpochDayAt(i), cross.getDate().toEpochDay());
+          assertEquals(now, cross.isGolden());
+        }
+      }
+      assertEquals(next, crosses.get(p).size());
+      assertTrue(next > 0);
+    }
+    assertEquals(crosses.get(0).size(), averages.getCrosses(50, 200, from, to).size());
+    assertEquals(average(stock, 50, 2000) / 10000, averages.getAverageAt(50, 2000), 1e-9);
+    assertTrue(Double.isNaN(averages.getAverageAt(50, 48)));
+  }
+
+  /**
+   * Tests to ensure no cross is reported before both averages have a full window.
+   */
+  @Test
+  public void testWarmUp() throws IOException {
+    FixedPointStockImpl stock = ParallelCsvParser.parse(new File("StockData/GOOG.csv"))
+            .build("GOOG");
+    List<MovingAverageCrosses.Cross> crosses = new MovingAverageCrosses(stock)
+            .getCrosses(2, 30, LocalDate.of(1900, 1, 1), LocalDate.of(2100, 1, 1));
+    assertTrue(crosses.get(0).getDate().toEpochDay() > stock.getEpochDayAt(29));
+  }
+
+  /**
+   * Averages the closing prices over the trading days ending on a day, with integer sums in
+   * ten-thousandths so equal averages compare as equal.
+   *
+   * @param stock  the stock.
+   * @param window the number of trading days.
+   * @param index  the last trading day.
+   * @return the sum of the closes in ten-thousandths divided by the window.
+   */
+  private static double average(Stock stock, int window, int index) {
+    long sum = 0;
+    for (int i = index - window + 1; i <= index; i++) {
+      sum += stock.getCloseTicksAt(i);
+    }
+    return (double) sum / window;
+  }
+}
@@ -0,0 +1,133 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * This class tests the OffHeapPriceColumns class and the OffHeapStockImpl class.
+ */
+public class OffHeapStockTest {
+
+  /**
+   * Tests to ensure a stock loaded off the heap has the same prices as one loaded into a
+   * StockImpl, on every trading day and through every accessor.
+   */
+  @Test
+  public void testMatchesStockImpl() throws IOException {
+    Stock expected = StockBuilder.makeStock("GOOG");
+    Stock offHeap;
+    StockBuilder.setOffHeap(true);
+    try {
+      offHeap = StockBuilder.makeStock("GOOG");
+    } finally {
+      StockBuilder.setOffHeap(false);
+    }
+    assertEquals(OffHeapStockImpl.class, offHeap.getClass());
+    assertSameDays(expected, offHeap);
+  }
+
+  /**
+   * Tests to ensure rows added out of order are sorted by date, and that the last row added
+   * for a date is kept, as a StockImpl keeps the last price put for a date.
+   */
+  @Test
+  public void testSortAndDedupe() {
+    LocalDate first = LocalDate.of(2024, 1, 2);
+    LocalDate second = LocalDate.of(2024, 1, 3);
+    LocalDate third = LocalDate.of(2024, 1, 5);
+    OffHeapPriceColumns.Builder columns = new OffHeapPriceColumns.Builder();
+    StockImpl.StockImplBuilder heap = new StockImpl.StockImplBuilder();
+    Object[][] rows = {{third, 30.0, 300L}, {first, 10.0, 100L}, {second, 20.0, 200L},
+        {first, 11.0, 110L}, {third, 31.0, 310L}, {third, 32.0, 320L}};
+    // enough rows to grow the builder past its first capacity
+    for (int i = 0; i < 100; i++) {
+      LocalDate date = LocalDate.of(2023, 1, 1).plusDays(i);
+      columns.add(date, i, i + 1, i - 1, i + 0.5, i);
+      heap.addOpeningPrice(date, (double) i).addHighPrice(date, i + 1.0)
+              .addLowPrice(date, i - 1.0).addClosingPrice(date, i + 0.5).addVolume(date, (long) i);
+    }
+    for (Object[] row : rows) {
+      LocalDate date = (LocalDate) row[0];
+      double price = (Double) row[1];
+      long volume = (Long) row[2];
+      columns.add(date, price, price + 1, price - 1, price + 0.5, volume);
+      heap.addOpeningPrice(date, price).addHighPrice(date, price + 1)
+              .addLowPrice(date, price - 1).addClosingPrice(date, price + 0.5)
+              .addVolume(date, volume);
+    }
+    heap.addTicker("TEST");
+    OffHeapPriceColumns prices = columns.build();
+    assertEquals(103, prices.size());
+    assertEquals(44 * 103, prices.getSizeInBytes());
+    assertEquals(11.0, prices.getOpen(prices.indexOf(first)), 0.0);
+    assertEquals(320, prices.getVolume(prices.indexOf(third)));
+    assertSameDays(heap.build(), new OffHeapStockImpl("TEST", 0, prices, new TreeMap<>()));
+  }
+
+  /**
+   * Tests to ensure columns built from no rows are empty and find no dates.
+   */
+  @Test
+  public void testEmpty() {
+    OffHeapPriceColumns prices = new OffHeapPriceColumns.Builder().build();
+    assertEquals(0, prices.size());
+    assertEquals(-1, prices.indexOf(19000));
+    assertEquals(-1, prices.indexOf((LocalDate) null));
+    assertEquals(0, prices.ceilingIndex(19000));
+    Stock stock = new OffHeapStockImpl("TEST", 0, prices, new TreeMap<>());
+    assertEquals(Collections.emptyList(), stock.getDates());
+    assertEquals(0, stock.getTradingDayCount());
+    assertNull(stock.getClosingPrice(LocalDate.of(2024, 1, 2)));
+    assertNull(stock.getVolume(LocalDate.of(2024, 1, 2)));
+    stock.copyCloses(0, 0, new double[0], 0);
+  }
+
+  /**
+   * Checks that two stocks have the same dates, and the same prices and volume on each,
+   * through the date getters, the index getters and the range copies.
+   *
+   * @param expected the stock to compare with.
+   * @param actual   the stock being checked.
+   */
+  private static void assertSameDays(Stock expected, Stock actual) {
+    assertEquals(expected.getDates(), actual.getDates());
+    int rows = expected.getTradingDayCount();
+    assertEquals(rows, actual.getTradingDayCount());
+    for (int i = 0; i < rows; i++) {
+      LocalDate date = expected.getDates().get(i);
+      int day = (int) date.toEpochDay();
+      assertEquals(i, actual.indexOf(day));
+      assertEquals(i, actual.ceilingIndex(day));
+      assertEquals(day, actual.getEpochDayAt(i));
+      assertEquals(expected.getOpeningPrice(date), actual.getOpeningPrice(date));
+      assertEquals(expected.getHighPrice(date), actual.getHighPrice(date));
+      assertEquals(expected.getLowPrice(date), actual.getLowPrice(date));
+      assertEquals(expected.getClosingPrice(date), actual.getClosingPrice(date));
+      assertEquals(expected.getVolume(date), actual.getVolume(date));
+      assertEquals(expected.getCloseAt(i), actual.getCloseAt(i), 0.0);
+      assertEquals(expected.getVolumeAt(i), actual.getVolumeAt(i));
+    }
+    int[] days = new int[rows];
+    double[] closes = new double[rows];
+    double[] expectedCloses = new double[rows];
+    long[] volumes = new long[rows];
+    long[] expectedVolumes = new long[rows];
+    actual.copyEpochDays(0, rows, days, 0);
+    actual.copyCloses(0, rows, closes, 0);
+    expected.copyCloses(0, rows, expectedCloses, 0);
+    actual.copyVolumes(0, rows, volumes, 0);
+    expected.copyVolumes(0, rows, expectedVolumes, 0);
+    for (int i = 0; i < rows; i++) {
+      assertEquals(expected.getEpochDayAt(i), days[i]);
+      assertEquals(expectedCloses[i], closes[i], 0.0);
+      assertEquals(expectedVolumes[i], volumes[i]);
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the ParallelCsvParser class, which parses a large csv in chunks.
+ */
+public class ParallelCsvParserTest {
+
+  /**
+   * Tests to ensure a file split into several chunks parses to the same series no matter how
+   * many threads parse it, with every row kept across the chunk boundaries.
+   */
+  @Test
+  public void testChunks() throws IOException {
+    File file = File.createTempFile("parallel", ".csv");
+    int rows = 60000;
+    try {
+      try (Writer writer = Files.newBufferedWriter(file.toPath())) {
+        writer.write("timestamp,open,high,low,close,volume\r\n");
+        for (int i = rows - 1; i >= 0; i--) {
+          writer.write(LocalDate.ofEpochDay(i) + ",1" + i + ".5,2" + i + ".25,0." + i
+                  + ",3" + i + ".0001," + i + "\r\n");
+        }
+      }
+      assertTrue(file.length() > 3 * ParallelCsvParser.MIN_CHUNK_BYTES);
+
+      ForkJoinPool pool = new ForkJoinPool(4);
+      ForkJoinPool singlePool = new ForkJoinPool(1);
+      FixedPointStockImpl parallel = ParallelCsvParser.parse(file, pool).build("TEST");
+      FixedPointStockImpl single = ParallelCsvParser.parse(file, singlePool).build("TEST");
+      pool.shutdown();
+      singlePool.shutdown();
+      assertEquals(rows, parallel.getTradingDayCount());
+      assertEquals(single.getDates(), parallel.getDates());
+      for (int i = 0; i < rows; i++) {
+        assertEquals(i, parallel.getEpochDayAt(i));
+        assertEquals(Double.parseDouble("1" + i + ".5"), parallel.getOpenAt(i), 0.0);
+        assertEquals(Double.parseDouble("2" + i + ".25"), parallel.getHighAt(i), 0.0);
+        assertEquals(Double.parseDouble("3" + i + ".0001"), parallel.getCloseAt(i), 0.0);
+        assertEquals(i, parallel.getVolumeAt(i));
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Tests to ensure rows with no date are skipped, prices the fast path cannot read are still
+   * parsed, and later rows for a date replace earlier ones.
+   */
+  @Test
+  public void testUnusualRows() throws IOException {
+    File file = File.createTempFile("parallel", ".csv");
+    try {
+      Files.write(file.toPath(), ("timestamp,open,high,low,close,volume\n"
+              + "2024-06-04,1.5,2.123456,1E-4,4,10\n"
+              + "not a date,1,1,1,1,1\n"
+              + "\n"
+              + "2024-06-03,1,1,1,1,1\n"
+              + "2024-06-04,9,9,9,9,99").getBytes());
+      FixedPointStockImpl stock = ParallelCsvParser.parse(file).build("TEST");
+      assertEquals(2, stock.getTradingDayCount());
+      int day = (int) LocalDate.of(2024, 6, 4).toEpochDay();
+      assertEquals(9.0, stock.getClosingPrice(day), 0.0);
+      assertEquals(99, stock.getVolume(day));
+
+      Files.write(file.toPath(), ("timestamp,open,high,low,close,volume\n"
+              + "2024-06-04,1.5,2.123456,1E-4,4,10\n").getBytes());
+      stock = ParallelCsvParser.parse(file).build("TEST");
+      assertEquals(2.1235, stock.getHighAt(0), 0.0);
+      assertEquals(0.0001, stock.getLowAt(0), 0.0);
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Tests to ensure a row with a price that is not a number cannot be parsed.
+   */
+  @Test(expected = NumberFormatException.class)
+  public void testBadPrice() throws IOException {
+    File file = File.createTempFile("parallel", ".csv");
+    try {
+      Files.write(file.toPath(), ("timestamp,open,high,low,close,volume\n"
+              + "2024-06-04,1.5,abc,1,4,10\n").getBytes());
+      ParallelCsvParser.parse(file);
+    } finally {
+      file.delete();
+    }
+  }
+
+  /**
+   * Tests to ensure makeStock loads the same stock when it parses the csv in parallel.
+   */
+  @Test
+  public void testMakeStock() throws IOException {
+    Stock sequential = makeStock("GOOG");
+    StockBuilder.setParallelThreshold(0);
+    Stock parallel;
+    try {
+      parallel = makeStock("GOOG");
+    } finally {
+      StockBuilder.setParallelThreshold(8L << 20);
+    }
+    assertEquals(sequential.getDates(), parallel.getDates());
+    for (LocalDate date : sequential.getDates()) {
+      assertEquals(sequential.getOpeningPrice(date), parallel.getOpeningPrice(date));
+      assertEquals(sequential.getClosingPrice(date), parallel.getClosingPrice(date));
+      assertEquals(sequential.getVolume(date), parallel.getVolume(date));
+    }
+  }
+
+  /**
+   * Tests to ensure makeStock keeps and rejects the same malformed rows whether it parses the
+   * csv on one thread or in parallel: dates with a time or anything else after them, dates that
+   * do not exist and dates not written as yyyy-MM-dd are skipped.
+   */
+  @Test
+  public void testMalformedRows() throws IOException {
+    String rows = "timestamp,open,high,low,close,volume\n"
+            + "2024-06-03,1,2,0.5,1.5,10\n"
+            + "2024-06-04x,1,2,0.5,1.5,10\n"
+            + "2024-06-05 09:30:00,1,2,0.5,1.5,10\n"
+            + "2024-06-06T00:00,1,2,0.5,1.5,10\n"
+            + "2024-02-30,1,2,0.5,1.5,10\n"
+            + "2024-6-07,1,2,0.5,1.5,10\n"
+            + " 2024-06-10,1,2,0.5,1.5,10\n"
+            + "2024-06-11,3,4,2.5,3.5,20\n";
+    Stock[] loaded = loadBothWays(rows);
+    assertEquals(loaded[0].getDates(), loaded[1].getDates());
+    assertEquals(Arrays.asList(LocalDate.of(2024, 6, 3), LocalDate.of(2024, 6, 11)),
+            loaded[1].getDates());
+    assertEquals(loaded[0].getClosingPrice(LocalDate.of(2024, 6, 11)),
+            loaded[1].getClosingPrice(LocalDate.of(2024, 6, 11)));
+  }
+
+  /**
+   * Tests to ensure makeStock fails the same way on one thread and in parallel on a row whose
+   * date cannot be read and whose price is not a number.
+   */
+  @Test
+  public void testMalformedPrice() throws IOException {
+    String rows = "timestamp,open,high,low,close,volume\n"
+            + "2024-06-03,1,2,0.5,1.5,10\n"
+            + "2024-06-04x,1,abc,0.5,1.5,10\n";
+    for (long threshold : new long[]{Long.MAX_VALUE, 0}) {
+      try {
+        loadWithThreshold(rows, threshold);
+        fail("A price that is not a number should not load");
+      } catch (NumberFormatException e) {
+        // expected
+      }
+    }
+  }
+
+  /**
+   * Loads the same csv rows with makeStock on one thread and then in parallel.
+   *
+   * @param rows the contents of the csv.
+   * @return the stock parsed on one thread, then the stock parsed in parallel.
+   * @throws IOException if the csv cannot be written or read.
+   */
+  private static Stock[] loadBothWays(String rows) throws IOException {
+    return new Stock[]{loadWithThreshold(rows, Long.MAX_VALUE), loadWithThreshold(rows, 0)};
+  }
+
+  /**
+   * Loads csv rows with makeStock as a test ticker, then removes the csv and the stock.
+   *
+   * @param rows      the contents of the csv.
+   * @param threshold the size from which makeStock parses the csv in parallel.
+   * @return the stock.
+   * @throws IOException if the csv cannot be written or read.
+   */
+  private static Stock loadWithThreshold(String rows, long threshold) throws IOException {
+    File file = new File("StockData/PARSETEST.csv");
+    Files.write(file.toPath(), rows.getBytes());
+    StockBuilder.setParallelThreshold(threshold);
+    try {
+      return makeStock("PARSETEST");
+    } finally {
+      StockBuilder.setParallelThreshold(8L << 20);
+      Utils.getStocks().remove("PARSETEST");
+      file.delete();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the PartitionedPriceStore class and the PartitionedStockImpl class.
+ */
+public class PartitionedPriceStoreTest {
+
+  /**
+   * Tests to ensure opening a stock reads no partitions, and a query only reads the partitions
+   * of the dates it asks about.
+   */
+  @Test
+  public void testPruning() throws IOException {
+    FixedPointStockImpl stock = ParallelCsvParser.parse(new File("StockData/GOOG.csv"))
+            .build("GOOG");
+    File directory = Files.createTempDirectory("parts").toFile();
+    try {
+      PartitionedPriceStore.write(directory, stock);
+      PartitionedStockImpl partitioned = PartitionedPriceStore.open("GOOG", directory);
+      assertEquals(0, partitioned.getLoadedPartitionCount());
+      assertEquals(stock.getTradingDayCount(), partitioned.getTradingDayCount());
+
+      LocalDate date = LocalDate.of(2024, 6, 3);
+      assertEquals(stock.getClosingPrice(date), partitioned.getClosingPrice(date));
+      assertEquals(1, partitioned.getLoadedPartitionCount());
+      int last = stock.getTradingDayCount() - 1;
+      assertEquals(stock.getEpochDayAt(last), partitioned.getEpochDayAt(last));
+      assertTrue(partitioned.getLoadedPartitionCount() <= 2);
+      assertEquals(-1, partitioned.indexOf(-100000));
+      assertEquals(0, partitioned.ceilingIndex(-100000));
+      assertTrue(partitioned.getLoadedPartitionCount() <= 2);
+
+      for (int day = stock.getEpochDayAt(0) - 3; day <= stock.getEpochDayAt(last) + 3; day++) {
+        assertEquals(stock.indexOf(day), partitioned.indexOf(day));
+        assertEquals(stock.ceilingIndex(day), partitioned.ceilingIndex(day));
+      }
+      for (int i = 0; i <= last; i++) {
+        assertEquals(stock.getCloseTicksAt(i), partitioned.getCloseTicksAt(i));
+        assertEquals(stock.getHighAt(i), partitioned.getHighAt(i), 0.0);
+        assertEquals(stock.getVolumeAt(i), partitioned.getVolumeAt(i));
+      }
+    } finally {
+      File[] files = directory.listFiles();
+      for (File file : files == null ? new File[0] : files) {
+        file.delete();
+      }
+      directory.delete();
+    }
+  }
+
+  /**
+   * Tests to ensure makeStock writes the partitions of a stock once and then opens the stock
+   * from them.
+   */
+  @Test
+  public void testMakeStock() throws IOException {
+    File parts = new File("StockData/GOOG.parts");
+    StockBuilder.setPartitioned(true);
+    try {
+      Stock written = makeStock("GOOG");
+      assertTrue(new File(parts, "index").isFile());
+      Stock opened = makeStock("GOOG");
+      assertTrue(opened instanceof PartitionedStockImpl);
+      assertEquals(written.getTradingDayCount(), opened.getTradingDayCount());
+      LocalDate date = LocalDate.of(2024, 6, 3);
+      assertEquals(written.getClosingPrice(date), opened.getClosingPrice(date));
+      Stock bought = opened.increaseShares(date, 3);
+      assertEquals(3.0, bought.getNumShares(), 0.0);
+      assertEquals(written.getClosingPrice(date), bought.getClosingPrice(date));
+    } finally {
+      StockBuilder.setPartitioned(false);
+      File[] files = parts.listFiles();
+      for (File file : files == null ? new File[0] : files) {
+        file.delete();
+      }
+      parts.delete();
+    }
+  }
+}
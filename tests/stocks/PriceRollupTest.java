@@ -0,0 +1,77 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This class tests the PriceRollup class.
+ */
+public class PriceRollupTest {
+
+  /**
+   * Tests to ensure every weekly bar starts on a Monday and rolls up exactly the trading days
+   * of its week.
+   */
+  @Test
+  public void testWeekly() throws IOException {
+    FixedPointStockImpl stock = ParallelCsvParser.parse(new File("StockData/GOOG.csv"))
+            .build("GOOG");
+    PriceRollup weeks = PriceRollup.of(stock, PriceRollup.Resolution.WEEKLY);
+    int day = 0;
+    for (int week = 0; week < weeks.size(); week++) {
+      assertEquals(DayOfWeek.MONDAY, weeks.getPeriodStartAt(week).getDayOfWeek());
+      long high = Long.MIN_VALUE;
+      long low = Long.MAX_VALUE;
+      long volume = 0;
+      int first = day;
+      while (day < stock.getTradingDayCount()
+              && weeks.indexOf(stock.getEpochDayAt(day)) == week) {
+        high = Math.max(high, FixedPoint.fromDouble(stock.getHighAt(day)));
+        low = Math.min(low, FixedPoint.fromDouble(stock.getLowAt(day)));
+        volume += stock.getVolumeAt(day);
+        day++;
+      }
+      assertEquals(day - first, weeks.getTradingDayCountAt(week));
+      assertEquals(stock.getOpenAt(first), weeks.getOpenAt(week), 0.0);
+      assertEquals(stock.getCloseTicksAt(day - 1), weeks.getCloseTicksAt(week));
+      assertEquals(FixedPoint.toDouble(high), weeks.getHighAt(week), 0.0);
+      assertEquals(FixedPoint.toDouble(low), weeks.getLowAt(week), 0.0);
+      assertEquals(volume, weeks.getVolumeAt(week));
+    }
+    assertEquals(stock.getTradingDayCount(), day);
+  }
+
+  /**
+   * Tests to ensure a rollup advanced with only the new days matches one rolled up from the
+   * whole history.
+   */
+  @Test
+  public void testIncremental() throws IOException {
+    FixedPointStockImpl stock = ParallelCsvParser.parse(new File("StockData/GOOG.csv"))
+            .build("GOOG");
+    PriceRollup whole = PriceRollup.of(stock, PriceRollup.Resolution.MONTHLY);
+    PriceRollup advanced = new PriceRollup(PriceRollup.Resolution.MONTHLY);
+    for (int i = 0; i < stock.getTradingDayCount() - 40; i++) {
+      advanced.append(stock.getEpochDayAt(i), FixedPoint.fromDouble(stock.getOpenAt(i)),
+              FixedPoint.fromDouble(stock.getHighAt(i)), FixedPoint.fromDouble(stock.getLowAt(i)),
+              stock.getCloseTicksAt(i), stock.getVolumeAt(i));
+    }
+    advanced.appendFrom(stock);
+    assertEquals(whole.size(), advanced.size());
+    for (int i = 0; i < whole.size(); i++) {
+      assertEquals(whole.getLastDayAt(i), advanced.getLastDayAt(i));
+      assertEquals(whole.getHighAt(i), advanced.getHighAt(i), 0.0);
+      assertEquals(whole.getCloseTicksAt(i), advanced.getCloseTicksAt(i));
+      assertEquals(whole.getVolumeAt(i), advanced.getVolumeAt(i));
+    }
+    PriceRollup years = PriceRollup.of(stock, PriceRollup.Resolution.YEARLY);
+    int last = years.indexOf((int) LocalDate.of(2024, 3, 15).toEpochDay());
+    assertEquals(LocalDate.of(2024, 1, 1), years.getPeriodStartAt(last));
+  }
+}
@@ -0,0 +1,71 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the RangeMinMax class and the PriceRangeIndex class.
+ */
+public class RangeMinMaxTest {
+
+  /**
+   * Tests to ensure every range of a series, within a block, across blocks and empty, has the
+   * same minimum and maximum as walking it.
+   */
+  @Test
+  public void testEveryRange() {
+    Random random = new Random(42);
+    double[] values = new double[3 * RangeMinMax.BLOCK_SIZE + 7];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(1000) - 500;
+    }
+    RangeMinMax index = new RangeMinMax(values);
+    for (int from = 0; from <= values.length; from++) {
+      double min = Double.POSITIVE_INFINITY;
+      double max = Double.NEGATIVE_INFINITY;
+      assertEquals(min, index.min(from, from), 0.0);
+      for (int to = from + 1; to <= values.length; to++) {
+        min = Math.min(min, values[to - 1]);
+        max = Math.max(max, values[to - 1]);
+        assertEquals(min, index.min(from, to), 0.0);
+        assertEquals(max, index.max(from, to), 0.0);
+      }
+    }
+  }
+
+  /**
+   * Tests to ensure the 52-week high and low of a stock match walking its prices, and a range
+   * without trading days has none.
+   */
+  @Test
+  public void testFiftyTwoWeeks() throws IOException {
+    try {
+      Stock stock = makeStock("GOOG");
+      LocalDate to = LocalDate.of(2024, 6, 3);
+      LocalDate from = to.minusWeeks(52);
+      double high = Double.NEGATIVE_INFINITY;
+      double low = Double.POSITIVE_INFINITY;
+      for (LocalDate date : stock.getDates()) {
+        if (!date.isBefore(from) && !date.isAfter(to)) {
+          high = Math.max(high, stock.getHighPrice(date));
+          low = Math.min(low, stock.getLowPrice(date));
+        }
+      }
+      PriceRangeIndex ranges = Utils.getPriceRanges("GOOG");
+      assertEquals(high, ranges.getHighestHigh(from, to), 0.0);
+      assertEquals(low, ranges.getLowestLow(from, to), 0.0);
+      LocalDate saturday = LocalDate.of(2024, 6, 1);
+      assertNull(ranges.getHighestHigh(saturday, saturday.plusDays(1)));
+      assertNull(ranges.getLowestLow(saturday, saturday.plusDays(1)));
+    } finally {
+      Utils.getStocks().remove("GOOG");
+    }
+  }
+}
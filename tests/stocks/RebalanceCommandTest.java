@@ -0,0 +1,132 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the rebalance-portfolio and rebalance-schedule commands on a portfolio that
+ * has sold shares since it bought them.
+ */
+public class RebalanceCommandTest {
+  private static final LocalDate BOUGHT = LocalDate.of(2024, 5, 1); // date both stocks bought
+  private static final LocalDate SOLD = LocalDate.of(2024, 5, 15); // date GOOG was partly sold
+
+  /**
+   * Tests to ensure a rebalance before a later sale is refused, and a rebalance on the day of
+   * the sale values each stock at the shares held after it and records the new shares.
+   */
+  @Test
+  public void testRebalancePortfolio() throws IOException {
+    Utils.getStocks().clear();
+    try {
+      double total = value(makePortfolio(), SOLD);
+      String out = run("rebalance-portfolio rb 2024-05-10 2024-05-15 50 50 quit");
+      assertTrue(out.contains("Cannot alter past transactions"));
+      assertTrue(out.contains("Portfolio rb readjusted."));
+
+      for (Stock stock : Utils.getPortfolios().get("rb").getListOfStocks().values()) {
+        assertEquals(total / 2, value(stock, SOLD), 1e-6);
+        assertEquals(stock.getSharesAtDate(SOLD), stock.getNumShares(), 1e-9);
+      }
+      Stock goog = Utils.getPortfolios().get("rb").getListOfStocks().get("GOOG");
+      assertEquals(10, goog.getSharesAtDate(SOLD.minusDays(1)), 1e-9);
+    } finally {
+      Utils.getPortfolios().remove("rb");
+      Utils.getStocks().clear();
+    }
+  }
+
+  /**
+   * Tests to ensure scheduled trades starting before a later sale are not applied, and trades
+   * starting on the day of the sale are recorded in the portfolio so that it ends up worth
+   * what the simulation did.
+   */
+  @Test
+  public void testRebalanceSchedule() throws IOException {
+    Utils.getStocks().clear();
+    try {
+      Portfolio portfolio = makePortfolio();
+      LocalDate end = LocalDate.of(2024, 6, 6);
+      double held = value(portfolio, end);
+      String refused = run("rebalance-schedule rb 2024-05-10 2024-06-06 equal monthly quit");
+      assertTrue(refused.contains("These trades cannot be applied"));
+      assertEquals(held, value(Utils.getPortfolios().get("rb"), end), 0.0);
+
+      Backtest.Result expected = new Backtest.Builder().portfolio(portfolio).dates(SOLD, end)
+              .build().run(Strategies.rebalance("monthly", new double[]{0.5, 0.5}));
+      assertTrue(expected.getTradeCount() > 0);
+      String applied = run("rebalance-schedule rb 2024-05-15 2024-06-06 equal monthly yes quit");
+      assertTrue(applied.contains("Portfolio rb readjusted."));
+      assertEquals(expected.getFinalValue(), value(Utils.getPortfolios().get("rb"), end), 1e-6);
+      for (Stock stock : Utils.getPortfolios().get("rb").getListOfStocks().values()) {
+        assertEquals(stock.getSharesAtDate(end), stock.getNumShares(), 1e-9);
+        assertEquals(10, stock.getSharesAtDate(SOLD.minusDays(1)), 1e-9);
+      }
+    } finally {
+      Utils.getPortfolios().remove("rb");
+      Utils.getStocks().clear();
+    }
+  }
+
+  /**
+   * Makes the portfolio rb, which bought 10 shares each of GOOG and MSFT and then sold 4 shares
+   * of GOOG.
+   *
+   * @return the portfolio.
+   * @throws IOException if the stocks cannot be loaded.
+   */
+  private static Portfolio makePortfolio() throws IOException {
+    Stock goog = makeStock("GOOG").increaseShares(BOUGHT, 10).decreaseShares(SOLD, 4);
+    Stock msft = makeStock("MSFT").increaseShares(BOUGHT, 10);
+    Portfolio portfolio = new PortfolioImpl.PortfolioImplBuilder().addStock(goog)
+            .addStock(msft).build();
+    Utils.getPortfolios().put("rb", portfolio);
+    return portfolio;
+  }
+
+  /**
+   * Runs the controller over some input.
+   *
+   * @param input the input.
+   * @return everything the controller wrote.
+   * @throws IOException if the controller fails to read the input.
+   */
+  private static String run(String input) throws IOException {
+    StringBuilder out = new StringBuilder();
+    new StockControllerImpl(new StringReader(input), new ViewImpl(new MockModel(out))).control();
+    return out.toString();
+  }
+
+  /**
+   * Values a stock at its closing price on a date.
+   *
+   * @param stock the stock.
+   * @param date  the date.
+   * @return the shares held on the date times the closing price.
+   */
+  private static double value(Stock stock, LocalDate date) {
+    return stock.getSharesAtDate(date) * stock.getClosingPrice(date);
+  }
+
+  /**
+   * Values a portfolio at the closing prices on a date.
+   *
+   * @param portfolio the portfolio.
+   * @param date      the date.
+   * @return the total value of its stocks.
+   */
+  private static double value(Portfolio portfolio, LocalDate date) {
+    double total = 0;
+    for (Stock stock : portfolio.getListOfStocks().values()) {
+      total += value(stock, date);
+    }
+    return total;
+  }
+}
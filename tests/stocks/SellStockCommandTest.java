@@ -0,0 +1,58 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the sell-stock command.
+ */
+public class SellStockCommandTest {
+
+  /**
+   * Tests to ensure selling part of a holding stores the reduced shares in the portfolio, and
+   * selling the rest of it removes the stock.
+   */
+  @Test
+  public void testPartialSale() throws IOException {
+    Utils.getStocks().clear();
+    try {
+      Stock goog = makeStock("GOOG").increaseShares(LocalDate.of(2024, 5, 1), 10);
+      Utils.getPortfolios().put("sell", new PortfolioImpl.PortfolioImplBuilder().addStock(goog)
+              .build());
+      String out = run("sell-stock sell goog 2024-05-15 4 quit");
+      assertTrue(out.contains("Removed 4.0 shares of GOOG from portfolio sell"));
+      Stock held = Utils.getPortfolios().get("sell").getListOfStocks().get("GOOG");
+      assertEquals(6, held.getNumShares(), 1e-9);
+      assertEquals(6, held.getSharesAtDate(LocalDate.of(2024, 5, 15)), 1e-9);
+      assertEquals(10, held.getSharesAtDate(LocalDate.of(2024, 5, 14)), 1e-9);
+
+      out = run("sell-stock sell GOOG 2024-05-16 6 quit");
+      assertTrue(out.contains("Sold entire share, removing from portfolio."));
+      assertNull(Utils.getPortfolios().get("sell").getListOfStocks().get("GOOG"));
+    } finally {
+      Utils.getPortfolios().remove("sell");
+      Utils.getStocks().clear();
+    }
+  }
+
+  /**
+   * Runs the controller over some input.
+   *
+   * @param input the input.
+   * @return everything the controller wrote.
+   * @throws IOException if the controller fails to read the input.
+   */
+  private static String run(String input) throws IOException {
+    StringBuilder out = new StringBuilder();
+    new StockControllerImpl(new StringReader(input), new ViewImpl(new MockModel(out))).control();
+    return out.toString();
+  }
+}
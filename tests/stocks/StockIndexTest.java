@@ -0,0 +1,172 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * This class tests the primitive trading-day accessors of Stock on a StockImpl against its
+ * LocalDate getters.
+ */
+public class StockIndexTest {
+
+  /**
+   * Loads GOOG into a StockImpl.
+   *
+   * @return the stock.
+   * @throws IOException if the csv cannot be read.
+   */
+  private static Stock load() throws IOException {
+    Stock stock = StockBuilder.makeStock("GOOG");
+    assertEquals(StockImpl.class, stock.getClass());
+    return stock;
+  }
+
+  /**
+   * Tests to ensure every calendar day, including weekends and days before and after the data,
+   * is found by indexOf and ceilingIndex where getDates() has it, and that the getters by epoch
+   * day agree with the LocalDate getters.
+   */
+  @Test
+  public void testMatchesDateGetters() throws IOException {
+    Stock stock = load();
+    List<LocalDate> dates = stock.getDates();
+    assertEquals(dates.size(), stock.getTradingDayCount());
+    LocalDate first = dates.get(0);
+    LocalDate last = dates.get(dates.size() - 1);
+    int index = 0;
+    for (LocalDate date = first.minusDays(10); !date.isAfter(last.plusDays(10));
+         date = date.plusDays(1)) {
+      int day = (int) date.toEpochDay();
+      while (index < dates.size() && dates.get(index).isBefore(date)) {
+        index++;
+      }
+      boolean trading = index < dates.size() && dates.get(index).equals(date);
+      assertEquals(index, stock.ceilingIndex(day));
+      assertEquals(trading ? index : -1, stock.indexOf(day));
+      if (trading) {
+        assertEquals(day, stock.getEpochDayAt(index));
+        assertEquals(stock.getOpeningPrice(date), stock.getOpenAt(index), 0.0);
+        assertEquals(stock.getHighPrice(date), stock.getHighAt(index), 0.0);
+        assertEquals(stock.getLowPrice(date), stock.getLowAt(index), 0.0);
+        assertEquals(stock.getClosingPrice(date), stock.getCloseAt(index), 0.0);
+        assertEquals((long) stock.getVolume(date), stock.getVolumeAt(index));
+        assertEquals(stock.getOpeningPrice(date), stock.getOpeningPrice(day), 0.0);
+        assertEquals(stock.getHighPrice(date), stock.getHighPrice(day), 0.0);
+        assertEquals(stock.getLowPrice(date), stock.getLowPrice(day), 0.0);
+        assertEquals(stock.getClosingPrice(date), stock.getClosingPrice(day), 0.0);
+        assertEquals((long) stock.getVolume(date), stock.getVolume(day));
+        assertEquals(FixedPoint.fromDouble(stock.getClosingPrice(date)),
+                stock.getClosingPriceTicks(day));
+      } else {
+        assertTrue(Double.isNaN(stock.getOpeningPrice(day)));
+        assertTrue(Double.isNaN(stock.getHighPrice(day)));
+        assertTrue(Double.isNaN(stock.getLowPrice(day)));
+        assertTrue(Double.isNaN(stock.getClosingPrice(day)));
+        assertEquals(-1, stock.getVolume(day));
+        assertEquals(FixedPoint.MISSING, stock.getClosingPriceTicks(day));
+      }
+    }
+  }
+
+  /**
+   * Tests to ensure the range copies copy the same values as the index getters, into any
+   * position of the array.
+   */
+  @Test
+  public void testCopies() throws IOException {
+    Stock stock = load();
+    int from = 100;
+    int to = 400;
+    int offset = 7;
+    int[] days = new int[to - from + offset];
+    double[] opens = new double[days.length];
+    double[] highs = new double[days.length];
+    double[] lows = new double[days.length];
+    double[] closes = new double[days.length];
+    long[] volumes = new long[days.length];
+    long[] ticks = new long[days.length];
+    stock.copyEpochDays(from, to, days, offset);
+    stock.copyOpens(from, to, opens, offset);
+    stock.copyHighs(from, to, highs, offset);
+    stock.copyLows(from, to, lows, offset);
+    stock.copyCloses(from, to, closes, offset);
+    stock.copyVolumes(from, to, volumes, offset);
+    stock.copyCloseTicks(from, to, ticks, offset);
+    for (int i = 0; i < offset; i++) {
+      assertEquals(0, days[i]);
+      assertEquals(0, closes[i], 0.0);
+    }
+    for (int i = from; i < to; i++) {
+      int pos = i - from + offset;
+      assertEquals(stock.getEpochDayAt(i), days[pos]);
+      assertEquals(stock.getOpenAt(i), opens[pos], 0.0);
+      assertEquals(stock.getHighAt(i), highs[pos], 0.0);
+      assertEquals(stock.getLowAt(i), lows[pos], 0.0);
+      assertEquals(stock.getCloseAt(i), closes[pos], 0.0);
+      assertEquals(stock.getVolumeAt(i), volumes[pos]);
+      assertEquals(stock.getCloseTicksAt(i), ticks[pos]);
+    }
+    // an empty range copies nothing, even at the end of the array
+    stock.copyCloses(to, to, closes, closes.length);
+  }
+
+  /**
+   * Tests to ensure ranges outside the trading days or the array are rejected before anything
+   * is copied, and that indexes outside the trading days are rejected by the index getters.
+   */
+  @Test
+  public void testOutOfRange() throws IOException {
+    Stock stock = load();
+    int count = stock.getTradingDayCount();
+    int[][] ranges = {{-1, 5, 0}, {0, count + 1, 0}, {6, 5, 0}, {0, 10, -1}, {0, 10, 95},
+        {count - 5, count, 96}};
+    for (int[] range : ranges) {
+      double[] dest = new double[100];
+      try {
+        stock.copyCloses(range[0], range[1], dest, range[2]);
+        fail("Copied trading days " + range[0] + " to " + range[1] + " to " + range[2]);
+      } catch (IndexOutOfBoundsException e) {
+        for (double value : dest) {
+          assertEquals(0, value, 0.0);
+        }
+      }
+      try {
+        stock.copyCloseTicks(range[0], range[1], new long[100], range[2]);
+        fail("Copied ticks " + range[0] + " to " + range[1] + " to " + range[2]);
+      } catch (IndexOutOfBoundsException e) {
+        // expected
+      }
+      try {
+        stock.copyEpochDays(range[0], range[1], new int[100], range[2]);
+        fail("Copied days " + range[0] + " to " + range[1] + " to " + range[2]);
+      } catch (IndexOutOfBoundsException e) {
+        // expected
+      }
+    }
+    for (int index : new int[]{-1, count}) {
+      try {
+        stock.getCloseAt(index);
+        fail("Read trading day " + index);
+      } catch (IndexOutOfBoundsException e) {
+        // expected
+      }
+      try {
+        stock.getEpochDayAt(index);
+        fail("Read trading day " + index);
+      } catch (IndexOutOfBoundsException e) {
+        // expected
+      }
+    }
+    assertEquals(-1, stock.indexOf(Integer.MIN_VALUE));
+    assertEquals(0, stock.ceilingIndex(Integer.MIN_VALUE));
+    assertEquals(-1, stock.indexOf(Integer.MAX_VALUE));
+    assertEquals(count, stock.ceilingIndex(Integer.MAX_VALUE));
+  }
+}
@@ -243,6 +243,8 @@ public class StockInputTest {
             + "Enter start date (yyyy-MM-dd):\n"
             + "Enter end date (yyyy-MM-dd):\n"
             + "Stock gained value: 3.6200000000000045\n"
+            + "Highest price: 173.47\n"
+            + "Lowest price: 164.98\n"
             + "Returning to main menu.\n"
             + "Thank you for using this stock program! Happy gambling!", appendable.toString());
   }
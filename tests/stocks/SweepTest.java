@@ -0,0 +1,64 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the Sweep class.
+ */
+public class SweepTest {
+
+  /**
+   * Tests to ensure a parallel sweep gives each strategy the same result as running it alone,
+   * ranked from the highest final value to the lowest.
+   */
+  @Test
+  public void testMatchesSequential() throws IOException {
+    Backtest backtest = new Backtest.Builder()
+            .stock(ParallelCsvParser.parse(new File("StockData/MSFT.csv")).build("MSFT"))
+            .stock(ParallelCsvParser.parse(new File("StockData/AMZN.csv")).build("AMZN"))
+            .cash(10000).dates(LocalDate.of(2005, 1, 1), LocalDate.of(2024, 6, 6)).build();
+    Map<String, Strategy> strategies = Sweep.crossovers(new int[]{10, 20, 50},
+            new int[]{20, 100, 200});
+    strategies.putAll(Sweep.rebalances(new double[]{0.5, 0.5}));
+    assertEquals(7 + PriceRollup.Resolution.values().length, strategies.size());
+    List<Sweep.Row> rows = Sweep.run(backtest, strategies, new ForkJoinPool(4));
+    assertEquals(strategies.size(), rows.size());
+    for (int i = 0; i < rows.size(); i++) {
+      Sweep.Row row = rows.get(i);
+      Backtest.Result alone = backtest.run(strategies.get(row.getName()));
+      assertEquals(alone.getFinalValue(), row.getFinalValue(), 0.0);
+      assertEquals(alone.getTradeCount(), row.getTradeCount());
+      if (i > 0) {
+        assertTrue(rows.get(i - 1).getFinalValue() >= row.getFinalValue());
+      }
+    }
+  }
+
+  /**
+   * Tests to ensure sweeps are parsed from their specification.
+   */
+  @Test
+  public void testParse() {
+    assertEquals("[cross:20:100, cross:20:200, cross:50:100, cross:50:200]",
+            Sweep.parse("cross:20/50:100/200", 2).keySet().toString());
+    assertEquals(PriceRollup.Resolution.values().length, Sweep.parse("rebalance", 3).size());
+  }
+
+  /**
+   * Tests to ensure a sweep with no valid pair of windows is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalid() {
+    Sweep.parse("cross:200:50", 1);
+  }
+}
@@ -0,0 +1,80 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class tests the SymbolTable class, which knows every valid ticker.
+ */
+public class SymbolTableTest {
+
+  /**
+   * Tests to ensure lookups ignore case and give every ticker a single id.
+   */
+  @Test
+  public void testLookup() {
+    assertTrue(SymbolTable.isValidTicker("GOOG"));
+    assertTrue(SymbolTable.isValidTicker("goog"));
+    assertFalse(SymbolTable.isValidTicker("no"));
+    assertFalse(SymbolTable.isValidTicker(null));
+    int id = SymbolTable.getId("GOOG");
+    assertEquals(id, SymbolTable.getId("gOoG"));
+    assertEquals("GOOG", SymbolTable.getSymbol(id));
+    assertEquals("GOOG", SymbolTable.canonical("goog"));
+    assertEquals(-1, SymbolTable.getId("no"));
+  }
+
+  /**
+   * Tests to ensure interning a ticker twice keeps its first id and spelling.
+   */
+  @Test
+  public void testIntern() {
+    int id = SymbolTable.intern("TestSym");
+    assertEquals(id, SymbolTable.intern("TESTSYM"));
+    assertEquals("TestSym", SymbolTable.canonical("testsym"));
+  }
+
+  /**
+   * Tests to ensure stock csv files in a directory become tickers, but files that are not stock
+   * data do not.
+   */
+  @Test
+  public void testLoadDirectory() throws IOException {
+    File directory = Files.createTempDirectory("symbols").toFile();
+    File stock = new File(directory, "TMPQ.csv");
+    File other = new File(directory, "notes.txt");
+    Files.write(stock.toPath(), "timestamp,open,high,low,close,volume\n".getBytes());
+    Files.write(other.toPath(), "timestamp\n".getBytes());
+    try {
+      assertEquals(1, SymbolTable.loadDirectory(directory.getPath()));
+      assertTrue(SymbolTable.isValidTicker("tmpq"));
+      assertFalse(SymbolTable.loadFile(new File("StockData/wrong.csv")));
+      assertFalse(SymbolTable.isValidTicker("wrong"));
+    } finally {
+      stock.delete();
+      other.delete();
+      directory.delete();
+    }
+  }
+
+  /**
+   * Tests to ensure a prefix search finds the matching tickers in order, up to the limit.
+   */
+  @Test
+  public void testSearch() {
+    SymbolTable.intern("ZZQA");
+    SymbolTable.intern("ZZQC");
+    SymbolTable.intern("zzqb");
+    assertEquals(Arrays.asList("ZZQA", "zzqb", "ZZQC"), SymbolTable.search("zzq", 10));
+    assertEquals(Arrays.asList("ZZQA", "zzqb"), SymbolTable.search("ZZQ", 2));
+    assertTrue(SymbolTable.search("ZZQX", 10).isEmpty());
+  }
+}
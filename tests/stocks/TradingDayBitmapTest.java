@@ -0,0 +1,123 @@
+package stocks;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static stocks.StockBuilder.makeStock;
+
+/**
+ * This class tests the TradingDayBitmap class and the portfolio-wide date checks built on it.
+ */
+public class TradingDayBitmapTest {
+
+  /**
+   * Tests to ensure days are found across word boundaries and negative epoch days, and that
+   * intersecting keeps only the days both bitmaps have.
+   */
+  @Test
+  public void testBits() {
+    TradingDayBitmap first = TradingDayBitmap.of(new int[]{-70, -1, 0, 63, 64, 200});
+    TradingDayBitmap second = TradingDayBitmap.of(new int[]{-1, 63, 100, 200, 300});
+    assertEquals(6, first.cardinality());
+    assertTrue(first.contains(-70));
+    assertTrue(first.contains(64));
+    assertFalse(first.contains(65));
+    assertFalse(first.contains(-71));
+    assertFalse(first.contains(100000));
+    assertEquals(63, first.nextDay(1));
+    assertEquals(-70, first.nextDay(Integer.MIN_VALUE));
+    assertEquals(200, first.nextDay(65));
+    assertEquals(TradingDayBitmap.NONE, first.nextDay(201));
+
+    TradingDayBitmap common = first.and(second);
+    assertEquals(3, common.cardinality());
+    assertTrue(common.contains(-1));
+    assertTrue(common.contains(63));
+    assertTrue(common.contains(200));
+    assertFalse(common.contains(0));
+    assertEquals(200, common.nextDay(64));
+    assertEquals(0, first.and(TradingDayBitmap.of(new int[]{5000})).cardinality());
+  }
+
+  /**
+   * Tests to ensure the bitmap of a stock has exactly its dates, and a portfolio agrees with
+   * checking each of its stocks one at a time.
+   */
+  @Test
+  public void testPortfolio() throws IOException {
+    Utils.getStocks().clear();
+    try {
+      LocalDate bought = LocalDate.of(2024, 5, 1);
+      Stock goog = makeStock("GOOG").increaseShares(bought, 1);
+      Stock msft = makeStock("MSFT").increaseShares(bought, 1);
+      TradingDayBitmap days = Utils.getTradingDays("GOOG");
+      assertEquals(goog.getTradingDayCount(), days.cardinality());
+
+      Portfolio portfolio = new PortfolioImpl.PortfolioImplBuilder().addStock(goog)
+              .addStock(msft).build();
+      LocalDate date = LocalDate.of(2024, 5, 25);
+      for (int i = 0; i < 30; i++) {
+        assertEquals(Utils.isValidDate(date, "GOOG") && Utils.isValidDate(date, "MSFT"),
+                portfolio.isValidDateForAll(date));
+        date = date.plusDays(1);
+      }
+      assertEquals(LocalDate.of(2024, 5, 28),
+              portfolio.nextValidDateForAll(LocalDate.of(2024, 5, 25)));
+      assertNull(portfolio.nextValidDateForAll(LocalDate.of(2999, 1, 1)));
+      assertTrue(new PortfolioImpl().isValidDateForAll(date));
+    } finally {
+      Utils.getStocks().clear();
+    }
+  }
+
+  /**
+   * Tests to ensure the trading days a portfolio has in common are reused without looking up
+   * any stock while nothing changes, and intersected again when a stock is added, removed or
+   * loaded again.
+   */
+  @Test
+  public void testPortfolioChanges() throws IOException {
+    Utils.getStocks().clear();
+    File csv = new File("StockData/BITMAPTEST.csv");
+    try {
+      LocalDate bought = LocalDate.of(2024, 5, 1);
+      LocalDate weekend = LocalDate.of(2024, 5, 25);
+      Stock goog = makeStock("GOOG").increaseShares(bought, 1);
+      Portfolio portfolio = new PortfolioImpl.PortfolioImplBuilder().addStock(goog).build();
+      assertEquals(LocalDate.of(2024, 5, 28), portfolio.nextValidDateForAll(weekend));
+      MetricCounter hits = MetricsRegistry.counter("cache.tradingdays.hits");
+      MetricCounter misses = MetricsRegistry.counter("cache.tradingdays.misses");
+      long lookups = hits.getCount() + misses.getCount();
+      for (int i = 0; i < 100; i++) {
+        assertFalse(portfolio.isValidDateForAll(weekend));
+      }
+      assertEquals(lookups, hits.getCount() + misses.getCount());
+
+      Files.write(csv.toPath(), ("timestamp,open,high,low,close,volume\n"
+              + "2024-05-29,1,1,1,1,100\n2024-05-24,1,1,1,1,100\n").getBytes());
+      Stock other = makeStock("BITMAPTEST").increaseShares(bought, 1);
+      portfolio = portfolio.addStockAfterCreation(other);
+      assertEquals(LocalDate.of(2024, 5, 29), portfolio.nextValidDateForAll(weekend));
+
+      Files.write(csv.toPath(), ("timestamp,open,high,low,close,volume\n"
+              + "2024-05-30,1,1,1,1,100\n2024-05-24,1,1,1,1,100\n").getBytes());
+      makeStock("BITMAPTEST");
+      assertEquals(LocalDate.of(2024, 5, 30), portfolio.nextValidDateForAll(weekend));
+      assertFalse(portfolio.isValidDateForAll(LocalDate.of(2024, 5, 29)));
+
+      portfolio = portfolio.removeStockAfterCreation(other);
+      assertEquals(LocalDate.of(2024, 5, 28), portfolio.nextValidDateForAll(weekend));
+    } finally {
+      csv.delete();
+      Utils.getStocks().clear();
+    }
+  }
+}